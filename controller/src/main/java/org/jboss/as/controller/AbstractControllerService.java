@@ -101,6 +101,8 @@ public abstract class AbstractControllerService implements Service<ModelControll
     private final InjectedValue<ExecutorService> injectedExecutorService = new InjectedValue<ExecutorService>();
     private volatile ModelControllerImpl controller;
     private ConfigurationPersister configurationPersister;
+    private final BootProfile bootProfile = new BootProfile();
+    private final OperationStatistics operationStatistics = new OperationStatistics();
 
     /**
      * Construct a new instance.
@@ -147,10 +149,11 @@ public abstract class AbstractControllerService implements Service<ModelControll
                 ManagementResourceRegistration.Factory.create(rootDescriptionProvider),
                 new ContainerStateMonitor(container, serviceController),
                 configurationPersister, controllerType, prepareStep,
-                processState, executorService);
+                processState, executorService, bootProfile, operationStatistics);
         initModel(controller.getRootResource(), controller.getRootRegistration());
         this.controller = controller;
 
+        bootProfile.reset();
         final long bootStackSize = getBootStackSize();
         final Thread bootThread = new Thread(null, new Runnable() {
             public void run() {
@@ -203,6 +206,8 @@ public abstract class AbstractControllerService implements Service<ModelControll
 
     public void stop(final StopContext context) {
         controller = null;
+        // write out any changes the persister is still holding back
+        configurationPersister.flush();
     }
 
     public ModelController getValue() throws IllegalStateException, IllegalArgumentException {
@@ -217,6 +222,24 @@ public abstract class AbstractControllerService implements Service<ModelControll
         return injectedExecutorService;
     }
 
+    /**
+     * Get the record of the time spent running the subsystem boot operations of the last boot.
+     *
+     * @return the boot profile
+     */
+    protected BootProfile getBootProfile() {
+        return bootProfile;
+    }
+
+    /**
+     * Get the latency statistics of the operations executed by the controller.
+     *
+     * @return the operation statistics
+     */
+    protected OperationStatistics getOperationStatistics() {
+        return operationStatistics;
+    }
+
     protected void setConfigurationPersister(final ConfigurationPersister persister) {
         this.configurationPersister = persister;
     }
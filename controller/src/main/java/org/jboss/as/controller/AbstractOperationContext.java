@@ -185,6 +185,11 @@ abstract class AbstractOperationContext implements OperationContext {
             throw MESSAGES.operationAlreadyComplete();
         }
 
+        // The active step's own work ends here; what follows is the work of the steps after it
+        if (activeStep != null) {
+            recordStepTime(activeStep);
+        }
+
         // If previous steps have put us in a state where we shouldn't do any more, just stop
         if (!canContinueProcessing()) {
             respectInterruption = false;
@@ -286,6 +291,13 @@ abstract class AbstractOperationContext implements OperationContext {
     }
 
     abstract void awaitModelControllerContainerMonitor() throws InterruptedException;
+
+    /**
+     * Get the statistics to record the time taken by steps in, if any.
+     *
+     * @return the statistics, or {@code null} if this context does not record any
+     */
+    abstract OperationStatistics getOperationStatistics();
     abstract ConfigurationPersister.PersistenceResource createPersistenceResource() throws ConfigurationPersistenceException;
 
     private boolean canContinueProcessing() {
@@ -322,11 +334,17 @@ abstract class AbstractOperationContext implements OperationContext {
 
         try {
             try {
+                final OperationStatistics statistics = getOperationStatistics();
+                if (statistics != null && statistics.isEnabled()) {
+                    step.timed = true;
+                    step.started = System.nanoTime();
+                }
                 ClassLoader oldTccl = SecurityActions.setThreadContextClassLoader(step.handler.getClass());
                 try {
                     step.handler.execute(this, step.operation);
                 } finally {
                     SecurityActions.setThreadContextClassLoader(oldTccl);
+                    recordStepTime(step);
                 }
 
             } catch (OperationFailedException ofe) {
@@ -392,6 +410,13 @@ abstract class AbstractOperationContext implements OperationContext {
         }
     }
 
+    private void recordStepTime(final Step step) {
+        if (step.timed) {
+            step.timed = false;
+            getOperationStatistics().recordStep(step.handler, System.nanoTime() - step.started);
+        }
+    }
+
     /**
      * Decide whether failure should trigger a rollback.
      *
@@ -503,6 +528,8 @@ abstract class AbstractOperationContext implements OperationContext {
         private Object restartStamp;
         private RollbackHandler rollbackHandler;
         Step predecessor;
+        private boolean timed;
+        private long started;
 
         private Step(final OperationStepHandler handler, final ModelNode response, final ModelNode operation, final PathAddress address) {
             this.handler = handler;
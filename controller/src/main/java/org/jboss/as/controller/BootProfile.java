@@ -0,0 +1,134 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Record of where the time went while a controller ran its boot operations: the wall-clock time of the MODEL and
+ * RUNTIME stages of the subsystem boot operations, and how long each subsystem took in each stage.
+ * <p>
+ * The RUNTIME stage time of a subsystem covers executing its boot operations, including installing their services,
+ * but not the asynchronous start of those services.
+ */
+public final class BootProfile {
+
+    public static final String MODEL_STAGE_TIME = "model-stage-time";
+    public static final String OPERATIONS = "operations";
+    public static final String RUNTIME_STAGE_TIME = "runtime-stage-time";
+    public static final String SUBSYSTEMS = "subsystems";
+
+    private final Map<OperationContext.Stage, Long> stageTimes = new LinkedHashMap<OperationContext.Stage, Long>();
+    private final Map<String, SubsystemTimes> subsystems = new LinkedHashMap<String, SubsystemTimes>();
+
+    /**
+     * Discard what was recorded for a previous boot.
+     */
+    synchronized void reset() {
+        stageTimes.clear();
+        subsystems.clear();
+    }
+
+    /**
+     * Record the wall-clock time of one stage of the subsystem boot operations.
+     *
+     * @param stage the stage
+     * @param millis the time, in milliseconds
+     */
+    synchronized void recordStage(final OperationContext.Stage stage, final long millis) {
+        stageTimes.put(stage, millis);
+    }
+
+    /**
+     * Record the time one subsystem took to execute its boot operations in one stage.
+     *
+     * @param subsystem the subsystem name
+     * @param stage the stage
+     * @param operations the number of boot operations executed
+     * @param millis the time, in milliseconds
+     */
+    synchronized void recordSubsystem(final String subsystem, final OperationContext.Stage stage, final int operations, final long millis) {
+        SubsystemTimes times = subsystems.get(subsystem);
+        if (times == null) {
+            times = new SubsystemTimes(subsystem);
+            subsystems.put(subsystem, times);
+        }
+        if (stage == OperationContext.Stage.MODEL) {
+            times.modelTime = millis;
+            times.operations = operations;
+        } else {
+            times.runtimeTime += millis;
+        }
+    }
+
+    /**
+     * Get the profile of the last boot. Subsystems are listed slowest first.
+     *
+     * @return the profile
+     */
+    public synchronized ModelNode toModelNode() {
+        final ModelNode result = new ModelNode();
+        result.get(MODEL_STAGE_TIME).set(getStageTime(OperationContext.Stage.MODEL));
+        result.get(RUNTIME_STAGE_TIME).set(getStageTime(OperationContext.Stage.RUNTIME));
+        final ModelNode subsystemsNode = result.get(SUBSYSTEMS).setEmptyObject();
+        final List<SubsystemTimes> sorted = new ArrayList<SubsystemTimes>(subsystems.values());
+        Collections.sort(sorted, new Comparator<SubsystemTimes>() {
+            @Override
+            public int compare(final SubsystemTimes o1, final SubsystemTimes o2) {
+                final long total1 = o1.modelTime + o1.runtimeTime;
+                final long total2 = o2.modelTime + o2.runtimeTime;
+                return total1 < total2 ? 1 : total1 == total2 ? 0 : -1;
+            }
+        });
+        for (final SubsystemTimes times : sorted) {
+            final ModelNode subsystem = subsystemsNode.get(times.name);
+            subsystem.get(OPERATIONS).set(times.operations);
+            subsystem.get(MODEL_STAGE_TIME).set(times.modelTime);
+            subsystem.get(RUNTIME_STAGE_TIME).set(times.runtimeTime);
+        }
+        return result;
+    }
+
+    private long getStageTime(final OperationContext.Stage stage) {
+        final Long time = stageTimes.get(stage);
+        return time == null ? 0 : time;
+    }
+
+    private static final class SubsystemTimes {
+        private final String name;
+        private int operations;
+        private long modelTime;
+        private long runtimeTime;
+
+        private SubsystemTimes(final String name) {
+            this.name = name;
+        }
+    }
+}
@@ -32,8 +32,11 @@ import org.jboss.logging.MessageLogger;
 
 import javax.xml.stream.XMLStreamWriter;
 import java.io.Closeable;
+import java.io.File;
+import java.util.Collection;
 
 import static org.jboss.logging.Logger.Level.ERROR;
+import static org.jboss.logging.Logger.Level.INFO;
 import static org.jboss.logging.Logger.Level.WARN;
 
 /**
@@ -248,4 +251,41 @@ public interface ControllerLogger extends BasicLogger {
     @LogMessage(level = WARN)
     @Message(id = 14614, value = "Wildcard address detected - will ignore other interface criteria.")
     void wildcardAddressDetected();
+
+    /**
+     * Logs a warning message indicating that the configuration journal holds changes which never made it into the
+     * configuration file, because the process stopped before the next snapshot was written.
+     *
+     * @param records  the number of journal records found.
+     * @param journal  the journal file.
+     * @param moved    the file the journal has been moved to.
+     * @param addresses the addresses of the resources changed by the lost records.
+     */
+    @LogMessage(level = WARN)
+    @Message(id = 14615, value = "%d configuration changes recorded in %s were not written to the configuration file " +
+            "before the process stopped; the journal has been kept as %s. Affected resources: %s")
+    void unwrittenConfigurationChanges(int records, File journal, File moved, Collection<PathAddress> addresses);
+
+    /**
+     * Logs an error message indicating the configuration journal left by a previous process could not be read.
+     *
+     * @param cause   the cause of the error.
+     * @param journal the journal file.
+     */
+    @LogMessage(level = ERROR)
+    @Message(id = 14616, value = "Failed to read configuration journal %s")
+    void failedToReadConfigurationJournal(@Cause Throwable cause, File journal);
+
+    /**
+     * Logs an informational message indicating the changes recorded in the configuration journal by a previous
+     * process have been applied to the configuration read from the file.
+     *
+     * @param records   the number of journal records replayed.
+     * @param journal   the journal file.
+     * @param addresses the addresses of the resources changed by the replayed records.
+     */
+    @LogMessage(level = INFO)
+    @Message(id = 14617, value = "Applied %d configuration changes recorded in %s which were not yet written to the " +
+            "configuration file. Affected resources: %s")
+    void replayedConfigurationChanges(int records, File journal, Collection<PathAddress> addresses);
 }
@@ -25,6 +25,7 @@ package org.jboss.as.controller;
 import static org.jboss.as.controller.ControllerMessages.MESSAGES;
 
 import java.util.EnumSet;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -35,6 +36,7 @@ import org.jboss.as.controller.persistence.SubsystemXmlWriterRegistry;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
+import org.jboss.dmr.ModelNode;
 import org.jboss.staxmapper.XMLElementWriter;
 
 /**
@@ -200,6 +202,11 @@ public final class ExtensionContextImpl implements ExtensionContext {
             return deployments.getModelDescription(address);
         }
 
+        @Override
+        public ModelNode getModelDescription(PathAddress address, Locale locale, boolean operations, boolean inheritedOperations, boolean recursive) {
+            return deployments.getModelDescription(address, locale, operations, inheritedOperations, recursive);
+        }
+
         @Override
         public Map<String, OperationEntry> getOperationDescriptions(PathAddress address, boolean inherited) {
             return deployments.getOperationDescriptions(address, inherited);
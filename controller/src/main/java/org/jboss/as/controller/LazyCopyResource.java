@@ -0,0 +1,184 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.jboss.as.controller.registry.Resource;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * A view of a resource of a published model, handed out in place of a deep clone to operations which only read.
+ * Published resources are never modified, so the view copies only what it is asked for: the local model on first
+ * access, and the whole resource the first time the view itself is changed. Reading a resource and the names of its
+ * children therefore costs the same however large the subtree below it is.
+ */
+final class LazyCopyResource implements Resource.ResourceEntry {
+
+    /** The published resource, never modified */
+    private final Resource snapshot;
+    private final PathElement pathElement;
+    /** Copy of the local model of the snapshot, taken on first access */
+    private ModelNode model;
+    /** Copy of the whole snapshot, taken on the first change */
+    private Resource copy;
+
+    LazyCopyResource(final Resource snapshot, final PathElement pathElement) {
+        this.snapshot = snapshot;
+        this.pathElement = pathElement;
+    }
+
+    @Override
+    public String getName() {
+        return pathElement == null ? null : pathElement.getValue();
+    }
+
+    @Override
+    public PathElement getPathElement() {
+        return pathElement;
+    }
+
+    @Override
+    public ModelNode getModel() {
+        if (copy != null) {
+            return copy.getModel();
+        }
+        if (model == null) {
+            // reading the model of a published resource leaves it untouched
+            model = snapshot.getModel().clone();
+        }
+        return model;
+    }
+
+    @Override
+    public void writeModel(final ModelNode newModel) {
+        copy().writeModel(newModel);
+    }
+
+    @Override
+    public boolean isModelDefined() {
+        if (copy != null) {
+            return copy.isModelDefined();
+        }
+        return model != null ? model.isDefined() : snapshot.isModelDefined();
+    }
+
+    @Override
+    public boolean hasChild(final PathElement element) {
+        return current().hasChild(element);
+    }
+
+    @Override
+    public Resource getChild(final PathElement element) {
+        if (copy != null) {
+            return copy.getChild(element);
+        }
+        final Resource child = snapshot.getChild(element);
+        return child == null ? null : new LazyCopyResource(child, element);
+    }
+
+    @Override
+    public Resource requireChild(final PathElement element) {
+        if (copy != null) {
+            return copy.requireChild(element);
+        }
+        return new LazyCopyResource(snapshot.requireChild(element), element);
+    }
+
+    @Override
+    public boolean hasChildren(final String childType) {
+        return current().hasChildren(childType);
+    }
+
+    @Override
+    public Resource navigate(final PathAddress address) {
+        return Resource.Tools.navigate(this, address);
+    }
+
+    @Override
+    public Set<String> getChildTypes() {
+        return current().getChildTypes();
+    }
+
+    @Override
+    public Set<String> getChildrenNames(final String childType) {
+        return current().getChildrenNames(childType);
+    }
+
+    @Override
+    public Set<ResourceEntry> getChildren(final String childType) {
+        if (copy != null) {
+            return copy.getChildren(childType);
+        }
+        final Set<ResourceEntry> children = new LinkedHashSet<ResourceEntry>();
+        for (final ResourceEntry child : snapshot.getChildren(childType)) {
+            children.add(new LazyCopyResource(child, child.getPathElement()));
+        }
+        return children;
+    }
+
+    @Override
+    public void registerChild(final PathElement address, final Resource resource) {
+        copy().registerChild(address, resource);
+    }
+
+    @Override
+    public Resource removeChild(final PathElement address) {
+        return copy().removeChild(address);
+    }
+
+    @Override
+    public boolean isRuntime() {
+        return current().isRuntime();
+    }
+
+    @Override
+    public boolean isProxy() {
+        return current().isProxy();
+    }
+
+    @SuppressWarnings({"CloneDoesntCallSuperClone"})
+    @Override
+    public Resource clone() {
+        if (copy != null) {
+            return copy.clone();
+        }
+        final Resource clone = snapshot.clone();
+        if (model != null) {
+            clone.writeModel(model);
+        }
+        return clone;
+    }
+
+    private Resource current() {
+        return copy != null ? copy : snapshot;
+    }
+
+    private Resource copy() {
+        if (copy == null) {
+            copy = clone();
+        }
+        return copy;
+    }
+}
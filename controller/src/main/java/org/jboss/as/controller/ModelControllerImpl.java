@@ -81,10 +81,13 @@ class ModelControllerImpl implements ModelController {
     private final OperationStepHandler prepareStep;
     private final ControlledProcessState processState;
     private final ExecutorService executorService;
+    private final BootProfile bootProfile;
+    private final OperationStatistics operationStatistics;
 
     ModelControllerImpl(final ServiceRegistry serviceRegistry, final ServiceTarget serviceTarget, final ManagementResourceRegistration rootRegistration,
                         final ContainerStateMonitor stateMonitor, final ConfigurationPersister persister, final OperationContext.Type controllerType,
-                        final OperationStepHandler prepareStep, final ControlledProcessState processState, final ExecutorService executorService) {
+                        final OperationStepHandler prepareStep, final ControlledProcessState processState, final ExecutorService executorService,
+                        final BootProfile bootProfile, final OperationStatistics operationStatistics) {
         this.serviceRegistry = serviceRegistry;
         this.serviceTarget = serviceTarget;
         this.rootRegistration = rootRegistration;
@@ -95,6 +98,8 @@ class ModelControllerImpl implements ModelController {
         this.processState = processState;
         this.serviceTarget.addListener(ServiceListener.Inheritance.ALL, stateMonitor);
         this.executorService = executorService;
+        this.bootProfile = bootProfile;
+        this.operationStatistics = operationStatistics;
     }
 
     public ModelNode execute(final ModelNode operation, final OperationMessageHandler handler, final OperationTransactionControl control, final OperationAttachments attachments) {
@@ -105,11 +110,18 @@ class ModelControllerImpl implements ModelController {
         if (restartResourceServices) {
             contextFlags.add(OperationContextImpl.ContextFlag.ALLOW_RESOURCE_SERVICE_RESTART);
         }
-        OperationContextImpl context = new OperationContextImpl(this, controllerType, contextFlags, handler, attachments, model, control, processState, bootingFlag.get());
+        OperationContextImpl context = new OperationContextImpl(this, controllerType, contextFlags, handler, operation, attachments, getCurrentModel(), control, processState, bootingFlag.get());
         ModelNode response = new ModelNode();
         context.addStep(response, operation, prepareStep, OperationContext.Stage.MODEL);
 
-        context.completeStep();
+        if (operationStatistics.isEnabled()) {
+            final long start = System.nanoTime();
+            final OperationContext.ResultAction resultAction = context.completeStep();
+            final String operationName = operation.hasDefined(OP) ? operation.get(OP).asString() : "undefined";
+            operationStatistics.recordOperation(operationName, System.nanoTime() - start, resultAction == OperationContext.ResultAction.ROLLBACK);
+        } else {
+            context.completeStep();
+        }
 
         ControlledProcessState.State state = processState.getState();
         switch (state) {
@@ -126,7 +138,7 @@ class ModelControllerImpl implements ModelController {
     void boot(final List<ModelNode> bootList, final OperationMessageHandler handler, final OperationTransactionControl control) {
 
         final OperationContextImpl context = new OperationContextImpl(this, controllerType, EnumSet.noneOf(OperationContextImpl.ContextFlag.class),
-                handler, null, model, control, processState, bootingFlag.get());
+                handler, null, null, getCurrentModel(), control, processState, bootingFlag.get());
 
         // Add to the context all ops prior to the first ExtensionAddHandler as well as all ExtensionAddHandlers; save the rest.
         // This gets extensions registered before proceeding to other ops that count on these registrations
@@ -137,7 +149,7 @@ class ModelControllerImpl implements ModelController {
 
             // Success. Now any extension handlers are registered. Continue with remaining ops
             final OperationContextImpl postExtContext = new OperationContextImpl(this, controllerType, EnumSet.noneOf(OperationContextImpl.ContextFlag.class),
-                    handler, null, model, control, processState, bootingFlag.get());
+                    handler, null, null, getCurrentModel(), control, processState, bootingFlag.get());
 
             for (ParsedBootOp parsedOp : postExtensionOps) {
                 final OperationStepHandler stepHandler = parsedOp.handler == null ? rootRegistration.getOperationHandler(parsedOp.address, parsedOp.operationName) : parsedOp.handler;
@@ -184,7 +196,7 @@ class ModelControllerImpl implements ModelController {
         List<ParsedBootOp> postExtensionOps = null;
         ParallelExtensionAddHandler parallelExtensionAddHandler = executorService == null ? null : new ParallelExtensionAddHandler(executorService);
         ParallelBootOperationStepHandler parallelSubsystemHandler = (executorService != null && controllerType == OperationContext.Type.SERVER)
-                ? new ParallelBootOperationStepHandler(executorService, rootRegistration, processState) : null;
+                ? new ParallelBootOperationStepHandler(executorService, rootRegistration, processState, bootProfile) : null;
         boolean registeredParallelSubsystemHandler = false;
         int subsystemIndex = 0;
         for (ModelNode bootOp : bootList) {
@@ -261,6 +273,16 @@ class ModelControllerImpl implements ModelController {
         return model;
     }
 
+    /**
+     * Gets the model published by the last committed operation. The returned resource is never modified afterwards,
+     * changes are made to a clone of it which replaces it on commit, so it can be read without holding any lock.
+     *
+     * @return the current model
+     */
+    Resource getCurrentModel() {
+        return model.getDelegate();
+    }
+
     ManagementResourceRegistration getRootRegistration() {
         return rootRegistration;
     }
@@ -340,9 +362,12 @@ class ModelControllerImpl implements ModelController {
         };
     }
 
-    ConfigurationPersister.PersistenceResource writeModel(final Resource resource, Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
+    ConfigurationPersister.PersistenceResource writeModel(final Resource resource, final ModelNode operation, Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
         final ModelNode newModel = Resource.Tools.readModel(resource);  // Get the model representation
-        final ConfigurationPersister.PersistenceResource delegate = persister.store(newModel, affectedAddresses);
+        // an operation which only changed runtime resources or proxies must not be executed again on the next boot
+        final ConfigurationPersister.PersistenceResource delegate = operation != null && isPersistentChange(resource, affectedAddresses)
+                ? persister.store(newModel, operation, affectedAddresses)
+                : persister.store(newModel, affectedAddresses);
         return new ConfigurationPersister.PersistenceResource() {
 
             @Override
@@ -358,6 +383,30 @@ class ModelControllerImpl implements ModelController {
         };
     }
 
+    /**
+     * Whether a change to the given resources is stored in the configuration, as opposed to a change to runtime
+     * resources and proxies only.
+     *
+     * @param root the root resource of the model after the change
+     * @param affectedAddresses the addresses of the resources the change affected
+     * @return {@code true} if any of the resources is stored, or has been removed
+     */
+    private static boolean isPersistentChange(final Resource root, final Set<PathAddress> affectedAddresses) {
+        for (final PathAddress address : affectedAddresses) {
+            Resource resource = root;
+            for (final PathElement element : address) {
+                resource = resource.getChild(element);
+                if (resource == null) {
+                    return true;
+                }
+            }
+            if (!resource.isRuntime() && !resource.isProxy()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     void acquireLock(final boolean interruptibly) throws InterruptedException {
         if (interruptibly) {
             //noinspection LockAcquiredButNotSafelyReleased
@@ -368,6 +417,10 @@ class ModelControllerImpl implements ModelController {
         }
     }
 
+    OperationStatistics getOperationStatistics() {
+        return operationStatistics;
+    }
+
     void releaseLock() {
         writeLock.unlock();
     }
@@ -425,9 +478,15 @@ class ModelControllerImpl implements ModelController {
      */
     private class RootResource implements Resource {
 
-        private final AtomicReference<Resource> modelReference = new AtomicReference<Resource>(Resource.Factory.create());
+        private final AtomicReference<Resource> modelReference = new AtomicReference<Resource>();
+
+        RootResource() {
+            set(Resource.Factory.create());
+        }
 
         void set(Resource resource){
+            // the resource was built under the controller lock, from now on any thread may read it
+            Resource.Tools.publish(resource);
             modelReference.set(resource);
         }
 
@@ -80,6 +80,8 @@ final class OperationContextImpl extends AbstractOperationContext {
     // protected by "realRemovingControllers"
     private final Map<ServiceName, Step> removalSteps = new HashMap<ServiceName, Step>();
     private final boolean booting;
+    /** The operation the context was created for, {@code null} for the boot operations */
+    private final ModelNode operation;
     private final OperationAttachments attachments;
     /** Tracks whether any steps have gotten write access to the model */
     private final Map<PathAddress, Object> affectsModel;
@@ -102,11 +104,12 @@ final class OperationContextImpl extends AbstractOperationContext {
     private Step containerMonitorStep;
 
     OperationContextImpl(final ModelControllerImpl modelController, final Type contextType, final EnumSet<ContextFlag> contextFlags,
-                            final OperationMessageHandler messageHandler, final OperationAttachments attachments,
+                            final OperationMessageHandler messageHandler, final ModelNode operation, final OperationAttachments attachments,
                             final Resource model, final ModelController.OperationTransactionControl transactionControl,
                             final ControlledProcessState processState, final boolean booting) {
         super(contextType, transactionControl, processState);
         this.booting = booting;
+        this.operation = operation;
         this.model = model;
         this.originalModel = model;
         this.modelController = modelController;
@@ -151,7 +154,14 @@ final class OperationContextImpl extends AbstractOperationContext {
 
     @Override
     ConfigurationPersister.PersistenceResource createPersistenceResource() throws ConfigurationPersistenceException {
-        return modelController.writeModel(model, affectsModel.keySet());
+        // an operation which read attachment streams can't be executed again
+        final boolean replayable = operation != null && !booting && getAttachmentStreamCount() == 0;
+        return modelController.writeModel(model, replayable ? operation : null, affectsModel.keySet());
+    }
+
+    @Override
+    OperationStatistics getOperationStatistics() {
+        return modelController.getOperationStatistics();
     }
 
     public boolean isBooting() {
@@ -330,13 +340,34 @@ final class OperationContextImpl extends AbstractOperationContext {
         return serviceTarget;
     }
 
+    /**
+     * Until the first change to the model, this context reads the snapshot that was current when it was created,
+     * without any locking. The copy which gets changed and published on commit is taken from the latest model under
+     * the controller lock, so that no concurrently committed change is lost.
+     */
+    private void copyModelForUpdate() {
+        if (!isModelAffected()) {
+            takeWriteLock();
+            final Resource current = modelController.getCurrentModel();
+            originalModel = current;
+            model = current.clone();
+        }
+    }
+
     private void takeWriteLock() {
         if (lockStep == null) {
             if (currentStage == Stage.DONE) {
                 throw MESSAGES.invalidModificationAfterCompletedStep();
             }
             try {
-                modelController.acquireLock(respectInterruption);
+                final OperationStatistics statistics = modelController.getOperationStatistics();
+                if (statistics.isEnabled()) {
+                    final long start = System.nanoTime();
+                    modelController.acquireLock(respectInterruption);
+                    statistics.recordLockWait(System.nanoTime() - start);
+                } else {
+                    modelController.acquireLock(respectInterruption);
+                }
                 lockStep = activeStep;
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
@@ -389,10 +420,7 @@ final class OperationContextImpl extends AbstractOperationContext {
         if (currentStage != Stage.MODEL) {
             throw MESSAGES.stageAlreadyComplete(Stage.MODEL);
         }
-        if (!isModelAffected()) {
-            takeWriteLock();
-            model = model.clone();
-        }
+        copyModelForUpdate();
         affectsModel.put(address, NULL);
         Resource model = this.model;
         final Iterator<PathElement> i = address.iterator();
@@ -436,7 +464,11 @@ final class OperationContextImpl extends AbstractOperationContext {
         for (final PathElement element : address) {
             model = model.requireChild(element);
         }
-        return model.clone();
+        if (isModelAffected()) {
+            // this context's own copy of the model may still change, hand out a copy of its current state
+            return model.clone();
+        }
+        return new LazyCopyResource(model, address.size() == 0 ? null : address.getLastElement());
     }
 
     public Resource readResourceForUpdate(PathAddress requestAddress) {
@@ -449,10 +481,7 @@ final class OperationContextImpl extends AbstractOperationContext {
         if (currentStage != Stage.MODEL) {
             throw MESSAGES.stageAlreadyComplete(Stage.MODEL);
         }
-        if (!isModelAffected()) {
-            takeWriteLock();
-            model = model.clone();
-        }
+        copyModelForUpdate();
         affectsModel.put(address, NULL);
         Resource resource = this.model;
         for (PathElement element : address) {
@@ -466,7 +495,7 @@ final class OperationContextImpl extends AbstractOperationContext {
 
     @Override
     public Resource getOriginalRootResource() {
-        return originalModel.clone();
+        return new LazyCopyResource(originalModel, null);
     }
 
     public Resource createResource(PathAddress relativeAddress) {
@@ -488,10 +517,7 @@ final class OperationContextImpl extends AbstractOperationContext {
         if (absoluteAddress.size() == 0) {
             throw MESSAGES.duplicateResource(absoluteAddress);
         }
-        if (!isModelAffected()) {
-            takeWriteLock();
-            model = model.clone();
-        }
+        copyModelForUpdate();
         affectsModel.put(absoluteAddress, NULL);
         Resource model = this.model;
         final Iterator<PathElement> i = absoluteAddress.iterator();
@@ -539,10 +565,7 @@ final class OperationContextImpl extends AbstractOperationContext {
         if (currentStage != Stage.MODEL) {
             throw MESSAGES.stageAlreadyComplete(Stage.MODEL);
         }
-        if (!isModelAffected()) {
-            takeWriteLock();
-            model = model.clone();
-        }
+        copyModelForUpdate();
         affectsModel.put(address, NULL);
         Resource model = this.model;
         final Iterator<PathElement> i = address.iterator();
@@ -566,7 +589,10 @@ final class OperationContextImpl extends AbstractOperationContext {
 
     public Resource getRootResource() {
         final Resource readOnlyModel = this.model;
-        return readOnlyModel.clone();
+        if (isModelAffected()) {
+            return readOnlyModel.clone();
+        }
+        return new LazyCopyResource(readOnlyModel, null);
     }
 
     public boolean isModelAffected() {
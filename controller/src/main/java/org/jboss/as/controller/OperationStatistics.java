@@ -0,0 +1,198 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Latency statistics of the management operations executed by a controller: the time taken by each operation,
+ * grouped by operation name, the time taken by each step handler, grouped by handler class, and the time spent
+ * waiting for the controller lock. Operations that were rolled back are counted as well.
+ * <p>
+ * Recording is off unless enabled with {@link #ENABLED_PROPERTY} or {@link #setEnabled(boolean)}; while it is
+ * off the only cost to an operation is a check of the enabled flag per step. Times are reported in microseconds.
+ */
+public final class OperationStatistics {
+
+    /**
+     * Name of the system property to set to {@code true} to record statistics from boot.
+     */
+    public static final String ENABLED_PROPERTY = "jboss.management.operation.statistics";
+
+    public static final String COUNT = "count";
+    public static final String HISTOGRAM = "histogram";
+    public static final String LOCK_WAIT = "lock-wait";
+    public static final String MAX_TIME = "max-time";
+    public static final String OPERATIONS = "operations";
+    public static final String ROLLBACKS = "rollbacks";
+    public static final String STEP_HANDLERS = "step-handlers";
+    public static final String TOTAL_TIME = "total-time";
+
+    /** The upper bounds of the histogram buckets, in microseconds. Longer times go in a final bucket. */
+    private static final long[] BUCKETS = {100, 500, 1000, 5000, 10000, 50000, 100000, 500000, 1000000, 5000000};
+    private static final String[] BUCKET_NAMES = {"100us", "500us", "1ms", "5ms", "10ms", "50ms", "100ms", "500ms", "1s", "5s", "more"};
+
+    private volatile boolean enabled = Boolean.parseBoolean(SecurityActions.getSystemProperty(ENABLED_PROPERTY));
+    private final ConcurrentMap<String, Latency> operations = new ConcurrentHashMap<String, Latency>();
+    private final ConcurrentMap<String, Latency> stepHandlers = new ConcurrentHashMap<String, Latency>();
+    private volatile Latency lockWait = new Latency();
+
+    /**
+     * Get whether statistics are being recorded.
+     *
+     * @return {@code true} if statistics are being recorded
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Start or stop recording statistics. What has been recorded so far is kept.
+     *
+     * @param enabled {@code true} to record statistics
+     */
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Discard all recorded statistics.
+     */
+    public void reset() {
+        operations.clear();
+        stepHandlers.clear();
+        lockWait = new Latency();
+    }
+
+    /**
+     * Record the execution of an operation.
+     *
+     * @param operationName the name of the operation
+     * @param nanos the time the operation took, in nanoseconds
+     * @param rolledBack {@code true} if the operation was rolled back
+     */
+    void recordOperation(final String operationName, final long nanos, final boolean rolledBack) {
+        final Latency latency = getLatency(operations, operationName);
+        latency.record(nanos);
+        if (rolledBack) {
+            latency.rollbacks.incrementAndGet();
+        }
+    }
+
+    /**
+     * Record the execution of a step, up to the point where its handler completed the step.
+     *
+     * @param handler the step handler
+     * @param nanos the time the handler took, in nanoseconds
+     */
+    void recordStep(final OperationStepHandler handler, final long nanos) {
+        getLatency(stepHandlers, handler.getClass().getName()).record(nanos);
+    }
+
+    /**
+     * Record the time an operation waited to acquire the controller lock.
+     *
+     * @param nanos the time waited, in nanoseconds
+     */
+    void recordLockWait(final long nanos) {
+        lockWait.record(nanos);
+    }
+
+    /**
+     * Get the recorded statistics. Operations and step handlers are sorted by name.
+     *
+     * @return the statistics
+     */
+    public ModelNode toModelNode() {
+        final ModelNode result = new ModelNode();
+        long rollbacks = 0;
+        final ModelNode operationsNode = result.get(OPERATIONS).setEmptyObject();
+        for (final Map.Entry<String, Latency> entry : new TreeMap<String, Latency>(operations).entrySet()) {
+            final ModelNode operation = entry.getValue().toModelNode(operationsNode.get(entry.getKey()));
+            final long operationRollbacks = entry.getValue().rollbacks.get();
+            operation.get(ROLLBACKS).set(operationRollbacks);
+            rollbacks += operationRollbacks;
+        }
+        final ModelNode handlersNode = result.get(STEP_HANDLERS).setEmptyObject();
+        for (final Map.Entry<String, Latency> entry : new TreeMap<String, Latency>(stepHandlers).entrySet()) {
+            entry.getValue().toModelNode(handlersNode.get(entry.getKey()));
+        }
+        lockWait.toModelNode(result.get(LOCK_WAIT));
+        result.get(ROLLBACKS).set(rollbacks);
+        return result;
+    }
+
+    private static Latency getLatency(final ConcurrentMap<String, Latency> map, final String name) {
+        Latency latency = map.get(name);
+        if (latency == null) {
+            latency = new Latency();
+            final Latency existing = map.putIfAbsent(name, latency);
+            if (existing != null) {
+                latency = existing;
+            }
+        }
+        return latency;
+    }
+
+    private static final class Latency {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong total = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+        private final AtomicLong rollbacks = new AtomicLong();
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKET_NAMES.length);
+
+        private void record(final long nanos) {
+            final long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+            count.incrementAndGet();
+            total.addAndGet(micros);
+            long current = max.get();
+            while (micros > current && !max.compareAndSet(current, micros)) {
+                current = max.get();
+            }
+            int bucket = 0;
+            while (bucket < BUCKETS.length && micros > BUCKETS[bucket]) {
+                bucket++;
+            }
+            histogram.incrementAndGet(bucket);
+        }
+
+        private ModelNode toModelNode(final ModelNode node) {
+            node.get(COUNT).set(count.get());
+            node.get(TOTAL_TIME).set(total.get());
+            node.get(MAX_TIME).set(max.get());
+            final ModelNode histogramNode = node.get(HISTOGRAM).setEmptyObject();
+            for (int i = 0; i < BUCKET_NAMES.length; i++) {
+                histogramNode.get(BUCKET_NAMES[i]).set(histogram.get(i));
+            }
+            return node;
+        }
+    }
+}
@@ -259,6 +259,12 @@ class ParallelBootOperationContext extends AbstractOperationContext {
         return null;
     }
 
+    @Override
+    OperationStatistics getOperationStatistics() {
+        // boot operations are covered by the boot profile
+        return null;
+    }
+
     @Override
     void releaseStepLocks(Step step) {
         // Our steps took no locks
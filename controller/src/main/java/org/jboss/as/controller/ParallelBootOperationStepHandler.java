@@ -44,17 +44,21 @@ import static org.jboss.as.controller.ControllerMessages.MESSAGES;
  */
 public class ParallelBootOperationStepHandler implements OperationStepHandler {
 
+    private static final String LOGGING = "logging";
+
     private final Executor executor;
     private final ImmutableManagementResourceRegistration rootRegistration;
     private final ControlledProcessState processState;
+    private final BootProfile bootProfile;
 
     private final Map<String, List<ParsedBootOp>> opsBySubsystem = new LinkedHashMap<String, List<ParsedBootOp>>();
 
     ParallelBootOperationStepHandler(final ExecutorService executorService, final ImmutableManagementResourceRegistration rootRegistration,
-                                     final ControlledProcessState processState) {
+                                     final ControlledProcessState processState, final BootProfile bootProfile) {
         this.executor = executorService;
         this.rootRegistration = rootRegistration;
         this.processState = processState;
+        this.bootProfile = bootProfile;
     }
 
     boolean addSubsystemOperation(final ParsedBootOp parsedOp) {
@@ -105,7 +109,8 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
             List<ParsedBootOp> subsystemRuntimeOps = new ArrayList<ParsedBootOp>();
             runtimeOpsBySubsystem.put(subsystemName, subsystemRuntimeOps);
 
-            final ParallelBootTransactionControl txControl = new ParallelBootTransactionControl(subsystemName, preparedLatch, committedLatch, completeLatch);
+            final ParallelBootTransactionControl txControl = new ParallelBootTransactionControl(subsystemName, entry.getValue().size(),
+                    preparedLatch, committedLatch, completeLatch);
             transactionControls.put(entry.getKey(), txControl);
 
             // Execute the subsystem's ops in another thread
@@ -117,19 +122,30 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
         try {
             preparedLatch.await();
 
+            recordProfile(transactionControls, OperationContext.Stage.MODEL, start);
+
             // See if all subsystems succeeded; if not report a failure to context
             checkForSubsystemFailures(context, transactionControls, OperationContext.Stage.MODEL);
 
             // Add any logging subsystem steps so we get logging early in the boot
-            List<ParsedBootOp> loggingOps = runtimeOpsBySubsystem.remove("logging");
+            final List<ParsedBootOp> loggingOps = runtimeOpsBySubsystem.remove(LOGGING);
+            final long[] loggingStart = new long[1];
             if (loggingOps != null) {
+                // Note when the logging steps begin; the runtime step which follows them records how long they took
+                context.addStep(new OperationStepHandler() {
+                    @Override
+                    public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+                        loggingStart[0] = System.currentTimeMillis();
+                        context.completeStep();
+                    }
+                }, OperationContext.Stage.RUNTIME);
                 for (ParsedBootOp loggingOp : loggingOps) {
                     context.addStep(loggingOp.response, loggingOp.operation, loggingOp.handler, OperationContext.Stage.RUNTIME);
                 }
             }
 
             // Add step to execute all the runtime ops recorded by the other subsystem tasks
-            context.addStep(getRuntimeStep(runtimeOpsBySubsystem), OperationContext.Stage.RUNTIME);
+            context.addStep(getRuntimeStep(runtimeOpsBySubsystem, loggingOps, loggingStart), OperationContext.Stage.RUNTIME);
 
         } catch (InterruptedException e) {
             context.getFailureDescription().set(new ModelNode().set(MESSAGES.subsystemBootInterrupted()));
@@ -156,6 +172,14 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
 
     }
 
+    private void recordProfile(final Map<String, ParallelBootTransactionControl> transactionControls,
+                               final OperationContext.Stage stage, final long start) {
+        bootProfile.recordStage(stage, System.currentTimeMillis() - start);
+        for (ParallelBootTransactionControl txControl : transactionControls.values()) {
+            bootProfile.recordSubsystem(txControl.subsystemName, stage, txControl.operations, txControl.elapsed);
+        }
+    }
+
     private void checkForSubsystemFailures(OperationContext context, Map<String, ParallelBootTransactionControl> transactionControls, OperationContext.Stage stage) {
         boolean failureRecorded = false;
         for (Map.Entry<String, ParallelBootTransactionControl> entry : transactionControls.entrySet()) {
@@ -197,13 +221,17 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
         committedLatch.countDown();
     }
 
-    private OperationStepHandler getRuntimeStep(final Map<String, List<ParsedBootOp>> runtimeOpsBySubsystem) {
+    private OperationStepHandler getRuntimeStep(final Map<String, List<ParsedBootOp>> runtimeOpsBySubsystem,
+                                                final List<ParsedBootOp> loggingOps, final long[] loggingStart) {
 
         return new OperationStepHandler() {
             @Override
             public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
 
                 long start = System.currentTimeMillis();
+                if (loggingOps != null) {
+                    bootProfile.recordSubsystem(LOGGING, OperationContext.Stage.RUNTIME, loggingOps.size(), start - loggingStart[0]);
+                }
                 // make sure the registry lock is held
                 context.getServiceRegistry(true);
 
@@ -216,7 +244,8 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
 
                 for (Map.Entry<String, List<ParsedBootOp>> entry : runtimeOpsBySubsystem.entrySet()) {
                     String subsystemName = entry.getKey();
-                    final ParallelBootTransactionControl txControl = new ParallelBootTransactionControl(subsystemName, preparedLatch, committedLatch, completeLatch);
+                    final ParallelBootTransactionControl txControl = new ParallelBootTransactionControl(subsystemName, entry.getValue().size(),
+                            preparedLatch, committedLatch, completeLatch);
                     transactionControls.put(subsystemName, txControl);
 
                     // Execute the subsystem's ops in another thread
@@ -228,6 +257,8 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
                 try {
                     preparedLatch.await();
 
+                    recordProfile(transactionControls, OperationContext.Stage.RUNTIME, start);
+
                     // See if all subsystems succeeded; if not report a failure to context
                     checkForSubsystemFailures(context, transactionControls, OperationContext.Stage.RUNTIME);
 
@@ -284,6 +315,7 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
 
         @Override
         public void run() {
+            transactionControl.started = System.currentTimeMillis();
             try {
                 final OperationContext operationContext = new ParallelBootOperationContext(transactionControl, processState,
                         primaryContext, runtimeOps, controllingThread);
@@ -324,14 +356,19 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
     private static class ParallelBootTransactionControl implements ProxyController.ProxyOperationControl {
 
         private final String subsystemName;
+        private final int operations;
         private final CountDownLatch preparedLatch;
         private final CountDownLatch committedLatch;
         private final CountDownLatch completeLatch;
         private ModelNode response;
         private ModelController.OperationTransaction transaction;
         private boolean signalled;
+        /** When the subsystem's task began, and how long it took to prepare or fail */
+        private volatile long started;
+        private volatile long elapsed;
 
-        public ParallelBootTransactionControl(String subsystemName, CountDownLatch preparedLatch, CountDownLatch committedLatch, CountDownLatch completeLatch) {
+        public ParallelBootTransactionControl(String subsystemName, int operations, CountDownLatch preparedLatch, CountDownLatch committedLatch, CountDownLatch completeLatch) {
+            this.operations = operations;
             this.preparedLatch = preparedLatch;
             this.committedLatch = committedLatch;
             this.completeLatch = completeLatch;
@@ -342,6 +379,7 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
         public void operationFailed(ModelNode response) {
             if (!signalled) {
                 this.response = response;
+                elapsed = System.currentTimeMillis() - started;
                 preparedLatch.countDown();
                 completeLatch.countDown();
                 signalled = true;
@@ -352,6 +390,7 @@ public class ParallelBootOperationStepHandler implements OperationStepHandler {
         public void operationPrepared(ModelController.OperationTransaction transaction, ModelNode result) {
             if (!signalled) {
                 this.transaction = transaction;
+                elapsed = System.currentTimeMillis() - started;
                 preparedLatch.countDown();
                 signalled = true;
 
@@ -42,7 +42,7 @@ import org.jboss.dmr.ModelType;
  *
  * @author Brian Stansberry (c) 2011 Red Hat Inc.
  */
-public class DefaultOperationDescriptionProvider implements DescriptionProvider {
+public class DefaultOperationDescriptionProvider implements StaticDescriptionProvider {
 
     private final String operationName;
     private final ResourceDescriptionResolver descriptionResolver;
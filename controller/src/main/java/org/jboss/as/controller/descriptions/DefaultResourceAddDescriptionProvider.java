@@ -49,7 +49,7 @@ import org.jboss.dmr.ModelNode;
  *
  * @author Brian Stansberry (c) 2011 Red Hat Inc.
  */
-public class DefaultResourceAddDescriptionProvider implements DescriptionProvider {
+public class DefaultResourceAddDescriptionProvider implements StaticDescriptionProvider {
 
     private final ImmutableManagementResourceRegistration registration;
     final ResourceDescriptionResolver descriptionResolver;
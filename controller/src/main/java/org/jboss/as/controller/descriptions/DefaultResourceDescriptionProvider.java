@@ -41,7 +41,7 @@ import org.jboss.dmr.ModelNode;
  *
  * @author Brian Stansberry (c) 2011 Red Hat Inc.
  */
-public class DefaultResourceDescriptionProvider implements DescriptionProvider {
+public class DefaultResourceDescriptionProvider implements StaticDescriptionProvider {
 
     private final ImmutableManagementResourceRegistration registration;
     final ResourceDescriptionResolver descriptionResolver;
@@ -145,6 +145,8 @@ public class ModelDescriptionConstants {
     public static final String OP_ADDR = "address";
     public static final String OPERATION_HEADERS = "operation-headers";
     public static final String OPERATION_NAME = "operation-name";
+    public static final String OPERATION_STATISTICS = "operation-statistics";
+    public static final String OPERATION_STATISTICS_ENABLED = "operation-statistics-enabled";
     public static final String OPERATIONS = "operations";
     public static final String OUTBOUND_CONNECTION = "outbound-connection";
     /** Use this standard operation address field in the operation *description* ModelNode */
@@ -157,6 +159,7 @@ public class ModelDescriptionConstants {
     public static final String PORT = "port";
     public static final String PORT_OFFSET = "port-offset";
     public static final String PRIORITY = "priority";
+    public static final String PROCESSING_PROFILE = "processing-profile";
     public static final String PROCESS_TYPE = "process-type";
     public static final String PROCESS_STATE = "process-state";
     public static final String PROFILE = "profile";
@@ -24,6 +24,7 @@ package org.jboss.as.controller.descriptions.common;
 import java.util.Locale;
 
 import org.jboss.as.controller.descriptions.DescriptionProvider;
+import org.jboss.as.controller.descriptions.StaticDescriptionProvider;
 import org.jboss.dmr.ModelNode;
 
 /**
@@ -39,7 +40,7 @@ public final class CommonProviders {
     private CommonProviders() {
     }
 
-    public static final DescriptionProvider EXTENSION_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider EXTENSION_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(final Locale locale) {
             return ExtensionDescription.getExtensionDescription(locale);
@@ -49,7 +50,7 @@ public final class CommonProviders {
     /**
      * Provider for a sub-model that names a "path" but doesn't require the actual path to be specified.
      */
-    public static final DescriptionProvider NAMED_PATH_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider NAMED_PATH_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(final Locale locale) {
             return PathDescription.getNamedPathDescription(locale);
@@ -59,7 +60,7 @@ public final class CommonProviders {
     /**
      * Provider for a sub-model that defines the management configuration.
      */
-    public static final DescriptionProvider MANAGEMENT_WITH_INTERFACES_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider MANAGEMENT_WITH_INTERFACES_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(final Locale locale) {
             return ManagementDescription.getManagementDescriptionWithInterfaces(locale);
@@ -69,7 +70,7 @@ public final class CommonProviders {
     /**
      * Provider for a sub-model that defines a management security-realm configuration.
      */
-    public static final DescriptionProvider MANAGEMENT_SECURITY_REALM_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider MANAGEMENT_SECURITY_REALM_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(final Locale locale) {
             return ManagementDescription.getManagementSecurityRealmDescription(locale);
@@ -79,7 +80,7 @@ public final class CommonProviders {
     /**
      * Provider for a sub-model that defines a management authentication/authorization connection factory configuration.
      */
-    public static final DescriptionProvider MANAGEMENT_OUTBOUND_CONNECTION_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider MANAGEMENT_OUTBOUND_CONNECTION_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(final Locale locale) {
             return ManagementDescription.getManagementOutboundConnectionDescription(locale);
@@ -89,7 +90,7 @@ public final class CommonProviders {
     /**
      * Provider for a sub-model that defines the management configuration.
      */
-    public static final DescriptionProvider NATIVE_MANAGEMENT_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider NATIVE_MANAGEMENT_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(final Locale locale) {
             return ManagementDescription.getNativeManagementDescription(locale);
@@ -99,7 +100,7 @@ public final class CommonProviders {
     /**
      * Provider for a sub-model that defines the management configuration.
      */
-    public static final DescriptionProvider NATIVE_REMOTING_MANAGEMENT_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider NATIVE_REMOTING_MANAGEMENT_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(final Locale locale) {
             return ManagementDescription.getNativeRemotingManagementDescription(locale);
@@ -109,7 +110,7 @@ public final class CommonProviders {
     /**
      * Provider for a sub-model that names an interface and specifies the criteria.
      */
-    public static final DescriptionProvider HTTP_MANAGEMENT_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider HTTP_MANAGEMENT_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(final Locale locale) {
             return ManagementDescription.getHttpManagementDescription(locale);
@@ -119,7 +120,7 @@ public final class CommonProviders {
     /**
      * Provider for a sub-model that names a management interface and specifies the criteria.
      */
-    public static final DescriptionProvider MANAGEMENT_INTERFACE_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider MANAGEMENT_INTERFACE_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(final Locale locale) {
             return ManagementInterfaceDescription.getManagementInterfaceDescription(locale);
@@ -129,7 +130,7 @@ public final class CommonProviders {
     /**
      * Provider for a sub-model that names a "path" and specifies the actual path.
      */
-    public static final DescriptionProvider SPECIFIED_PATH_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider SPECIFIED_PATH_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(final Locale locale) {
             return PathDescription.getSpecifiedPathDescription(locale);
@@ -139,7 +140,7 @@ public final class CommonProviders {
     /**
      * Provider for a sub-model that names an interface but doesn't require the address selection criteria.
      */
-    public static final DescriptionProvider NAMED_INTERFACE_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider NAMED_INTERFACE_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(final Locale locale) {
             return InterfaceDescription.getNamedInterfaceDescription(locale);
@@ -149,7 +150,7 @@ public final class CommonProviders {
     /**
      * Provider for a sub-model that names an interface and specifies the criteria.
      */
-    public static final DescriptionProvider SPECIFIED_INTERFACE_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider SPECIFIED_INTERFACE_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(final Locale locale) {
             return InterfaceDescription.getSpecifiedInterfaceDescription(locale);
@@ -159,77 +160,77 @@ public final class CommonProviders {
     /**
      * Provider for a sub-model that defines the JVM configuration.
      */
-    public static final DescriptionProvider JVM_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider JVM_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(Locale locale) {
             return JVMDescriptions.getJVMDescription(locale);
         }
     };
 
-    public static final DescriptionProvider READ_RESOURCE_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider READ_RESOURCE_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(Locale locale) {
             return GlobalDescriptions.getReadResourceOperationDescription(locale);
         }
     };
 
-    public static final DescriptionProvider READ_ATTRIBUTE_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider READ_ATTRIBUTE_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(Locale locale) {
             return GlobalDescriptions.getReadAttributeOperationDescription(locale);
         }
     };
 
-    public static final DescriptionProvider WRITE_ATTRIBUTE_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider WRITE_ATTRIBUTE_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(Locale locale) {
             return GlobalDescriptions.getWriteAttributeOperationDescription(locale);
         }
     };
 
-    public static final DescriptionProvider READ_CHILDREN_NAMES_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider READ_CHILDREN_NAMES_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(Locale locale) {
             return GlobalDescriptions.getReadChildrenNamesOperationDescription(locale);
         }
     };
 
-    public static final DescriptionProvider READ_CHILDREN_TYPES_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider READ_CHILDREN_TYPES_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(Locale locale) {
             return GlobalDescriptions.getReadChildrenTypesOperationDescription(locale);
         }
     };
 
-    public static final DescriptionProvider READ_CHILDREN_RESOURCES_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider READ_CHILDREN_RESOURCES_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(Locale locale) {
             return GlobalDescriptions.getReadChildrenResourcesOperationDescription(locale);
         }
     };
 
-    public static final DescriptionProvider READ_OPERATION_NAMES_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider READ_OPERATION_NAMES_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(Locale locale) {
             return GlobalDescriptions.getReadOperationNamesOperation(locale);
         }
     };
 
-    public static final DescriptionProvider READ_OPERATION_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider READ_OPERATION_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(Locale locale) {
             return GlobalDescriptions.getReadOperationOperation(locale);
         }
     };
 
-    public static final DescriptionProvider READ_RESOURCE_DESCRIPTION_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider READ_RESOURCE_DESCRIPTION_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(Locale locale) {
             return GlobalDescriptions.getReadResourceDescriptionOperationDescription(locale);
         }
     };
 
-    public static final DescriptionProvider SUBSYSTEM_DESCRIBE_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider SUBSYSTEM_DESCRIBE_PROVIDER = new StaticDescriptionProvider() {
 
         @Override
         public ModelNode getModelDescription(Locale locale) {
@@ -237,7 +238,7 @@ public final class CommonProviders {
         }
     };
 
-    public static final DescriptionProvider VALIDATE_ADDRESS_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider VALIDATE_ADDRESS_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(Locale locale) {
             return CommonDescriptions.getValidateAddressOperation(locale);
@@ -247,7 +248,7 @@ public final class CommonProviders {
     /**
      * Provider for a sub-resource that exposes the MSC ServiceContainer.
      */
-    public static final DescriptionProvider SERVICE_CONTAINER_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider SERVICE_CONTAINER_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(final Locale locale) {
             return CommonDescriptions.getServiceContainerDescription(locale);
@@ -256,7 +257,7 @@ public final class CommonProviders {
     /**
      * Provider for a resource that defines the core security vault.
      */
-    public static final DescriptionProvider VAULT_PROVIDER = new DescriptionProvider() {
+    public static final DescriptionProvider VAULT_PROVIDER = new StaticDescriptionProvider() {
         @Override
         public ModelNode getModelDescription(Locale locale) {
             return VaultDescriptions.getVaultDescription(locale);
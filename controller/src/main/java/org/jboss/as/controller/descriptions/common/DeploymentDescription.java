@@ -42,6 +42,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPE
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATION_NAME;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.PATH;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.PERSISTENT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.PROCESSING_PROFILE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REDEPLOY;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RELATIVE_TO;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REPLACE_DEPLOYMENT;
@@ -149,6 +150,10 @@ public class DeploymentDescription {
                 root.get(ATTRIBUTES, STATUS, TYPE).set(ModelType.STRING);
                 root.get(ATTRIBUTES, STATUS, DESCRIPTION).set(bundle.getString("deployment.status"));
                 root.get(ATTRIBUTES, STATUS, REQUIRED).set(false);
+
+                root.get(ATTRIBUTES, PROCESSING_PROFILE, TYPE).set(ModelType.OBJECT);
+                root.get(ATTRIBUTES, PROCESSING_PROFILE, DESCRIPTION).set(bundle.getString("deployment.processing-profile"));
+                root.get(ATTRIBUTES, PROCESSING_PROFILE, REQUIRED).set(false);
             }
         }
 
@@ -31,8 +31,11 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.INT
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MANAGEMENT_INTERFACE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MIN_OCCURS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MODEL_DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.NILLABLE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATIONS;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATION_NAME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATION_STATISTICS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATION_STATISTICS_ENABLED;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTBOUND_CONNECTION;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.PORT;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REQUEST_PROPERTIES;
@@ -85,6 +88,14 @@ public class ManagementDescription {
             root.get(CHILDREN, MANAGEMENT_INTERFACE, DESCRIPTION).set(bundle.getString("core.management.management-interfaces"));
             root.get(CHILDREN, MANAGEMENT_INTERFACE, MIN_OCCURS).set(0);
             root.get(CHILDREN, MANAGEMENT_INTERFACE, MODEL_DESCRIPTION);
+
+            root.get(ATTRIBUTES, OPERATION_STATISTICS_ENABLED, DESCRIPTION).set(bundle.getString("core.management.operation-statistics-enabled"));
+            root.get(ATTRIBUTES, OPERATION_STATISTICS_ENABLED, TYPE).set(ModelType.BOOLEAN);
+            root.get(ATTRIBUTES, OPERATION_STATISTICS_ENABLED, REQUIRED).set(false);
+            root.get(ATTRIBUTES, OPERATION_STATISTICS, DESCRIPTION).set(bundle.getString("core.management.operation-statistics"));
+            root.get(ATTRIBUTES, OPERATION_STATISTICS, TYPE).set(ModelType.OBJECT);
+            root.get(ATTRIBUTES, OPERATION_STATISTICS, REQUIRED).set(false);
+            root.get(ATTRIBUTES, OPERATION_STATISTICS, NILLABLE).set(true);
         }
 
         return root;
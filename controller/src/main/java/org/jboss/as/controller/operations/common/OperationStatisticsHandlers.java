@@ -0,0 +1,113 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.operations.common;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATION_STATISTICS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATION_STATISTICS_ENABLED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.VALUE;
+
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStatistics;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.operations.validation.ModelTypeValidator;
+import org.jboss.as.controller.operations.validation.ParameterValidator;
+import org.jboss.as.controller.registry.AttributeAccess;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+
+/**
+ * Handlers for the runtime attributes of the management resource that control and report the controller's
+ * {@link OperationStatistics}.
+ */
+public final class OperationStatisticsHandlers {
+
+    private OperationStatisticsHandlers() {
+    }
+
+    /**
+     * Register the {@code operation-statistics-enabled} and {@code operation-statistics} attributes.
+     *
+     * @param management the registration of the {@code core-service=management} resource
+     * @param statistics the controller's operation statistics
+     */
+    public static void registerAttributes(final ManagementResourceRegistration management, final OperationStatistics statistics) {
+        management.registerReadWriteAttribute(OPERATION_STATISTICS_ENABLED, new EnabledReadHandler(statistics),
+                new EnabledWriteHandler(statistics), AttributeAccess.Storage.RUNTIME);
+        management.registerMetric(OPERATION_STATISTICS, new StatisticsReadHandler(statistics));
+    }
+
+    private static class EnabledReadHandler implements OperationStepHandler {
+
+        private final OperationStatistics statistics;
+
+        private EnabledReadHandler(final OperationStatistics statistics) {
+            this.statistics = statistics;
+        }
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            context.getResult().set(statistics.isEnabled());
+            context.completeStep();
+        }
+    }
+
+    private static class EnabledWriteHandler implements OperationStepHandler {
+
+        private final ParameterValidator validator = new ModelTypeValidator(ModelType.BOOLEAN);
+        private final OperationStatistics statistics;
+
+        private EnabledWriteHandler(final OperationStatistics statistics) {
+            this.statistics = statistics;
+        }
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            validator.validateParameter(VALUE, operation.get(VALUE));
+            final boolean previous = statistics.isEnabled();
+            statistics.setEnabled(operation.get(VALUE).asBoolean());
+            context.completeStep(new OperationContext.RollbackHandler() {
+                @Override
+                public void handleRollback(OperationContext context, ModelNode operation) {
+                    statistics.setEnabled(previous);
+                }
+            });
+        }
+    }
+
+    private static class StatisticsReadHandler implements OperationStepHandler {
+
+        private final OperationStatistics statistics;
+
+        private StatisticsReadHandler(final OperationStatistics statistics) {
+            this.statistics = statistics;
+        }
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            context.getResult().set(statistics.toModelNode());
+            context.completeStep();
+        }
+    }
+}
@@ -22,7 +22,6 @@
 package org.jboss.as.controller.operations.global;
 
 import static org.jboss.as.controller.ControllerMessages.MESSAGES;
-import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ACCESS_TYPE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATTRIBUTES;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CHILDREN;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CHILD_TYPE;
@@ -44,12 +43,12 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.REA
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RECURSIVE;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESTART_REQUIRED;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
-import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.STORAGE;
 
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -68,7 +67,6 @@ import org.jboss.as.controller.operations.validation.ParametersValidator;
 import org.jboss.as.controller.operations.validation.StringLengthValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.AttributeAccess.AccessType;
-import org.jboss.as.controller.registry.AttributeAccess.Storage;
 import org.jboss.as.controller.registry.ImmutableManagementResourceRegistration;
 import org.jboss.as.controller.registry.OperationEntry;
 import org.jboss.as.controller.registry.Resource;
@@ -315,7 +313,8 @@ public class GlobalOperationHandlers {
         public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
 
             Map<String, ModelNode> sortedAttributes = new TreeMap<String, ModelNode>();
-            Map<String, ModelNode> sortedChildren = new TreeMap<String, ModelNode>();
+            // child responses are grouped by reference and copied once, straight into the result
+            Map<String, Map<String, ModelNode>> sortedChildren = new TreeMap<String, Map<String, ModelNode>>();
             boolean failed = false;
             for (Map.Entry<String, ModelNode> entry : otherAttributes.entrySet()) {
                 ModelNode value = entry.getValue();
@@ -332,12 +331,12 @@ public class GlobalOperationHandlers {
                     PathElement path = entry.getKey();
                     ModelNode value = entry.getValue();
                     if (!value.has(FAILURE_DESCRIPTION)) {
-                        ModelNode childTypeNode = sortedChildren.get(path.getKey());
-                        if (childTypeNode == null) {
-                            childTypeNode = new ModelNode();
-                            sortedChildren.put(path.getKey(), childTypeNode);
+                        Map<String, ModelNode> childTypeResults = sortedChildren.get(path.getKey());
+                        if (childTypeResults == null) {
+                            childTypeResults = new LinkedHashMap<String, ModelNode>();
+                            sortedChildren.put(path.getKey(), childTypeResults);
                         }
-                        childTypeNode.get(path.getValue()).set(value.get(RESULT));
+                        childTypeResults.put(path.getValue(), value);
                     } else if (!failed && value.hasDefined(FAILURE_DESCRIPTION)) {
                         context.getFailureDescription().set(value.get(FAILURE_DESCRIPTION));
                         failed = true;
@@ -348,9 +347,6 @@ public class GlobalOperationHandlers {
                 for (Map.Entry<String, ModelNode> simpleAttribute : directAttributes.entrySet()) {
                     sortedAttributes.put(simpleAttribute.getKey(), simpleAttribute.getValue());
                 }
-                for (Map.Entry<String, ModelNode> directChild : directChildren.entrySet()) {
-                    sortedChildren.put(directChild.getKey(), directChild.getValue());
-                }
                 for (Map.Entry<String, ModelNode> metric : metrics.entrySet()) {
                     ModelNode value = metric.getValue();
                     if (!value.has(FAILURE_DESCRIPTION)) {
@@ -366,13 +362,32 @@ public class GlobalOperationHandlers {
                     result.get(entry.getKey()).set(entry.getValue());
                 }
 
-                for (Map.Entry<String, ModelNode> entry : sortedChildren.entrySet()) {
-                    result.get(entry.getKey()).set(entry.getValue());
+                final Set<String> childTypes = new TreeSet<String>(sortedChildren.keySet());
+                childTypes.addAll(directChildren.keySet());
+                for (String childType : childTypes) {
+                    final ModelNode directChild = directChildren.get(childType);
+                    if (directChild != null) {
+                        result.get(childType).set(directChild);
+                    } else {
+                        final ModelNode childTypeNode = result.get(childType);
+                        for (Map.Entry<String, ModelNode> entry : sortedChildren.get(childType).entrySet()) {
+                            childTypeNode.get(entry.getKey()).set(entry.getValue().get(RESULT));
+                            releaseResult(entry.getValue());
+                        }
+                    }
                 }
             }
 
             context.completeStep();
         }
+
+        /**
+         * Drops the result of a child step once it has been copied into the assembled response, so a large recursive
+         * read does not keep a second copy of the subtree alive until the operation completes.
+         */
+        private static void releaseResult(final ModelNode childResponse) {
+            childResponse.get(RESULT).set(new ModelNode());
+        }
     }
 
     /**
@@ -648,6 +663,7 @@ public class GlobalOperationHandlers {
 
                         for (Map.Entry<String, ModelNode> entry : sortedChildren.entrySet()) {
                             result.get(entry.getKey()).set(entry.getValue());
+                            entry.getValue().set(new ModelNode());
                         }
                     }
 
@@ -791,93 +807,54 @@ public class GlobalOperationHandlers {
             final boolean inheritedOps = operation.get(INHERITED).asBoolean(true);
 
             final ImmutableManagementResourceRegistration registry = context.getResourceRegistration();
-            final DescriptionProvider descriptionProvider = registry.getModelDescription(PathAddress.EMPTY_ADDRESS);
             final Locale locale = getLocale(operation);
 
-            final ModelNode nodeDescription = descriptionProvider.getModelDescription(locale);
-            final Map<String, ModelNode> operations = new HashMap<String, ModelNode>();
-            final Map<PathElement, ModelNode> childResources = recursive ? new HashMap<PathElement, ModelNode>() : Collections.<PathElement, ModelNode>emptyMap();
+            if (!recursive || !proxies || registry.getProxyControllers(PathAddress.EMPTY_ADDRESS).isEmpty()) {
+                // Everything in the response is known to this controller, so it can be served from the
+                // descriptions the registry caches
+                context.getResult().set(registry.getModelDescription(PathAddress.EMPTY_ADDRESS, locale, ops, inheritedOps, recursive));
+                context.completeStep();
+                return;
+            }
+
+            final ModelNode nodeDescription = registry.getModelDescription(PathAddress.EMPTY_ADDRESS, locale, ops, inheritedOps, false).clone();
+            final Map<PathElement, ModelNode> childResources = new HashMap<PathElement, ModelNode>();
 
             // We're going to add a bunch of steps that should immediately follow this one. We are going to add them
             // in reverse order of how they should execute, as that is the way adding a Stage.IMMEDIATE step works
 
             // Last to execute is the handler that assembles the overall response from the pieces created by all the other steps
-            final ReadResourceDescriptionAssemblyHandler assemblyHandler = new ReadResourceDescriptionAssemblyHandler(nodeDescription, operations, childResources);
+            final ReadResourceDescriptionAssemblyHandler assemblyHandler = new ReadResourceDescriptionAssemblyHandler(nodeDescription, childResources);
             context.addStep(assemblyHandler, OperationContext.Stage.IMMEDIATE);
 
-            if (ops) {
-                for (final Map.Entry<String, OperationEntry> entry : registry.getOperationDescriptions(PathAddress.EMPTY_ADDRESS, inheritedOps).entrySet()) {
-                    if (entry.getValue().getType() == OperationEntry.EntryType.PUBLIC) {
-                        final DescriptionProvider provider = entry.getValue().getDescriptionProvider();
-                        operations.put(entry.getKey(), provider.getModelDescription(locale));
-                    }
-                }
-            }
-            if (nodeDescription.hasDefined(ATTRIBUTES)) {
-                for (final String attr : nodeDescription.require(ATTRIBUTES).keys()) {
-                    final AttributeAccess access = registry.getAttributeAccess(PathAddress.EMPTY_ADDRESS, attr);
-                    // If there is metadata for an attribute but no AttributeAccess, assume RO. Can't
-                    // be writable without a registered handler. This opens the possibility that out-of-date metadata
-                    // for attribute "foo" can lead to a read of non-existent-in-model "foo" with
-                    // an unexpected undefined value returned. But it removes the possibility of a
-                    // dev forgetting to call registry.registerReadOnlyAttribute("foo", null) resulting
-                    // in the valid attribute "foo" not being readable
-                    final AccessType accessType = access == null ? AccessType.READ_ONLY : access.getAccessType();
-                    final Storage storage = access == null ? Storage.CONFIGURATION : access.getStorageType();
-                    final ModelNode attrNode = nodeDescription.get(ATTRIBUTES, attr);
-                    attrNode.get(ACCESS_TYPE).set(accessType.toString());
-                    attrNode.get(STORAGE).set(storage.toString());
-                    if (accessType == AccessType.READ_WRITE) {
-                        Set<AttributeAccess.Flag> flags = access.getFlags();
-                        if (flags.contains(AttributeAccess.Flag.RESTART_ALL_SERVICES)) {
-                            attrNode.get(RESTART_REQUIRED).set("all-services");
-                        } else if (flags.contains(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)) {
-                            attrNode.get(RESTART_REQUIRED).set("resource-services");
-                        } else if (flags.contains(AttributeAccess.Flag.RESTART_JVM)) {
-                            attrNode.get(RESTART_REQUIRED).set("jvm");
-                        } else {
-                            attrNode.get(RESTART_REQUIRED).set("no-services");
-                        }
-                    }
-                }
-            }
-
-            if (recursive) {
-                for (final PathElement element : registry.getChildAddresses(PathAddress.EMPTY_ADDRESS)) {
-                    PathAddress relativeAddr = PathAddress.pathAddress(element);
-                    ImmutableManagementResourceRegistration childReg = registry.getSubModel(relativeAddr);
+            // Some of the children are remote, so gather the child descriptions in separate steps. Children
+            // without any remote resources below them will again be served from the cache
+            for (final PathElement element : registry.getChildAddresses(PathAddress.EMPTY_ADDRESS)) {
+                final PathAddress relativeAddr = PathAddress.pathAddress(element);
+                final ImmutableManagementResourceRegistration childReg = registry.getSubModel(relativeAddr);
 
-                    boolean readChild = true;
-                    if (childReg.isRemote() && !proxies) {
-                        readChild = false;
-                    }
-                    if (readChild) {
-                        ModelNode rrOp = new ModelNode();
-                        rrOp.get(OP).set(opName);
-                        try {
-                            rrOp.get(OP_ADDR).set(PathAddress.pathAddress(address, element).toModelNode());
-                        } catch (Exception e) {
-                            continue;
-                        }
-                        rrOp.get(RECURSIVE).set(true);
-                        rrOp.get(PROXIES).set(proxies);
-                        rrOp.get(OPERATIONS).set(ops);
-                        rrOp.get(INHERITED).set(inheritedOps);
-                        ModelNode rrRsp = new ModelNode();
-                        childResources.put(element, rrRsp);
-
-                        final OperationStepHandler handler = childReg.isRemote() ? childReg.getOperationHandler(relativeAddr, opName) :
-                                new OperationStepHandler() {
-                                    @Override
-                                    public void execute(final OperationContext context, final ModelNode operation) throws OperationFailedException {
-                                        doExecute(context, operation);
-                                    }
-                                };
-                        context.addStep(rrRsp, rrOp, handler, OperationContext.Stage.IMMEDIATE);
-                    }
-                    //Add a "child" => undefined
-                    nodeDescription.get(CHILDREN, element.getKey(), MODEL_DESCRIPTION, element.getValue());
+                ModelNode rrOp = new ModelNode();
+                rrOp.get(OP).set(opName);
+                try {
+                    rrOp.get(OP_ADDR).set(PathAddress.pathAddress(address, element).toModelNode());
+                } catch (Exception e) {
+                    continue;
                 }
+                rrOp.get(RECURSIVE).set(true);
+                rrOp.get(PROXIES).set(proxies);
+                rrOp.get(OPERATIONS).set(ops);
+                rrOp.get(INHERITED).set(inheritedOps);
+                ModelNode rrRsp = new ModelNode();
+                childResources.put(element, rrRsp);
+
+                final OperationStepHandler handler = childReg.isRemote() ? childReg.getOperationHandler(relativeAddr, opName) :
+                        new OperationStepHandler() {
+                            @Override
+                            public void execute(final OperationContext context, final ModelNode operation) throws OperationFailedException {
+                                doExecute(context, operation);
+                            }
+                        };
+                context.addStep(rrRsp, rrOp, handler, OperationContext.Stage.IMMEDIATE);
             }
             context.completeStep();
         }
@@ -889,22 +866,19 @@ public class GlobalOperationHandlers {
     private static class ReadResourceDescriptionAssemblyHandler implements OperationStepHandler {
 
         private final ModelNode nodeDescription;
-        private final Map<String, ModelNode> operations;
         private final Map<PathElement, ModelNode> childResources;
 
         /**
          * Creates a ReadResourceAssemblyHandler that will assemble the response using the contents
          * of the given maps.
          *
-         * @param nodeDescription basic description of the node, of its attributes and of its child types
-         * @param operations      descriptions of the resource's operations
+         * @param nodeDescription description of the node, of its attributes, its operations and of its child types
          * @param childResources  read-resource-description response from child resources, where the key is the PathAddress
          *                        relative to the address of the operation this handler is handling and the
          *                        value is the full read-resource response. Will not be {@code null}
          */
-        private ReadResourceDescriptionAssemblyHandler(final ModelNode nodeDescription, final Map<String, ModelNode> operations, final Map<PathElement, ModelNode> childResources) {
+        private ReadResourceDescriptionAssemblyHandler(final ModelNode nodeDescription, final Map<PathElement, ModelNode> childResources) {
             this.nodeDescription = nodeDescription;
-            this.operations = operations;
             this.childResources = childResources;
         }
 
@@ -922,10 +896,6 @@ public class GlobalOperationHandlers {
                 }
             }
 
-            for (Map.Entry<String, ModelNode> entry : operations.entrySet()) {
-                nodeDescription.get(OPERATIONS, entry.getKey()).set(entry.getValue());
-            }
-
             context.getResult().set(nodeDescription);
             context.completeStep();
         }
@@ -25,10 +25,12 @@ package org.jboss.as.controller.persistence;
 import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamWriter;
 
+import org.jboss.as.controller.PathAddress;
 import org.jboss.dmr.ModelNode;
 import org.jboss.staxmapper.XMLElementWriter;
 import org.jboss.staxmapper.XMLMapper;
@@ -109,6 +111,23 @@ public abstract class AbstractConfigurationPersister implements ExtensibleConfig
         }
     }
 
+    /**
+     * Persist the given configuration model the same way as {@link #store(ModelNode, Set)}, the operation is not used.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public PersistenceResource store(final ModelNode model, final ModelNode operation, final Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
+        return store(model, affectedAddresses);
+    }
+
+    /**
+     * Does nothing, as changes are written when they are committed.
+     */
+    @Override
+    public void flush() {
+    }
+
     @Override
     public void successfulBoot() throws ConfigurationPersistenceException {
     }
@@ -22,6 +22,7 @@
 
 package org.jboss.as.controller.persistence;
 
+import java.io.File;
 import java.util.List;
 import java.util.Set;
 
@@ -77,11 +78,44 @@ public class BackupXmlConfigurationPersister extends XmlConfigurationPersister {
                 }
             };
         }
+        if (isSnapshotDeferred()) {
+            return storeDeferred(model, null);
+        }
         return new ConfigurationFilePersistenceResource(model, configurationFile, this);
     }
 
+    @Override
+    public PersistenceResource store(final ModelNode model, final ModelNode operation, final Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
+        if (!successfulBoot.get() || !isSnapshotDeferred()) {
+            return store(model, affectedAddresses);
+        }
+        return storeDeferred(model, operation);
+    }
+
+    @Override
+    protected void writeSnapshot(final ModelNode model) throws ConfigurationPersistenceException {
+        configurationFile.backup();
+        store(model, configurationFile.getMainFile());
+        configurationFile.fileWritten();
+    }
+
+    @Override
+    protected File getJournalFile() {
+        final File mainFile = configurationFile.getMainFile();
+        return new File(mainFile.getParentFile(), mainFile.getName() + JOURNAL_SUFFIX);
+    }
+
+    /**
+     * The journal describes changes to the main file, so it does not apply when booting from another one.
+     */
+    @Override
+    protected boolean isJournalReplayable() {
+        return configurationFile.getBootFile().equals(configurationFile.getMainFile());
+    }
+
     @Override
     public String snapshot() throws ConfigurationPersistenceException {
+        flush();
         return configurationFile.snapshot();
     }
 
@@ -0,0 +1,219 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.ControllerLogger.ROOT_LOGGER;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.EXTENSION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Binary copy of the boot operations parsed from a configuration file, reused as long as neither the file nor the
+ * modules of the extensions it declares have changed since it was written.
+ * <p>
+ * The cache file holds a digest of the configuration file, the name and a fingerprint of the module directory of
+ * every extension, and the operations in their DMR binary form. A fingerprint covers the name, size and modification
+ * time of the files of the module's main slot in each root of the {@code module.path}.
+ *
+ * @see XmlConfigurationPersister#BOOT_CACHE_PROPERTY
+ */
+final class BootOperationCache {
+
+    private static final int MAGIC = 0x4a424f43;
+    private static final int VERSION = 1;
+    private static final String MODULE_PATH = "module.path";
+
+    private final File file;
+
+    BootOperationCache(final File file) {
+        this.file = file;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Read the cached boot operations.
+     *
+     * @param configDigest the digest of the configuration file as it is now
+     * @return the operations, or {@code null} if there is no cache or it is out of date
+     * @throws IOException if the cache could not be read
+     */
+    List<ModelNode> read(final byte[] configDigest) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                return null;
+            }
+            final byte[] digest = new byte[input.readUnsignedShort()];
+            input.readFully(digest);
+            if (!Arrays.equals(digest, configDigest)) {
+                return null;
+            }
+            final int moduleCount = input.readInt();
+            for (int i = 0; i < moduleCount; i++) {
+                final String module = input.readUTF();
+                if (input.readLong() != fingerprint(module)) {
+                    return null;
+                }
+            }
+            final int count = input.readInt();
+            final List<ModelNode> operations = new ArrayList<ModelNode>(count);
+            for (int i = 0; i < count; i++) {
+                final ModelNode operation = new ModelNode();
+                operation.readExternal(input);
+                operations.add(operation);
+            }
+            return operations;
+        } finally {
+            safeClose(input);
+        }
+    }
+
+    /**
+     * Replace the cache with the given boot operations.
+     *
+     * @param configDigest the digest of the configuration file the operations were parsed from
+     * @param operations the operations
+     * @throws IOException if the cache could not be written
+     */
+    void write(final byte[] configDigest, final List<ModelNode> operations) throws IOException {
+        final Map<String, Long> modules = new TreeMap<String, Long>();
+        for (final ModelNode operation : operations) {
+            final PathAddress address = PathAddress.pathAddress(operation.get(OP_ADDR));
+            if (address.size() == 1) {
+                final PathElement element = address.getElement(0);
+                if (EXTENSION.equals(element.getKey())) {
+                    modules.put(element.getValue(), fingerprint(element.getValue()));
+                }
+            }
+        }
+        // write to the side and move into place, so a reader never sees a partial cache
+        final File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+        final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+        try {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeShort(configDigest.length);
+            output.write(configDigest);
+            output.writeInt(modules.size());
+            for (final Map.Entry<String, Long> module : modules.entrySet()) {
+                output.writeUTF(module.getKey());
+                output.writeLong(module.getValue());
+            }
+            output.writeInt(operations.size());
+            for (final ModelNode operation : operations) {
+                operation.writeExternal(output);
+            }
+            output.close();
+        } finally {
+            safeClose(output);
+        }
+        if (file.exists() && !file.delete() || !tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException(file.toString());
+        }
+    }
+
+    /**
+     * Compute the digest of a configuration file.
+     *
+     * @param configFile the file
+     * @return the digest
+     * @throws IOException if the file could not be read
+     */
+    static byte[] digest(final File configFile) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        final InputStream input = new FileInputStream(configFile);
+        try {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) > -1) {
+                digest.update(buffer, 0, read);
+            }
+        } finally {
+            safeClose(input);
+        }
+        return digest.digest();
+    }
+
+    private static long fingerprint(final String module) {
+        final String modulePath = SecurityActions.getSystemProperty(MODULE_PATH);
+        if (modulePath == null) {
+            return 0;
+        }
+        final String relative = module.replace('.', File.separatorChar) + File.separator + "main";
+        long fingerprint = 17;
+        for (final String root : modulePath.split(File.pathSeparator)) {
+            final File[] files = new File(root, relative).listFiles();
+            if (files == null) {
+                continue;
+            }
+            Arrays.sort(files);
+            for (final File moduleFile : files) {
+                fingerprint = 31 * fingerprint + moduleFile.getName().hashCode();
+                fingerprint = 31 * fingerprint + moduleFile.length();
+                fingerprint = 31 * fingerprint + moduleFile.lastModified();
+            }
+        }
+        return fingerprint;
+    }
+
+    private static void safeClose(final Closeable closeable) {
+        if (closeable != null) try {
+            closeable.close();
+        } catch (Throwable t) {
+            ROOT_LOGGER.failedToCloseResource(t, closeable);
+        }
+    }
+}
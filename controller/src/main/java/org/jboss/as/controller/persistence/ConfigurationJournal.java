@@ -0,0 +1,175 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.ControllerLogger.ROOT_LOGGER;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATION_HEADERS;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Append-only record of the configuration changes committed since the configuration file was last written. Each
+ * record holds the operation which made the change, so appending costs as much as the operation itself rather than as
+ * much as the whole configuration. Every record is forced to disk before the change is acknowledged.
+ * <p>
+ * When the configuration is loaded, the operations recorded by a process which stopped before writing the file are
+ * executed again after the boot operations parsed from it, in the order they were first executed, which leaves the
+ * configuration in the state they left it in.
+ *
+ * @see XmlConfigurationPersister#SNAPSHOT_INTERVAL_PROPERTY
+ */
+final class ConfigurationJournal {
+
+    static final String OPERATION = "operation";
+    static final String TIMESTAMP = "timestamp";
+
+    private final File file;
+    private FileOutputStream fileOutput;
+    private DataOutputStream output;
+    private int records;
+
+    ConfigurationJournal(final File file) {
+        this.file = file;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Get the number of records appended since the journal was last reset.
+     *
+     * @return the number of records
+     */
+    int getRecordCount() {
+        return records;
+    }
+
+    /**
+     * Append a record of a committed change, and force it to disk.
+     *
+     * @param operation the operation which made the change
+     * @throws IOException if the record could not be written
+     */
+    void append(final ModelNode operation) throws IOException {
+        final ModelNode record = new ModelNode();
+        record.get(TIMESTAMP).set(System.currentTimeMillis());
+        final ModelNode recorded = record.get(OPERATION).set(operation);
+        if (recorded.has(OPERATION_HEADERS)) {
+            // the headers only applied to the first execution
+            recorded.remove(OPERATION_HEADERS);
+        }
+        if (output == null) {
+            fileOutput = new FileOutputStream(file, true);
+            output = new DataOutputStream(new BufferedOutputStream(fileOutput));
+        }
+        record.writeExternal(output);
+        output.flush();
+        fileOutput.getFD().sync();
+        records++;
+    }
+
+    /**
+     * Discard all records, once the changes they describe have been written to the configuration file.
+     */
+    void reset() throws IOException {
+        close();
+        records = 0;
+        if (file.exists() && !file.delete()) {
+            // truncate what cannot be deleted
+            new FileOutputStream(file).close();
+        }
+    }
+
+    void close() {
+        safeClose(output);
+        output = null;
+        fileOutput = null;
+    }
+
+    /**
+     * Read the records left by a previous process, if any.
+     *
+     * @return the records, in the order they were appended. Will not be {@code null}
+     * @throws IOException if the journal could not be read
+     */
+    List<ModelNode> read() throws IOException {
+        final List<ModelNode> result = new ArrayList<ModelNode>();
+        if (!file.exists()) {
+            return result;
+        }
+        final DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            for (;;) {
+                final ModelNode record = new ModelNode();
+                try {
+                    record.readExternal(input);
+                } catch (EOFException e) {
+                    // the end of the journal, or a record cut short when the process stopped
+                    break;
+                }
+                result.add(record);
+            }
+        } finally {
+            safeClose(input);
+        }
+        return result;
+    }
+
+    /**
+     * Replay journal records onto the boot operations parsed from the configuration file.
+     *
+     * @param updates the boot operations
+     * @param records the records, in the order they were appended
+     * @return the boot operations followed by the recorded operations
+     */
+    static List<ModelNode> apply(final List<ModelNode> updates, final List<ModelNode> records) {
+        final List<ModelNode> result = new ArrayList<ModelNode>(updates.size() + records.size());
+        result.addAll(updates);
+        for (final ModelNode record : records) {
+            result.add(record.get(OPERATION));
+        }
+        return result;
+    }
+
+    private static void safeClose(final Closeable closeable) {
+        if (closeable != null) try {
+            closeable.close();
+        } catch (Throwable t) {
+            ROOT_LOGGER.failedToCloseResource(t, closeable);
+        }
+    }
+}
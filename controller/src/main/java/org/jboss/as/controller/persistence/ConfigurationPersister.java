@@ -64,6 +64,24 @@ public interface ConfigurationPersister {
      */
     PersistenceResource store(ModelNode model, Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException;
 
+    /**
+     * Persist the given configuration model, as changed by the given operation. A persister which defers writing the
+     * model may record the operation instead, and execute it again after the stored configuration when it is next
+     * loaded.
+     *
+     * @param model the model to persist
+     * @param operation the operation which made the change, or {@code null} if it cannot be executed again
+     * @param affectedAddresses the addresses of the resources affected by the change
+     *
+     * @return callback to use to control whether the stored model should be flushed to persistent storage
+     */
+    PersistenceResource store(ModelNode model, ModelNode operation, Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException;
+
+    /**
+     * Write any committed changes the persister has deferred so far to permanent storage.
+     */
+    void flush();
+
     /**
      * Marshals the given configuration model to XML, writing to the given stream.
      *
@@ -51,6 +51,12 @@ public final class NullConfigurationPersister extends AbstractConfigurationPersi
         return NullPersistenceResource.INSTANCE;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public PersistenceResource store(final ModelNode model, final ModelNode operation, Set<PathAddress> affectedAddresses) {
+        return NullPersistenceResource.INSTANCE;
+    }
+
     /** {@inheritDoc} */
     @Override
     public List<ModelNode> load() {
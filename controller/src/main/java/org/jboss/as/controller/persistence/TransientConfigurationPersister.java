@@ -54,6 +54,12 @@ public class TransientConfigurationPersister extends XmlConfigurationPersister {
         return NullPersistenceResource.INSTANCE;
     }
 
+    @Override
+    public PersistenceResource store(ModelNode model, ModelNode operation, Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
+        // do not journal the change either
+        return NullPersistenceResource.INSTANCE;
+    }
+
     private static class NullPersistenceResource implements ConfigurationPersister.PersistenceResource {
 
         private static final NullPersistenceResource INSTANCE = new NullPersistenceResource();
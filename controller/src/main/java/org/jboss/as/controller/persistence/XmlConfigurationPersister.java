@@ -28,9 +28,14 @@ import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLInputFactory;
@@ -44,6 +49,7 @@ import org.jboss.staxmapper.XMLMapper;
 
 import static org.jboss.as.controller.ControllerLogger.ROOT_LOGGER;
 import static org.jboss.as.controller.ControllerMessages.MESSAGES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
 
 /**
  * A configuration persister which uses an XML file for backing storage.
@@ -52,11 +58,58 @@ import static org.jboss.as.controller.ControllerMessages.MESSAGES;
  */
 public class XmlConfigurationPersister extends AbstractConfigurationPersister {
 
+    /**
+     * Name of the system property to set to defer rewriting the configuration file after a change. Its value is the
+     * longest time, in milliseconds, a committed change may wait before the file is rewritten. Committed changes are
+     * recorded in a journal next to the file in the meantime, and all changes committed during the interval are
+     * written together, so a long series of small changes rewrites the file a few times instead of once per change.
+     * A change is only acknowledged once its journal record is on disk, and records left by a process which stopped
+     * before rewriting the file are applied when the configuration is next loaded. If not set, the file is rewritten
+     * whenever a change is committed.
+     *
+     * @see #SNAPSHOT_CHANGES_PROPERTY
+     */
+    public static final String SNAPSHOT_INTERVAL_PROPERTY = "jboss.config.snapshot.interval";
+
+    /**
+     * Name of the system property to set to control how many changes may be recorded in the journal before the
+     * configuration file is rewritten regardless of {@link #SNAPSHOT_INTERVAL_PROPERTY}.
+     *
+     * @see #DEFAULT_SNAPSHOT_CHANGES
+     */
+    public static final String SNAPSHOT_CHANGES_PROPERTY = "jboss.config.snapshot.changes";
+
+    /**
+     * The default number of changes recorded in the journal before the configuration file is rewritten.
+     *
+     * @see #SNAPSHOT_CHANGES_PROPERTY
+     */
+    public static final int DEFAULT_SNAPSHOT_CHANGES = 1000;
+
+    /**
+     * Name of the system property to set to {@code true} to keep a binary copy of the boot operations parsed from the
+     * configuration file next to it, and to boot from that copy instead of parsing the file again as long as neither
+     * the file nor the modules of its extensions have changed.
+     */
+    public static final String BOOT_CACHE_PROPERTY = "jboss.config.boot.cache";
+
+    static final String JOURNAL_SUFFIX = ".journal";
+    static final String BOOT_CACHE_SUFFIX = ".bootcache";
+
     private final File fileName;
     private final QName rootElement;
     private final XMLElementReader<List<ModelNode>> rootParser;
     private QName additionalRootElement;
     private XMLElementReader<List<ModelNode>> additionalParser;
+    private final int snapshotInterval = getIntProperty(SNAPSHOT_INTERVAL_PROPERTY, 0);
+    private final int snapshotChanges = getIntProperty(SNAPSHOT_CHANGES_PROPERTY, DEFAULT_SNAPSHOT_CHANGES);
+    /** Guards the journal, the pending model and the snapshot task */
+    private final Object snapshotLock = new Object();
+    private ConfigurationJournal journal;
+    /** The latest committed model not yet written to the file */
+    private ModelNode pendingModel;
+    private ScheduledThreadPoolExecutor snapshotExecutor;
+    private boolean snapshotScheduled;
 
     /**
      * Construct a new instance.
@@ -81,9 +134,229 @@ public class XmlConfigurationPersister extends AbstractConfigurationPersister {
     /** {@inheritDoc} */
     @Override
     public PersistenceResource store(final ModelNode model, Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
+        if (isSnapshotDeferred()) {
+            // without the operation there is nothing to journal, so the file is written when the change is committed
+            return storeDeferred(model, null);
+        }
         return new FilePersistenceResource(model, fileName, this);
     }
 
+    /**
+     * Persist a change, journaling the operation which made it if writing the file is deferred.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public PersistenceResource store(final ModelNode model, final ModelNode operation, final Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
+        if (isSnapshotDeferred()) {
+            return storeDeferred(model, operation);
+        }
+        return store(model, affectedAddresses);
+    }
+
+    /**
+     * Whether committed changes are recorded in the journal and written to the file later, as configured by
+     * {@link #SNAPSHOT_INTERVAL_PROPERTY}.
+     *
+     * @return {@code true} if writing the file is deferred
+     */
+    protected boolean isSnapshotDeferred() {
+        return snapshotInterval > 0;
+    }
+
+    /**
+     * Get a persistence resource which, upon commit, records the change in the journal and leaves writing the file
+     * to the next snapshot.
+     *
+     * @param model the model to persist
+     * @param operation the operation which made the change, or {@code null} to write the file upon commit
+     * @return the persistence resource
+     */
+    protected PersistenceResource storeDeferred(final ModelNode model, final ModelNode operation) {
+        return new PersistenceResource() {
+            @Override
+            public void commit() {
+                changeCommitted(model, operation);
+            }
+
+            @Override
+            public void rollback() {
+            }
+        };
+    }
+
+    /**
+     * Write any committed changes which have so far only been recorded in the journal to the file.
+     */
+    @Override
+    public void flush() {
+        synchronized (snapshotLock) {
+            writePendingSnapshot();
+        }
+    }
+
+    /**
+     * Write a snapshot of the complete model to the file.
+     *
+     * @param model the model
+     * @throws ConfigurationPersistenceException if the model could not be written
+     */
+    protected void writeSnapshot(final ModelNode model) throws ConfigurationPersistenceException {
+        store(model, fileName);
+    }
+
+    /**
+     * Get the file the journal of changes not yet written to the file is kept in.
+     *
+     * @return the journal file
+     */
+    protected File getJournalFile() {
+        return new File(fileName.getParentFile(), fileName.getName() + JOURNAL_SUFFIX);
+    }
+
+    private void changeCommitted(final ModelNode model, final ModelNode operation) {
+        synchronized (snapshotLock) {
+            pendingModel = model;
+            if (operation == null) {
+                writePendingSnapshot();
+                return;
+            }
+            final ConfigurationJournal journal = getJournal();
+            try {
+                journal.append(operation);
+            } catch (IOException e) {
+                ROOT_LOGGER.failedToStoreConfiguration(e, journal.getFile().getName());
+                // the change is not safe until it is in the file
+                writePendingSnapshot();
+                return;
+            }
+            if (journal.getRecordCount() >= snapshotChanges) {
+                writePendingSnapshot();
+            } else if (!snapshotScheduled) {
+                snapshotScheduled = true;
+                getSnapshotExecutor().schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        flush();
+                    }
+                }, snapshotInterval, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void writePendingSnapshot() {
+        assert Thread.holdsLock(snapshotLock);
+        snapshotScheduled = false;
+        final ModelNode model = pendingModel;
+        if (model == null) {
+            return;
+        }
+        pendingModel = null;
+        try {
+            writeSnapshot(model);
+        } catch (ConfigurationPersistenceException e) {
+            ROOT_LOGGER.failedToStoreConfiguration(e, fileName.getName());
+            return;
+        }
+        final ConfigurationJournal journal = getJournal();
+        try {
+            journal.reset();
+        } catch (IOException e) {
+            ROOT_LOGGER.failedToStoreConfiguration(e, journal.getFile().getName());
+        }
+    }
+
+    private ConfigurationJournal getJournal() {
+        assert Thread.holdsLock(snapshotLock);
+        if (journal == null) {
+            journal = new ConfigurationJournal(getJournalFile());
+        }
+        return journal;
+    }
+
+    private ScheduledThreadPoolExecutor getSnapshotExecutor() {
+        assert Thread.holdsLock(snapshotLock);
+        if (snapshotExecutor == null) {
+            snapshotExecutor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable r) {
+                    final Thread thread = new Thread(r, "Configuration snapshot " + fileName.getName());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            // don't keep an idle thread around between bursts of changes
+            snapshotExecutor.setKeepAliveTime(snapshotInterval + 1000, TimeUnit.MILLISECONDS);
+            snapshotExecutor.allowCoreThreadTimeOut(true);
+        }
+        return snapshotExecutor;
+    }
+
+    /**
+     * Whether the journal kept next to the file describes changes to the configuration being loaded, and so can be
+     * applied to it.
+     *
+     * @return {@code true} if the journal may be applied
+     */
+    protected boolean isJournalReplayable() {
+        return true;
+    }
+
+    /**
+     * Deal with a journal left behind by a previous process which stopped before writing the changes it recorded to
+     * the file. The recorded operations follow the boot operations; the journal itself stays until the next time the file
+     * is written, so that they are not lost should this process stop early too. If the journal does not belong to
+     * the configuration being loaded it is moved aside and the loss reported.
+     *
+     * @param updates the boot operations read from the file
+     * @return the boot operations followed by the journaled operations
+     */
+    private List<ModelNode> replayJournal(final List<ModelNode> updates) {
+        final List<ModelNode> records;
+        final File journalFile;
+        synchronized (snapshotLock) {
+            final ConfigurationJournal journal = getJournal();
+            journalFile = journal.getFile();
+            try {
+                records = journal.read();
+            } catch (IOException e) {
+                ROOT_LOGGER.failedToReadConfigurationJournal(e, journalFile);
+                return updates;
+            }
+            if (records.isEmpty()) {
+                return updates;
+            }
+        }
+        final Set<PathAddress> addresses = new LinkedHashSet<PathAddress>();
+        for (final ModelNode record : records) {
+            final ModelNode operation = record.get(ConfigurationJournal.OPERATION);
+            if (operation.hasDefined(OP_ADDR)) {
+                addresses.add(PathAddress.pathAddress(operation.get(OP_ADDR)));
+            }
+        }
+        if (isJournalReplayable()) {
+            ROOT_LOGGER.replayedConfigurationChanges(records.size(), journalFile, addresses);
+            return ConfigurationJournal.apply(updates, records);
+        }
+        final File moved = new File(journalFile.getParentFile(), journalFile.getName() + "." + System.currentTimeMillis());
+        journalFile.renameTo(moved);
+        ROOT_LOGGER.unwrittenConfigurationChanges(records.size(), journalFile, moved, addresses);
+        return updates;
+    }
+
+    private static int getIntProperty(final String name, final int defaultValue) {
+        final String prop = SecurityActions.getSystemProperty(name);
+        if (prop == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(prop);
+        } catch (NumberFormatException e) {
+            ROOT_LOGGER.invalidSystemPropertyValue(prop, name, defaultValue);
+            return defaultValue;
+        }
+    }
+
     protected void store(final ModelNode model, final File file) throws ConfigurationPersistenceException {
         try {
             final FileOutputStream fos = new FileOutputStream(file);
@@ -103,6 +376,34 @@ public class XmlConfigurationPersister extends AbstractConfigurationPersister {
     /** {@inheritDoc} */
     @Override
     public List<ModelNode> load() throws ConfigurationPersistenceException {
+        final BootOperationCache cache = Boolean.parseBoolean(SecurityActions.getSystemProperty(BOOT_CACHE_PROPERTY))
+                ? new BootOperationCache(new File(fileName.getParentFile(), fileName.getName() + BOOT_CACHE_SUFFIX)) : null;
+        byte[] digest = null;
+        if (cache != null) {
+            try {
+                digest = BootOperationCache.digest(fileName);
+                final List<ModelNode> cached = cache.read(digest);
+                if (cached != null) {
+                    return replayJournal(cached);
+                }
+            } catch (IOException e) {
+                // fall back to parsing the file
+                ROOT_LOGGER.debugf(e, "Cannot use boot operation cache %s", cache.getFile());
+            }
+        }
+        final List<ModelNode> updates = parse();
+        if (digest != null) {
+            try {
+                cache.write(digest, updates);
+            } catch (IOException e) {
+                ROOT_LOGGER.debugf(e, "Cannot write boot operation cache %s", cache.getFile());
+            }
+        }
+        // the cache holds the operations of the file alone, the journal is applied on every boot
+        return replayJournal(updates);
+    }
+
+    private List<ModelNode> parse() throws ConfigurationPersistenceException {
         final XMLMapper mapper = XMLMapper.Factory.create();
         mapper.registerRootElement(rootElement, rootParser);
         if(additionalRootElement != null){
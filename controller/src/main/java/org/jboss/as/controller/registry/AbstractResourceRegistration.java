@@ -22,10 +22,19 @@
 
 package org.jboss.as.controller.registry;
 
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ACCESS_TYPE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATTRIBUTES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CHILDREN;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MODEL_DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATIONS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESTART_REQUIRED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.STORAGE;
+
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.ListIterator;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
@@ -37,7 +46,11 @@ import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.ResourceDefinition;
 import org.jboss.as.controller.SimpleResourceDefinition;
 import org.jboss.as.controller.descriptions.DescriptionProvider;
+import org.jboss.as.controller.descriptions.StaticDescriptionProvider;
+import org.jboss.as.controller.registry.AttributeAccess.AccessType;
+import org.jboss.as.controller.registry.AttributeAccess.Storage;
 import org.jboss.as.controller.registry.OperationEntry.EntryType;
+import org.jboss.dmr.ModelNode;
 
 /**
  * A registry of model node information.  This registry is thread-safe.
@@ -167,6 +180,106 @@ abstract class AbstractResourceRegistration implements ManagementResourceRegistr
 
     abstract DescriptionProvider getModelDescription(Iterator<PathElement> iterator);
 
+    /** {@inheritDoc} */
+    @Override
+    public final ModelNode getModelDescription(final PathAddress address, final Locale locale, final boolean operations,
+                                               final boolean inheritedOperations, final boolean recursive) {
+        final ManagementResourceRegistration registration = getSubModel(address);
+        if (registration instanceof AbstractResourceRegistration) {
+            return ((AbstractResourceRegistration) registration).getDescription(locale, operations, inheritedOperations, recursive);
+        }
+        return registration == null ? null : registration.getModelDescription(PathAddress.EMPTY_ADDRESS, locale, operations, inheritedOperations, recursive);
+    }
+
+    /**
+     * Get the full description of this resource. Implementations that can cache the description should override
+     * this; the default creates a new description on every call.
+     *
+     * @return the description. Callers must not modify it
+     */
+    ModelNode getDescription(final Locale locale, final boolean operations, final boolean inheritedOperations, final boolean recursive) {
+        return createDescription(locale, operations, inheritedOperations, recursive);
+    }
+
+    final ModelNode createDescription(final Locale locale, final boolean operations, final boolean inheritedOperations, final boolean recursive) {
+        final ModelNode description = getModelDescription(PathAddress.EMPTY_ADDRESS).getModelDescription(locale);
+        if (description.hasDefined(ATTRIBUTES)) {
+            for (final String attr : description.require(ATTRIBUTES).keys()) {
+                final AttributeAccess access = getAttributeAccess(PathAddress.EMPTY_ADDRESS, attr);
+                // If there is metadata for an attribute but no AttributeAccess, assume RO. Can't
+                // be writable without a registered handler. This opens the possibility that out-of-date metadata
+                // for attribute "foo" can lead to a read of non-existent-in-model "foo" with
+                // an unexpected undefined value returned. But it removes the possibility of a
+                // dev forgetting to call registry.registerReadOnlyAttribute("foo", null) resulting
+                // in the valid attribute "foo" not being readable
+                final AccessType accessType = access == null ? AccessType.READ_ONLY : access.getAccessType();
+                final Storage storage = access == null ? Storage.CONFIGURATION : access.getStorageType();
+                final ModelNode attrNode = description.get(ATTRIBUTES, attr);
+                attrNode.get(ACCESS_TYPE).set(accessType.toString());
+                attrNode.get(STORAGE).set(storage.toString());
+                if (accessType == AccessType.READ_WRITE) {
+                    Set<AttributeAccess.Flag> flags = access.getFlags();
+                    if (flags.contains(AttributeAccess.Flag.RESTART_ALL_SERVICES)) {
+                        attrNode.get(RESTART_REQUIRED).set("all-services");
+                    } else if (flags.contains(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)) {
+                        attrNode.get(RESTART_REQUIRED).set("resource-services");
+                    } else if (flags.contains(AttributeAccess.Flag.RESTART_JVM)) {
+                        attrNode.get(RESTART_REQUIRED).set("jvm");
+                    } else {
+                        attrNode.get(RESTART_REQUIRED).set("no-services");
+                    }
+                }
+            }
+        }
+        if (recursive) {
+            for (final PathElement element : getChildAddresses(PathAddress.EMPTY_ADDRESS)) {
+                final ModelNode child = description.get(CHILDREN, element.getKey(), MODEL_DESCRIPTION, element.getValue());
+                final ManagementResourceRegistration childReg = getSubModel(PathAddress.pathAddress(element));
+                if (childReg != null && !childReg.isRemote()) {
+                    child.set(childReg.getModelDescription(PathAddress.EMPTY_ADDRESS, locale, operations, inheritedOperations, true));
+                }
+            }
+        }
+        if (operations) {
+            for (final Map.Entry<String, OperationEntry> entry : getOperationDescriptions(PathAddress.EMPTY_ADDRESS, inheritedOperations).entrySet()) {
+                if (entry.getValue().getType() == EntryType.PUBLIC) {
+                    final DescriptionProvider provider = entry.getValue().getDescriptionProvider();
+                    description.get(OPERATIONS, entry.getKey()).set(provider.getModelDescription(locale));
+                }
+            }
+        }
+        return description;
+    }
+
+    /**
+     * Whether the description created by {@link #createDescription(Locale, boolean, boolean, boolean)} for the given
+     * parameters is built only from {@link StaticDescriptionProvider}s, and so only changes when the registrations do.
+     */
+    final boolean isDescriptionStatic(final boolean operations, final boolean inheritedOperations, final boolean recursive) {
+        if (!(getModelDescription(PathAddress.EMPTY_ADDRESS) instanceof StaticDescriptionProvider)) {
+            return false;
+        }
+        if (recursive) {
+            for (final PathElement element : getChildAddresses(PathAddress.EMPTY_ADDRESS)) {
+                final ManagementResourceRegistration childReg = getSubModel(PathAddress.pathAddress(element));
+                if (childReg != null && !childReg.isRemote()) {
+                    if (!(childReg instanceof AbstractResourceRegistration)
+                            || !((AbstractResourceRegistration) childReg).isDescriptionStatic(operations, inheritedOperations, true)) {
+                        return false;
+                    }
+                }
+            }
+        }
+        if (operations) {
+            for (final OperationEntry entry : getOperationDescriptions(PathAddress.EMPTY_ADDRESS, inheritedOperations).values()) {
+                if (entry.getType() == EntryType.PUBLIC && !(entry.getDescriptionProvider() instanceof StaticDescriptionProvider)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     @Override
     public Set<String> getAttributeNames(final PathAddress address) {
         return getAttributeNames(address.iterator());
@@ -22,6 +22,7 @@
 
 package org.jboss.as.controller.registry;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -39,27 +40,43 @@ import static org.jboss.as.controller.ControllerMessages.MESSAGES;
  * Standard {@link Resource} implementation.
  *
  * <p>Concurrency note: if a thread needs to modify a BasicResource, it must use the clone() method to obtain its
- * own copy of the resource. That instance cannot be made visible to other threads until all writes are complete.</p>
+ * own copy of the resource. That instance cannot be made visible to other threads until all writes are complete.
+ * Until the resource is {@link #publish(Resource) published} the maps holding the children are changed in place
+ * under the resource's lock, which the few threads building the model (e.g. the parallel boot of the subsystems) also
+ * take to read them. Once published, the maps are replaced as a whole on every change, so that the many threads
+ * reading the resource never have to lock.</p>
  *
  * @author Emanuel Muckenhuber
  */
 class BasicResource implements Resource {
 
     /** The local model. */
-    private final ModelNode model = new ModelNode();
-    /** The children. */
-    private final Map<String, ResourceProvider> children = new LinkedHashMap<String, ResourceProvider>();
+    private ModelNode model = new ModelNode();
+    /**
+     * Whether the local model may have changed since clone() made it an interned copy. Only set while the resource is
+     * unpublished: the model of a published resource is only ever read, so handing it out does not make it dirty.
+     */
+    private volatile boolean dirty = true;
+    /** The children, changed in place under the lock of this resource until it is published */
+    private volatile Map<String, ResourceProvider> children = Collections.emptyMap();
+    /** Whether this resource is part of a published model, which threads read without locking */
+    private volatile boolean published;
 
     protected BasicResource() {
     }
 
     @Override
     public ModelNode getModel() {
+        if (!published && !dirty) {
+            // the handler updating this copy may change it
+            dirty = true;
+        }
         return model;
     }
 
     @Override
     public void writeModel(ModelNode newModel) {
+        dirty = true;
         model.set(newModel);
     }
 
@@ -123,7 +140,10 @@ class BasicResource implements Resource {
 
     @Override
     public Set<String> getChildTypes() {
-        synchronized (children) {
+        if (published) {
+            return new LinkedHashSet<String>(children.keySet());
+        }
+        synchronized (this) {
             return new LinkedHashSet<String>(children.keySet());
         }
     }
@@ -181,91 +201,226 @@ class BasicResource implements Resource {
 
     @Override
     public Resource clone() {
-        final Resource clone = new BasicResource();
-        clone.writeModel(model);
-        for(final String childType : getChildTypes()) {
-            for(final ResourceEntry child : getChildren(childType)) {
-                clone.registerChild(child.getPathElement(), child.clone());
+        final BasicResource clone = new BasicResource();
+        // a model unchanged since it was interned can be copied as is, its copy shares the interned strings
+        clone.model = dirty ? CompactModels.copy(model) : model.clone();
+        clone.dirty = false;
+        // build the maps of the clone in one go
+        final Map<String, ResourceProvider> clonedChildren = new LinkedHashMap<String, ResourceProvider>();
+        for (final Map.Entry<String, ResourceProvider> entry : getProviders().entrySet()) {
+            final ResourceProvider provider = entry.getValue();
+            final Map<String, Resource> clonedResources = new LinkedHashMap<String, Resource>();
+            for (final String name : provider.children()) {
+                final Resource resource = provider.get(name);
+                if (resource != null) {
+                    clonedResources.put(name, resource.clone());
+                }
+            }
+            if (!clonedResources.isEmpty()) {
+                clonedChildren.put(entry.getKey(), new DefaultResourceProvider(clonedResources));
             }
         }
+        clone.children = clonedChildren;
         return clone;
     }
 
+    /**
+     * Copy the local model of a resource without marking it as changed, as {@link #getModel()} has to.
+     *
+     * @param resource the resource
+     * @return a copy of its local model
+     */
+    static ModelNode copyModel(final Resource resource) {
+        if (resource instanceof BasicResource) {
+            return ((BasicResource) resource).model.clone();
+        }
+        return resource.getModel().clone();
+    }
+
+    /**
+     * Marks a resource and the resources below it as part of a published model. Other threads may read a published
+     * resource without locking, so its children are copied on every change from then on. Resources of other types
+     * are left alone.
+     *
+     * @param resource the root of the model
+     */
+    static void publish(final Resource resource) {
+        if (resource instanceof BasicResource) {
+            ((BasicResource) resource).publish();
+        }
+    }
+
+    private void publish() {
+        if (published) {
+            // the resources below have been published with it, or when they were added
+            return;
+        }
+        final Collection<ResourceProvider> providers;
+        synchronized (this) {
+            published = true;
+            providers = children.values();
+        }
+        for (final ResourceProvider provider : providers) {
+            if (provider instanceof DefaultResourceProvider) {
+                ((DefaultResourceProvider) provider).publish();
+            }
+        }
+    }
+
     protected void registerResourceProvider(final String type, final ResourceProvider provider) {
-        synchronized (children) {
+        synchronized (this) {
             if (children.containsKey(type)) {
                 throw MESSAGES.duplicateResourceType(type);
             }
-            children.put(type, provider);
+            addProvider(type, provider);
         }
     }
 
     protected final ResourceProvider getProvider(final String type) {
-        synchronized (children) {
+        if (published) {
+            return children.get(type);
+        }
+        synchronized (this) {
             return children.get(type);
         }
     }
 
     protected ResourceProvider getOrCreateProvider(final String type) {
-        synchronized (children) {
-            final ResourceProvider provider = children.get(type);
-            if(provider != null) {
-                return provider;
+        final ResourceProvider provider = getProvider(type);
+        if (provider != null) {
+            return provider;
+        }
+        synchronized (this) {
+            final ResourceProvider existing = children.get(type);
+            if(existing != null) {
+                return existing;
             } else {
                 final ResourceProvider newProvider = new DefaultResourceProvider();
-                children.put(type, newProvider);
+                addProvider(type, newProvider);
                 return newProvider;
             }
         }
     }
 
+    /**
+     * @return the children, which must not be changed by the caller
+     */
+    private Map<String, ResourceProvider> getProviders() {
+        if (published) {
+            return children;
+        }
+        synchronized (this) {
+            return new LinkedHashMap<String, ResourceProvider>(children);
+        }
+    }
+
+    private void addProvider(final String type, final ResourceProvider provider) {
+        assert Thread.holdsLock(this);
+        if (published || children.isEmpty()) {
+            final Map<String, ResourceProvider> newChildren = new LinkedHashMap<String, ResourceProvider>(children);
+            newChildren.put(type, provider);
+            children = newChildren;
+        } else {
+            children.put(type, provider);
+        }
+        if (published && provider instanceof DefaultResourceProvider) {
+            ((DefaultResourceProvider) provider).publish();
+        }
+    }
+
     static class DefaultResourceProvider implements ResourceProvider {
 
-        private final Map<String, Resource> children = new LinkedHashMap<String, Resource>();
+        /** Changed in place under the lock of this provider until published, replaced as a whole on change after */
+        private volatile Map<String, Resource> children;
+        private volatile boolean published;
 
         protected DefaultResourceProvider() {
+            this.children = Collections.emptyMap();
+        }
+
+        private DefaultResourceProvider(final Map<String, Resource> children) {
+            this.children = children;
         }
 
         @Override
         public Set<String> children() {
-            synchronized (children) {
+            if (published) {
+                return new LinkedHashSet<String>(children.keySet());
+            }
+            synchronized (this) {
                 return new LinkedHashSet<String>(children.keySet());
             }
         }
 
         @Override
         public boolean has(String name) {
-            synchronized (children) {
-                return children.get(name) != null;
-            }
+            return get(name) != null;
         }
 
         @Override
         public Resource get(String name) {
-            synchronized (children) {
+            if (published) {
+                return children.get(name);
+            }
+            synchronized (this) {
                 return children.get(name);
             }
         }
 
         @Override
         public boolean hasChildren() {
-            return ! children().isEmpty();
+            if (published) {
+                return ! children.isEmpty();
+            }
+            synchronized (this) {
+                return ! children.isEmpty();
+            }
         }
 
         @Override
         public void register(String name, Resource resource) {
-            synchronized (children) {
+            synchronized (this) {
                 if (children.containsKey(name)) {
                     throw MESSAGES.duplicateResource(name);
                 }
-                children.put(name, resource);
+                if (published || children.isEmpty()) {
+                    final Map<String, Resource> newChildren = new LinkedHashMap<String, Resource>(children);
+                    newChildren.put(name, resource);
+                    children = newChildren;
+                } else {
+                    children.put(name, resource);
+                }
+            }
+            if (published) {
+                // keep the model published as a whole, a published resource never has an unpublished child
+                BasicResource.publish(resource);
             }
         }
 
         @Override
         public Resource remove(String name) {
-            synchronized (children) {
-                return children.remove(name);
+            synchronized (this) {
+                if (!children.containsKey(name)) {
+                    return null;
+                }
+                if (!published) {
+                    return children.remove(name);
+                }
+                final Map<String, Resource> newChildren = new LinkedHashMap<String, Resource>(children);
+                final Resource removed = newChildren.remove(name);
+                children = newChildren;
+                return removed;
+            }
+        }
+
+        void publish() {
+            final Collection<Resource> resources;
+            synchronized (this) {
+                published = true;
+                resources = children.values();
+            }
+            for (final Resource resource : resources) {
+                BasicResource.publish(resource);
             }
         }
     }
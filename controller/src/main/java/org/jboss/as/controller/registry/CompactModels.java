@@ -0,0 +1,170 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.registry;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.Property;
+
+/**
+ * Copies models so that equal attribute names and short string values are held once, however many resources use
+ * them. Parsers and handlers tend to create a new string for every occurrence of a name or value, which on a large
+ * model costs far more heap than the values themselves. Interned strings are only weakly referenced, so a name or
+ * value no longer used by any model can be collected. Lookups do not lock, as many threads clone resources at once.
+ */
+final class CompactModels {
+
+    /** Longer string values are rarely shared, so they are not worth a lookup */
+    private static final int MAX_INTERNED_VALUE_LENGTH = 64;
+
+    private static final ConcurrentMap<Object, InternedString> interned = new ConcurrentHashMap<Object, InternedString>();
+    private static final ReferenceQueue<String> queue = new ReferenceQueue<String>();
+
+    private CompactModels() {
+    }
+
+    /**
+     * Create a deep copy of a model, with interned keys and string values.
+     *
+     * @param model the model to copy
+     * @return the copy
+     */
+    static ModelNode copy(final ModelNode model) {
+        final ModelNode copy = new ModelNode();
+        copy(model, copy);
+        return copy;
+    }
+
+    private static void copy(final ModelNode source, final ModelNode target) {
+        switch (source.getType()) {
+            case OBJECT:
+                target.setEmptyObject();
+                for (final String key : source.keys()) {
+                    copy(source.get(key), target.get(intern(key)));
+                }
+                break;
+            case LIST:
+                target.setEmptyList();
+                for (final ModelNode element : source.asList()) {
+                    copy(element, target.add());
+                }
+                break;
+            case PROPERTY:
+                final Property property = source.asProperty();
+                target.set(intern(property.getName()), copy(property.getValue()));
+                break;
+            case STRING:
+                final String value = source.asString();
+                target.set(value.length() > MAX_INTERNED_VALUE_LENGTH ? value : intern(value));
+                break;
+            default:
+                target.set(source);
+        }
+    }
+
+    static String intern(final String string) {
+        expungeStaleEntries();
+        final InternedString existing = interned.get(new LookupKey(string));
+        final String existingString = existing == null ? null : existing.get();
+        if (existingString != null) {
+            return existingString;
+        }
+        final InternedString ref = new InternedString(string, queue);
+        for (;;) {
+            final InternedString previous = interned.putIfAbsent(ref, ref);
+            if (previous == null) {
+                return string;
+            }
+            final String previousString = previous.get();
+            if (previousString != null) {
+                return previousString;
+            }
+            // collected since it was found; make room for the new entry
+            interned.remove(previous, previous);
+        }
+    }
+
+    private static void expungeStaleEntries() {
+        Object stale;
+        while ((stale = queue.poll()) != null) {
+            interned.remove(stale, stale);
+        }
+    }
+
+    /**
+     * Entry of the interned strings, equal to any entry or lookup key holding an equal string.
+     */
+    private static final class InternedString extends WeakReference<String> {
+        private final int hash;
+
+        private InternedString(final String string, final ReferenceQueue<String> queue) {
+            super(string, queue);
+            this.hash = string.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            final String string = get();
+            if (string == null) {
+                return false;
+            }
+            if (obj instanceof InternedString) {
+                return string.equals(((InternedString) obj).get());
+            }
+            return obj instanceof LookupKey && string.equals(((LookupKey) obj).string);
+        }
+    }
+
+    /**
+     * Key to look up an interned string without creating a weak reference for every lookup.
+     */
+    private static final class LookupKey {
+        private final String string;
+
+        private LookupKey(final String string) {
+            this.string = string;
+        }
+
+        @Override
+        public int hashCode() {
+            return string.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof InternedString ? obj.equals(this) : obj instanceof LookupKey && string.equals(((LookupKey) obj).string);
+        }
+    }
+}
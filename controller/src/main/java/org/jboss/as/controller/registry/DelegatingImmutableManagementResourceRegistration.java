@@ -22,6 +22,7 @@
 
 package org.jboss.as.controller.registry;
 
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -30,6 +31,7 @@ import org.jboss.as.controller.OperationStepHandler;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.descriptions.DescriptionProvider;
+import org.jboss.dmr.ModelNode;
 
 /**
  * {@link ImmutableManagementResourceRegistration} implementation that simply delegates to another
@@ -106,6 +108,11 @@ public class DelegatingImmutableManagementResourceRegistration implements Immuta
         return delegate.getModelDescription(address);
     }
 
+    @Override
+    public ModelNode getModelDescription(PathAddress address, Locale locale, boolean operations, boolean inheritedOperations, boolean recursive) {
+        return delegate.getModelDescription(address, locale, operations, inheritedOperations, recursive);
+    }
+
     @Override
     public Map<String, OperationEntry> getOperationDescriptions(PathAddress address, boolean inherited) {
         return delegate.getOperationDescriptions(address, inherited);
@@ -0,0 +1,90 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.registry;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Cache of the full descriptions of a single resource registration, keyed by locale and by the parts of the
+ * description that were requested. All caches are invalidated together whenever any registration changes, as a
+ * recursive description depends on the registrations of the whole subtree, and an operation description may be
+ * inherited from a parent. Each entry records the generation it was created in, so an entry created while a
+ * registration was changing is never returned. Only descriptions built entirely from
+ * {@link org.jboss.as.controller.descriptions.StaticDescriptionProvider}s are cached.
+ */
+final class DescriptionCache {
+
+    private static final AtomicInteger generation = new AtomicInteger();
+
+    private final ConcurrentMap<String, Entry> descriptions = new ConcurrentHashMap<String, Entry>();
+
+    /**
+     * Discard every cached description. Called whenever a resource, attribute, operation or proxy is registered
+     * or unregistered.
+     */
+    static void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * Get the description for the given parameters, creating and caching it if necessary.
+     *
+     * @param registration the registration this cache belongs to
+     * @return the description. Will not be {@code null} and cannot be modified
+     */
+    ModelNode get(final AbstractResourceRegistration registration, final Locale locale, final boolean operations,
+                  final boolean inheritedOperations, final boolean recursive) {
+        // read before creating the description, so a registration made while it is created leaves the entry stale
+        final int current = generation.get();
+        final String key = String.valueOf(locale) + (operations ? "+o" : "-o") + (inheritedOperations ? "+i" : "-i") + (recursive ? "+r" : "-r");
+        final Entry entry = descriptions.get(key);
+        if (entry != null && entry.generation == current && entry.description != null) {
+            return entry.description;
+        }
+        final ModelNode description = registration.createDescription(locale, operations, inheritedOperations, recursive);
+        description.protect();
+        // a dynamic description is remembered as such, so the registry is only checked once per generation
+        if (entry == null || entry.generation != current) {
+            final boolean cacheable = registration.isDescriptionStatic(operations, inheritedOperations, recursive);
+            descriptions.put(key, new Entry(current, cacheable ? description : null));
+        }
+        return description;
+    }
+
+    private static final class Entry {
+
+        private final int generation;
+        /** The cached description, or {@code null} if the description is dynamic */
+        private final ModelNode description;
+
+        private Entry(final int generation, final ModelNode description) {
+            this.generation = generation;
+            this.description = description;
+        }
+    }
+}
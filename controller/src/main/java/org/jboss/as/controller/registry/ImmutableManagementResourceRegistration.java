@@ -22,6 +22,7 @@
 
 package org.jboss.as.controller.registry;
 
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 
@@ -30,6 +31,7 @@ import org.jboss.as.controller.OperationStepHandler;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.controller.PathElement;
 import org.jboss.as.controller.descriptions.DescriptionProvider;
+import org.jboss.dmr.ModelNode;
 
 /**
  * Read-only view of a {@link ManagementResourceRegistration}.
@@ -134,6 +136,22 @@ public interface ImmutableManagementResourceRegistration {
      */
     DescriptionProvider getModelDescription(PathAddress address);
 
+    /**
+     * Get the full description of the resource at the given address, as returned by the
+     * {@code read-resource-description} operation. Attribute descriptions include their access type, storage and
+     * restart requirements. Descriptions are cached per locale until the registrations change, so the returned
+     * node is shared and cannot be modified; callers that need to modify it should work on a copy.
+     *
+     * @param address the address, relative to this node
+     * @param locale the locale, or {@code null} for the default locale
+     * @param operations {@code true} to include the descriptions of the resource's operations
+     * @param inheritedOperations {@code true} to include inherited operations, if {@code operations} is set
+     * @param recursive {@code true} to include the descriptions of child resources registered with this
+     *                  controller. The descriptions of remote child resources are left undefined
+     * @return the description, or {@code null} if no resource is registered at the address
+     */
+    ModelNode getModelDescription(PathAddress address, Locale locale, boolean operations, boolean inheritedOperations, boolean recursive);
+
     /**
      * Get a map of descriptions of all operations available at an address.
      *
@@ -85,6 +85,7 @@ final class NodeSubregistry {
         if (appearingRegistry != null) {
             throw MESSAGES.nodeAlreadyRegistered(getLocationString(), elementValue);
         }
+        DescriptionCache.invalidate();
     }
 
     ProxyControllerRegistration registerProxyController(final String elementValue, final ProxyController proxyController) {
@@ -93,12 +94,14 @@ final class NodeSubregistry {
         if (appearingRegistry != null) {
             throw MESSAGES.nodeAlreadyRegistered(getLocationString(), elementValue);
         }
+        DescriptionCache.invalidate();
         //register(elementValue, newRegistry);
         return newRegistry;
     }
 
     void unregisterProxyController(final String elementValue) {
         childRegistriesUpdater.remove(this, elementValue);
+        DescriptionCache.invalidate();
     }
 
     OperationEntry getOperationEntry(final ListIterator<PathElement> iterator, final String child, final String operationName, OperationEntry inherited) {
@@ -228,7 +228,7 @@ public interface Resource extends Cloneable {
         }
 
         static ModelNode readModel(final PathAddress address, final Resource resource, final int level, final ResourceFilter filter) {
-            final ModelNode model = resource.getModel().clone();
+            final ModelNode model = BasicResource.copyModel(resource);
             final boolean recursive = level == -1 ? true : level > 0;
             if(recursive) {
                 final int newLevel = level == -1 ? -1 : level - 1;
@@ -244,6 +244,16 @@ public interface Resource extends Cloneable {
             return model;
         }
 
+        /**
+         * Mark a model as published, i.e. about to be handed to threads which read it without locking. The resources
+         * of the model are changed in place until then, and copy their children on every change afterwards.
+         *
+         * @param resource the root resource
+         */
+        public static void publish(final Resource resource) {
+            BasicResource.publish(resource);
+        }
+
         /**
          * Navigate.
          *
@@ -0,0 +1,202 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADD;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.EXTENSION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.descriptions.DescriptionProvider;
+import org.jboss.as.controller.operations.common.TestExtensionAddHandler;
+import org.jboss.as.controller.operations.common.Util;
+import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
+import org.jboss.as.controller.persistence.NullConfigurationPersister;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.controller.registry.Resource;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceBuilder;
+import org.jboss.msc.service.ServiceContainer;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.ServiceTarget;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Boots two subsystems through the {@link ParallelBootOperationStepHandler} and checks the {@link BootProfile} it
+ * records.
+ */
+public class BootProfileTestCase {
+
+    // each of the three fake operations takes a third of the subsystem's time
+    private static final long FAKE_MODEL_TIME = 90;
+    private static final long FAKE_RUNTIME_TIME = 210;
+    private static final long LOGGING_RUNTIME_TIME = 50;
+
+    private static final DescriptionProvider DESC_PROVIDER = new DescriptionProvider() {
+        @Override
+        public ModelNode getModelDescription(Locale locale) {
+            return new ModelNode();
+        }
+    };
+
+    private ServiceContainer container;
+    private ExecutorService executor;
+    private BootProfileControllerService svc;
+
+    @Before
+    public void bootController() throws InterruptedException {
+        container = ServiceContainer.Factory.create("test");
+        executor = Executors.newCachedThreadPool();
+        ServiceTarget target = container.subTarget();
+        svc = new BootProfileControllerService(new ControlledProcessState(true));
+        svc.getExecutorServiceInjector().inject(executor);
+        ServiceBuilder<ModelController> builder = target.addService(ServiceName.of("ModelController"), svc);
+        builder.install();
+        assertTrue(svc.latch.await(30, TimeUnit.SECONDS));
+    }
+
+    @After
+    public void shutdown() throws InterruptedException {
+        container.shutdown();
+        container.awaitTermination(5, TimeUnit.SECONDS);
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSubsystemTimes() {
+        final ModelNode profile = svc.getBootProfile().toModelNode();
+
+        final ModelNode fake = profile.get(BootProfile.SUBSYSTEMS, "fake");
+        assertEquals(3, fake.get(BootProfile.OPERATIONS).asInt());
+        assertTrue(fake.toString(), fake.get(BootProfile.MODEL_STAGE_TIME).asLong() >= FAKE_MODEL_TIME);
+        assertTrue(fake.toString(), fake.get(BootProfile.RUNTIME_STAGE_TIME).asLong() >= FAKE_RUNTIME_TIME);
+
+        // the logging runtime steps run serially, before the parallel runtime step
+        final ModelNode logging = profile.get(BootProfile.SUBSYSTEMS, "logging");
+        assertEquals(2, logging.get(BootProfile.OPERATIONS).asInt());
+        assertTrue(logging.toString(), logging.get(BootProfile.MODEL_STAGE_TIME).asLong() < FAKE_MODEL_TIME);
+        assertTrue(logging.toString(), logging.get(BootProfile.RUNTIME_STAGE_TIME).asLong() >= 2 * LOGGING_RUNTIME_TIME);
+
+        assertTrue(profile.toString(), profile.get(BootProfile.MODEL_STAGE_TIME).asLong() >= FAKE_MODEL_TIME);
+        assertTrue(profile.toString(), profile.get(BootProfile.RUNTIME_STAGE_TIME).asLong() >= FAKE_RUNTIME_TIME);
+
+        // slowest first
+        final List<String> order = new ArrayList<String>(profile.get(BootProfile.SUBSYSTEMS).keys());
+        assertEquals("fake", order.get(0));
+    }
+
+    private static ModelNode add(final String... address) {
+        final ModelNode op = Util.getEmptyOperation(ADD, new ModelNode().setEmptyList());
+        for (int i = 0; i < address.length; i += 2) {
+            op.get(OP_ADDR).add(address[i], address[i + 1]);
+        }
+        return op;
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class BootProfileControllerService extends AbstractControllerService {
+
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        BootProfileControllerService(final ControlledProcessState processState) {
+            super(OperationContext.Type.SERVER, new NullConfigurationPersister(), processState, DESC_PROVIDER, null);
+        }
+
+        @Override
+        protected void initModel(Resource rootResource, ManagementResourceRegistration rootRegistration) {
+            final TestExtensionAddHandler extensionAdd = new TestExtensionAddHandler();
+            rootRegistration.registerSubModel(PathElement.pathElement(EXTENSION), DESC_PROVIDER)
+                    .registerOperationHandler(ADD, extensionAdd, extensionAdd, false);
+            registerSubsystem(rootRegistration, "logging", new SubsystemAddHandler(0, LOGGING_RUNTIME_TIME));
+            registerSubsystem(rootRegistration, "fake", new SubsystemAddHandler(FAKE_MODEL_TIME / 3, FAKE_RUNTIME_TIME / 3));
+        }
+
+        private static void registerSubsystem(final ManagementResourceRegistration rootRegistration, final String name,
+                                              final OperationStepHandler addHandler) {
+            final ManagementResourceRegistration subsystem = rootRegistration.registerSubModel(PathElement.pathElement(SUBSYSTEM, name), DESC_PROVIDER);
+            subsystem.registerOperationHandler(ADD, addHandler, DESC_PROVIDER, false);
+            subsystem.registerSubModel(PathElement.pathElement("resource"), DESC_PROVIDER)
+                    .registerOperationHandler(ADD, addHandler, DESC_PROVIDER, false);
+        }
+
+        @Override
+        protected void boot(final BootContext context) throws ConfigurationPersistenceException {
+            final List<ModelNode> ops = new ArrayList<ModelNode>();
+            ops.add(add(EXTENSION, "org.jboss.as.test"));
+            ops.add(add(SUBSYSTEM, "logging"));
+            ops.add(add(SUBSYSTEM, "logging", "resource", "a"));
+            ops.add(add(SUBSYSTEM, "fake"));
+            ops.add(add(SUBSYSTEM, "fake", "resource", "a"));
+            ops.add(add(SUBSYSTEM, "fake", "resource", "b"));
+            boot(ops);
+            finishBoot();
+            latch.countDown();
+        }
+    }
+
+    /**
+     * Adds a resource, taking the given time in each stage.
+     */
+    private static class SubsystemAddHandler implements OperationStepHandler {
+
+        private final long modelTime;
+        private final long runtimeTime;
+
+        private SubsystemAddHandler(final long modelTime, final long runtimeTime) {
+            this.modelTime = modelTime;
+            this.runtimeTime = runtimeTime;
+        }
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+            context.createResource(PathAddress.EMPTY_ADDRESS);
+            sleep(modelTime);
+            context.addStep(new OperationStepHandler() {
+                @Override
+                public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+                    sleep(runtimeTime);
+                    context.completeStep();
+                }
+            }, OperationContext.Stage.RUNTIME);
+            context.completeStep();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller;
+
+import static org.jboss.as.controller.LargeModelReadTestCase.CHILDREN;
+import static org.jboss.as.controller.LargeModelReadTestCase.PARENTS;
+import static org.jboss.as.controller.LargeModelReadTestCase.readResource;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceBuilder;
+import org.jboss.msc.service.ServiceContainer;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.ServiceTarget;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Times a recursive read of the large synthetic model of {@link LargeModelReadTestCase}. The numbers are only
+ * reported, as they depend on the machine. Run with {@code mvn test -Pbenchmarks}.
+ */
+public class LargeModelReadBenchmark {
+
+    private ServiceContainer container;
+    private ModelController controller;
+
+    @Before
+    public void setupController() throws InterruptedException {
+        container = ServiceContainer.Factory.create("test");
+        ServiceTarget target = container.subTarget();
+        ControlledProcessState processState = new ControlledProcessState(true);
+        LargeModelReadTestCase.LargeModelControllerService svc = new LargeModelReadTestCase.LargeModelControllerService(processState);
+        ServiceBuilder<ModelController> builder = target.addService(ServiceName.of("ModelController"), svc);
+        builder.install();
+        svc.latch.await();
+        controller = svc.getValue();
+        processState.setRunning();
+    }
+
+    @After
+    public void shutdownServiceContainer() {
+        if (container != null) {
+            container.shutdown();
+            try {
+                container.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                container = null;
+            }
+        }
+    }
+
+    @Test
+    public void testRecursiveReadTime() throws Exception {
+        final ModelNode operation = readResource(PathAddress.EMPTY_ADDRESS, true);
+        // warm up
+        for (int i = 0; i < 3; i++) {
+            controller.execute(operation, null, null, null);
+        }
+        final int runs = 5;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            assertEquals(SUCCESS, controller.execute(operation, null, null, null).get(OUTCOME).asString());
+        }
+        long time = (System.nanoTime() - start) / runs;
+        System.out.println("Recursive read-resource of " + (PARENTS * (CHILDREN + 1)) + " resources took "
+                + TimeUnit.NANOSECONDS.toMillis(time) + "ms");
+    }
+}
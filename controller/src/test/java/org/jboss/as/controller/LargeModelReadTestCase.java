@@ -0,0 +1,180 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_CHILDREN_RESOURCES_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.READ_RESOURCE_OPERATION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RECURSIVE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESULT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUCCESS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.controller.descriptions.common.CommonProviders;
+import org.jboss.as.controller.operations.global.GlobalOperationHandlers;
+import org.jboss.as.controller.persistence.ConfigurationPersistenceException;
+import org.jboss.as.controller.persistence.NullConfigurationPersister;
+import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.as.controller.registry.Resource;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceBuilder;
+import org.jboss.msc.service.ServiceContainer;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.ServiceTarget;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Reads of a large synthetic model, checking that read-only operations see the published model without copying it.
+ */
+public class LargeModelReadTestCase {
+
+    static final int PARENTS = 100;
+    static final int CHILDREN = 200;
+
+    private ServiceContainer container;
+    private ModelController controller;
+
+    @Before
+    public void setupController() throws InterruptedException {
+        container = ServiceContainer.Factory.create("test");
+        ServiceTarget target = container.subTarget();
+        ControlledProcessState processState = new ControlledProcessState(true);
+        LargeModelControllerService svc = new LargeModelControllerService(processState);
+        ServiceBuilder<ModelController> builder = target.addService(ServiceName.of("ModelController"), svc);
+        builder.install();
+        svc.latch.await();
+        controller = svc.getValue();
+        processState.setRunning();
+    }
+
+    @After
+    public void shutdownServiceContainer() {
+        if (container != null) {
+            container.shutdown();
+            try {
+                container.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                container = null;
+            }
+        }
+    }
+
+    @Test
+    public void testRecursiveRead() throws Exception {
+        ModelNode result = controller.execute(readResource(PathAddress.EMPTY_ADDRESS, true), null, null, null);
+        assertEquals(SUCCESS, result.get(OUTCOME).asString());
+        assertEquals(PARENTS, result.get(RESULT, "parent").keys().size());
+        for (int i = 0; i < PARENTS; i++) {
+            ModelNode parent = result.get(RESULT, "parent", "p" + i);
+            assertEquals(i, parent.get("index").asInt());
+            assertEquals(CHILDREN, parent.get("child").keys().size());
+            assertEquals(CHILDREN - 1, parent.get("child", "c" + (CHILDREN - 1), "index").asInt());
+        }
+    }
+
+    @Test
+    public void testReadChildrenResources() throws Exception {
+        ModelNode operation = readResource(PathAddress.pathAddress(PathElement.pathElement("parent", "p1")), false);
+        operation.get(OP).set(READ_CHILDREN_RESOURCES_OPERATION);
+        operation.get("child-type").set("child");
+        ModelNode result = controller.execute(operation, null, null, null);
+        assertEquals(SUCCESS, result.get(OUTCOME).asString());
+        assertEquals(CHILDREN, result.get(RESULT).keys().size());
+        assertEquals(7, result.get(RESULT, "c7", "index").asInt());
+    }
+
+    @Test
+    public void testLazyCopyIsolation() throws Exception {
+        final Resource snapshot = Resource.Factory.create();
+        snapshot.getModel().get("value").set(1);
+        final Resource child = Resource.Factory.create();
+        child.getModel().get("value").set(2);
+        snapshot.registerChild(PathElement.pathElement("child", "one"), child);
+
+        final Resource view = new LazyCopyResource(snapshot, null);
+        view.getModel().get("value").set(10);
+        view.requireChild(PathElement.pathElement("child", "one")).getModel().get("value").set(20);
+        assertEquals(10, view.getModel().get("value").asInt());
+        assertEquals(1, snapshot.getModel().get("value").asInt());
+        assertEquals(2, child.getModel().get("value").asInt());
+
+        view.registerChild(PathElement.pathElement("child", "two"), Resource.Factory.create());
+        assertTrue(view.hasChild(PathElement.pathElement("child", "two")));
+        assertFalse(snapshot.hasChild(PathElement.pathElement("child", "two")));
+        // the local model read before the first change survives the copy
+        assertEquals(10, view.getModel().get("value").asInt());
+    }
+
+    static ModelNode readResource(final PathAddress address, final boolean recursive) {
+        final ModelNode operation = new ModelNode();
+        operation.get(OP).set(READ_RESOURCE_OPERATION);
+        operation.get(OP_ADDR).set(address.toModelNode());
+        operation.get(RECURSIVE).set(recursive);
+        return operation;
+    }
+
+    static class LargeModelControllerService extends AbstractControllerService {
+
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        LargeModelControllerService(final ControlledProcessState processState) {
+            super(OperationContext.Type.SERVER, new NullConfigurationPersister(), processState, ModelControllerImplUnitTestCase.DESC_PROVIDER, null);
+        }
+
+        @Override
+        protected void initModel(Resource rootResource, ManagementResourceRegistration rootRegistration) {
+            rootRegistration.registerOperationHandler(READ_RESOURCE_OPERATION, GlobalOperationHandlers.READ_RESOURCE, CommonProviders.READ_RESOURCE_PROVIDER, true);
+            rootRegistration.registerOperationHandler(READ_CHILDREN_RESOURCES_OPERATION, GlobalOperationHandlers.READ_CHILDREN_RESOURCES, CommonProviders.READ_CHILDREN_RESOURCES_PROVIDER, true);
+            ManagementResourceRegistration parentRegistration = rootRegistration.registerSubModel(PathElement.pathElement("parent"), ModelControllerImplUnitTestCase.DESC_PROVIDER);
+            parentRegistration.registerSubModel(PathElement.pathElement("child"), ModelControllerImplUnitTestCase.DESC_PROVIDER);
+
+            for (int i = 0; i < PARENTS; i++) {
+                final Resource parent = Resource.Factory.create();
+                parent.getModel().get("index").set(i);
+                for (int j = 0; j < CHILDREN; j++) {
+                    final Resource child = Resource.Factory.create();
+                    child.getModel().get("index").set(j);
+                    parent.registerChild(PathElement.pathElement("child", "c" + j), child);
+                }
+                rootResource.registerChild(PathElement.pathElement("parent", "p" + i), parent);
+            }
+        }
+
+        @Override
+        protected void finishBoot() throws ConfigurationPersistenceException {
+            super.finishBoot();
+            latch.countDown();
+        }
+    }
+}
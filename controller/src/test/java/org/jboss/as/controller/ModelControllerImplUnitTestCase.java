@@ -99,6 +99,7 @@ public class ModelControllerImplUnitTestCase {
     private ServiceContainer container;
     private ModelController controller;
     private AtomicBoolean sharedState;
+    private OperationStatistics statistics;
 
     public static void toggleRuntimeState(AtomicBoolean state) {
         boolean runtimeVal = false;
@@ -120,6 +121,7 @@ public class ModelControllerImplUnitTestCase {
         ServiceBuilder<ModelController> builder = target.addService(ServiceName.of("ModelController"), svc);
         builder.install();
         sharedState = svc.state;
+        statistics = svc.getOperationStatistics();
         svc.latch.await();
         controller = svc.getValue();
         ModelNode setup = Util.getEmptyOperation("setup", new ModelNode());
@@ -173,6 +175,7 @@ public class ModelControllerImplUnitTestCase {
             rootRegistration.registerOperationHandler("restart-required", new RestartRequiredHandler(), DESC_PROVIDER, false);
             rootRegistration.registerOperationHandler("dependent-service", new DependentServiceHandler(), DESC_PROVIDER, false);
             rootRegistration.registerOperationHandler("remove-dependent-service", new RemoveDependentServiceHandler(), DESC_PROVIDER, false);
+            rootRegistration.registerOperationHandler("blocking-write", new BlockingWriteHandler(), DESC_PROVIDER, false);
 
             rootRegistration.registerOperationHandler(READ_RESOURCE_OPERATION, GlobalOperationHandlers.READ_RESOURCE, CommonProviders.READ_RESOURCE_PROVIDER, true);
             rootRegistration.registerOperationHandler(READ_ATTRIBUTE_OPERATION, GlobalOperationHandlers.READ_ATTRIBUTE, CommonProviders.READ_ATTRIBUTE_PROVIDER, true);
@@ -211,6 +214,35 @@ public class ModelControllerImplUnitTestCase {
         testGoodModelExecution();
     }
 
+    @Test
+    public void testOperationStatistics() throws Exception {
+        assertFalse(statistics.isEnabled());
+        controller.execute(getOperation("good", "attr1", 5), null, null, null);
+        assertFalse(statistics.toModelNode().get(OperationStatistics.OPERATIONS).has("good"));
+
+        statistics.setEnabled(true);
+        controller.execute(getOperation("good", "attr1", 1), null, null, null);
+        controller.execute(getOperation("good", "attr1", 2), null, null, null);
+        controller.execute(getOperation("bad", "attr1", 3), null, null, null);
+
+        final ModelNode result = statistics.toModelNode();
+        final ModelNode good = result.get(OperationStatistics.OPERATIONS, "good");
+        assertEquals(2, good.get(OperationStatistics.COUNT).asLong());
+        assertEquals(0, good.get(OperationStatistics.ROLLBACKS).asLong());
+        long histogramCount = 0;
+        for (final String bucket : good.get(OperationStatistics.HISTOGRAM).keys()) {
+            histogramCount += good.get(OperationStatistics.HISTOGRAM, bucket).asLong();
+        }
+        assertEquals(2, histogramCount);
+        assertEquals(1, result.get(OperationStatistics.OPERATIONS, "bad", OperationStatistics.ROLLBACKS).asLong());
+        assertEquals(1, result.get(OperationStatistics.ROLLBACKS).asLong());
+        assertEquals(2, result.get(OperationStatistics.STEP_HANDLERS, ModelStageGoodHandler.class.getName(), OperationStatistics.COUNT).asLong());
+        assertEquals(3, result.get(OperationStatistics.LOCK_WAIT, OperationStatistics.COUNT).asLong());
+
+        statistics.reset();
+        assertFalse(statistics.toModelNode().get(OperationStatistics.OPERATIONS).has("good"));
+    }
+
     /**
      * Test successfully updating the model but then having the caller roll back the transaction.
      */
@@ -529,6 +561,41 @@ public class ModelControllerImplUnitTestCase {
         operation.get(CHILD_TYPE).set("child");
     }
 
+    @Test
+    public void testReadDuringWrite() throws Exception {
+        BlockingWriteHandler.updated = new CountDownLatch(1);
+        BlockingWriteHandler.release = new CountDownLatch(1);
+        final ModelNode[] writeResult = new ModelNode[1];
+        final Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeResult[0] = controller.execute(getOperation("blocking-write", "attr1", 5), null, null, null);
+            }
+        });
+        writer.start();
+        try {
+            assertTrue(BlockingWriteHandler.updated.await(5, TimeUnit.SECONDS));
+
+            // the writer holds the controller lock, readers must neither wait for it nor see its uncommitted change
+            final ModelNode operation = new ModelNode();
+            operation.get(OP).set(READ_ATTRIBUTE_OPERATION);
+            operation.get(OP_ADDR).setEmptyList();
+            operation.get(NAME).set("attr1");
+            ModelNode result = controller.execute(operation, null, null, null);
+            assertEquals(SUCCESS, result.get(OUTCOME).asString());
+            assertEquals(1, result.get(RESULT).asInt());
+
+            BlockingWriteHandler.release.countDown();
+            writer.join(5000);
+            assertEquals(SUCCESS, writeResult[0].get(OUTCOME).asString());
+
+            result = controller.execute(operation, null, null, null);
+            assertEquals(5, result.get(RESULT).asInt());
+        } finally {
+            BlockingWriteHandler.release.countDown();
+        }
+    }
+
     @Test
     @Ignore("AS7-1103 Fails intermittently for unknown reasons")
     public void testReloadRequired() throws Exception {
@@ -700,6 +767,26 @@ public class ModelControllerImplUnitTestCase {
         }
     }
 
+    public static class BlockingWriteHandler implements OperationStepHandler {
+
+        static volatile CountDownLatch updated;
+        static volatile CountDownLatch release;
+
+        @Override
+        public void execute(OperationContext context, ModelNode operation) {
+            String name = operation.require(NAME).asString();
+            ModelNode model = context.readResourceForUpdate(PathAddress.EMPTY_ADDRESS).getModel();
+            model.get(name).set(operation.require(VALUE));
+            updated.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            context.completeStep();
+        }
+    }
+
     public static class ModelStageGoodHandler implements OperationStepHandler {
 
         @Override
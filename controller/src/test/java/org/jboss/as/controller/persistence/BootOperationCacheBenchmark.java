@@ -0,0 +1,88 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.persistence;
+
+import static org.jboss.as.controller.persistence.BootOperationCacheTestCase.SUBSYSTEMS;
+import static org.jboss.as.controller.persistence.BootOperationCacheTestCase.createPersister;
+import static org.jboss.as.controller.persistence.BootOperationCacheTestCase.writeConfiguration;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Times loading the configuration of {@link BootOperationCacheTestCase} by parsing the XML and from the
+ * {@link BootOperationCache}. The numbers are only reported, as they depend on the machine. Run with
+ * {@code mvn test -Pbenchmarks}.
+ */
+public class BootOperationCacheBenchmark {
+
+    private File dir;
+    private File config;
+
+    @Before
+    public void createConfiguration() throws Exception {
+        dir = File.createTempFile("config", "");
+        dir.delete();
+        dir.mkdirs();
+        config = new File(dir, "test.xml");
+        writeConfiguration(config, 0);
+    }
+
+    @After
+    public void deleteDirectory() {
+        System.clearProperty(XmlConfigurationPersister.BOOT_CACHE_PROPERTY);
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testBootTime() throws Exception {
+        final int runs = 20;
+        // warm up
+        for (int i = 0; i < runs; i++) {
+            createPersister(config).load();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            createPersister(config).load();
+        }
+        final long parseTime = (System.nanoTime() - start) / runs;
+
+        System.setProperty(XmlConfigurationPersister.BOOT_CACHE_PROPERTY, "true");
+        for (int i = 0; i < runs; i++) {
+            createPersister(config).load();
+        }
+        start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            createPersister(config).load();
+        }
+        final long cacheTime = (System.nanoTime() - start) / runs;
+        System.out.println("Loading " + SUBSYSTEMS + " subsystems took " + TimeUnit.NANOSECONDS.toMicros(parseTime)
+                + "us parsing the XML and " + TimeUnit.NANOSECONDS.toMicros(cacheTime) + "us from the boot cache");
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ADD;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.util.List;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.staxmapper.XMLElementReader;
+import org.jboss.staxmapper.XMLExtendedStreamReader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Boots from a configuration of 40 subsystems with and without the {@link BootOperationCache}.
+ */
+public class BootOperationCacheTestCase {
+
+    private static final String NAMESPACE = "urn:jboss:test:1.0";
+    static final int SUBSYSTEMS = 40;
+    private static final int RESOURCES = 50;
+
+    private File dir;
+    private File config;
+
+    @Before
+    public void createConfiguration() throws Exception {
+        dir = File.createTempFile("config", "");
+        dir.delete();
+        dir.mkdirs();
+        config = new File(dir, "test.xml");
+        writeConfiguration(0);
+    }
+
+    @After
+    public void deleteDirectory() {
+        System.clearProperty(XmlConfigurationPersister.BOOT_CACHE_PROPERTY);
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testCacheReused() throws Exception {
+        System.setProperty(XmlConfigurationPersister.BOOT_CACHE_PROPERTY, "true");
+        final List<ModelNode> parsed = createPersister().load();
+        assertTrue(new File(dir, config.getName() + XmlConfigurationPersister.BOOT_CACHE_SUFFIX).exists());
+        assertEquals(parsed, createPersister().load());
+    }
+
+    @Test
+    public void testChangedConfigurationParsed() throws Exception {
+        System.setProperty(XmlConfigurationPersister.BOOT_CACHE_PROPERTY, "true");
+        createPersister().load();
+        writeConfiguration(1);
+        final List<ModelNode> operations = createPersister().load();
+        assertEquals(1, operations.get(1).get("value").asInt());
+    }
+
+    private XmlConfigurationPersister createPersister() {
+        return createPersister(config);
+    }
+
+    private void writeConfiguration(final int value) throws Exception {
+        writeConfiguration(config, value);
+    }
+
+    static XmlConfigurationPersister createPersister(final File config) {
+        return new XmlConfigurationPersister(config, new QName(NAMESPACE, "server"), new TestParser(), null);
+    }
+
+    static void writeConfiguration(final File config, final int value) throws Exception {
+        final Writer writer = new FileWriter(config);
+        try {
+            writer.write("<server xmlns=\"" + NAMESPACE + "\">\n");
+            for (int i = 0; i < SUBSYSTEMS; i++) {
+                writer.write("  <subsystem name=\"subsystem" + i + "\">\n");
+                for (int j = 0; j < RESOURCES; j++) {
+                    writer.write("    <resource name=\"resource" + j + "\" value=\"" + value + "\" description=\"A resource of subsystem " + i + "\"/>\n");
+                }
+                writer.write("  </subsystem>\n");
+            }
+            writer.write("</server>\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static class TestParser implements XMLElementReader<List<ModelNode>> {
+
+        @Override
+        public void readElement(final XMLExtendedStreamReader reader, final List<ModelNode> operations) throws XMLStreamException {
+            while (reader.nextTag() != END_ELEMENT) {
+                final String subsystem = reader.getAttributeValue(null, "name");
+                final ModelNode subsystemAdd = new ModelNode();
+                subsystemAdd.get(OP).set(ADD);
+                subsystemAdd.get(OP_ADDR).add("subsystem", subsystem);
+                operations.add(subsystemAdd);
+                while (reader.nextTag() != END_ELEMENT) {
+                    final ModelNode add = new ModelNode();
+                    add.get(OP).set(ADD);
+                    add.get(OP_ADDR).add("subsystem", subsystem).add("resource", reader.getAttributeValue(null, "name"));
+                    add.get("value").set(Integer.parseInt(reader.getAttributeValue(null, "value")));
+                    add.get("description").set(reader.getAttributeValue(null, "description"));
+                    operations.add(add);
+                    reader.nextTag();
+                }
+            }
+        }
+    }
+}
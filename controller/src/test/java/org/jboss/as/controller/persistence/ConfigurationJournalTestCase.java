@@ -0,0 +1,212 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.dmr.ModelNode;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of deferred configuration persistence through the {@link ConfigurationJournal}.
+ */
+public class ConfigurationJournalTestCase {
+
+    private File dir;
+
+    @Before
+    public void createDirectory() throws Exception {
+        dir = File.createTempFile("config", "");
+        dir.delete();
+        dir.mkdirs();
+    }
+
+    @After
+    public void deleteDirectory() {
+        System.clearProperty(XmlConfigurationPersister.SNAPSHOT_INTERVAL_PROPERTY);
+        System.clearProperty(XmlConfigurationPersister.SNAPSHOT_CHANGES_PROPERTY);
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void testAppendAndRead() throws Exception {
+        final ConfigurationJournal journal = new ConfigurationJournal(new File(dir, "test.journal"));
+        final PathAddress address = PathAddress.pathAddress(PathElement.pathElement("subsystem", "test"), PathElement.pathElement("queue", "a"));
+        final ModelNode add = add(address, 10);
+        add.get(ModelDescriptionConstants.OPERATION_HEADERS, ModelDescriptionConstants.ROLLBACK_ON_RUNTIME_FAILURE).set(false);
+
+        journal.append(add);
+        journal.append(remove(address));
+        journal.close();
+        assertEquals(2, journal.getRecordCount());
+
+        final List<ModelNode> records = journal.read();
+        assertEquals(2, records.size());
+        final ModelNode first = records.get(0).get(ConfigurationJournal.OPERATION);
+        assertEquals(ModelDescriptionConstants.ADD, first.get(ModelDescriptionConstants.OP).asString());
+        assertEquals(address, PathAddress.pathAddress(first.get(ModelDescriptionConstants.OP_ADDR)));
+        assertEquals(10, first.get("size").asInt());
+        // the headers only applied to the first execution
+        assertFalse(first.has(ModelDescriptionConstants.OPERATION_HEADERS));
+        assertTrue(add.has(ModelDescriptionConstants.OPERATION_HEADERS));
+        assertEquals(remove(address), records.get(1).get(ConfigurationJournal.OPERATION));
+
+        journal.reset();
+        assertEquals(0, journal.getRecordCount());
+        assertTrue(journal.read().isEmpty());
+    }
+
+    @Test
+    public void testChangesCoalesced() throws Exception {
+        System.setProperty(XmlConfigurationPersister.SNAPSHOT_INTERVAL_PROPERTY, "60000");
+        System.setProperty(XmlConfigurationPersister.SNAPSHOT_CHANGES_PROPERTY, "50");
+        final CountingPersister persister = new CountingPersister(new File(dir, "test.xml"));
+        final PathAddress queue = PathAddress.pathAddress(PathElement.pathElement("queue", "a"));
+        final Set<PathAddress> affected = Collections.singleton(queue);
+
+        for (int i = 0; i < 120; i++) {
+            final ModelNode model = new ModelNode();
+            model.get("queue", "a", "size").set(i);
+            persister.store(model, writeSize(queue, i), affected).commit();
+        }
+        // two snapshots forced by the change limit, the last twenty changes only in the journal
+        assertEquals(2, persister.snapshots);
+        assertEquals(99, persister.lastSnapshot.get("queue", "a", "size").asInt());
+        assertTrue(persister.getJournalFile().exists());
+
+        // the journal records the operations themselves
+        final List<ModelNode> records = new ConfigurationJournal(persister.getJournalFile()).read();
+        assertEquals(20, records.size());
+        assertEquals(writeSize(queue, 119), records.get(19).get(ConfigurationJournal.OPERATION));
+
+        persister.flush();
+        assertEquals(3, persister.snapshots);
+        assertEquals(119, persister.lastSnapshot.get("queue", "a", "size").asInt());
+        assertFalse(persister.getJournalFile().exists());
+
+        // nothing left to write
+        persister.flush();
+        assertEquals(3, persister.snapshots);
+    }
+
+    @Test
+    public void testChangeWithoutOperationWrittenOnCommit() throws Exception {
+        System.setProperty(XmlConfigurationPersister.SNAPSHOT_INTERVAL_PROPERTY, "60000");
+        final CountingPersister persister = new CountingPersister(new File(dir, "test.xml"));
+        final ModelNode model = new ModelNode();
+        model.get("queue", "a", "size").set(1);
+
+        persister.store(model, Collections.singleton(PathAddress.pathAddress(PathElement.pathElement("queue", "a")))).commit();
+        assertEquals(1, persister.snapshots);
+        assertFalse(persister.getJournalFile().exists());
+
+        persister.store(model, null, Collections.singleton(PathAddress.pathAddress(PathElement.pathElement("queue", "a")))).commit();
+        assertEquals(2, persister.snapshots);
+        assertFalse(persister.getJournalFile().exists());
+    }
+
+    @Test
+    public void testReplay() throws Exception {
+        final PathAddress subsystem = PathAddress.pathAddress(PathElement.pathElement("subsystem", "test"));
+        final PathAddress a = subsystem.append(PathElement.pathElement("queue", "a"));
+        final PathAddress b = subsystem.append(PathElement.pathElement("queue", "b"));
+        final List<ModelNode> updates = Arrays.asList(add(subsystem, null), add(a, 1), add(b, 2));
+
+        // the parameters of an add don't have to match the attributes it stores
+        final ModelNode addFromTemplate = add(a, null);
+        addFromTemplate.get("template").set("large");
+
+        final ConfigurationJournal journal = new ConfigurationJournal(new File(dir, "test.journal"));
+        journal.append(writeSize(b, 20));
+        journal.append(remove(a));
+        journal.append(addFromTemplate);
+        journal.close();
+
+        final List<ModelNode> result = ConfigurationJournal.apply(updates, journal.read());
+        // the recorded operations run after the parsed ones, as they were executed
+        assertEquals(Arrays.asList(add(subsystem, null), add(a, 1), add(b, 2), writeSize(b, 20), remove(a), addFromTemplate), result);
+        // the parsed operations are left alone
+        assertEquals(3, updates.size());
+        assertEquals(2, updates.get(2).get("size").asInt());
+    }
+
+    private static ModelNode add(final PathAddress address, final Integer size) {
+        final ModelNode operation = new ModelNode();
+        operation.get(ModelDescriptionConstants.OP).set(ModelDescriptionConstants.ADD);
+        operation.get(ModelDescriptionConstants.OP_ADDR).set(address.toModelNode());
+        if (size != null) {
+            operation.get("size").set(size);
+        }
+        return operation;
+    }
+
+    private static ModelNode remove(final PathAddress address) {
+        final ModelNode operation = new ModelNode();
+        operation.get(ModelDescriptionConstants.OP).set(ModelDescriptionConstants.REMOVE);
+        operation.get(ModelDescriptionConstants.OP_ADDR).set(address.toModelNode());
+        return operation;
+    }
+
+    private static ModelNode writeSize(final PathAddress address, final int size) {
+        final ModelNode operation = new ModelNode();
+        operation.get(ModelDescriptionConstants.OP).set(ModelDescriptionConstants.WRITE_ATTRIBUTE_OPERATION);
+        operation.get(ModelDescriptionConstants.OP_ADDR).set(address.toModelNode());
+        operation.get(ModelDescriptionConstants.NAME).set("size");
+        operation.get(ModelDescriptionConstants.VALUE).set(size);
+        return operation;
+    }
+
+    private static class CountingPersister extends XmlConfigurationPersister {
+
+        private int snapshots;
+        private ModelNode lastSnapshot;
+
+        CountingPersister(final File file) {
+            super(file, new QName("urn:test", "test"), null, null);
+        }
+
+        @Override
+        protected void writeSnapshot(final ModelNode model) throws ConfigurationPersistenceException {
+            snapshots++;
+            lastSnapshot = model;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jboss.as.controller.PathElement;
+import org.junit.Test;
+
+/**
+ * Tests the children of a {@link BasicResource} before and after it has been published.
+ */
+public class BasicResourceTestCase {
+
+    @Test
+    public void testChildrenKeepTheirOrder() {
+        final Resource root = Resource.Factory.create();
+        for (int i = 0; i < 1000; i++) {
+            root.registerChild(PathElement.pathElement("deployment", "deployment" + i), Resource.Factory.create());
+        }
+        assertNotNull(root.removeChild(PathElement.pathElement("deployment", "deployment500")));
+        assertNull(root.removeChild(PathElement.pathElement("deployment", "deployment500")));
+        assertOrder(root.getChildrenNames("deployment"), 999);
+
+        Resource.Tools.publish(root);
+        root.registerChild(PathElement.pathElement("deployment", "deployment500"), Resource.Factory.create());
+        final Resource clone = root.clone();
+        assertEquals(1000, clone.getChildrenNames("deployment").size());
+        assertEquals("deployment500", last(clone.getChildrenNames("deployment")));
+    }
+
+    @Test
+    public void testChangesAfterPublishingDoNotAffectReaders() {
+        final Resource root = Resource.Factory.create();
+        final Resource child = Resource.Factory.create();
+        root.registerChild(PathElement.pathElement("subsystem", "one"), child);
+        Resource.Tools.publish(root);
+
+        final Set<Resource.ResourceEntry> before = root.getChildren("subsystem");
+        root.registerChild(PathElement.pathElement("subsystem", "two"), Resource.Factory.create());
+        child.registerChild(PathElement.pathElement("connector", "http"), Resource.Factory.create());
+        assertEquals(1, before.size());
+        assertEquals(2, root.getChildrenNames("subsystem").size());
+        assertTrue(root.requireChild(PathElement.pathElement("subsystem", "one")).hasChildren("connector"));
+
+        // a clone is private to the thread which changes it
+        final Resource clone = root.clone();
+        clone.removeChild(PathElement.pathElement("subsystem", "two"));
+        assertFalse(clone.hasChild(PathElement.pathElement("subsystem", "two")));
+        assertTrue(root.hasChild(PathElement.pathElement("subsystem", "two")));
+    }
+
+    @Test
+    public void testConcurrentChangesBeforePublishing() throws Exception {
+        // like the parallel boot, which adds the subsystems of one model from several threads
+        final Resource root = Resource.Factory.create();
+        final int threads = 4;
+        final int children = 2000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final List<Thread> workers = new ArrayList<Thread>();
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            final Thread worker = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < children; i++) {
+                            root.registerChild(PathElement.pathElement("subsystem", thread + "-" + i), Resource.Factory.create());
+                            root.getChildrenNames("subsystem");
+                            root.getChildTypes();
+                        }
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    }
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertNull(failure.get());
+        assertEquals(threads * children, root.getChildrenNames("subsystem").size());
+    }
+
+    private static void assertOrder(final Set<String> names, final int size) {
+        assertEquals(size, names.size());
+        int expected = 0;
+        for (final String name : names) {
+            if (expected == 500) {
+                expected++;
+            }
+            assertEquals("deployment" + expected++, name);
+        }
+    }
+
+    private static String last(final Set<String> names) {
+        final Iterator<String> iterator = names.iterator();
+        String last = null;
+        while (iterator.hasNext()) {
+            last = iterator.next();
+        }
+        return last;
+    }
+}
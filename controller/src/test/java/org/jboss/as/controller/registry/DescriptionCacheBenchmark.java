@@ -0,0 +1,68 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.registry;
+
+import static org.jboss.as.controller.registry.DescriptionCacheTestCase.RESOURCES;
+import static org.jboss.as.controller.registry.DescriptionCacheTestCase.SUBSYSTEMS;
+import static org.jboss.as.controller.registry.DescriptionCacheTestCase.createRegistry;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.controller.PathAddress;
+import org.junit.Test;
+
+/**
+ * Compares the time taken to create a recursive description of the large registry of
+ * {@link DescriptionCacheTestCase} with the time taken to serve it from the cache. The numbers are only reported, as
+ * they depend on the machine. Run with {@code mvn test -Pbenchmarks}.
+ */
+public class DescriptionCacheBenchmark {
+
+    private static final int ITERATIONS = 20;
+
+    @Test
+    public void testCachedRecursiveDescription() {
+        final AtomicInteger created = new AtomicInteger();
+        final ManagementResourceRegistration root = createRegistry(created);
+
+        // a cold cache on every iteration is the cost of creating the description, as every request used to
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            DescriptionCache.invalidate();
+            root.getModelDescription(PathAddress.EMPTY_ADDRESS, null, true, true, true).clone();
+        }
+        final long cold = System.nanoTime() - start;
+
+        root.getModelDescription(PathAddress.EMPTY_ADDRESS, null, true, true, true);
+        final int count = created.get();
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            root.getModelDescription(PathAddress.EMPTY_ADDRESS, null, true, true, true).clone();
+        }
+        final long cached = System.nanoTime() - start;
+        assertEquals(count, created.get());
+
+        System.out.println("Recursive description of " + (SUBSYSTEMS * (RESOURCES + 1)) + " resources: "
+                + (cold / ITERATIONS / 1000) + "us created, " + (cached / ITERATIONS / 1000) + "us cached");
+    }
+}
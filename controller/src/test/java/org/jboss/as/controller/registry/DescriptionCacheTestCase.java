@@ -0,0 +1,231 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.registry;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ACCESS_TYPE;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.ATTRIBUTES;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.CHILDREN;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.MODEL_DESCRIPTION;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OPERATIONS;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.RESTART_REQUIRED;
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.TYPE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.descriptions.DescriptionProvider;
+import org.jboss.as.controller.descriptions.StaticDescriptionProvider;
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the description cache of {@link ManagementResourceRegistration}.
+ */
+public class DescriptionCacheTestCase {
+
+    static final int SUBSYSTEMS = 50;
+    static final int RESOURCES = 20;
+    private static final int ATTRIBUTES = 20;
+
+    private static final OperationStepHandler NOOP = new OperationStepHandler() {
+        @Override
+        public void execute(final OperationContext context, final ModelNode operation) {
+            context.completeStep();
+        }
+    };
+
+    private final AtomicInteger created = new AtomicInteger();
+    private ManagementResourceRegistration root;
+
+    @Before
+    public void setup() {
+        root = createRegistry(created);
+    }
+
+    @Test
+    public void testDescriptionIsCached() {
+        final PathAddress address = PathAddress.pathAddress(PathElement.pathElement("subsystem", "subsystem0"));
+        final ModelNode description = root.getModelDescription(address, null, true, true, false);
+        assertEquals("subsystem", description.get(DESCRIPTION).asString());
+        assertEquals("READ_WRITE", description.get(ATTRIBUTES, "attribute0", ACCESS_TYPE).asString());
+        assertEquals("no-services", description.get(ATTRIBUTES, "attribute0", RESTART_REQUIRED).asString());
+        assertTrue(description.get(OPERATIONS).has("test"));
+
+        final int count = created.get();
+        assertSame(description, root.getModelDescription(address, null, true, true, false));
+        assertEquals(count, created.get());
+
+        // different parameters are cached separately
+        assertFalse(root.getModelDescription(address, null, false, true, false).has(OPERATIONS));
+        assertFalse(root.getModelDescription(address, Locale.FRENCH, true, true, false) == description);
+
+        assertNull(root.getModelDescription(PathAddress.pathAddress(PathElement.pathElement("subsystem", "missing")), null, false, false, false));
+    }
+
+    @Test
+    public void testRecursiveDescription() {
+        final ModelNode description = root.getModelDescription(PathAddress.EMPTY_ADDRESS, null, false, false, true);
+        assertEquals(SUBSYSTEMS, description.get(CHILDREN, "subsystem", MODEL_DESCRIPTION).keys().size());
+        final ModelNode resource = description.get(CHILDREN, "subsystem", MODEL_DESCRIPTION, "subsystem7", CHILDREN, "resource3", MODEL_DESCRIPTION, "*");
+        assertEquals("resource", resource.get(DESCRIPTION).asString());
+        assertEquals("READ_WRITE", resource.get(ATTRIBUTES, "attribute3", ACCESS_TYPE).asString());
+
+        // the child's own cached description is the same as the one included in its parent
+        final PathAddress address = PathAddress.pathAddress(PathElement.pathElement("subsystem", "subsystem7"), PathElement.pathElement("resource3"));
+        assertEquals(resource, root.getModelDescription(address, null, false, false, true));
+    }
+
+    @Test
+    public void testRegistrationInvalidatesCache() {
+        final PathAddress address = PathAddress.pathAddress(PathElement.pathElement("subsystem", "subsystem0"));
+        final ModelNode before = root.getModelDescription(PathAddress.EMPTY_ADDRESS, null, true, true, true);
+        assertFalse(before.get(CHILDREN, "subsystem", MODEL_DESCRIPTION, "subsystem0", OPERATIONS).has("added"));
+
+        root.getSubModel(address).registerOperationHandler("added", NOOP, new CountingDescriptionProvider(created, "added", 0));
+        final ModelNode after = root.getModelDescription(PathAddress.EMPTY_ADDRESS, null, true, true, true);
+        assertTrue(after.get(CHILDREN, "subsystem", MODEL_DESCRIPTION, "subsystem0", OPERATIONS).has("added"));
+
+        root.getModelDescription(address, null, false, false, false);
+        final int count = created.get();
+        root.getSubModel(address).registerReadOnlyAttribute("another", null, AttributeAccess.Storage.CONFIGURATION);
+        root.getModelDescription(address, null, false, false, false);
+        assertTrue(created.get() > count);
+    }
+
+    @Test
+    public void testCachedRecursiveDescription() {
+        root.getModelDescription(PathAddress.EMPTY_ADDRESS, null, true, true, true);
+        final int count = created.get();
+        root.getModelDescription(PathAddress.EMPTY_ADDRESS, null, true, true, true);
+        assertEquals(count, created.get());
+    }
+
+    @Test
+    public void testDynamicDescriptionIsNotCached() {
+        final PathAddress address = PathAddress.pathAddress(PathElement.pathElement("subsystem", "subsystem0"));
+        final AtomicInteger dynamic = new AtomicInteger();
+        root.getSubModel(address).registerOperationHandler("dynamic", NOOP, new DescriptionProvider() {
+            @Override
+            public ModelNode getModelDescription(final Locale locale) {
+                final ModelNode node = new ModelNode();
+                node.get(DESCRIPTION).set("call " + dynamic.incrementAndGet());
+                return node;
+            }
+        });
+
+        assertEquals("call 1", root.getModelDescription(address, null, true, true, false).get(OPERATIONS, "dynamic", DESCRIPTION).asString());
+        assertEquals("call 2", root.getModelDescription(address, null, true, true, false).get(OPERATIONS, "dynamic", DESCRIPTION).asString());
+        // the parent's recursive description includes the dynamic one, so it is not cached either
+        final ModelNode description = root.getModelDescription(PathAddress.EMPTY_ADDRESS, null, true, true, true);
+        assertEquals("call 3", description.get(CHILDREN, "subsystem", MODEL_DESCRIPTION, "subsystem0", OPERATIONS, "dynamic", DESCRIPTION).asString());
+
+        // descriptions that don't include it are still cached
+        final ModelNode withoutOperations = root.getModelDescription(address, null, false, false, false);
+        assertSame(withoutOperations, root.getModelDescription(address, null, false, false, false));
+    }
+
+    @Test
+    public void testRegistrationWhileCreatingDescription() {
+        final PathAddress address = PathAddress.pathAddress(PathElement.pathElement("subsystem", "subsystem0"));
+        final AtomicInteger calls = new AtomicInteger();
+        final ManagementResourceRegistration registration = root.registerSubModel(PathElement.pathElement("subsystem", "changing"),
+                new StaticDescriptionProvider() {
+                    @Override
+                    public ModelNode getModelDescription(final Locale locale) {
+                        if (calls.incrementAndGet() == 1) {
+                            // another thread changes the registrations while the first description is created
+                            root.getSubModel(address).registerReadOnlyAttribute("concurrent", null, AttributeAccess.Storage.CONFIGURATION);
+                        }
+                        final ModelNode node = new ModelNode();
+                        node.get(DESCRIPTION).set("changing");
+                        return node;
+                    }
+                });
+
+        final PathAddress changing = PathAddress.pathAddress(PathElement.pathElement("subsystem", "changing"));
+        final ModelNode first = registration.getModelDescription(PathAddress.EMPTY_ADDRESS, null, false, false, false);
+        assertEquals("changing", first.get(DESCRIPTION).asString());
+        final ModelNode second = root.getModelDescription(changing, null, false, false, false);
+        assertFalse(first == second);
+        assertEquals(2, calls.get());
+        assertSame(second, root.getModelDescription(changing, null, false, false, false));
+    }
+
+    static ManagementResourceRegistration createRegistry(final AtomicInteger created) {
+        final ManagementResourceRegistration root = ManagementResourceRegistration.Factory.create(new CountingDescriptionProvider(created, "root", 0));
+        for (int i = 0; i < SUBSYSTEMS; i++) {
+            final ManagementResourceRegistration subsystem = root.registerSubModel(PathElement.pathElement("subsystem", "subsystem" + i),
+                    new CountingDescriptionProvider(created, "subsystem", ATTRIBUTES));
+            registerAttributes(subsystem);
+            subsystem.registerOperationHandler("test", NOOP, new CountingDescriptionProvider(created, "test", 0));
+            for (int j = 0; j < RESOURCES; j++) {
+                registerAttributes(subsystem.registerSubModel(PathElement.pathElement("resource" + j),
+                        new CountingDescriptionProvider(created, "resource", ATTRIBUTES)));
+            }
+        }
+        return root;
+    }
+
+    private static void registerAttributes(final ManagementResourceRegistration registration) {
+        for (int i = 0; i < ATTRIBUTES; i++) {
+            registration.registerReadWriteAttribute("attribute" + i, null, NOOP, AttributeAccess.Storage.CONFIGURATION);
+        }
+    }
+
+    private static class CountingDescriptionProvider implements StaticDescriptionProvider {
+
+        private final AtomicInteger created;
+        private final String description;
+        private final int attributes;
+
+        CountingDescriptionProvider(final AtomicInteger created, final String description, final int attributes) {
+            this.created = created;
+            this.description = description;
+            this.attributes = attributes;
+        }
+
+        @Override
+        public ModelNode getModelDescription(final Locale locale) {
+            created.incrementAndGet();
+            final ModelNode node = new ModelNode();
+            node.get(DESCRIPTION).set(description);
+            for (int i = 0; i < attributes; i++) {
+                node.get(ATTRIBUTES, "attribute" + i, DESCRIPTION).set("An attribute of the " + description);
+                node.get(ATTRIBUTES, "attribute" + i, TYPE).set(ModelType.STRING);
+            }
+            return node;
+        }
+    }
+}
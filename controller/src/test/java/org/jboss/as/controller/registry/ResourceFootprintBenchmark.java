@@ -0,0 +1,61 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.controller.registry;
+
+import static org.jboss.as.controller.registry.ResourceFootprintTestCase.ATTRIBUTES;
+import static org.jboss.as.controller.registry.ResourceFootprintTestCase.createDeployment;
+import static org.junit.Assert.assertEquals;
+
+import org.jboss.as.controller.PathElement;
+import org.junit.Test;
+
+/**
+ * Heap footprint of a large model before and after its resources have been compacted by {@link BasicResource#clone()}.
+ * The numbers are only reported, as they depend on the machine. Run with {@code mvn test -Pbenchmarks}.
+ */
+public class ResourceFootprintBenchmark {
+
+    private static final int DEPLOYMENTS = 5000;
+
+    @Test
+    public void testFootprint() {
+        Resource root = Resource.Factory.create();
+        for (int i = 0; i < DEPLOYMENTS; i++) {
+            root.registerChild(PathElement.pathElement("deployment", "deployment" + i), createDeployment(i));
+        }
+        final long parsed = usedMemory();
+        final Resource compacted = root.clone();
+        root = null;
+        final long after = usedMemory();
+        assertEquals(DEPLOYMENTS, compacted.getChildrenNames("deployment").size());
+        System.out.println(DEPLOYMENTS + " deployments of " + ATTRIBUTES + " attributes used "
+                + (parsed / 1024) + "KB of heap as parsed and " + (after / 1024) + "KB once compacted");
+    }
+
+    private static long usedMemory() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
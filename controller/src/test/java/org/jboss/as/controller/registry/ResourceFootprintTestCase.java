@@ -0,0 +1,106 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.controller.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.jboss.as.controller.PathElement;
+import org.jboss.dmr.ModelNode;
+import org.junit.Test;
+
+/**
+ * Tests of the compaction of models by {@link BasicResource#clone()}.
+ */
+public class ResourceFootprintTestCase {
+
+    static final int ATTRIBUTES = 20;
+
+    @Test
+    public void testCloneInternsStrings() {
+        final Resource one = createDeployment(1);
+        final Resource two = createDeployment(2);
+        final Resource root = Resource.Factory.create();
+        root.registerChild(PathElement.pathElement("deployment", "one"), one);
+        root.registerChild(PathElement.pathElement("deployment", "two"), two);
+
+        final Resource clone = root.clone();
+        final ModelNode cloneOne = clone.requireChild(PathElement.pathElement("deployment", "one")).getModel();
+        final ModelNode cloneTwo = clone.requireChild(PathElement.pathElement("deployment", "two")).getModel();
+        assertEquals(one.getModel(), cloneOne);
+        assertEquals(two.getModel(), cloneTwo);
+        assertSame(cloneOne.keys().iterator().next(), cloneTwo.keys().iterator().next());
+        assertSame(cloneOne.get("attribute0").asString(), cloneTwo.get("attribute0").asString());
+
+        // changing the clone leaves the original alone
+        cloneOne.get("attribute0").set("changed");
+        assertEquals("value0", one.getModel().get("attribute0").asString());
+    }
+
+    @Test
+    public void testInternConcurrently() throws Exception {
+        final int threads = 8;
+        final String[][] results = new String[threads][];
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            final String[] result = results[i] = new String[100];
+            workers[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int j = 0; j < result.length; j++) {
+                        result[j] = CompactModels.intern(new String("value" + j));
+                    }
+                }
+            };
+            workers[i].start();
+        }
+        start.countDown();
+        for (final Thread worker : workers) {
+            worker.join();
+        }
+        for (int i = 1; i < threads; i++) {
+            for (int j = 0; j < 100; j++) {
+                assertSame(results[0][j], results[i][j]);
+            }
+        }
+    }
+
+    static Resource createDeployment(final int index) {
+        final Resource resource = Resource.Factory.create();
+        final ModelNode model = resource.getModel();
+        for (int i = 0; i < ATTRIBUTES; i++) {
+            // new strings for every resource, as a parser would create them
+            model.get(new String("attribute" + i)).set(new String("value" + i));
+        }
+        model.get(new String("runtime-name")).set("deployment" + index + ".war");
+        return resource;
+    }
+}
@@ -25,12 +25,14 @@ package org.jboss.as.domain.http.server;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.FAILED;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OUTCOME;
 import static org.jboss.as.domain.http.server.Constants.ACCEPT;
+import static org.jboss.as.domain.http.server.Constants.ACCEPT_ENCODING;
 import static org.jboss.as.domain.http.server.Constants.ACCESS_CONTROL_ALLOW_ORIGIN;
 import static org.jboss.as.domain.http.server.Constants.APPLICATION_DMR_ENCODED;
 import static org.jboss.as.domain.http.server.Constants.APPLICATION_JSON;
 import static org.jboss.as.domain.http.server.Constants.CONTENT_DISPOSITION;
 import static org.jboss.as.domain.http.server.Constants.CONTENT_TYPE;
 import static org.jboss.as.domain.http.server.Constants.GET;
+import static org.jboss.as.domain.http.server.Constants.GZIP;
 import static org.jboss.as.domain.http.server.Constants.INTERNAL_SERVER_ERROR;
 import static org.jboss.as.domain.http.server.Constants.METHOD_NOT_ALLOWED;
 import static org.jboss.as.domain.http.server.Constants.OK;
@@ -41,17 +43,21 @@ import static org.jboss.as.domain.http.server.Constants.UTF_8;
 import static org.jboss.as.domain.http.server.HttpServerLogger.ROOT_LOGGER;
 import static org.jboss.as.domain.http.server.HttpServerMessages.MESSAGES;
 
+import java.io.BufferedWriter;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.PrintWriter;
+import java.io.OutputStreamWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.net.URI;
 import java.net.URLDecoder;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.regex.Matcher;
@@ -71,6 +77,7 @@ import org.jboss.com.sun.net.httpserver.HttpExchange;
 import org.jboss.com.sun.net.httpserver.HttpServer;
 import org.jboss.dmr.ModelNode;
 import org.jboss.sasl.callback.DigestHashCallback;
+import org.jboss.threads.AsyncFuture;
 
 /**
  * An embedded web server that provides a JSON over HTTP API to the domain management model.
@@ -158,7 +165,7 @@ class DomainApiHandler implements ManagementHttpHandler {
         }
 
         // TODO Determine what format the response should be in for a deployment upload request.
-        writeResponse(http, false, false, response, OK, false, TEXT_HTML);
+        writeResponse(http, false, false, response, OK, false, TEXT_HTML, false);
     }
 
     /**
@@ -171,7 +178,7 @@ class DomainApiHandler implements ManagementHttpHandler {
         final URI request = http.getRequestURI();
         final String requestMethod = http.getRequestMethod();
 
-        boolean isGet = GET.equals(requestMethod);
+        final boolean isGet = GET.equals(requestMethod);
         if (!isGet && !POST.equals(requestMethod)) {
             http.sendResponseHeaders(METHOD_NOT_ALLOWED, -1);
 
@@ -179,11 +186,9 @@ class DomainApiHandler implements ManagementHttpHandler {
         }
 
         ModelNode dmr = null;
-        ModelNode response;
-        int status = OK;
 
         Headers requestHeaders = http.getRequestHeaders();
-        boolean encode = APPLICATION_DMR_ENCODED.equals(requestHeaders.getFirst(ACCEPT))
+        final boolean encode = APPLICATION_DMR_ENCODED.equals(requestHeaders.getFirst(ACCEPT))
                 || APPLICATION_DMR_ENCODED.equals(requestHeaders.getFirst(CONTENT_TYPE));
 
         try {
@@ -195,27 +200,73 @@ class DomainApiHandler implements ManagementHttpHandler {
             return;
         }
 
+        final boolean pretty = dmr.hasDefined("json.pretty") && dmr.get("json.pretty").asBoolean();
+        final boolean compress = acceptsGzip(requestHeaders);
+
+        /*
+         * Don't hold on to this thread while the operation executes; the response is written by whichever thread
+         * completes the operation, and the connection then goes back to the server to read the next request.
+         */
+        final AsyncFuture<ModelNode> future;
         try {
-            response = modelController.execute(new OperationBuilder(dmr).build());
+            future = modelController.executeAsync(new OperationBuilder(dmr).build(), null);
         } catch (Throwable t) {
             ROOT_LOGGER.modelRequestError(t);
             http.sendResponseHeaders(INTERNAL_SERVER_ERROR, -1);
 
             return;
         }
+        future.addListener(new AsyncFuture.Listener<ModelNode, HttpExchange>() {
+            public void handleComplete(AsyncFuture<? extends ModelNode> future, HttpExchange http) {
+                try {
+                    final ModelNode response = future.getUninterruptibly();
+                    int status = OK;
+                    if (response.hasDefined(OUTCOME) && FAILED.equals(response.get(OUTCOME).asString())) {
+                        status = INTERNAL_SERVER_ERROR;
+                    }
+                    writeResponse(http, isGet, pretty, response, status, encode, compress);
+                } catch (Throwable t) {
+                    handleFailed(future, t, http);
+                }
+            }
+
+            public void handleFailed(AsyncFuture<? extends ModelNode> future, Throwable cause, HttpExchange http) {
+                ROOT_LOGGER.modelRequestError(cause);
+                sendError(http);
+            }
 
-        if (response.hasDefined(OUTCOME) && FAILED.equals(response.get(OUTCOME).asString())) {
-            status = INTERNAL_SERVER_ERROR;
+            public void handleCancelled(AsyncFuture<? extends ModelNode> future, HttpExchange http) {
+                sendError(http);
+            }
+        }, http);
+    }
+
+    private static boolean acceptsGzip(final Headers requestHeaders) {
+        final List<String> acceptEncoding = requestHeaders.get(ACCEPT_ENCODING);
+        if (acceptEncoding != null) {
+            for (String value : acceptEncoding) {
+                if (value.toLowerCase(Locale.ENGLISH).contains(GZIP)) {
+                    return true;
+                }
+            }
         }
+        return false;
+    }
 
-        boolean pretty = dmr.hasDefined("json.pretty") && dmr.get("json.pretty").asBoolean();
-        writeResponse(http, isGet, pretty, response, status, encode);
+    private void sendError(final HttpExchange http) {
+        try {
+            http.sendResponseHeaders(INTERNAL_SERVER_ERROR, -1);
+        } catch (Throwable ignored) {
+            // the response was already under way
+        } finally {
+            http.close();
+        }
     }
 
      private void writeResponse(final HttpExchange http, boolean isGet, boolean pretty, ModelNode response, int status,
-            boolean encode) throws IOException {
+            boolean encode, boolean compress) throws IOException {
          String contentType = encode ? APPLICATION_DMR_ENCODED : APPLICATION_JSON;
-         writeResponse(http, isGet, pretty, response, status, encode, contentType);
+         writeResponse(http, isGet, pretty, response, status, encode, contentType, compress);
      }
 
     /**
@@ -227,17 +278,17 @@ class DomainApiHandler implements ManagementHttpHandler {
      * @param response The DMR response from the operation.
      * @param status The HTTP status code to be included in the response.
      * @param encode Flag indicating whether or not to Base64 encode the response payload.
+     * @param compress Flag indicating whether or not a large response may be gzip compressed.
      * @throws IOException if an error occurs while attempting to generate the HTTP response.
      */
     private void writeResponse(final HttpExchange http, boolean isGet, boolean pretty, ModelNode response, int status,
-            boolean encode, String contentType) throws IOException {
+            boolean encode, String contentType, boolean compress) throws IOException {
         final Headers responseHeaders = http.getResponseHeaders();
         responseHeaders.add(CONTENT_TYPE, contentType);
         responseHeaders.add(ACCESS_CONTROL_ALLOW_ORIGIN, "*");
-        http.sendResponseHeaders(status, 0);
 
-        final OutputStream out = http.getResponseBody();
-        final PrintWriter print = new PrintWriter(out);
+        final OutputStream out = new ResponseOutputStream(http, status, compress);
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8));
 
         // GET (read) operations will never have a compensating update, and the status is already
         // available via the http response status code, so unwrap them.
@@ -248,12 +299,13 @@ class DomainApiHandler implements ManagementHttpHandler {
             if (encode) {
                 response.writeBase64(out);
             } else {
-                response.writeJSONString(print, !pretty);
+                // stream the JSON out rather than building the whole string first
+                new ModelNodeJsonWriter(writer, !pretty).write(response);
             }
         } finally {
-            print.flush();
+            writer.flush();
             out.flush();
-            safeClose(print);
+            safeClose(writer);
             safeClose(out);
         }
     }
@@ -0,0 +1,205 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.http.server;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import javax.xml.bind.DatatypeConverter;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.Property;
+
+/**
+ * Writes a {@link ModelNode} as JSON directly to a {@link Writer}, walking the node rather than first building the
+ * complete JSON string, so a large result does not have to be held in memory twice and the first bytes can be sent
+ * while the rest is still being written. The output uses the same representation of each node type as
+ * {@link ModelNode#toJSONString(boolean)} and can be read back with {@link ModelNode#fromJSONStream(java.io.InputStream)}.
+ */
+final class ModelNodeJsonWriter {
+
+    private static final String INDENT = "    ";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer writer;
+    private final boolean compact;
+
+    /**
+     * @param writer the writer to write to
+     * @param compact {@code true} to write everything on one line, {@code false} to pretty print
+     */
+    ModelNodeJsonWriter(final Writer writer, final boolean compact) {
+        this.writer = writer;
+        this.compact = compact;
+    }
+
+    /**
+     * Write a node. The writer is not flushed.
+     *
+     * @param node the node to write
+     * @throws IOException if writing fails
+     */
+    void write(final ModelNode node) throws IOException {
+        write(node, 0);
+    }
+
+    private void write(final ModelNode node, final int depth) throws IOException {
+        switch (node.getType()) {
+            case UNDEFINED:
+                writer.write("null");
+                break;
+            case BOOLEAN:
+            case INT:
+            case LONG:
+            case DOUBLE:
+            case BIG_INTEGER:
+            case BIG_DECIMAL:
+                writer.write(node.asString());
+                break;
+            case STRING:
+                writeString(node.asString());
+                break;
+            case BYTES:
+                writeWrapped("BYTES_VALUE", DatatypeConverter.printBase64Binary(node.asBytes()), depth);
+                break;
+            case EXPRESSION:
+                writeWrapped("EXPRESSION_VALUE", node.asString(), depth);
+                break;
+            case TYPE:
+                writeWrapped("TYPE_MODEL_VALUE", node.asString(), depth);
+                break;
+            case PROPERTY: {
+                final Property property = node.asProperty();
+                writer.write('{');
+                writeKey(property.getName(), depth + 1);
+                write(property.getValue(), depth + 1);
+                newLine(depth);
+                writer.write('}');
+                break;
+            }
+            case LIST: {
+                writer.write('[');
+                boolean first = true;
+                for (ModelNode element : node.asList()) {
+                    if (!first) {
+                        writer.write(',');
+                    }
+                    first = false;
+                    newLine(depth + 1);
+                    write(element, depth + 1);
+                }
+                if (!first) {
+                    newLine(depth);
+                }
+                writer.write(']');
+                break;
+            }
+            case OBJECT: {
+                writer.write('{');
+                boolean first = true;
+                for (String key : node.keys()) {
+                    if (!first) {
+                        writer.write(',');
+                    }
+                    first = false;
+                    writeKey(key, depth + 1);
+                    write(node.get(key), depth + 1);
+                }
+                if (!first) {
+                    newLine(depth);
+                }
+                writer.write('}');
+                break;
+            }
+            default:
+                throw new IllegalArgumentException(String.valueOf(node.getType()));
+        }
+    }
+
+    private void writeWrapped(final String key, final String value, final int depth) throws IOException {
+        writer.write('{');
+        writeKey(key, depth + 1);
+        writeString(value);
+        newLine(depth);
+        writer.write('}');
+    }
+
+    private void writeKey(final String key, final int depth) throws IOException {
+        newLine(depth);
+        writeString(key);
+        writer.write(compact ? ":" : " : ");
+    }
+
+    private void newLine(final int depth) throws IOException {
+        if (!compact) {
+            writer.write('\n');
+            for (int i = 0; i < depth; i++) {
+                writer.write(INDENT);
+            }
+        }
+    }
+
+    private void writeString(final String value) throws IOException {
+        writer.write('"');
+        final int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            // write the run of characters that need no escaping in one go
+            writer.write(value, start, i - start);
+            start = i + 1;
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\b':
+                    writer.write("\\b");
+                    break;
+                case '\f':
+                    writer.write("\\f");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    writer.write("\\u00");
+                    writer.write(HEX[c >> 4]);
+                    writer.write(HEX[c & 0xf]);
+            }
+        }
+        writer.write(value, start, length - start);
+        writer.write('"');
+    }
+}
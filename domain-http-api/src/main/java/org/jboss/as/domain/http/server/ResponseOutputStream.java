@@ -0,0 +1,125 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.http.server;
+
+import static org.jboss.as.domain.http.server.Constants.CONTENT_ENCODING;
+import static org.jboss.as.domain.http.server.Constants.GZIP;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.jboss.com.sun.net.httpserver.HttpExchange;
+
+/**
+ * The body of a management response. The first {@link #BUFFER_SIZE} bytes are held back: a response that fits
+ * is sent with a Content-Length once the stream is closed, while a larger one is streamed chunked as it is
+ * written, gzip compressed if the client accepts it. The response headers are sent by this stream, so callers
+ * must not send them themselves.
+ */
+final class ResponseOutputStream extends OutputStream {
+
+    static final int BUFFER_SIZE = 8 * 1024;
+
+    private final HttpExchange http;
+    private final int status;
+    private final boolean compress;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int count;
+    private OutputStream out;
+    private boolean closed;
+
+    /**
+     * @param http the exchange to respond to
+     * @param status the HTTP status code of the response
+     * @param compress {@code true} if a large response may be gzip compressed
+     */
+    ResponseOutputStream(final HttpExchange http, final int status, final boolean compress) {
+        this.http = http;
+        this.status = status;
+        this.compress = compress;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (out == null && count == BUFFER_SIZE) {
+            startStreaming();
+        }
+        if (out == null) {
+            buffer[count++] = (byte) b;
+        } else {
+            out.write(b);
+        }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (out == null && count + len <= BUFFER_SIZE) {
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+        } else {
+            if (out == null) {
+                startStreaming();
+            }
+            out.write(b, off, len);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        // nothing is sent until the response is known to be large or is complete
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (out == null) {
+            http.sendResponseHeaders(status, count == 0 ? -1 : count);
+            final OutputStream body = http.getResponseBody();
+            try {
+                body.write(buffer, 0, count);
+            } finally {
+                body.close();
+            }
+            buffer = null;
+        } else {
+            out.close();
+        }
+    }
+
+    private void startStreaming() throws IOException {
+        if (compress) {
+            http.getResponseHeaders().set(CONTENT_ENCODING, GZIP);
+        }
+        http.sendResponseHeaders(status, 0);
+        out = compress ? new GZIPOutputStream(http.getResponseBody(), BUFFER_SIZE) : http.getResponseBody();
+        out.write(buffer, 0, count);
+        buffer = null;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.domain.http.server;
+
+import static org.jboss.as.domain.http.server.DomainApiHandlerTestCase.get;
+import static org.jboss.as.domain.http.server.DomainApiHandlerTestCase.largeResult;
+import static org.jboss.as.domain.http.server.DomainApiHandlerTestCase.read;
+import static org.junit.Assert.assertEquals;
+
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * A simple loopback load benchmark of the {@link DomainApiHandler} endpoint with keep-alive clients. The numbers are
+ * only reported, as they depend on the machine. Run with {@code mvn test -Pbenchmarks}.
+ */
+public class DomainApiHandlerBenchmark {
+
+    private static final int PORT = 9992;
+    private static final int HTTP_THREADS = 5;
+    private static final int CLIENTS = 16;
+    private static final int REQUESTS = 500;
+
+    private ExecutorService executor;
+    private ExecutorService httpExecutor;
+    private ManagementHttpServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newCachedThreadPool();
+        httpExecutor = Executors.newFixedThreadPool(HTTP_THREADS);
+        final DomainApiHandlerTestCase.TestClient client = new DomainApiHandlerTestCase.TestClient(executor);
+        client.result = largeResult();
+        server = ManagementHttpServer.create(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), PORT), null, 50,
+                client, httpExecutor, null);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+        httpExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testThroughput() throws Exception {
+        // warm up
+        runClients(CLIENTS, REQUESTS / 5);
+
+        long start = System.nanoTime();
+        runClients(CLIENTS, REQUESTS);
+        long elapsed = System.nanoTime() - start;
+        int total = CLIENTS * REQUESTS;
+        System.out.println(String.format("%d requests from %d keep-alive clients on %d request threads in %d ms (%.0f requests/s)",
+                total, CLIENTS, HTTP_THREADS, elapsed / 1000000, total / (elapsed / 1000000000d)));
+    }
+
+    private void runClients(final int clients, final int requests) throws Exception {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(clientExecutor.submit(new Callable<Void>() {
+                    public Void call() throws Exception {
+                        for (int j = 0; j < requests; j++) {
+                            HttpURLConnection connection = get(PORT, true);
+                            assertEquals(200, connection.getResponseCode());
+                            // read to the end so the connection is reused
+                            read(connection.getInputStream());
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+    }
+}
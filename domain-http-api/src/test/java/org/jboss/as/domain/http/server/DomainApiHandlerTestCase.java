@@ -0,0 +1,255 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.http.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.jboss.as.controller.client.ModelControllerClient;
+import org.jboss.as.controller.client.Operation;
+import org.jboss.as.controller.client.OperationMessageHandler;
+import org.jboss.dmr.ModelNode;
+import org.jboss.threads.AsyncFuture;
+import org.jboss.threads.AsyncFutureTask;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of the responses written by {@link DomainApiHandler}.
+ */
+public class DomainApiHandlerTestCase {
+
+    private static final int PORT = 9991;
+
+    private ExecutorService executor;
+    private ExecutorService httpExecutor;
+    private TestClient client;
+    private ManagementHttpServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        executor = Executors.newCachedThreadPool();
+        // a single thread serves the requests, operations complete on the other executor
+        httpExecutor = Executors.newSingleThreadExecutor();
+        client = new TestClient(executor);
+        server = ManagementHttpServer.create(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), PORT), null, 50,
+                client, httpExecutor, null);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.stop();
+        httpExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSmallResponse() throws Exception {
+        client.result = new ModelNode().set("small");
+
+        HttpURLConnection connection = get(PORT, true);
+        assertEquals(200, connection.getResponseCode());
+        assertNull(connection.getHeaderField(Constants.CONTENT_ENCODING));
+        String body = new String(read(connection.getInputStream()), Constants.UTF_8);
+        assertEquals(body.length(), connection.getContentLength());
+        assertEquals(client.result, ModelNode.fromJSONString(body));
+    }
+
+    @Test
+    public void testLargeResponseCompressed() throws Exception {
+        client.result = largeResult();
+
+        HttpURLConnection connection = get(PORT, true);
+        assertEquals(200, connection.getResponseCode());
+        assertEquals(Constants.GZIP, connection.getHeaderField(Constants.CONTENT_ENCODING));
+        byte[] compressed = read(connection.getInputStream());
+        String body = new String(read(new GZIPInputStream(new ByteArrayInputStream(compressed))), Constants.UTF_8);
+        assertTrue(compressed.length < body.length());
+        assertEquals(client.result, ModelNode.fromJSONString(body));
+    }
+
+    @Test
+    public void testLargeResponseUncompressed() throws Exception {
+        client.result = largeResult();
+
+        HttpURLConnection connection = get(PORT, false);
+        assertEquals(200, connection.getResponseCode());
+        assertNull(connection.getHeaderField(Constants.CONTENT_ENCODING));
+        String body = new String(read(connection.getInputStream()), Constants.UTF_8);
+        assertEquals(client.result, ModelNode.fromJSONString(body));
+    }
+
+    @Test
+    public void testRunningOperationDoesNotHoldRequestThread() throws Exception {
+        client.result = new ModelNode().set("done");
+        final CountDownLatch release = new CountDownLatch(1);
+        client.hold = release;
+
+        final ExecutorService requester = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Integer> held = requester.submit(new Callable<Integer>() {
+                public Integer call() throws Exception {
+                    HttpURLConnection connection = get(PORT, true);
+                    read(connection.getInputStream());
+                    return connection.getResponseCode();
+                }
+            });
+            assertTrue(client.holding.await(10, TimeUnit.SECONDS));
+
+            // the only request thread is free while the first operation runs
+            client.hold = null;
+            HttpURLConnection connection = get(PORT, true);
+            assertEquals(200, connection.getResponseCode());
+            read(connection.getInputStream());
+
+            release.countDown();
+            assertEquals(200, held.get(10, TimeUnit.SECONDS).intValue());
+        } finally {
+            release.countDown();
+            requester.shutdownNow();
+        }
+    }
+
+    static ModelNode largeResult() {
+        ModelNode result = new ModelNode();
+        for (int i = 0; i < 1000; i++) {
+            result.get("attribute-" + i).set("value-" + i);
+        }
+        return result;
+    }
+
+    static HttpURLConnection get(final int port, final boolean gzip) throws IOException {
+        URL url = new URL("http://127.0.0.1:" + port + "/management/?operation=resource");
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        if (gzip) {
+            connection.setRequestProperty(Constants.ACCEPT_ENCODING, Constants.GZIP);
+        }
+        return connection;
+    }
+
+    static byte[] read(final InputStream in) throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Completes every operation on another thread, the way the in-VM controller client does.
+     */
+    static class TestClient implements ModelControllerClient {
+
+        private final ExecutorService executor;
+        volatile ModelNode result;
+        /** If set, operations wait for it before completing */
+        volatile CountDownLatch hold;
+        final CountDownLatch holding = new CountDownLatch(1);
+
+        TestClient(final ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        public ModelNode execute(ModelNode operation) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        public ModelNode execute(Operation operation) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        public ModelNode execute(ModelNode operation, OperationMessageHandler messageHandler) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        public ModelNode execute(Operation operation, OperationMessageHandler messageHandler) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        public AsyncFuture<ModelNode> executeAsync(ModelNode operation, OperationMessageHandler messageHandler) {
+            final ModelNode response = new ModelNode();
+            response.get("outcome").set("success");
+            response.get("result").set(result);
+
+            final CountDownLatch hold = this.hold;
+            final ResultTask task = new ResultTask(executor);
+            executor.execute(new Runnable() {
+                public void run() {
+                    if (hold != null) {
+                        holding.countDown();
+                        try {
+                            hold.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    task.complete(response);
+                }
+            });
+            return task;
+        }
+
+        public AsyncFuture<ModelNode> executeAsync(Operation operation, OperationMessageHandler messageHandler) {
+            return executeAsync(operation.getOperation(), messageHandler);
+        }
+
+        public void close() throws IOException {
+        }
+    }
+
+    private static class ResultTask extends AsyncFutureTask<ModelNode> {
+
+        ResultTask(final ExecutorService executor) {
+            super(executor);
+        }
+
+        void complete(final ModelNode response) {
+            setResult(response);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.domain.http.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.ModelType;
+import org.junit.Test;
+
+/**
+ * Tests of {@link ModelNodeJsonWriter}.
+ */
+public class ModelNodeJsonWriterTestCase {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        ModelNode node = createNode();
+
+        assertEquals(node, ModelNode.fromJSONString(write(node, true)));
+        assertEquals(node, ModelNode.fromJSONString(write(node, false)));
+    }
+
+    @Test
+    public void testCompact() throws Exception {
+        String compact = write(createNode(), true);
+        assertFalse(compact.contains("\n"));
+
+        String pretty = write(createNode(), false);
+        assertTrue(pretty.contains("\n    \"string\" : "));
+    }
+
+    @Test
+    public void testEscaping() throws Exception {
+        ModelNode node = new ModelNode().set("quote \" backslash \\ tab \t newline \n control \u0001");
+
+        assertEquals("\"quote \\\" backslash \\\\ tab \\t newline \\n control \\u0001\"", write(node, true));
+        assertEquals(node, ModelNode.fromJSONString(write(node, true)));
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        assertEquals("{}", write(new ModelNode().setEmptyObject(), false));
+        assertEquals("[]", write(new ModelNode().setEmptyList(), false));
+        assertEquals("null", write(new ModelNode(), false));
+    }
+
+    private static ModelNode createNode() {
+        ModelNode node = new ModelNode();
+        node.get("undefined");
+        node.get("boolean").set(true);
+        node.get("int").set(1);
+        node.get("long").set(Long.MAX_VALUE);
+        node.get("double").set(1.5d);
+        node.get("big-integer").set(new BigInteger("12345678901234567890"));
+        node.get("big-decimal").set(new BigDecimal("1234567890.0987654321"));
+        node.get("string").set("value");
+        node.get("bytes").set(new byte[] {1, 2, 3, 4, 5});
+        node.get("expression").setExpression("${jboss.bind.address:127.0.0.1}");
+        node.get("type").set(ModelType.STRING);
+        node.get("property").set("name", "value");
+        ModelNode list = node.get("list");
+        list.add(1);
+        list.add("two");
+        list.add().get("three").set(3);
+        list.add().setEmptyList();
+        node.get("object", "nested", "deeper").set("value");
+        return node;
+    }
+
+    private static String write(final ModelNode node, final boolean compact) throws IOException {
+        StringWriter writer = new StringWriter();
+        new ModelNodeJsonWriter(writer, compact).write(node);
+        return writer.toString();
+    }
+}
@@ -24,6 +24,7 @@ package org.jboss.as.ee.component;
 
 
 import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.Map;
@@ -118,6 +119,24 @@ public class BasicComponent implements Component {
      * @return the component instance
      */
     protected final BasicComponentInstance constructComponentInstance(ManagedReference instance) {
+        return constructComponentInstance(instance, true, Collections.<Class<?>, ManagedReference>emptyMap());
+    }
+
+    /**
+     * Construct the component instance, optionally without running the post construct chain. This is used to
+     * restore an instance whose state has been kept elsewhere, e.g. a passivated stateful session bean: the
+     * instance and the instances of its interceptor classes are given, and they are neither injected nor have
+     * their post construct callbacks invoked again.
+     *
+     * @param instance             An instance to be wrapped, or null if a new instance should be created
+     * @param invokePostConstruct  whether the post construct chain is run; if not, <code>instance</code> must not be null
+     * @param interceptorInstances the instances of the interceptor classes of the component, keyed by interceptor class
+     * @return the component instance
+     */
+    protected final BasicComponentInstance constructComponentInstance(ManagedReference instance, boolean invokePostConstruct, Map<Class<?>, ManagedReference> interceptorInstances) {
+        if (!invokePostConstruct && instance == null) {
+            throw new IllegalArgumentException("An instance is required if the post construct chain is not run");
+        }
         // Interceptor factory context
         final SimpleInterceptorFactoryContext context = new SimpleInterceptorFactoryContext();
         context.getContextData().put(Component.class, this);
@@ -130,6 +149,13 @@ public class BasicComponent implements Component {
         final AtomicReference<ManagedReference> instanceReference = (AtomicReference<ManagedReference>) context.getContextData().get(BasicComponentInstance.INSTANCE_KEY);
 
         instanceReference.set(instance);
+        for (Map.Entry<Class<?>, ManagedReference> interceptorInstance : interceptorInstances.entrySet()) {
+            // the reference of each interceptor class has been put in the context by the post construct interceptors
+            final AtomicReference<ManagedReference> interceptorReference = (AtomicReference<ManagedReference>) context.getContextData().get(interceptorInstance.getKey());
+            if (interceptorReference != null) {
+                interceptorReference.set(interceptorInstance.getValue());
+            }
+        }
 
         final Map<Method, InterceptorFactory> interceptorFactoryMap = this.getInterceptorFactoryMap();
         // This is an identity map.  This means that only <b>certain</b> {@code Method} objects will
@@ -142,6 +168,10 @@ public class BasicComponent implements Component {
         // create the component instance
         final BasicComponentInstance basicComponentInstance = this.instantiateComponentInstance(instanceReference, componentInstancePreDestroyInterceptor, interceptorMap, context);
 
+        if (!invokePostConstruct) {
+            return basicComponentInstance;
+        }
+
         // now invoke the postconstruct interceptors
         final InterceptorContext interceptorContext = new InterceptorContext();
         interceptorContext.putPrivateData(Component.class, this);
@@ -87,6 +87,29 @@ public interface Cache<T extends Identifiable> {
      */
     void setStatefulObjectFactory(StatefulObjectFactory<T> factory);
 
+    /**
+     * Returns the number of objects which are currently held by this cache,
+     * both in use and inactive.
+     *
+     * @return the number of cached objects
+     */
+    int getCacheSize();
+
+    /**
+     * Returns the number of objects which have been removed from this cache
+     * because they were inactive for longer than the configured timeout.
+     *
+     * @return the number of expired objects
+     */
+    int getExpiredCount();
+
+    /**
+     * Returns the number of objects which are currently passivated.
+     *
+     * @return the number of passivated objects
+     */
+    int getPassivatedCount();
+
     /**
      * Start the cache.
      */
@@ -25,196 +25,487 @@ import org.jboss.ejb.client.SessionID;
 import org.jboss.logging.Logger;
 
 import javax.ejb.NoSuchEJBException;
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Cache that handles EJB expiration. This cache can be wrapped around an existing cache to
  * provide expiration functionality.
+ * <p/>
+ * Instances are kept in a concurrent map and every inactive instance has a timeout scheduled on a
+ * {@link TimingWheel} which is shared by all caches, so that getting and releasing an instance is
+ * O(1) and does not take a cache wide lock. The wheel thread only hands expired instances over to
+ * the cache; they are destroyed one at a time on the expiration executor, so that a slow
+ * <code>@PreDestroy</code> method only delays the expiration of instances of the same bean.
+ * <p/>
+ * If a {@link PassivationStore} is configured, the cache holds at most <code>maxSize</code> instances in
+ * memory. Once this size is exceeded the state of the least recently released instances is written to the
+ * store, and the instances are rebuilt from it when they are used again. Passivated instances still expire,
+ * in which case their state is discarded from the store without being activated.
  *
  * @author Stuart Douglas
  */
 public class ExpiringCache<T extends Identifiable> implements Cache<T> {
 
-    private static final long SLEEP_TIME = 500;
-
     private final long millisecondTimeout;
     private final String beanName;
-    private final Map<SessionID, Entry> cache;
+    private final ConcurrentMap<SessionID, Entry> cache = new ConcurrentHashMap<SessionID, Entry>();
+    private final TimingWheel timingWheel;
+    private final ExpirationQueue expirations;
+    private final AtomicInteger expiredCount = new AtomicInteger();
+
+    private final int maxSize;
+    private final PassivationStore store;
+    private final StatefulObjectPassivator<T> passivator;
+    private final AtomicInteger passivatedCount = new AtomicInteger();
+    /**
+     * The inactive in-memory entries in the order they have been released, guarded by itself.
+     * Only used if there is a passivation store.
+     */
+    private final Map<SessionID, Entry> inactive = new LinkedHashMap<SessionID, Entry>();
 
     private volatile StatefulObjectFactory<T> factory;
-    private volatile ExpirationTask expiryThread;
 
     private static final Logger logger = Logger.getLogger(ExpiringCache.class);
 
-    private class ExpirationTask extends Thread {
+    private enum State {
+        IN_USE, INACTIVE, PASSIVATED, EXPIRED
+    }
 
-        private volatile boolean running = true;
+    private final class Entry implements Runnable {
+        private final Runnable expiration = new Runnable() {
+            @Override
+            public void run() {
+                expire();
+            }
+        };
+        private final AtomicReference<State> state = new AtomicReference<State>(State.IN_USE);
+        private final SessionID key;
+        private volatile long lastUsed;
+        private volatile TimingWheel.Timeout timeout;
+        private volatile T value;
 
-        @Override
-        public void run() {
-            while (running) {
-
-                final List<Entry> queue = new ArrayList<Entry>();
-                final long time = System.currentTimeMillis();
-                synchronized (cache) {
-                    Iterator<Map.Entry<SessionID, Entry>> iterator = cache.entrySet().iterator();
-                    while (iterator.hasNext()) {
-                        final Map.Entry<SessionID, Entry> entry = iterator.next();
-                        if (entry.getValue().isExpired(time)) {
-                            queue.add(entry.getValue());
-                            iterator.remove();
-                        }
-                    }
+        public Entry(final T value) {
+            this.key = value.getId();
+            this.value = value;
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        public SessionID getKey() {
+            return key;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        /**
+         * Mark the entry as in use, activating it if it has been passivated.
+         *
+         * @return false if the entry has already expired
+         */
+        boolean use() {
+            for (;;) {
+                final State current = state.get();
+                if (current == State.EXPIRED) {
+                    return false;
                 }
-                for (Entry value : queue) {
-                    try {
-                        logger.debugf("Removing stateful bean %s - %s as it has been inactive for %d milliseconds", beanName, value.getKey(), millisecondTimeout);
-                        factory.destroyInstance(value.getValue());
-                    } catch (Exception e) {
-                        logger.error("Exception removing stateful bean " + value.getKey(), e);
+                if (current == State.PASSIVATED) {
+                    if (activate()) {
+                        return true;
                     }
+                    continue;
                 }
-
-                try {
-                    sleep(SLEEP_TIME);
-                } catch (InterruptedException e) {
-                    running = false;
-                    return;
+                if (state.compareAndSet(current, State.IN_USE)) {
+                    lastUsed = System.currentTimeMillis();
+                    cancelExpiration();
+                    unlinkInactive(this);
+                    return true;
                 }
             }
         }
 
-        public void stopTask() {
-            running = false;
+        /**
+         * Mark the entry as inactive and schedule its expiration.
+         */
+        void release() {
+            lastUsed = System.currentTimeMillis();
+            if (state.compareAndSet(State.IN_USE, State.INACTIVE)) {
+                if (millisecondTimeout >= 0) {
+                    cancelExpiration();
+                    timeout = timingWheel.schedule(this, millisecondTimeout, TimeUnit.MILLISECONDS);
+                }
+                if (store != null) {
+                    linkInactive(this);
+                }
+            }
         }
-    }
-
-    private enum State {
-        IN_USE, INACTIVE
-    }
 
-    private final class Entry {
-        private long lastUsed;
-        private State state = State.IN_USE;
-        private final T value;
+        void cancelExpiration() {
+            final TimingWheel.Timeout current = timeout;
+            if (current != null) {
+                timeout = null;
+                current.cancel();
+            }
+        }
 
-        public Entry(final T value) {
-            this.value = value;
-            this.lastUsed = System.currentTimeMillis();
+        /**
+         * Write the state of the instance to the passivation store, if it is still inactive.
+         */
+        synchronized void passivate() {
+            if (!state.compareAndSet(State.INACTIVE, State.PASSIVATED)) {
+                return;
+            }
+            final T instance = value;
+            final Object passivatedState;
+            try {
+                passivatedState = passivator.prePassivate(instance);
+            } catch (RuntimeException e) {
+                // keep the instance in memory, it is a candidate again once it has been used
+                logger.warn("Could not passivate stateful bean " + beanName + " - " + key, e);
+                state.set(State.INACTIVE);
+                return;
+            }
+            try {
+                store.passivate(key, passivatedState);
+                value = null;
+                passivatedCount.incrementAndGet();
+                logger.debugf("Passivated stateful bean %s - %s", beanName, key);
+            } catch (IOException e) {
+                logger.warn("Could not passivate stateful bean " + beanName + " - " + key, e);
+                try {
+                    passivator.postActivate(instance);
+                } catch (RuntimeException re) {
+                    logger.error("Exception activating stateful bean " + beanName + " - " + key, re);
+                }
+                state.set(State.INACTIVE);
+            }
         }
 
-        public void setLastUsed(final long lastUsed) {
-            this.lastUsed = lastUsed;
+        /**
+         * Read a passivated instance back from the passivation store.
+         *
+         * @return true if the entry has been activated and is now in use, false if the state has changed
+         *         concurrently and needs to be checked again
+         */
+        private synchronized boolean activate() {
+            if (state.get() != State.PASSIVATED) {
+                return false;
+            }
+            passivatedCount.decrementAndGet();
+            T activated = null;
+            try {
+                final Object passivatedState = store.activate(key);
+                if (passivatedState != null) {
+                    activated = passivator.activate(key, passivatedState);
+                }
+            } catch (IOException e) {
+                logger.error("Could not activate stateful bean " + beanName + " - " + key, e);
+            } catch (RuntimeException e) {
+                logger.error("Could not activate stateful bean " + beanName + " - " + key, e);
+            }
+            if (activated == null) {
+                state.set(State.EXPIRED);
+                cancelExpiration();
+                cache.remove(key, this);
+                return false;
+            }
+            value = activated;
+            lastUsed = System.currentTimeMillis();
+            state.set(State.IN_USE);
+            cancelExpiration();
+            logger.debugf("Activated stateful bean %s - %s", beanName, key);
+            return true;
         }
 
-        public SessionID getKey() {
-            return value.getId();
+        /**
+         * Mark the entry as expired without destroying the instance.
+         */
+        synchronized void discard() {
+            cancelExpiration();
+            if (state.getAndSet(State.EXPIRED) == State.PASSIVATED) {
+                passivatedCount.decrementAndGet();
+                store.remove(key);
+            }
+            unlinkInactive(this);
         }
 
-        public long getLastUsed() {
-            return lastUsed;
+        /**
+         * Invoked on the timing wheel thread once the entry may have expired.
+         */
+        @Override
+        public void run() {
+            expirations.execute(expiration);
         }
 
-        public boolean isExpired(long currentTimeInMillis) {
-            return state == State.INACTIVE && currentTimeInMillis > lastUsed + millisecondTimeout;
+        /**
+         * Invoked on the expiration executor once the entry may have expired.
+         */
+        private void expire() {
+            if (System.currentTimeMillis() < lastUsed + millisecondTimeout) {
+                // the entry has been used again in the meantime, a later timeout is responsible for it
+                return;
+            }
+            if (state.get() == State.PASSIVATED) {
+                expirePassivated();
+                return;
+            }
+            if (!state.compareAndSet(State.INACTIVE, State.EXPIRED) || !cache.remove(getKey(), this)) {
+                return;
+            }
+            unlinkInactive(this);
+            try {
+                logger.debugf("Removing stateful bean %s - %s as it has been inactive for %d milliseconds", beanName, getKey(), millisecondTimeout);
+                factory.destroyInstance(value);
+            } catch (Exception e) {
+                logger.error("Exception removing stateful bean " + getKey(), e);
+            } finally {
+                expiredCount.incrementAndGet();
+            }
         }
 
-        public T getValue() {
-            return value;
+        private synchronized void expirePassivated() {
+            if (!state.compareAndSet(State.PASSIVATED, State.EXPIRED)) {
+                return;
+            }
+            cache.remove(key, this);
+            passivatedCount.decrementAndGet();
+            expiredCount.incrementAndGet();
+            logger.debugf("Removing passivated stateful bean %s - %s as it has been inactive for %d milliseconds", beanName, key, millisecondTimeout);
+            store.remove(key);
         }
     }
 
-    public ExpiringCache(long value, TimeUnit timeUnit, final String beanName) {
+    public ExpiringCache(long value, TimeUnit timeUnit, final String beanName, final TimingWheel timingWheel, final Executor executor) {
+        this(value, timeUnit, beanName, timingWheel, executor, -1, null, null);
+    }
+
+    /**
+     * @param value        the time after which an inactive instance expires, negative if instances never expire
+     * @param timeUnit     the unit of <code>value</code>
+     * @param beanName     the name of the bean, for logging
+     * @param timingWheel  the wheel the expiration of inactive instances is scheduled on
+     * @param executor     the executor expired instances are destroyed on
+     * @param maxSize      the maximum number of instances held in memory, if there is a passivation store
+     * @param store        the passivation store, or <code>null</code> if instances are never passivated
+     * @param passivator   extracts the state of passivated instances and rebuilds them, if there is a passivation store
+     */
+    public ExpiringCache(long value, TimeUnit timeUnit, final String beanName, final TimingWheel timingWheel, final Executor executor, final int maxSize, final PassivationStore store, final StatefulObjectPassivator<T> passivator) {
+        if (store != null && passivator == null) {
+            throw new IllegalArgumentException("A passivator is required to passivate instances of " + beanName);
+        }
         this.beanName = beanName;
+        this.timingWheel = timingWheel;
+        this.expirations = new ExpirationQueue(executor);
+        this.maxSize = maxSize;
+        this.store = store;
+        this.passivator = passivator;
         millisecondTimeout = TimeUnit.MILLISECONDS.convert(value, timeUnit);
-        cache = new HashMap<SessionID, Entry>();
     }
 
     @Override
     public T create() {
         T obj = factory.createInstance();
         Entry entry = new Entry(obj);
-        synchronized (cache) {
-            cache.put(obj.getId(), entry);
-        }
+        cache.put(obj.getId(), entry);
         return obj;
     }
 
     @Override
     public void discard(final SessionID key) {
-        synchronized (cache) {
-            cache.remove(key);
+        final Entry entry = cache.remove(key);
+        if (entry != null) {
+            if (store == null) {
+                entry.cancelExpiration();
+            } else {
+                entry.discard();
+            }
         }
     }
 
     @Override
     public T get(final SessionID key) throws NoSuchEJBException {
-        synchronized (cache) {
-            Entry val = cache.get(key);
-            if (val == null) {
-                throw new NoSuchEJBException("Could not find EJB with id " + key);
-            }
-            val.lastUsed = System.currentTimeMillis();
-            val.state = State.IN_USE;
-            return val.getValue();
+        Entry val = cache.get(key);
+        if (val == null || !val.use()) {
+            throw new NoSuchEJBException("Could not find EJB with id " + key);
         }
+        return val.getValue();
     }
 
     @Override
     public void release(final T obj) {
-        synchronized (cache) {
-            Entry entry = cache.get(obj.getId());
+        Entry entry = cache.get(obj.getId());
 
-            if (entry == null) {
-                logger.warn("Could not find stateful bean to release " + obj.getId());
-                return;
-            }
-            //this must stay within the synchronized block so the changes are visible to other threads
-            entry.lastUsed = System.currentTimeMillis();
-            entry.state = State.INACTIVE;
+        if (entry == null) {
+            logger.warn("Could not find stateful bean to release " + obj.getId());
+            return;
+        }
+        entry.release();
+        if (store != null) {
+            passivateExcess();
         }
     }
 
     @Override
     public void remove(final SessionID key) {
-        Entry object;
-        synchronized (cache) {
-            object = cache.remove(key);
-        }
+        Entry object = cache.remove(key);
         // EJBTHREE-1218: throw NoSuchEJBException if the bean can not be found
-        if (object == null)
+        if (object == null || !object.use())
             throw new NoSuchEJBException(String.valueOf(key));
 
+        object.cancelExpiration();
         factory.destroyInstance(object.value);
     }
 
+    private void linkInactive(final Entry entry) {
+        synchronized (inactive) {
+            inactive.put(entry.getKey(), entry);
+        }
+    }
+
+    private void unlinkInactive(final Entry entry) {
+        if (store != null) {
+            synchronized (inactive) {
+                inactive.remove(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Passivate the least recently released instances until no more than <code>maxSize</code>
+     * instances are held in memory. The instances are marshalled outside of the lock.
+     */
+    private void passivateExcess() {
+        int excess = cache.size() - passivatedCount.get() - maxSize;
+        if (excess <= 0) {
+            return;
+        }
+        final List<Entry> victims = new ArrayList<Entry>(excess);
+        synchronized (inactive) {
+            final Iterator<Entry> it = inactive.values().iterator();
+            while (excess-- > 0 && it.hasNext()) {
+                victims.add(it.next());
+                it.remove();
+            }
+        }
+        for (Entry victim : victims) {
+            victim.passivate();
+        }
+    }
+
+    /**
+     * Runs the expiration of the entries of this cache on the expiration executor, one at a time.
+     */
+    private final class ExpirationQueue implements Executor {
+        private final Executor executor;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final Runnable drain = new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        };
+
+        ExpirationQueue(final Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(final Runnable task) {
+            tasks.offer(task);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(drain);
+                } catch (RejectedExecutionException e) {
+                    // the executor is shutting down, and so is this cache
+                    logger.debugf("Could not expire instances of stateful bean %s: %s", beanName, e);
+                    tasks.clear();
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (Throwable t) {
+                        logger.error("Exception expiring stateful bean " + beanName, t);
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            // a task may have been queued after the queue was found empty
+            schedule();
+        }
+    }
+
     @Override
     public void setStatefulObjectFactory(final StatefulObjectFactory<T> tStatefulObjectFactory) {
         this.factory = tStatefulObjectFactory;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Passivated instances are included.
+     */
+    @Override
+    public int getCacheSize() {
+        return cache.size();
+    }
+
     @Override
-    public synchronized void start() {
-        if (millisecondTimeout >= 0) {
-            expiryThread = new ExpirationTask();
-            expiryThread.setDaemon(true);
-            expiryThread.start();
-            expiryThread.setName("Expiry Thread for SFSB " + beanName);
+    public int getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    @Override
+    public int getPassivatedCount() {
+        return passivatedCount.get();
+    }
+
+    @Override
+    public void start() {
+        if (store != null) {
+            store.start();
         }
     }
 
     @Override
-    public synchronized void stop() {
-        if(expiryThread != null) {
-            expiryThread.stopTask();
+    public void stop() {
+        for (Entry entry : cache.values()) {
+            entry.cancelExpiration();
         }
-        synchronized (cache) {
-            cache.clear();
+        cache.clear();
+        if (store != null) {
+            synchronized (inactive) {
+                inactive.clear();
+            }
+            passivatedCount.set(0);
+            store.stop();
         }
     }
 }
@@ -0,0 +1,72 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache;
+
+import java.io.IOException;
+
+import org.jboss.ejb.client.SessionID;
+
+/**
+ * Stores the state of passivated objects outside of the heap, until they are activated again.
+ * <p/>
+ * The store only sees the state a {@link StatefulObjectPassivator} extracted from an object, never the object
+ * itself, so it does not need to know what it takes to rebuild the object.
+ *
+ * @see ExpiringCache
+ */
+public interface PassivationStore {
+
+    /**
+     * Write the state of a passivated object to the store.
+     *
+     * @param id    the identifier of the object
+     * @param state the state of the object
+     * @throws IOException if the state could not be stored, in which case the object must stay in memory
+     */
+    void passivate(SessionID id, Object state) throws IOException;
+
+    /**
+     * Read the state of a passivated object and remove it from the store.
+     *
+     * @param id the identifier of the object
+     * @return the state of the object, or <code>null</code> if there is no state stored with this identifier
+     * @throws IOException if the stored state could not be read
+     */
+    Object activate(SessionID id) throws IOException;
+
+    /**
+     * Discard the stored state of an object, if any.
+     *
+     * @param id the identifier of the object
+     */
+    void remove(SessionID id);
+
+    /**
+     * Start the store.
+     */
+    void start();
+
+    /**
+     * Stop the store, discarding the state of all objects which are still passivated.
+     */
+    void stop();
+}
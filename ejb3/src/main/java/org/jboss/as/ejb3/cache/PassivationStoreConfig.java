@@ -0,0 +1,63 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache;
+
+/**
+ * The configuration of the passivation of stateful session bean instances.
+ */
+public abstract class PassivationStoreConfig {
+
+    public static final int DEFAULT_MAX_SIZE = 100000;
+
+    protected final String name;
+
+    private final int maxSize;
+
+    public PassivationStoreConfig(final String name, final int maxSize) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Passivation store name cannot be null or empty");
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the number of bean instances a cache holds in memory before it starts
+     * passivating the least recently used ones.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Create a store for the instances of one bean.
+     *
+     * @param beanName    the name of the bean, unique within the server
+     * @param classLoader the class loader used to resolve the classes of the passivated state
+     * @return the store
+     */
+    public abstract PassivationStore createStore(String beanName, ClassLoader classLoader);
+}
@@ -0,0 +1,60 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.cache;
+
+import org.jboss.ejb.client.SessionID;
+
+/**
+ * Turns stateful objects into the state a {@link PassivationStore} keeps, and back, invoking the PrePassivate and
+ * PostActivate callbacks of the objects.
+ *
+ * @see StatefulObjectFactory
+ */
+public interface StatefulObjectPassivator<T extends Identifiable> {
+
+    /**
+     * Invoke the PrePassivate callbacks of <code>instance</code> and return its state. The state is what
+     * makes up the object and has to survive passivation; references to the container must not be part of it.
+     *
+     * @param instance the instance about to be passivated
+     * @return the state of the instance
+     */
+    Object prePassivate(T instance);
+
+    /**
+     * Rebuild an instance from its state and invoke its PostActivate callbacks.
+     *
+     * @param id    the identifier of the instance
+     * @param state the state {@link #prePassivate(Identifiable)} returned
+     * @return the activated instance
+     */
+    T activate(SessionID id, Object state);
+
+    /**
+     * Invoke the PostActivate callbacks of an instance which stays in memory as it could not be passivated
+     * after {@link #prePassivate(Identifiable)} had been invoked.
+     *
+     * @param instance the instance
+     */
+    void postActivate(T instance);
+}
@@ -0,0 +1,336 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache;
+
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A hashed timing wheel which runs timeout tasks on a single scheduler thread.
+ * <p/>
+ * Scheduling and cancelling a timeout are O(1) and never block: new and cancelled timeouts are
+ * handed over to the scheduler thread through lock-free queues, and only that thread ever
+ * touches the wheel itself. Timeouts which are further away than one revolution of the wheel
+ * are kept in their bucket and carry the number of remaining revolutions, so the wheel covers
+ * arbitrary delays without needing more buckets. Timeouts fire with a granularity of one tick,
+ * and never before their deadline.
+ * <p/>
+ * Tasks run on the scheduler thread, so they must be short; anything which may block, such as invoking
+ * bean callbacks, has to be handed off to another executor. The wheel is started and stopped by
+ * {@link TimingWheelService}.
+ *
+ * @see ExpiringCache
+ * @see org.jboss.as.ejb3.timerservice.TimerServiceImpl
+ */
+public final class TimingWheel {
+
+    private static final Logger logger = Logger.getLogger(TimingWheel.class);
+
+    /**
+     * A handle to a scheduled task.
+     */
+    public interface Timeout {
+        /**
+         * Cancel the task, if it did not run yet.
+         *
+         * @return true if the task was cancelled, false if it already ran or was cancelled before
+         */
+        boolean cancel();
+    }
+
+    private static final long STOP_WARNING_SECONDS = 10;
+
+    private static final int STATE_SCHEDULED = 0;
+    private static final int STATE_CANCELLED = 1;
+    private static final int STATE_EXPIRED = 2;
+
+    private final String name;
+    private final long tickMillis;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Entry> scheduled = new ConcurrentLinkedQueue<Entry>();
+    private final Queue<Entry> cancelled = new ConcurrentLinkedQueue<Entry>();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private volatile ScheduledExecutorService executor;
+    private volatile long startTime;
+
+    /**
+     * The last tick which has been processed. Only accessed by the scheduler thread.
+     */
+    private long tick;
+
+    /**
+     * @param name       the name of the scheduler thread
+     * @param tick       the duration of one tick
+     * @param unit       the unit of <code>tick</code>
+     * @param wheelSize  the number of buckets in the wheel, rounded up to the next power of two
+     */
+    public TimingWheel(final String name, final long tick, final TimeUnit unit, final int wheelSize) {
+        if (tick <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive: " + tick);
+        }
+        if (wheelSize <= 0) {
+            throw new IllegalArgumentException("Wheel size must be positive: " + wheelSize);
+        }
+        this.name = name;
+        this.tickMillis = Math.max(1, unit.toMillis(tick));
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Schedule <code>task</code> to run on the scheduler thread once <code>delay</code> has elapsed.
+     *
+     * @param task  the task
+     * @param delay the delay
+     * @param unit  the unit of <code>delay</code>
+     * @return the handle to cancel the task
+     * @throws IllegalStateException if the wheel is not running
+     */
+    public Timeout schedule(final Runnable task, final long delay, final TimeUnit unit) {
+        if (executor == null) {
+            throw new IllegalStateException(name + " is not running");
+        }
+        final Entry entry = new Entry(task, System.currentTimeMillis() + unit.toMillis(Math.max(0, delay)));
+        pending.incrementAndGet();
+        scheduled.offer(entry);
+        // the wheel may have been stopped in the meantime; if stop() has not dropped the task yet, do not leave it
+        if (executor == null && scheduled.remove(entry)) {
+            entry.state.set(STATE_CANCELLED);
+            pending.decrementAndGet();
+            throw new IllegalStateException(name + " is not running");
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the number of timeouts which are neither expired nor cancelled.
+     */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Stop the scheduler thread. Tasks which are running are completed, timeouts which did not fire yet are dropped.
+     */
+    public synchronized void stop() {
+        final ScheduledExecutorService executor = this.executor;
+        if (executor != null) {
+            this.executor = null;
+            executor.shutdown();
+            // the buckets are only cleared once the scheduler thread no longer touches them
+            boolean interrupted = false;
+            try {
+                while (!executor.isTerminated()) {
+                    try {
+                        if (!executor.awaitTermination(STOP_WARNING_SECONDS, TimeUnit.SECONDS)) {
+                            logger.warnf("Still waiting for the timeout tasks of %s to complete", name);
+                        }
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        scheduled.clear();
+        cancelled.clear();
+        for (Bucket bucket : wheel) {
+            bucket.clear();
+        }
+        pending.set(0);
+    }
+
+    /**
+     * Start the scheduler thread. Does nothing if the wheel is already running.
+     */
+    public synchronized void start() {
+        if (executor != null) {
+            return;
+        }
+        startTime = System.currentTimeMillis();
+        tick = 0;
+        final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                advance();
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        this.executor = executor;
+    }
+
+    /**
+     * Process all ticks which have elapsed since the last run. Only called from the scheduler thread.
+     */
+    private void advance() {
+        final long now = System.currentTimeMillis();
+        final long target = (now - startTime) / tickMillis;
+        final List<Entry> expired = new ArrayList<Entry>();
+        while (tick <= target) {
+            removeCancelled();
+            transferScheduled();
+            wheel[(int) (tick & mask)].expire(expired);
+            tick++;
+        }
+        for (Entry entry : expired) {
+            try {
+                entry.task.run();
+            } catch (Throwable t) {
+                logger.error("Exception running timeout task " + entry.task, t);
+            }
+        }
+    }
+
+    private void removeCancelled() {
+        Entry entry;
+        while ((entry = cancelled.poll()) != null) {
+            if (entry.bucket != null) {
+                entry.bucket.remove(entry);
+            }
+        }
+    }
+
+    private void transferScheduled() {
+        Entry entry;
+        while ((entry = scheduled.poll()) != null) {
+            if (entry.state.get() != STATE_SCHEDULED) {
+                continue;
+            }
+            // round up, so that a timeout never fires before its deadline
+            final long deadlineTick = (entry.deadline - startTime + tickMillis - 1) / tickMillis;
+            final long ticks = Math.max(deadlineTick, tick);
+            entry.remainingRounds = (ticks - tick) / wheel.length;
+            wheel[(int) (ticks & mask)].add(entry);
+        }
+    }
+
+    private final class Entry implements Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(STATE_SCHEDULED);
+
+        // the following fields are only accessed by the scheduler thread
+        private long remainingRounds;
+        private Bucket bucket;
+        private Entry next;
+        private Entry prev;
+
+        Entry(final Runnable task, final long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(STATE_SCHEDULED, STATE_CANCELLED)) {
+                return false;
+            }
+            pending.decrementAndGet();
+            cancelled.offer(this);
+            return true;
+        }
+    }
+
+    /**
+     * A doubly linked list of the entries of one slot of the wheel.
+     */
+    private final class Bucket {
+        private Entry head;
+        private Entry tail;
+
+        void add(final Entry entry) {
+            entry.bucket = this;
+            if (head == null) {
+                head = tail = entry;
+            } else {
+                tail.next = entry;
+                entry.prev = tail;
+                tail = entry;
+            }
+        }
+
+        void remove(final Entry entry) {
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            } else {
+                tail = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+            entry.bucket = null;
+        }
+
+        void expire(final List<Entry> expired) {
+            Entry entry = head;
+            while (entry != null) {
+                final Entry next = entry.next;
+                if (entry.remainingRounds <= 0) {
+                    remove(entry);
+                    if (entry.state.compareAndSet(STATE_SCHEDULED, STATE_EXPIRED)) {
+                        pending.decrementAndGet();
+                        expired.add(entry);
+                    }
+                } else {
+                    entry.remainingRounds--;
+                }
+                entry = next;
+            }
+        }
+
+        void clear() {
+            head = tail = null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.ServiceName;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+
+/**
+ * Service which owns a {@link TimingWheel}, starting its scheduler thread when the service starts and stopping it
+ * when the service stops.
+ */
+public class TimingWheelService implements Service<TimingWheel> {
+
+    /**
+     * The wheel which expires the inactive instances of all stateful session beans.
+     */
+    public static final ServiceName SFSB_EXPIRATION_SERVICE_NAME = ServiceName.JBOSS.append("ejb3", "sfsb-expiration");
+
+    /**
+     * The executor the stateful session bean caches remove their expired instances on.
+     */
+    public static final ServiceName SFSB_EXPIRATION_EXECUTOR_SERVICE_NAME = SFSB_EXPIRATION_SERVICE_NAME.append("executor");
+
+    private final String name;
+    private final long tick;
+    private final TimeUnit unit;
+    private final int wheelSize;
+
+    private TimingWheel wheel;
+
+    /**
+     * @param name      the name of the scheduler thread
+     * @param tick      the duration of one tick
+     * @param unit      the unit of <code>tick</code>
+     * @param wheelSize the number of buckets in the wheel
+     */
+    public TimingWheelService(final String name, final long tick, final TimeUnit unit, final int wheelSize) {
+        this.name = name;
+        this.tick = tick;
+        this.unit = unit;
+        this.wheelSize = wheelSize;
+    }
+
+    @Override
+    public synchronized void start(final StartContext context) throws StartException {
+        wheel = new TimingWheel(name, tick, unit, wheelSize);
+        wheel.start();
+    }
+
+    @Override
+    public synchronized void stop(final StopContext context) {
+        wheel.stop();
+        wheel = null;
+    }
+
+    @Override
+    public synchronized TimingWheel getValue() throws IllegalStateException, IllegalArgumentException {
+        final TimingWheel wheel = this.wheel;
+        if (wheel == null) {
+            throw new IllegalStateException(name + " is not started");
+        }
+        return wheel;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.file;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.jboss.as.ejb3.cache.PassivationStore;
+import org.jboss.ejb.client.SessionID;
+import org.jboss.logging.Logger;
+import org.jboss.marshalling.InputStreamByteInput;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.OutputStreamByteOutput;
+import org.jboss.marshalling.SimpleClassResolver;
+import org.jboss.marshalling.Unmarshaller;
+import org.jboss.marshalling.river.RiverMarshallerFactory;
+
+/**
+ * {@link PassivationStore} which marshals the state of every passivated object into its own file, using JBoss Marshalling.
+ * <p/>
+ * Classes are resolved by the class loader of the deployment, and by the class loader of the container for the
+ * classes of the state holder itself.
+ */
+public class FilePassivationStore implements PassivationStore {
+
+    private static final Logger logger = Logger.getLogger(FilePassivationStore.class);
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final File directory;
+    private final MarshallerFactory factory;
+    private final MarshallingConfiguration configuration;
+
+    public FilePassivationStore(final File directory, final ClassLoader classLoader) {
+        this.directory = directory;
+        this.factory = new RiverMarshallerFactory();
+        this.configuration = new MarshallingConfiguration();
+        this.configuration.setClassResolver(new ContainerFallbackClassResolver(classLoader));
+    }
+
+    @Override
+    public void passivate(final SessionID id, final Object state) throws IOException {
+        final File file = getFile(id);
+        boolean success = false;
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            final Marshaller marshaller = factory.createMarshaller(configuration);
+            marshaller.start(new OutputStreamByteOutput(out));
+            marshaller.writeObject(state);
+            marshaller.finish();
+            success = true;
+        } finally {
+            safeClose(out);
+            if (!success && !file.delete()) {
+                logger.debugf("Could not delete incomplete passivation file %s", file);
+            }
+        }
+    }
+
+    @Override
+    public Object activate(final SessionID id) throws IOException {
+        final File file = getFile(id);
+        if (!file.exists()) {
+            return null;
+        }
+        final FileInputStream in = new FileInputStream(file);
+        try {
+            final Unmarshaller unmarshaller = factory.createUnmarshaller(configuration);
+            unmarshaller.start(new InputStreamByteInput(in));
+            final Object state = unmarshaller.readObject();
+            unmarshaller.finish();
+            return state;
+        } catch (ClassNotFoundException e) {
+            final IOException ioe = new IOException("Could not activate " + id);
+            ioe.initCause(e);
+            throw ioe;
+        } finally {
+            safeClose(in);
+            remove(id);
+        }
+    }
+
+    @Override
+    public void remove(final SessionID id) {
+        final File file = getFile(id);
+        if (file.exists() && !file.delete()) {
+            logger.warn("Could not delete passivation file " + file);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new RuntimeException("Could not create passivation store directory " + directory);
+        }
+        if (!directory.isDirectory()) {
+            throw new RuntimeException("Passivation store directory " + directory + " is not a directory");
+        }
+        // whatever is left from a previous run cannot be activated any more
+        deleteFiles();
+    }
+
+    @Override
+    public void stop() {
+        deleteFiles();
+    }
+
+    private void deleteFiles() {
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    logger.warn("Could not delete passivation file " + file);
+                }
+            }
+        }
+    }
+
+    private File getFile(final SessionID id) {
+        final byte[] bytes = id.getEncodedForm();
+        final char[] name = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            name[i * 2] = HEX[(bytes[i] >> 4) & 0xf];
+            name[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new File(directory, new String(name));
+    }
+
+    private static final class ContainerFallbackClassResolver extends SimpleClassResolver {
+
+        ContainerFallbackClassResolver(final ClassLoader classLoader) {
+            super(classLoader);
+        }
+
+        @Override
+        protected Class<?> loadClass(final String name) throws ClassNotFoundException {
+            try {
+                return super.loadClass(name);
+            } catch (ClassNotFoundException e) {
+                return Class.forName(name, false, FilePassivationStore.class.getClassLoader());
+            }
+        }
+    }
+
+    private static void safeClose(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close " + closeable, e);
+        }
+    }
+}
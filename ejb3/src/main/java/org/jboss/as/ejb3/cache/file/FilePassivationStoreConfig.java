@@ -0,0 +1,60 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.file;
+
+import java.io.File;
+
+import org.jboss.as.ejb3.cache.PassivationStore;
+import org.jboss.as.ejb3.cache.PassivationStoreConfig;
+import org.jboss.msc.inject.Injector;
+import org.jboss.msc.value.InjectedValue;
+
+/**
+ * {@link PassivationStoreConfig} for a {@link FilePassivationStore}. Every bean gets its own
+ * sub directory of the configured directory, which is injected from a path service.
+ */
+public class FilePassivationStoreConfig extends PassivationStoreConfig {
+
+    private final InjectedValue<String> directory = new InjectedValue<String>();
+
+    public FilePassivationStoreConfig(final String name, final int maxSize) {
+        super(name, maxSize);
+    }
+
+    public Injector<String> getDirectoryInjector() {
+        return directory;
+    }
+
+    @Override
+    public PassivationStore createStore(final String beanName, final ClassLoader classLoader) {
+        return new FilePassivationStore(new File(directory.getValue(), beanName), classLoader);
+    }
+
+    @Override
+    public String toString() {
+        return "FilePassivationStoreConfig{" +
+                "name=" + this.name +
+                ", maxSize=" + getMaxSize() +
+                ", directory=" + directory.getOptionalValue() +
+                '}';
+    }
+}
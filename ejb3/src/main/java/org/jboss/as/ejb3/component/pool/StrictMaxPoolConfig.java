@@ -24,6 +24,7 @@ package org.jboss.as.ejb3.component.pool;
 
 import org.jboss.as.ejb3.pool.Pool;
 import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+import org.jboss.as.ejb3.pool.strictmax.LockFreeStrictMaxPool;
 import org.jboss.as.ejb3.pool.strictmax.StrictMaxPool;
 
 import java.util.concurrent.TimeUnit;
@@ -39,6 +40,8 @@ public class StrictMaxPoolConfig extends PoolConfig {
 
     public static final TimeUnit DEFAULT_TIMEOUT_UNIT = TimeUnit.MINUTES;
 
+    public static final boolean DEFAULT_LOCK_FREE = false;
+
 
     private volatile int maxPoolSize;
 
@@ -46,15 +49,25 @@ public class StrictMaxPoolConfig extends PoolConfig {
 
     private volatile long timeout;
 
+    private volatile boolean lockFree;
+
     public StrictMaxPoolConfig(final String poolName, int maxSize, long timeout, TimeUnit timeUnit) {
+        this(poolName, maxSize, timeout, timeUnit, DEFAULT_LOCK_FREE);
+    }
+
+    public StrictMaxPoolConfig(final String poolName, int maxSize, long timeout, TimeUnit timeUnit, boolean lockFree) {
         super(poolName);
         this.maxPoolSize = maxSize;
         this.timeout = timeout;
         this.timeoutUnit = timeUnit;
+        this.lockFree = lockFree;
     }
 
     @Override
     public Pool<?> createPool(final StatelessObjectFactory statelessObjectFactory) {
+        if (this.lockFree) {
+            return new LockFreeStrictMaxPool(statelessObjectFactory, this.maxPoolSize, this.timeout, this.timeoutUnit);
+        }
         return new StrictMaxPool(statelessObjectFactory, this.maxPoolSize, this.timeout, this.timeoutUnit);
     }
 
@@ -82,6 +95,18 @@ public class StrictMaxPoolConfig extends PoolConfig {
         this.timeout = timeout;
     }
 
+    /**
+     * Returns true if the pools created from this config use a {@link LockFreeStrictMaxPool}
+     * instead of the monitor based {@link StrictMaxPool}.
+     */
+    public boolean isLockFree() {
+        return lockFree;
+    }
+
+    public void setLockFree(boolean lockFree) {
+        this.lockFree = lockFree;
+    }
+
     @Override
     public String toString() {
         return "StrictMaxPoolConfig{" +
@@ -89,6 +114,7 @@ public class StrictMaxPoolConfig extends PoolConfig {
                 "maxPoolSize=" + maxPoolSize +
                 ", timeoutUnit=" + timeoutUnit +
                 ", timeout=" + timeout +
+                ", lockFree=" + lockFree +
                 '}';
     }
 }
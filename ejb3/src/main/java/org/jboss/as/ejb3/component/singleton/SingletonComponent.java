@@ -63,6 +63,8 @@ public class SingletonComponent extends SessionBeanComponent implements Lockable
 
     private final boolean initOnStartup;
 
+    private final boolean readLockStriped;
+
     private final Map<String, LockType> beanLevelLockType;
 
     private final Map<EJBBusinessMethod, LockType> methodLockTypes;
@@ -87,6 +89,7 @@ public class SingletonComponent extends SessionBeanComponent implements Lockable
         super(singletonComponentCreateService);
         this.dependsOn = dependsOn;
         this.initOnStartup = singletonComponentCreateService.isInitOnStartup();
+        this.readLockStriped = singletonComponentCreateService.isReadLockStriped();
 
         this.beanLevelLockType = singletonComponentCreateService.getBeanLockType();
         this.methodLockTypes = singletonComponentCreateService.getMethodApplicableLockTypes();
@@ -194,6 +197,11 @@ public class SingletonComponent extends SessionBeanComponent implements Lockable
         return defaultAccessTimeoutProvider.getDefaultAccessTimeout();
     }
 
+    @Override
+    public boolean isReadLockStriped() {
+        return readLockStriped;
+    }
+
     private synchronized void destroySingletonInstance() {
         if (this.singletonComponentInstance != null) {
             singletonComponentInstance.destroy();
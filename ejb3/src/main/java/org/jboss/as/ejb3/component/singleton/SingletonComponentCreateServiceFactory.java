@@ -39,10 +39,12 @@ import java.util.List;
 public class SingletonComponentCreateServiceFactory extends EJBComponentCreateServiceFactory {
 
     private final boolean initOnStartup;
+    private final boolean readLockStriped;
     private final List<ServiceName> dependsOn;
 
-    public SingletonComponentCreateServiceFactory(final boolean initServiceOnStartup, final List<ServiceName> dependsOn) {
+    public SingletonComponentCreateServiceFactory(final boolean initServiceOnStartup, final boolean readLockStriped, final List<ServiceName> dependsOn) {
         this.initOnStartup = initServiceOnStartup;
+        this.readLockStriped = readLockStriped;
         this.dependsOn = dependsOn;
     }
 
@@ -60,6 +62,6 @@ public class SingletonComponentCreateServiceFactory extends EJBComponentCreateSe
                 serviceBuilder.addDependency(DefaultAccessTimeoutService.SINGLETON_SERVICE_NAME, DefaultAccessTimeoutService.class, componentCreateService.getDefaultAccessTimeoutInjector());
             }
         });
-        return new SingletonComponentCreateService(configuration, this.ejbJarConfiguration, this.initOnStartup, dependsOn);
+        return new SingletonComponentCreateService(configuration, this.ejbJarConfiguration, this.initOnStartup, this.readLockStriped, dependsOn);
     }
 }
@@ -69,6 +69,11 @@ public class SingletonComponentDescription extends SessionBeanComponentDescripti
      */
     private boolean initOnStartup;
 
+    /**
+     * Flag to indicate whether the container managed concurrency of the bean uses a striped read lock
+     */
+    private boolean readLockStriped;
+
     private final List<ServiceName> dependsOn = new ArrayList<ServiceName>();
 
     private DefaultAccessTimeoutService defaultAccessTimeoutProvider;
@@ -93,7 +98,7 @@ public class SingletonComponentDescription extends SessionBeanComponentDescripti
 
         ComponentConfiguration singletonComponentConfiguration = new ComponentConfiguration(this, classIndex);
         // setup the component create service
-        singletonComponentConfiguration.setComponentCreateServiceFactory(new SingletonComponentCreateServiceFactory(this.isInitOnStartup(), dependsOn));
+        singletonComponentConfiguration.setComponentCreateServiceFactory(new SingletonComponentCreateServiceFactory(this.isInitOnStartup(), this.isReadLockStriped(), dependsOn));
 
         if (getTransactionManagementType().equals(TransactionManagementType.CONTAINER)) {
             //we need to add the transaction interceptor to the lifecycle methods
@@ -155,6 +160,23 @@ public class SingletonComponentDescription extends SessionBeanComponentDescripti
 
     }
 
+    /**
+     * Returns true if the container managed concurrency of the bean uses a
+     * {@link org.jboss.as.ejb3.concurrency.StripedEJBReadWriteLock}
+     *
+     * @return
+     */
+    public boolean isReadLockStriped() {
+        return this.readLockStriped;
+    }
+
+    /**
+     * Marks the singleton bean for a {@link org.jboss.as.ejb3.concurrency.StripedEJBReadWriteLock}
+     */
+    public void stripeReadLock() {
+        this.readLockStriped = true;
+    }
+
     @Override
     public boolean allowsConcurrentAccess() {
         return true;
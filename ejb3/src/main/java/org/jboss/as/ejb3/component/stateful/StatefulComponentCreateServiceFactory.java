@@ -22,9 +22,15 @@
 
 package org.jboss.as.ejb3.component.stateful;
 
+import java.util.concurrent.ExecutorService;
+
 import org.jboss.as.ee.component.BasicComponentCreateService;
 import org.jboss.as.ee.component.ComponentConfiguration;
 import org.jboss.as.ee.component.DependencyConfigurator;
+import org.jboss.as.ejb3.cache.PassivationStoreConfig;
+import org.jboss.as.ejb3.cache.PassivationStoreConfigService;
+import org.jboss.as.ejb3.cache.TimingWheel;
+import org.jboss.as.ejb3.cache.TimingWheelService;
 import org.jboss.as.ejb3.component.DefaultAccessTimeoutService;
 import org.jboss.as.ejb3.component.EJBComponentCreateServiceFactory;
 import org.jboss.as.ejb3.component.singleton.SingletonComponentCreateService;
@@ -49,6 +55,28 @@ public class StatefulComponentCreateServiceFactory extends EJBComponentCreateSer
                 serviceBuilder.addDependency(DefaultAccessTimeoutService.STATEFUL_SERVICE_NAME, DefaultAccessTimeoutService.class, componentCreateService.getDefaultAccessTimeoutInjector());
             }
         });
+        // inject the timing wheel and the executor which expire inactive instances
+        configuration.getCreateDependencies().add(new DependencyConfigurator<StatefulSessionComponentCreateService>() {
+            @Override
+            public void configureDependency(ServiceBuilder<?> serviceBuilder, StatefulSessionComponentCreateService componentCreateService) throws DeploymentUnitProcessingException {
+                serviceBuilder.addDependency(TimingWheelService.SFSB_EXPIRATION_SERVICE_NAME, TimingWheel.class, componentCreateService.getExpirationTimingWheelInjector());
+                serviceBuilder.addDependency(TimingWheelService.SFSB_EXPIRATION_EXECUTOR_SERVICE_NAME, ExecutorService.class, componentCreateService.getExpirationExecutorInjector());
+            }
+        });
+        // inject the passivation store config, if the bean doesn't name one the optional default config is used
+        final String passivationStoreName = ((StatefulComponentDescription) configuration.getComponentDescription()).getPassivationStoreName();
+        configuration.getCreateDependencies().add(new DependencyConfigurator<StatefulSessionComponentCreateService>() {
+            @Override
+            public void configureDependency(ServiceBuilder<?> serviceBuilder, StatefulSessionComponentCreateService componentCreateService) throws DeploymentUnitProcessingException {
+                if (passivationStoreName == null) {
+                    serviceBuilder.addDependency(ServiceBuilder.DependencyType.OPTIONAL, PassivationStoreConfigService.DEFAULT_SFSB_PASSIVATION_STORE_CONFIG_SERVICE_NAME,
+                            PassivationStoreConfig.class, componentCreateService.getPassivationStoreConfigInjector());
+                } else {
+                    serviceBuilder.addDependency(PassivationStoreConfigService.BASE_SERVICE_NAME.append(passivationStoreName),
+                            PassivationStoreConfig.class, componentCreateService.getPassivationStoreConfigInjector());
+                }
+            }
+        });
         return new StatefulSessionComponentCreateService(configuration, this.ejbJarConfiguration);
     }
 }
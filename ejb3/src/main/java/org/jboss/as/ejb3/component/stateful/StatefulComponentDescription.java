@@ -76,6 +76,8 @@ public class StatefulComponentDescription extends SessionBeanComponentDescriptio
 
     private DefaultAccessTimeoutService defaultAccessTimeoutProvider;
 
+    private String passivationStoreName;
+
     /**
      * Map of init method, to the corresponding home create method on the home interface
      *
@@ -287,6 +289,18 @@ public class StatefulComponentDescription extends SessionBeanComponentDescriptio
         this.statefulTimeout = statefulTimeout;
     }
 
+    /**
+     * Returns the name of the passivation store used by this bean, or <code>null</code> if the default
+     * passivation store (if any) of the EJB3 subsystem is used.
+     */
+    public String getPassivationStoreName() {
+        return passivationStoreName;
+    }
+
+    public void setPassivationStoreName(final String passivationStoreName) {
+        this.passivationStoreName = passivationStoreName;
+    }
+
     private void addStatefulInstanceAssociatingInterceptor(final ViewDescription view) {
         view.getConfigurators().add(new ViewConfigurator() {
             @Override
@@ -23,7 +23,10 @@ package org.jboss.as.ejb3.component.stateful;
 
 import java.lang.reflect.Method;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -42,12 +45,17 @@ import org.jboss.as.ee.component.ComponentInstance;
 import org.jboss.as.ee.component.ComponentView;
 import org.jboss.as.ejb3.cache.Cache;
 import org.jboss.as.ejb3.cache.ExpiringCache;
+import org.jboss.as.ejb3.cache.PassivationStore;
+import org.jboss.as.ejb3.cache.PassivationStoreConfig;
 import org.jboss.as.ejb3.cache.StatefulObjectFactory;
+import org.jboss.as.ejb3.cache.StatefulObjectPassivator;
+import org.jboss.as.ejb3.cache.TimingWheel;
 import org.jboss.as.ejb3.component.DefaultAccessTimeoutService;
 import org.jboss.as.ejb3.component.EJBBusinessMethod;
 import org.jboss.as.ejb3.component.session.SessionBeanComponent;
 import org.jboss.as.ejb3.concurrency.AccessTimeoutDetails;
 import org.jboss.as.naming.ManagedReference;
+import org.jboss.as.naming.ValueManagedReference;
 import org.jboss.as.server.CurrentServiceContainer;
 import org.jboss.ejb.client.EJBClient;
 import org.jboss.ejb.client.SessionID;
@@ -60,6 +68,7 @@ import org.jboss.invocation.SimpleInterceptorFactoryContext;
 import org.jboss.logging.Logger;
 import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.ImmediateValue;
 import org.jboss.tm.TxUtils;
 
 
@@ -84,6 +93,14 @@ public class StatefulSessionComponent extends SessionBeanComponent {
     private final Method beforeCompletionMethod;
     private final Map<EJBBusinessMethod, AccessTimeoutDetails> methodAccessTimeouts;
     private final DefaultAccessTimeoutService defaultAccessTimeoutProvider;
+    private final List<Class<?>> interceptorClasses;
+    private final StatefulSessionPassivationCallbacks prePassivate;
+    private final StatefulSessionPassivationCallbacks postActivate;
+
+    /**
+     * The id of the instance which is being rebuilt from its passivated state on this thread, if any.
+     */
+    private final ThreadLocal<SessionID> activating = new ThreadLocal<SessionID>();
 
     /**
      * Construct a new instance.
@@ -101,12 +118,23 @@ public class StatefulSessionComponent extends SessionBeanComponent {
         this.beforeCompletionMethod = ejbComponentCreateService.getBeforeCompletionMethod();
         this.methodAccessTimeouts = ejbComponentCreateService.getMethodApplicableAccessTimeouts();
         this.defaultAccessTimeoutProvider = ejbComponentCreateService.getDefaultAccessTimeoutService();
+        this.interceptorClasses = ejbComponentCreateService.getInterceptorClasses();
+        this.prePassivate = ejbComponentCreateService.getPrePassivate();
+        this.postActivate = ejbComponentCreateService.getPostActivate();
 
         final StatefulTimeoutInfo statefulTimeout = ejbComponentCreateService.getStatefulTimeout();
-        if (statefulTimeout != null) {
-            cache = new ExpiringCache<StatefulSessionComponentInstance>(statefulTimeout.getValue(), statefulTimeout.getTimeUnit(), ejbComponentCreateService.getComponentClass().getName());
+        final long timeout = statefulTimeout != null ? statefulTimeout.getValue() : -1;
+        final TimeUnit timeUnit = statefulTimeout != null ? statefulTimeout.getTimeUnit() : TimeUnit.MILLISECONDS;
+        final String beanName = ejbComponentCreateService.getComponentClass().getName();
+        final TimingWheel timingWheel = ejbComponentCreateService.getExpirationTimingWheel();
+        final Executor expirationExecutor = ejbComponentCreateService.getExpirationExecutor();
+        final PassivationStoreConfig passivationStoreConfig = ejbComponentCreateService.getPassivationStoreConfig();
+        if (passivationStoreConfig != null) {
+            final String storeName = ejbComponentCreateService.getApplicationName() + "/" + ejbComponentCreateService.getModuleName() + "/" + ejbComponentCreateService.getComponentName();
+            final PassivationStore store = passivationStoreConfig.createStore(storeName, ejbComponentCreateService.getComponentClass().getClassLoader());
+            cache = new ExpiringCache<StatefulSessionComponentInstance>(timeout, timeUnit, beanName, timingWheel, expirationExecutor, passivationStoreConfig.getMaxSize(), store, new Passivator());
         } else {
-            cache = new ExpiringCache<StatefulSessionComponentInstance>(-1, TimeUnit.MILLISECONDS, ejbComponentCreateService.getComponentClass().getName());
+            cache = new ExpiringCache<StatefulSessionComponentInstance>(timeout, timeUnit, beanName, timingWheel, expirationExecutor);
         }
         cache.setStatefulObjectFactory(new StatefulObjectFactory<StatefulSessionComponentInstance>() {
             @Override
@@ -190,7 +218,57 @@ public class StatefulSessionComponent extends SessionBeanComponent {
 
     @Override
     protected BasicComponentInstance instantiateComponentInstance(final AtomicReference<ManagedReference> instanceReference, final Interceptor preDestroyInterceptor, final Map<Method, Interceptor> methodInterceptors, final InterceptorFactoryContext interceptorContext) {
-        return new StatefulSessionComponentInstance(this, instanceReference, preDestroyInterceptor, methodInterceptors);
+        final Map<Class<?>, AtomicReference<ManagedReference>> interceptorInstances = new HashMap<Class<?>, AtomicReference<ManagedReference>>();
+        for (Class<?> interceptorClass : interceptorClasses) {
+            // the interceptor instances are kept in the context under their class
+            final AtomicReference<ManagedReference> reference = (AtomicReference<ManagedReference>) interceptorContext.getContextData().get(interceptorClass);
+            if (reference != null) {
+                interceptorInstances.put(interceptorClass, reference);
+            }
+        }
+        return new StatefulSessionComponentInstance(this, activating.get(), instanceReference, preDestroyInterceptor, methodInterceptors, interceptorInstances);
+    }
+
+    /**
+     * Rebuild an instance from its passivated state, without injecting it or invoking its PostConstruct callbacks again.
+     */
+    private StatefulSessionComponentInstance activateInstance(final SessionID id, final StatefulSessionPassivatedState state) {
+        waitForComponentStart();
+        final Map<Class<?>, ManagedReference> interceptorInstances = new HashMap<Class<?>, ManagedReference>();
+        for (Map.Entry<Class<?>, Object> interceptorInstance : state.getInterceptorInstances().entrySet()) {
+            interceptorInstances.put(interceptorInstance.getKey(), new ValueManagedReference(new ImmediateValue<Object>(interceptorInstance.getValue())));
+        }
+        activating.set(id);
+        try {
+            return (StatefulSessionComponentInstance) constructComponentInstance(new ValueManagedReference(new ImmediateValue<Object>(state.getInstance())), false, interceptorInstances);
+        } finally {
+            activating.remove();
+        }
+    }
+
+    /**
+     * Passivates the state of instances, the bean instance and its interceptor instances, and rebuilds
+     * instances from it.
+     */
+    private class Passivator implements StatefulObjectPassivator<StatefulSessionComponentInstance> {
+
+        @Override
+        public Object prePassivate(final StatefulSessionComponentInstance instance) {
+            prePassivate.invoke(instance);
+            return new StatefulSessionPassivatedState(instance.getInstance(), instance.getInterceptorInstances());
+        }
+
+        @Override
+        public StatefulSessionComponentInstance activate(final SessionID id, final Object state) {
+            final StatefulSessionComponentInstance instance = activateInstance(id, (StatefulSessionPassivatedState) state);
+            postActivate.invoke(instance);
+            return instance;
+        }
+
+        @Override
+        public void postActivate(final StatefulSessionComponentInstance instance) {
+            postActivate.invoke(instance);
+        }
     }
 
     /**
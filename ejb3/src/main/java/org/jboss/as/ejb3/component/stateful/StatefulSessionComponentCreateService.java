@@ -23,10 +23,20 @@
 package org.jboss.as.ejb3.component.stateful;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import javax.ejb.PostActivate;
+import javax.ejb.PrePassivate;
 
 import org.jboss.as.ee.component.BasicComponent;
 import org.jboss.as.ee.component.ComponentConfiguration;
+import org.jboss.as.ee.component.InterceptorDescription;
 import org.jboss.as.ee.component.TCCLInterceptor;
+import org.jboss.as.ejb3.cache.PassivationStoreConfig;
+import org.jboss.as.ejb3.cache.TimingWheel;
 import org.jboss.as.ejb3.component.interceptors.CurrentInvocationContextInterceptor;
 import org.jboss.as.ejb3.component.DefaultAccessTimeoutService;
 import org.jboss.as.ejb3.component.session.SessionBeanComponentCreateService;
@@ -48,7 +58,13 @@ public class StatefulSessionComponentCreateService extends SessionBeanComponentC
     private final InterceptorFactory beforeCompletion;
     private final Method beforeCompletionMethod;
     private final StatefulTimeoutInfo statefulTimeout;
+    private final List<Class<?>> interceptorClasses;
+    private final StatefulSessionPassivationCallbacks prePassivate;
+    private final StatefulSessionPassivationCallbacks postActivate;
     private final InjectedValue<DefaultAccessTimeoutService> defaultAccessTimeoutService = new InjectedValue<DefaultAccessTimeoutService>();
+    private final InjectedValue<PassivationStoreConfig> passivationStoreConfig = new InjectedValue<PassivationStoreConfig>();
+    private final InjectedValue<TimingWheel> expirationTimingWheel = new InjectedValue<TimingWheel>();
+    private final InjectedValue<ExecutorService> expirationExecutor = new InjectedValue<ExecutorService>();
 
     /**
      * Construct a new instance.
@@ -80,6 +96,33 @@ public class StatefulSessionComponentCreateService extends SessionBeanComponentC
             this.beforeCompletion = null;
         }
         this.statefulTimeout = componentDescription.getStatefulTimeout();
+
+        final ClassLoader classLoader = componentConfiguration.getComponentClass().getClassLoader();
+        final List<Class<?>> interceptorClasses = new ArrayList<Class<?>>();
+        for (InterceptorDescription interceptor : componentDescription.getAllInterceptors()) {
+            interceptorClasses.add(loadInterceptorClass(interceptor, classLoader));
+        }
+        this.interceptorClasses = Collections.unmodifiableList(interceptorClasses);
+        // only class level interceptors have lifecycle callbacks, as for PostConstruct and PreDestroy
+        final List<Class<?>> interceptorsWithLifecycleCallbacks = new ArrayList<Class<?>>();
+        if (!componentDescription.isExcludeDefaultInterceptors()) {
+            for (InterceptorDescription interceptor : componentDescription.getDefaultInterceptors()) {
+                interceptorsWithLifecycleCallbacks.add(loadInterceptorClass(interceptor, classLoader));
+            }
+        }
+        for (InterceptorDescription interceptor : componentDescription.getClassInterceptors()) {
+            interceptorsWithLifecycleCallbacks.add(loadInterceptorClass(interceptor, classLoader));
+        }
+        this.prePassivate = new StatefulSessionPassivationCallbacks(PrePassivate.class, componentConfiguration.getComponentClass(), interceptorsWithLifecycleCallbacks);
+        this.postActivate = new StatefulSessionPassivationCallbacks(PostActivate.class, componentConfiguration.getComponentClass(), interceptorsWithLifecycleCallbacks);
+    }
+
+    private static Class<?> loadInterceptorClass(final InterceptorDescription interceptor, final ClassLoader classLoader) {
+        try {
+            return Class.forName(interceptor.getInterceptorClassName(), false, classLoader);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("Could not load interceptor class " + interceptor.getInterceptorClassName(), e);
+        }
     }
 
     private static InterceptorFactory invokeMethodOnTarget(final Method method) {
@@ -121,6 +164,21 @@ public class StatefulSessionComponentCreateService extends SessionBeanComponentC
         return statefulTimeout;
     }
 
+    /**
+     * @return all interceptor classes of the bean, whose instances are part of the passivated state
+     */
+    List<Class<?>> getInterceptorClasses() {
+        return interceptorClasses;
+    }
+
+    StatefulSessionPassivationCallbacks getPrePassivate() {
+        return prePassivate;
+    }
+
+    StatefulSessionPassivationCallbacks getPostActivate() {
+        return postActivate;
+    }
+
     public DefaultAccessTimeoutService getDefaultAccessTimeoutService() {
         return defaultAccessTimeoutService.getValue();
     }
@@ -128,4 +186,31 @@ public class StatefulSessionComponentCreateService extends SessionBeanComponentC
     Injector<DefaultAccessTimeoutService> getDefaultAccessTimeoutInjector() {
         return this.defaultAccessTimeoutService;
     }
+
+    /**
+     * @return the passivation store configuration, or <code>null</code> if instances of this bean are never passivated
+     */
+    public PassivationStoreConfig getPassivationStoreConfig() {
+        return passivationStoreConfig.getOptionalValue();
+    }
+
+    Injector<PassivationStoreConfig> getPassivationStoreConfigInjector() {
+        return this.passivationStoreConfig;
+    }
+
+    public TimingWheel getExpirationTimingWheel() {
+        return expirationTimingWheel.getValue();
+    }
+
+    Injector<TimingWheel> getExpirationTimingWheelInjector() {
+        return this.expirationTimingWheel;
+    }
+
+    public ExecutorService getExpirationExecutor() {
+        return expirationExecutor.getValue();
+    }
+
+    Injector<ExecutorService> getExpirationExecutorInjector() {
+        return this.expirationExecutor;
+    }
 }
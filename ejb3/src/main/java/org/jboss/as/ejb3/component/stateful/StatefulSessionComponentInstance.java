@@ -46,6 +46,7 @@ import org.jboss.invocation.InterceptorContext;
 public class StatefulSessionComponentInstance extends SessionBeanComponentInstance implements Identifiable {
 
     private final SessionID id;
+    private final Map<Class<?>, AtomicReference<ManagedReference>> interceptorInstances;
 
     private final Interceptor afterBegin;
     private final Interceptor afterCompletion;
@@ -56,17 +57,23 @@ public class StatefulSessionComponentInstance extends SessionBeanComponentInstan
     /**
      * Construct a new instance.
      *
-     * @param component the component
+     * @param component            the component
+     * @param id                   the id of an activated instance, or <code>null</code> if a new session is created
+     * @param interceptorInstances the references to the interceptor class instances, keyed by interceptor class
      */
-    protected StatefulSessionComponentInstance(final StatefulSessionComponent component, final AtomicReference<ManagedReference> instanceReference, final Interceptor preDestroyInterceptor, final Map<Method, Interceptor> methodInterceptors) {
+    protected StatefulSessionComponentInstance(final StatefulSessionComponent component, final SessionID id, final AtomicReference<ManagedReference> instanceReference, final Interceptor preDestroyInterceptor, final Map<Method, Interceptor> methodInterceptors, final Map<Class<?>, AtomicReference<ManagedReference>> interceptorInstances) {
         super(component, instanceReference, preDestroyInterceptor, methodInterceptors, Collections.<Method, Interceptor>emptyMap());
 
-
-        final UUID uuid = UUID.randomUUID();
-        ByteBuffer bb = ByteBuffer.wrap(new byte[16]);
-        bb.putLong(uuid.getMostSignificantBits());
-        bb.putLong(uuid.getLeastSignificantBits());
-        this.id = SessionID.createSessionID(bb.array());
+        if (id != null) {
+            this.id = id;
+        } else {
+            final UUID uuid = UUID.randomUUID();
+            ByteBuffer bb = ByteBuffer.wrap(new byte[16]);
+            bb.putLong(uuid.getMostSignificantBits());
+            bb.putLong(uuid.getLeastSignificantBits());
+            this.id = SessionID.createSessionID(bb.array());
+        }
+        this.interceptorInstances = interceptorInstances;
 
         this.afterBegin = component.createInterceptor(component.getAfterBegin());
         this.afterCompletion = component.createInterceptor(component.getAfterCompletion());
@@ -121,4 +128,30 @@ public class StatefulSessionComponentInstance extends SessionBeanComponentInstan
     public SessionID getId() {
         return id;
     }
+
+    /**
+     * @return the instance of the given interceptor class, or <code>null</code> if there is none
+     */
+    Object getInterceptorInstance(final Class<?> interceptorClass) {
+        final AtomicReference<ManagedReference> reference = interceptorInstances.get(interceptorClass);
+        if (reference == null) {
+            return null;
+        }
+        final ManagedReference managedReference = reference.get();
+        return managedReference != null ? managedReference.getInstance() : null;
+    }
+
+    /**
+     * @return the instances of the interceptor classes, keyed by interceptor class
+     */
+    Map<Class<?>, Object> getInterceptorInstances() {
+        final Map<Class<?>, Object> instances = new HashMap<Class<?>, Object>();
+        for (Class<?> interceptorClass : interceptorInstances.keySet()) {
+            final Object instance = getInterceptorInstance(interceptorClass);
+            if (instance != null) {
+                instances.put(interceptorClass, instance);
+            }
+        }
+        return instances;
+    }
 }
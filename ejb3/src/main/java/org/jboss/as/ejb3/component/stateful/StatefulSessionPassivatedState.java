@@ -0,0 +1,51 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.stateful;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * The state of a passivated stateful session bean: the bean instance and the instances of its interceptor
+ * classes. Everything else a {@link StatefulSessionComponentInstance} references belongs to the container and
+ * is rebuilt on activation.
+ */
+final class StatefulSessionPassivatedState implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object instance;
+    private final Map<Class<?>, Object> interceptorInstances;
+
+    StatefulSessionPassivatedState(final Object instance, final Map<Class<?>, Object> interceptorInstances) {
+        this.instance = instance;
+        this.interceptorInstances = interceptorInstances;
+    }
+
+    Object getInstance() {
+        return instance;
+    }
+
+    Map<Class<?>, Object> getInterceptorInstances() {
+        return interceptorInstances;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.stateful;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+
+import javax.interceptor.InvocationContext;
+
+import org.jboss.as.ee.component.Component;
+import org.jboss.as.ee.component.ComponentInstance;
+import org.jboss.invocation.Interceptor;
+import org.jboss.invocation.InterceptorContext;
+import org.jboss.invocation.Interceptors;
+
+/**
+ * Invokes the PrePassivate or the PostActivate callbacks of stateful session bean instances: those of the
+ * interceptor classes first, in interceptor order, then those of the bean class. Within a class hierarchy
+ * the callbacks of a superclass are invoked before those of its subclasses, and overridden methods are not
+ * invoked at all.
+ * <p/>
+ * Interceptor class callbacks take an {@link InvocationContext} and are responsible for proceeding, bean class
+ * callbacks take no parameters.
+ */
+final class StatefulSessionPassivationCallbacks {
+
+    private final Class<? extends Annotation> callbackType;
+    private final Interceptor chain;
+    private final boolean empty;
+
+    /**
+     * Construct a new instance.
+     *
+     * @param callbackType       the callback annotation, {@link javax.ejb.PrePassivate} or {@link javax.ejb.PostActivate}
+     * @param componentClass     the bean class
+     * @param interceptorClasses the interceptor classes with lifecycle callbacks, in interceptor order
+     */
+    StatefulSessionPassivationCallbacks(final Class<? extends Annotation> callbackType, final Class<?> componentClass, final List<Class<?>> interceptorClasses) {
+        this.callbackType = callbackType;
+        final List<Interceptor> interceptors = new ArrayList<Interceptor>();
+        for (Class<?> interceptorClass : interceptorClasses) {
+            for (Method method : findCallbacks(callbackType, interceptorClass, InvocationContext.class)) {
+                interceptors.add(new InterceptorClassCallback(interceptorClass, method));
+            }
+        }
+        final List<Method> beanCallbacks = findCallbacks(callbackType, componentClass);
+        empty = interceptors.isEmpty() && beanCallbacks.isEmpty();
+        if (!beanCallbacks.isEmpty()) {
+            interceptors.add(new BeanCallbacks(beanCallbacks));
+        }
+        interceptors.add(Interceptors.getTerminalInterceptor());
+        chain = Interceptors.getChainedInterceptor(interceptors);
+    }
+
+    /**
+     * Invoke the callbacks on an instance.
+     *
+     * @param instance the instance
+     */
+    void invoke(final StatefulSessionComponentInstance instance) {
+        if (empty) {
+            return;
+        }
+        final InterceptorContext context = new InterceptorContext();
+        // InvocationContext#getMethod() returns null for lifecycle callbacks
+        context.setMethod(null);
+        context.setTarget(instance.getInstance());
+        context.putPrivateData(Component.class, instance.getComponent());
+        context.putPrivateData(ComponentInstance.class, instance);
+        context.setContextData(new HashMap<String, Object>());
+        try {
+            chain.processInvocation(context);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to invoke " + callbackType.getSimpleName() + " callbacks of " + instance.getComponent().getComponentName(), e);
+        }
+    }
+
+    private static List<Method> findCallbacks(final Class<? extends Annotation> callbackType, final Class<?> clazz, final Class<?>... parameterTypes) {
+        final Deque<Method> callbacks = new ArrayDeque<Method>();
+        for (Class<?> c = clazz; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Method method : c.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(callbackType) && Arrays.equals(method.getParameterTypes(), parameterTypes) && !isOverridden(clazz, method)) {
+                    method.setAccessible(true);
+                    callbacks.addFirst(method);
+                }
+            }
+        }
+        return new ArrayList<Method>(callbacks);
+    }
+
+    private static boolean isOverridden(final Class<?> clazz, final Method method) {
+        if (Modifier.isPrivate(method.getModifiers())) {
+            return false;
+        }
+        for (Class<?> c = clazz; c != method.getDeclaringClass(); c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod(method.getName(), method.getParameterTypes());
+                return true;
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        return false;
+    }
+
+    private static final class InterceptorClassCallback implements Interceptor {
+        private final Class<?> interceptorClass;
+        private final Method method;
+
+        InterceptorClassCallback(final Class<?> interceptorClass, final Method method) {
+            this.interceptorClass = interceptorClass;
+            this.method = method;
+        }
+
+        public Object processInvocation(final InterceptorContext context) throws Exception {
+            final StatefulSessionComponentInstance instance = (StatefulSessionComponentInstance) context.getPrivateData(ComponentInstance.class);
+            final Object interceptor = instance.getInterceptorInstance(interceptorClass);
+            if (interceptor == null) {
+                return context.proceed();
+            }
+            try {
+                return method.invoke(interceptor, context.getInvocationContext());
+            } catch (InvocationTargetException e) {
+                throw Interceptors.rethrow(e.getCause());
+            }
+        }
+    }
+
+    private static final class BeanCallbacks implements Interceptor {
+        private final List<Method> methods;
+
+        BeanCallbacks(final List<Method> methods) {
+            this.methods = methods;
+        }
+
+        public Object processInvocation(final InterceptorContext context) throws Exception {
+            final Object target = context.getTarget();
+            for (Method method : methods) {
+                try {
+                    method.invoke(target);
+                } catch (InvocationTargetException e) {
+                    throw Interceptors.rethrow(e.getCause());
+                }
+            }
+            return context.proceed();
+        }
+    }
+}
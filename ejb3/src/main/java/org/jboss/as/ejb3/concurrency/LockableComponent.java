@@ -61,4 +61,12 @@ public interface LockableComponent {
      * @return
      */
     AccessTimeoutDetails getDefaultAccessTimeout();
+
+    /**
+     * Returns true if the component should be guarded by a {@link StripedEJBReadWriteLock} instead of an
+     * {@link EJBReadWriteLock}.
+     *
+     * @return
+     */
+    boolean isReadLockStriped();
 }
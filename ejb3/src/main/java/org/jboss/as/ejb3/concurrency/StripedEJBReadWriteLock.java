@@ -0,0 +1,388 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.concurrency;
+
+import javax.ejb.IllegalLoopbackException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link ReadWriteLock} with the same semantics as {@link EJBReadWriteLock}, tuned for singletons which are
+ * mostly invoked with {@link javax.ejb.LockType#READ}.
+ * <p/>
+ * Readers do not share a single counter. Each thread registers itself in one of several padded reader slots, so
+ * concurrent readers on different cores do not contend on the same cache line. A writer first excludes other writers,
+ * then announces itself and waits until every reader slot has drained. Readers which arrive while a writer is
+ * announced back off and wait for the writer to finish, which gives writers preference and keeps them from starving.
+ * <p/>
+ * The price is paid by writers, which have to scan all the slots, so this lock should only be chosen for beans whose
+ * invocations are dominated by reads.
+ *
+ * @see StripedReadLock
+ */
+public class StripedEJBReadWriteLock implements ReadWriteLock {
+
+    /**
+     * Distance, in ints, between two reader slots. Keeps every slot on its own cache line.
+     */
+    private static final int PADDING = 16;
+
+    private final int stripeMask;
+
+    /**
+     * The reader slots, only every {@link #PADDING}th element is used
+     */
+    private final AtomicIntegerArray readers;
+
+    /**
+     * Serializes the writers. Held for as long as a thread holds the write lock, readers that find a writer
+     * announced wait on it.
+     */
+    private final ReentrantLock writerLock = new ReentrantLock();
+
+    /**
+     * Set while a writer waits for the readers to drain or holds the write lock
+     */
+    private volatile boolean writerActive;
+
+    /**
+     * The thread that has announced itself as writer
+     */
+    private volatile Thread writer;
+
+    /**
+     * Number of write holds of {@link #writer}, only accessed by the writer thread
+     */
+    private int writeHolds;
+
+    /**
+     * Per thread read hold count (index 0) and reader slot (index 1)
+     */
+    private final ThreadLocal<int[]> readHolds = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            final long id = Thread.currentThread().getId();
+            int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+            hash ^= hash >>> 16;
+            return new int[]{0, (hash & stripeMask) * PADDING};
+        }
+    };
+
+    private final Lock readLock = new ReadLock();
+
+    private final Lock writeLock = new WriteLock();
+
+    public StripedEJBReadWriteLock() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    /**
+     * @param stripes the number of reader slots, rounded up to the next power of two
+     */
+    public StripedEJBReadWriteLock(final int stripes) {
+        int size = 1;
+        while (size < stripes && size < (1 << 16)) {
+            size <<= 1;
+        }
+        this.stripeMask = size - 1;
+        this.readers = new AtomicIntegerArray(size * PADDING);
+    }
+
+    @Override
+    public Lock readLock() {
+        return readLock;
+    }
+
+    @Override
+    public Lock writeLock() {
+        return writeLock;
+    }
+
+    /**
+     * @return the number of read locks currently held, by all threads
+     */
+    public int getReadLockCount() {
+        int count = 0;
+        for (int i = 0; i < readers.length(); i += PADDING) {
+            count += readers.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * @return true if some thread holds, or is about to hold, the write lock
+     */
+    public boolean isWriteLocked() {
+        return writerActive;
+    }
+
+    /**
+     * Acquires a read lock.
+     *
+     * @param timed true if <code>nanos</code> bounds the wait
+     * @param nanos the maximum time to wait, a value of 0 or less does not wait at all
+     * @return true if the lock was acquired
+     */
+    private boolean acquireRead(final boolean timed, final long nanos) throws InterruptedException {
+        final int[] holds = readHolds.get();
+        final int slot = holds[1];
+        if (holds[0] > 0 || writer == Thread.currentThread()) {
+            // a reentrant read, or a read by the writer itself, must never wait for the writer
+            readers.incrementAndGet(slot);
+            holds[0]++;
+            return true;
+        }
+        final long deadline = timed ? System.nanoTime() + nanos : 0L;
+        for (; ; ) {
+            readers.incrementAndGet(slot);
+            if (!writerActive) {
+                holds[0] = 1;
+                return true;
+            }
+            // a writer has been announced, back off and let it drain the readers
+            readers.decrementAndGet(slot);
+            signalWriter();
+            if (timed) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !writerLock.tryLock(remaining, TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+            } else {
+                writerLock.lockInterruptibly();
+            }
+            writerLock.unlock();
+        }
+    }
+
+    private void releaseRead() {
+        final int[] holds = readHolds.get();
+        if (holds[0] == 0) {
+            throw new IllegalMonitorStateException("Current thread does not hold a read lock");
+        }
+        holds[0]--;
+        readers.decrementAndGet(holds[1]);
+        signalWriter();
+    }
+
+    private void signalWriter() {
+        if (writerActive) {
+            final Thread waiting = writer;
+            if (waiting != null) {
+                LockSupport.unpark(waiting);
+            }
+        }
+    }
+
+    /**
+     * Acquires the write lock.
+     *
+     * @param timed true if <code>nanos</code> bounds the wait
+     * @param nanos the maximum time to wait, a value of 0 or less does not wait at all
+     * @return true if the lock was acquired
+     */
+    private boolean acquireWrite(final boolean timed, final long nanos) throws InterruptedException {
+        checkLoopback();
+        final Thread current = Thread.currentThread();
+        if (writer == current) {
+            writeHolds++;
+            return true;
+        }
+        final long deadline = timed ? System.nanoTime() + nanos : 0L;
+        if (timed) {
+            if (!writerLock.tryLock(nanos, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        } else {
+            writerLock.lockInterruptibly();
+        }
+        writer = current;
+        writerActive = true;
+        while (getReadLockCount() != 0) {
+            if (timed) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    abandonWrite();
+                    return false;
+                }
+                LockSupport.parkNanos(this, remaining);
+            } else {
+                LockSupport.park(this);
+            }
+            if (Thread.interrupted()) {
+                abandonWrite();
+                throw new InterruptedException();
+            }
+        }
+        writeHolds = 1;
+        return true;
+    }
+
+    private void releaseWrite() {
+        if (writer != Thread.currentThread()) {
+            throw new IllegalMonitorStateException("Current thread does not hold the write lock");
+        }
+        if (--writeHolds == 0) {
+            abandonWrite();
+        }
+    }
+
+    private void abandonWrite() {
+        writerActive = false;
+        writer = null;
+        writerLock.unlock();
+    }
+
+    /**
+     * Ensures that the current thread doesn't hold any read locks.
+     */
+    private void checkLoopback() {
+        if (readHolds.get()[0] > 0) {
+            throw new IllegalLoopbackException("EJB 3.1 PFD2 4.8.5.1.1 upgrading from read to write lock is not allowed");
+        }
+    }
+
+    public class ReadLock implements Lock {
+
+        @Override
+        public void lock() {
+            boolean interrupted = false;
+            for (; ; ) {
+                try {
+                    acquireRead(false, 0L);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            acquireRead(false, 0L);
+        }
+
+        @Override
+        public boolean tryLock() {
+            try {
+                return acquireRead(true, 0L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public boolean tryLock(final long time, final TimeUnit unit) throws InterruptedException {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            return acquireRead(true, unit.toNanos(time));
+        }
+
+        @Override
+        public void unlock() {
+            releaseRead();
+        }
+
+        /**
+         * Not implemented
+         *
+         * @throws UnsupportedOperationException
+         */
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    public class WriteLock implements Lock {
+
+        @Override
+        public void lock() {
+            boolean interrupted = false;
+            for (; ; ) {
+                try {
+                    acquireWrite(false, 0L);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            acquireWrite(false, 0L);
+        }
+
+        @Override
+        public boolean tryLock() {
+            try {
+                return acquireWrite(true, 0L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public boolean tryLock(final long time, final TimeUnit unit) throws InterruptedException {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            return acquireWrite(true, unit.toNanos(time));
+        }
+
+        @Override
+        public void unlock() {
+            releaseWrite();
+        }
+
+        /**
+         * Not implemented
+         *
+         * @throws UnsupportedOperationException
+         */
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.pool.strictmax;
+
+import org.jboss.as.ejb3.pool.AbstractPool;
+import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+import org.jboss.logging.Logger;
+
+import javax.ejb.EJBException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool with a maximum size which doesn't serialize invocations on a single monitor.
+ * <p/>
+ * Unlike {@link StrictMaxPool}, the free instances are kept in a lock-free queue and the
+ * permits are handed out by a non-fair semaphore, so that concurrent invocations only ever
+ * contend on CAS operations. The trade-off is that waiting callers are not served in strict
+ * FIFO order once the pool is exhausted.
+ */
+public class LockFreeStrictMaxPool<T> extends AbstractPool<T> {
+    private static final Logger log = Logger.getLogger(LockFreeStrictMaxPool.class);
+
+    /**
+     * A non-fair semaphore which limits the number of active instances to maxSize.
+     */
+    private final Semaphore semaphore;
+    /**
+     * The maximum number of instances allowed in the pool
+     */
+    private final int maxSize;
+    /**
+     * The time to wait for the semaphore.
+     */
+    private final long timeout;
+    private final TimeUnit timeUnit;
+    /**
+     * The free instances.
+     */
+    private final ConcurrentLinkedQueue<T> pool = new ConcurrentLinkedQueue<T>();
+    /**
+     * The number of instances in {@link #pool}, tracked separately since
+     * {@link ConcurrentLinkedQueue#size()} is not a constant time operation.
+     */
+    private final AtomicInteger pooled = new AtomicInteger(0);
+
+    private final AtomicInteger inUse = new AtomicInteger(0);
+
+    public LockFreeStrictMaxPool(StatelessObjectFactory<T> factory, int maxSize, long timeout, TimeUnit timeUnit) {
+        super(factory);
+        this.maxSize = maxSize;
+        this.semaphore = new Semaphore(maxSize, false);
+        this.timeout = timeout;
+        this.timeUnit = timeUnit;
+    }
+
+    public void discard(T ctx) {
+        if (log.isTraceEnabled()) {
+            log.trace("Discard instance:" + this + "#" + ctx);
+        }
+        inUse.decrementAndGet();
+        semaphore.release();
+
+        // Let the super do any other remove stuff
+        super.doRemove(ctx);
+    }
+
+    public int getCurrentSize() {
+        return getCreateCount() - getRemoveCount();
+    }
+
+    public int getAvailableCount() {
+        return maxSize - inUse.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        throw new RuntimeException("Not implemented");
+    }
+
+    /**
+     * Get an instance without identity.
+     * Can be used by finders,create-methods, and activation
+     *
+     * @return Context /w instance
+     */
+    public T get() {
+        // barging is allowed, so try the uncontended path before parking
+        if (!semaphore.tryAcquire()) {
+            try {
+                boolean acquired = semaphore.tryAcquire(timeout, timeUnit);
+                if (!acquired)
+                    throw new EJBException("Failed to acquire a permit within " + timeout + " " + timeUnit);
+            } catch (InterruptedException e) {
+                throw new EJBException("Acquire semaphore was interrupted");
+            }
+        }
+        inUse.incrementAndGet();
+
+        final T pooledBean = pool.poll();
+        if (pooledBean != null) {
+            pooled.decrementAndGet();
+            return pooledBean;
+        }
+
+        T bean = null;
+        try {
+            // Pool is empty, create an instance
+            bean = create();
+        } finally {
+            if (bean == null) {
+                inUse.decrementAndGet();
+                semaphore.release();
+            }
+        }
+        return bean;
+    }
+
+    /**
+     * Return an instance after invocation.
+     *
+     * @param obj
+     */
+    public void release(T obj) {
+        if (log.isTraceEnabled()) {
+            log.trace(pooled.get() + "/" + maxSize + " Free instance:" + this);
+        }
+
+        // Add the unused context back into the pool before handing out the permit,
+        // so that the next caller picks it up instead of creating a new instance
+        if (pooled.incrementAndGet() <= maxSize) {
+            pool.offer(obj);
+        } else {
+            pooled.decrementAndGet();
+            destroy(obj);
+        }
+        inUse.decrementAndGet();
+        semaphore.release();
+    }
+
+    @Override
+    public void remove(T ctx) {
+        if (log.isTraceEnabled()) {
+            log.trace("Removing instance:" + this + "#" + ctx);
+        }
+
+        inUse.decrementAndGet();
+        semaphore.release();
+        // let the super do the other remove stuff
+        super.doRemove(ctx);
+    }
+
+    public void start() {
+    }
+
+    public void stop() {
+        T obj;
+        while ((obj = pool.poll()) != null) {
+            pooled.decrementAndGet();
+            destroy(obj);
+        }
+    }
+}
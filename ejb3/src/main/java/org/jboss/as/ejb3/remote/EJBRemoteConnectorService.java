@@ -47,6 +47,10 @@ import javax.transaction.TransactionManager;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 
 /**
@@ -74,9 +78,21 @@ public class EJBRemoteConnectorService implements Service<EJBRemoteConnectorServ
 
     private final String[] supportedMarshallingStrategies;
 
-    public EJBRemoteConnectorService(final byte serverProtocolVersion, final String[] supportedMarshallingStrategies) {
+    private final int maxInFlightInvocations;
+
+    /**
+     * The receivers of the channels which are currently open
+     */
+    private final Set<VersionOneProtocolChannelReceiver> channelReceivers = Collections.newSetFromMap(new ConcurrentHashMap<VersionOneProtocolChannelReceiver, Boolean>());
+
+    /**
+     * @param maxInFlightInvocations the maximum number of requests per channel which are processed at the same time, or
+     *                               0 for no limit
+     */
+    public EJBRemoteConnectorService(final byte serverProtocolVersion, final String[] supportedMarshallingStrategies, final int maxInFlightInvocations) {
         this.serverProtocolVersion = serverProtocolVersion;
         this.supportedMarshallingStrategies = supportedMarshallingStrategies;
+        this.maxInFlightInvocations = maxInFlightInvocations;
     }
 
     @Override
@@ -104,6 +120,15 @@ public class EJBRemoteConnectorService implements Service<EJBRemoteConnectorServ
         return endpointValue;
     }
 
+    /**
+     * Returns the receivers of the currently open channels, which track the requests each channel has in flight
+     *
+     * @return the channel receivers
+     */
+    public Collection<VersionOneProtocolChannelReceiver> getChannelReceivers() {
+        return Collections.unmodifiableSet(this.channelReceivers);
+    }
+
     private void sendVersionMessage(final Channel channel) throws IOException {
         final DataOutputStream outputStream = new DataOutputStream(channel.writeMessage());
         try {
@@ -198,7 +223,15 @@ public class EJBRemoteConnectorService implements Service<EJBRemoteConnectorServ
                         // enroll VersionOneProtocolChannelReceiver for handling subsequent messages on this channel
                         final DeploymentRepository deploymentRepository = EJBRemoteConnectorService.this.deploymentRepositoryInjectedValue.getValue();
                         final VersionOneProtocolChannelReceiver receiver = new VersionOneProtocolChannelReceiver(channel, deploymentRepository,
-                                EJBRemoteConnectorService.this.ejbRemoteTransactionsRepositoryInjectedValue.getValue(), clientMarshallingStrategy, executorService.getValue());
+                                EJBRemoteConnectorService.this.ejbRemoteTransactionsRepositoryInjectedValue.getValue(), clientMarshallingStrategy, executorService.getValue(),
+                                EJBRemoteConnectorService.this.maxInFlightInvocations);
+                        EJBRemoteConnectorService.this.channelReceivers.add(receiver);
+                        channel.addCloseHandler(new CloseHandler<Channel>() {
+                            @Override
+                            public void handleClose(Channel closed, IOException exception) {
+                                EJBRemoteConnectorService.this.channelReceivers.remove(receiver);
+                            }
+                        });
                         receiver.startReceiving();
                         break;
 
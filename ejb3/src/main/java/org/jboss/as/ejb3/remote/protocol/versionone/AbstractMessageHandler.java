@@ -37,7 +37,7 @@ import org.jboss.remoting3.Channel;
  */
 abstract class AbstractMessageHandler implements MessageHandler {
 
-    protected final String marshallingStrategy;
+    protected final MarshallerPool marshallerPool;
 
     protected static final byte HEADER_NO_SUCH_EJB_FAILURE = 0x0A;
     protected static final byte HEADER_NO_SUCH_EJB_METHOD_FAILURE = 0x0B;
@@ -45,8 +45,8 @@ abstract class AbstractMessageHandler implements MessageHandler {
     private static final byte HEADER_INVOCATION_EXCEPTION = 0x06;
 
 
-    AbstractMessageHandler(final String marshallingStrategy) {
-        this.marshallingStrategy = marshallingStrategy;
+    AbstractMessageHandler(final MarshallerPool marshallerPool) {
+        this.marshallerPool = marshallerPool;
     }
 
     protected RemotingAttachments readAttachments(final DataInput input) throws IOException {
@@ -98,15 +98,37 @@ abstract class AbstractMessageHandler implements MessageHandler {
             // write the attachments
             this.writeAttachments(outputStream, attachments);
             // write out the exception
-            final Marshaller marshaller = MarshallerFactory.createMarshaller(this.marshallingStrategy);
+            final Marshaller marshaller = this.marshallerPool.acquireMarshaller();
             marshaller.start(outputStream);
             marshaller.writeObject(t);
             marshaller.finish();
+            // a marshaller which failed midway isn't handed back and is left to be garbage collected
+            this.marshallerPool.release(marshaller);
         } finally {
             outputStream.close();
         }
     }
 
+    /**
+     * Finishes the unmarshalling of a request and hands the {@link UnMarshaller} back to the pool. Called from the
+     * finally block around the reading of a request, so that the unmarshaller is handed back whether or not the
+     * request could be read; an unmarshaller which can't be finished isn't handed back and is left to be garbage
+     * collected.
+     *
+     * @param unMarshaller the unmarshaller which was used to read the request
+     */
+    protected void finishUnMarshalling(final UnMarshaller unMarshaller) {
+        try {
+            unMarshaller.finish();
+        } catch (IOException e) {
+            return;
+        } catch (RuntimeException e) {
+            // e.g. it failed to start
+            return;
+        }
+        this.marshallerPool.release(unMarshaller);
+    }
+
     protected void writeInvocationFailure(final Channel channel, final byte messageHeader, final short invocationId, final String failureMessage) throws IOException {
         final DataOutputStream dataOutputStream = new DataOutputStream(channel.writeMessage());
         try {
@@ -0,0 +1,277 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.remote.protocol.versionone;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.ee.component.ComponentView;
+import org.jboss.as.ejb3.deployment.DeploymentRepository;
+import org.jboss.as.ejb3.deployment.EjbDeploymentInformation;
+import org.jboss.ejb.client.EJBLocator;
+import org.jboss.ejb.client.remoting.PackedInteger;
+import org.jboss.ejb.client.remoting.RemotingAttachments;
+import org.jboss.logging.Logger;
+import org.jboss.remoting3.Channel;
+import org.xnio.IoUtils;
+
+/**
+ * Handles a batch of method invocations, sent by the client in a single message, and writes out the outcome of all
+ * the invocations in a single response.
+ * <p/>
+ * The request is made of the header, the batch invocation id, a flags byte, the attachments which apply to every
+ * invocation of the batch and the (packed) number of invocations. Then follows a marshalled stream with, for each
+ * invocation, the method name, the method signature, the app, module, distinct and bean names, the {@link EJBLocator}
+ * and the method arguments. The invocations may target different EJBs, even of different deployments.
+ * <p/>
+ * Unless the {@link #FLAG_PARALLEL} flag is set, the invocations are run one after the other, in the order in which
+ * they were sent, as a single task of the {@link InFlightInvocationWindow in-flight window} of the channel. Parallel
+ * invocations each take a place in the window. Every invocation sees its own copy of the attachments of the batch. The
+ * response carries, for each invocation and in the same order, a {@link Boolean} telling whether it succeeded,
+ * followed by either its result or the {@link Throwable} it failed with. A failing invocation doesn't stop the ones
+ * after it.
+ * <p/>
+ * If any of the invocations refers to an EJB or method which doesn't exist, none of them is run and the same failure
+ * message as for a single invocation is sent back for the batch invocation id.
+ */
+class BatchInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
+
+    private static final Logger logger = Logger.getLogger(BatchInvocationMessageHandler.class);
+
+    private static final byte HEADER_BATCH_INVOCATION_RESPONSE = 0x21;
+
+    /**
+     * The invocations of the batch are independent of each other and may run concurrently
+     */
+    static final int FLAG_PARALLEL = 0x01;
+
+    private final InFlightInvocationWindow invocationWindow;
+
+    BatchInvocationMessageHandler(final DeploymentRepository deploymentRepository, final MarshallerPool marshallerPool, final InFlightInvocationWindow invocationWindow) {
+        super(deploymentRepository, marshallerPool);
+        this.invocationWindow = invocationWindow;
+    }
+
+    @Override
+    public void processMessage(final Channel channel, final InputStream messageInputStream) throws IOException {
+        final DataInputStream input = new DataInputStream(messageInputStream);
+        // read the batch invocation id
+        final short batchId = input.readShort();
+        final int flags = input.readUnsignedByte();
+        // read the attachments
+        final RemotingAttachments attachments = this.readAttachments(input);
+        final int invocationCount = PackedInteger.readPackedInteger(input);
+        if (invocationCount < 0) {
+            throw new IOException("Invalid number of invocations " + invocationCount + " in batch " + batchId);
+        }
+
+        final UnMarshaller unMarshaller = this.marshallerPool.acquireUnMarshaller();
+        final List<BatchedInvocation> invocations = new ArrayList<BatchedInvocation>(Math.min(invocationCount, 64));
+        try {
+            // every invocation of the batch may belong to a different deployment, so the classloader is switched
+            // before reading each of them
+            final ClassLoader initialClassLoader = Thread.currentThread().getContextClassLoader();
+            final ClassLoaderSwitchingClassLoaderProvider classLoaderProvider = new ClassLoaderSwitchingClassLoaderProvider(initialClassLoader);
+            unMarshaller.start(input, classLoaderProvider);
+            for (int i = 0; i < invocationCount; i++) {
+                classLoaderProvider.switchClassLoader(initialClassLoader);
+                final String methodName = (String) unMarshaller.readObject();
+                final String[] methodParamTypes = this.toMethodParamTypes((String) unMarshaller.readObject());
+                final String appName = (String) unMarshaller.readObject();
+                final String moduleName = (String) unMarshaller.readObject();
+                final String distinctName = (String) unMarshaller.readObject();
+                final String beanName = (String) unMarshaller.readObject();
+                final EjbDeploymentInformation ejbDeploymentInformation = this.findEJB(appName, moduleName, distinctName, beanName);
+                if (ejbDeploymentInformation == null) {
+                    this.writeNoSuchEJBFailureMessage(channel, batchId, appName, moduleName, distinctName, beanName, null);
+                    return;
+                }
+                classLoaderProvider.switchClassLoader(ejbDeploymentInformation.getDeploymentClassLoader());
+                final EJBLocator locator = (EJBLocator) unMarshaller.readObject();
+                final String viewClassName = locator.getViewType().getName();
+                if (!ejbDeploymentInformation.getViewNames().contains(viewClassName)) {
+                    this.writeNoSuchEJBFailureMessage(channel, batchId, appName, moduleName, distinctName, beanName, viewClassName);
+                    return;
+                }
+                final ComponentView componentView = ejbDeploymentInformation.getView(viewClassName);
+                final Method invokedMethod = this.findMethod(componentView, methodName, methodParamTypes);
+                if (invokedMethod == null) {
+                    this.writeNoSuchEJBMethodFailureMessage(channel, batchId, appName, moduleName, distinctName, beanName, viewClassName, methodName, methodParamTypes);
+                    return;
+                }
+                final Object[] methodParams = new Object[methodParamTypes.length];
+                for (int j = 0; j < methodParamTypes.length; j++) {
+                    methodParams[j] = unMarshaller.readObject();
+                }
+                // the interceptors of an invocation may change its attachments, so each one gets its own copy
+                invocations.add(new BatchedInvocation(componentView, invokedMethod, methodParams, locator, copyOf(attachments)));
+            }
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException(e);
+        } finally {
+            this.finishUnMarshalling(unMarshaller);
+        }
+        if (invocations.isEmpty()) {
+            this.writeBatchInvocationResponse(channel, batchId, attachments, invocations);
+            return;
+        }
+
+        final BatchResponse response = new BatchResponse(channel, batchId, attachments, invocations);
+        if ((flags & FLAG_PARALLEL) != 0 && invocations.size() > 1) {
+            // each invocation completes on its own, the last one to complete writes out the response. Every one of
+            // them takes a place in the in-flight window of the channel, so they wait for room like requests do.
+            for (final BatchedInvocation invocation : invocations) {
+                this.invocationWindow.admit(new Runnable() {
+                    @Override
+                    public void run() {
+                        invocation.invoke();
+                        response.invocationCompleted();
+                    }
+                });
+            }
+        } else {
+            this.invocationWindow.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (final BatchedInvocation invocation : invocations) {
+                        invocation.invoke();
+                        response.invocationCompleted();
+                    }
+                }
+            });
+        }
+    }
+
+    private static RemotingAttachments copyOf(final RemotingAttachments attachments) {
+        if (attachments == null) {
+            return null;
+        }
+        final RemotingAttachments copy = new RemotingAttachments();
+        for (final RemotingAttachments.RemotingAttachment attachment : attachments.entries()) {
+            copy.putPayloadAttachment(attachment.getKey(), attachment.getValue().clone());
+        }
+        return copy;
+    }
+
+    private void writeBatchInvocationResponse(final Channel channel, final short batchId, final RemotingAttachments attachments, final List<BatchedInvocation> invocations) throws IOException {
+        final DataOutputStream outputStream = new DataOutputStream(channel.writeMessage());
+        try {
+            // write the batch response header
+            outputStream.write(HEADER_BATCH_INVOCATION_RESPONSE);
+            // write the batch invocation id
+            outputStream.writeShort(batchId);
+            // write the attachments
+            this.writeAttachments(outputStream, attachments);
+            PackedInteger.writePackedInteger(outputStream, invocations.size());
+            // write out the outcome of each invocation
+            final Marshaller marshaller = this.marshallerPool.acquireMarshaller();
+            marshaller.start(outputStream);
+            for (final BatchedInvocation invocation : invocations) {
+                if (invocation.failure == null) {
+                    marshaller.writeObject(Boolean.TRUE);
+                    marshaller.writeObject(invocation.result);
+                } else {
+                    marshaller.writeObject(Boolean.FALSE);
+                    marshaller.writeObject(invocation.failure);
+                }
+            }
+            marshaller.finish();
+            this.marshallerPool.release(marshaller);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * One method invocation of a batch, and its outcome once it has run
+     */
+    private class BatchedInvocation {
+
+        private final ComponentView componentView;
+        private final Method method;
+        private final Object[] methodParams;
+        private final EJBLocator locator;
+        private final RemotingAttachments attachments;
+
+        // published to the thread which writes the response through BatchResponse.remaining
+        private Object result;
+        private Throwable failure;
+
+        BatchedInvocation(final ComponentView componentView, final Method method, final Object[] methodParams, final EJBLocator locator,
+                          final RemotingAttachments attachments) {
+            this.componentView = componentView;
+            this.method = method;
+            this.methodParams = methodParams;
+            this.locator = locator;
+            this.attachments = attachments;
+        }
+
+        void invoke() {
+            try {
+                this.result = invokeMethod(this.componentView, this.method, this.methodParams, this.locator, this.attachments);
+            } catch (Throwable throwable) {
+                this.failure = throwable;
+            }
+        }
+    }
+
+    /**
+     * Writes out the response of a batch once all its invocations have completed
+     */
+    private class BatchResponse {
+
+        private final Channel channel;
+        private final short batchId;
+        private final RemotingAttachments attachments;
+        private final List<BatchedInvocation> invocations;
+        private final AtomicInteger remaining;
+
+        BatchResponse(final Channel channel, final short batchId, final RemotingAttachments attachments, final List<BatchedInvocation> invocations) {
+            this.channel = channel;
+            this.batchId = batchId;
+            this.attachments = attachments;
+            this.invocations = invocations;
+            this.remaining = new AtomicInteger(invocations.size());
+        }
+
+        void invocationCompleted() {
+            if (this.remaining.decrementAndGet() != 0) {
+                return;
+            }
+            try {
+                writeBatchInvocationResponse(this.channel, this.batchId, this.attachments, this.invocations);
+            } catch (IOException ioe) {
+                logger.error("Could not write the response of batch invocation " + this.batchId + " with " + this.invocations.size()
+                        + " invocations on channel " + this.channel + " due to ", ioe);
+                // close the channel
+                IoUtils.safeClose(this.channel);
+            }
+        }
+    }
+}
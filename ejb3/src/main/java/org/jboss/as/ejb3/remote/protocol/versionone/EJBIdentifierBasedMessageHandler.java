@@ -22,24 +22,44 @@
 
 package org.jboss.as.ejb3.remote.protocol.versionone;
 
+import org.jboss.as.ee.component.Component;
+import org.jboss.as.ee.component.ComponentView;
+import org.jboss.as.ejb3.component.entity.EntityBeanComponent;
+import org.jboss.as.ejb3.component.interceptors.AsyncInvocationTask;
+import org.jboss.as.ejb3.component.interceptors.CancellationFlag;
+import org.jboss.as.ejb3.component.session.SessionBeanComponent;
 import org.jboss.as.ejb3.deployment.DeploymentModuleIdentifier;
 import org.jboss.as.ejb3.deployment.DeploymentRepository;
 import org.jboss.as.ejb3.deployment.EjbDeploymentInformation;
 import org.jboss.as.ejb3.deployment.ModuleDeployment;
-import org.jboss.remoting3.Channel;
-import org.jboss.remoting3.MessageInputStream;
+import org.jboss.ejb.client.EJBLocator;
+import org.jboss.ejb.client.EntityEJBLocator;
+import org.jboss.ejb.client.SessionID;
+import org.jboss.ejb.client.StatefulEJBLocator;
+import org.jboss.ejb.client.remoting.RemotingAttachments;
+import org.jboss.invocation.InterceptorContext;
+import org.jboss.logging.Logger;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Set;
 
 /**
  * User: jpai
  */
 abstract class EJBIdentifierBasedMessageHandler extends AbstractMessageHandler {
 
+    private static final Logger logger = Logger.getLogger(EJBIdentifierBasedMessageHandler.class);
+
+    private static final String METHOD_PARAM_TYPE_SEPARATOR = ",";
+
+    private static final String[] NO_METHOD_PARAM_TYPES = new String[0];
+
     protected final DeploymentRepository deploymentRepository;
 
-    EJBIdentifierBasedMessageHandler(final DeploymentRepository deploymentRepository, final String marshallingStrategy) {
-        super(marshallingStrategy);
+    EJBIdentifierBasedMessageHandler(final DeploymentRepository deploymentRepository, final MarshallerPool marshallerPool) {
+        super(marshallerPool);
         this.deploymentRepository = deploymentRepository;
     }
 
@@ -52,6 +72,113 @@ abstract class EJBIdentifierBasedMessageHandler extends AbstractMessageHandler {
         return moduleDeployment.getEjbs().get(beanName);
     }
 
+    /**
+     * Splits the method signature sent by the client into the parameter type names
+     *
+     * @param signature the comma separated parameter type names, or an empty string for a method without parameters
+     * @return the parameter type names
+     */
+    protected String[] toMethodParamTypes(final String signature) {
+        if (signature.isEmpty()) {
+            return NO_METHOD_PARAM_TYPES;
+        }
+        return signature.split(METHOD_PARAM_TYPE_SEPARATOR);
+    }
 
+    protected Object invokeMethod(final ComponentView componentView, final Method method, final Object[] args, final EJBLocator ejbLocator, final RemotingAttachments attachments) throws Throwable {
+        final InterceptorContext interceptorContext = new InterceptorContext();
+        interceptorContext.setParameters(args);
+        interceptorContext.setMethod(method);
+        interceptorContext.setContextData(new HashMap<String, Object>());
+        interceptorContext.putPrivateData(Component.class, componentView.getComponent());
+        interceptorContext.putPrivateData(ComponentView.class, componentView);
+        if (attachments != null) {
+            // attach the RemotingAttachments
+            interceptorContext.putPrivateData(RemotingAttachments.class, attachments);
+        }
+        // add the session id to the interceptor context, if it's a stateful ejb locator
+        if (ejbLocator instanceof StatefulEJBLocator) {
+            interceptorContext.putPrivateData(SessionID.SESSION_ID_KEY, ((StatefulEJBLocator) ejbLocator).getSessionId());
+        } else if (ejbLocator instanceof EntityEJBLocator) {
+            final Object primaryKey = ((EntityEJBLocator) ejbLocator).getPrimaryKey();
+            interceptorContext.putPrivateData(EntityBeanComponent.PRIMARY_KEY_CONTEXT_KEY, primaryKey);
+        }
+        if (componentView.isAsynchronous(method)) {
+            final Component component = componentView.getComponent();
+            if (!(component instanceof SessionBeanComponent)) {
+                logger.warn("Asynchronous invocations are only supported on session beans. Bean class " + component.getComponentClass()
+                        + " is not a session bean, invocation on method " + method + " will have no asynchronous semantics");
+                // just invoke normally
+                return componentView.invoke(interceptorContext);
+            }
+            // it's really a async method invocation on a session bean. So treat it accordingly
+            final SessionBeanComponent sessionBeanComponent = (SessionBeanComponent) componentView.getComponent();
+            final CancellationFlag cancellationFlag = new CancellationFlag();
+            // add the cancellation flag to the interceptor context
+            interceptorContext.putPrivateData(CancellationFlag.class, cancellationFlag);
 
+            final AsyncInvocationTask asyncInvocationTask = new AsyncInvocationTask(cancellationFlag) {
+                @Override
+                protected Object runInvocation() throws Exception {
+                    return componentView.invoke(interceptorContext);
+                }
+            };
+            // invoke
+            sessionBeanComponent.getAsynchronousExecutor().submit(asyncInvocationTask);
+            // wait/block for the bean invocation to complete and get the real result to be returned to the client
+            return asyncInvocationTask.get();
+        } else {
+            return componentView.invoke(interceptorContext);
+        }
+    }
+
+    protected Method findMethod(final ComponentView componentView, final String methodName, final String[] paramTypes) {
+        final Set<Method> viewMethods = componentView.getViewMethods();
+        for (final Method method : viewMethods) {
+            if (method.getName().equals(methodName)) {
+                final Class<?>[] methodParamTypes = method.getParameterTypes();
+                if (methodParamTypes.length != paramTypes.length) {
+                    continue;
+                }
+                boolean found = true;
+                for (int i = 0; i < methodParamTypes.length; i++) {
+                    if (!methodParamTypes[i].getName().equals(paramTypes[i])) {
+                        found = false;
+                        break;
+                    }
+                }
+                if (found) {
+                    return method;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A mutable {@link org.jboss.as.ejb3.remote.protocol.versionone.UnMarshaller.ClassLoaderProvider}
+     */
+    protected static class ClassLoaderSwitchingClassLoaderProvider implements UnMarshaller.ClassLoaderProvider {
+
+        private ClassLoader currentClassLoader;
+
+        ClassLoaderSwitchingClassLoaderProvider(final ClassLoader classLoader) {
+            this.currentClassLoader = classLoader;
+        }
+
+        @Override
+        public ClassLoader provideClassLoader() {
+            return this.currentClassLoader;
+        }
+
+        /**
+         * Sets the passed <code>newCL</code> as the classloader which will be returned on
+         * subsequent calls to {@link #provideClassLoader()}
+         *
+         * @param newCL
+         */
+        void switchClassLoader(final ClassLoader newCL) {
+            this.currentClassLoader = newCL;
+        }
+    }
 }
@@ -0,0 +1,191 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.remote.protocol.versionone;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the number of requests of one channel which have been handed to the executor but haven't completed yet.
+ * <p/>
+ * The window doesn't block or reject anything. Once it's full, {@link #tryDispatch(Runnable)} refuses the reads of
+ * further requests, and the caller reads them off the channel into a buffer and {@link #park(Runnable) parks} the
+ * reads of the buffered copies instead. The task which brings the window back below its limit runs them in the order
+ * they arrived. A parked request doesn't hold a place in the transport's inbound message window, so transaction control
+ * requests, which go to the executor directly instead of through the window, always get through while the invocations
+ * in flight wait for their transaction to complete. The bound is soft: a read which is dispatched while a task
+ * completes may take the window a task past its limit. Responses are written by the tasks themselves, so they go out in
+ * the order the invocations complete.
+ */
+final class InFlightInvocationWindow implements Executor {
+
+    private final Executor executor;
+
+    private final int maxInFlight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * The reads which wait for room in the window, guarded by itself
+     */
+    private final Queue<Runnable> parked = new ArrayDeque<Runnable>();
+
+    /**
+     * @param executor    the executor which runs the tasks
+     * @param maxInFlight the maximum number of tasks in flight, or 0 (or less) for no limit
+     */
+    InFlightInvocationWindow(final Executor executor, final int maxInFlight) {
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        this.inFlight.incrementAndGet();
+        this.queued.incrementAndGet();
+        try {
+            this.executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    queued.decrementAndGet();
+                    try {
+                        task.run();
+                    } finally {
+                        completed();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.queued.decrementAndGet();
+            this.completed();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the read of a request, which hands the request to {@link #execute(Runnable)}, right away if the window has
+     * room and no earlier read is parked.
+     *
+     * @param read the read of the request
+     * @return true if the read ran, false if the window is full and the read has to be {@link #park(Runnable) parked}
+     */
+    boolean tryDispatch(final Runnable read) {
+        synchronized (this.parked) {
+            if (this.isFull() || !this.parked.isEmpty()) {
+                return false;
+            }
+        }
+        read.run();
+        return true;
+    }
+
+    /**
+     * Parks the read of a request until the window has room for it. The read runs on the thread of the task which makes
+     * room for it, so it must not read from the channel anymore.
+     *
+     * @param read the read of the request
+     */
+    void park(final Runnable read) {
+        synchronized (this.parked) {
+            this.parked.add(read);
+        }
+        // the window may have made room before the read was parked, in which case nobody else would run it
+        this.runParked();
+    }
+
+    /**
+     * Hands a task to {@link #execute(Runnable)} once the window has room for it, after the reads which are parked
+     * already. This is how a request which makes several tasks, like a parallel batch, keeps each of them within the
+     * window instead of taking it past its limit.
+     *
+     * @param task the task
+     */
+    void admit(final Runnable task) {
+        final Runnable admission = new Runnable() {
+            @Override
+            public void run() {
+                execute(task);
+            }
+        };
+        if (!this.tryDispatch(admission)) {
+            this.park(admission);
+        }
+    }
+
+    /**
+     * @return the number of tasks which have been handed to this window and haven't completed yet
+     */
+    int getInFlightCount() {
+        return this.inFlight.get();
+    }
+
+    /**
+     * @return the number of tasks which are still waiting for an executor thread
+     */
+    int getQueuedCount() {
+        return this.queued.get();
+    }
+
+    /**
+     * @return the number of reads which wait for room in the window
+     */
+    int getParkedCount() {
+        synchronized (this.parked) {
+            return this.parked.size();
+        }
+    }
+
+    int getMaxInFlight() {
+        return this.maxInFlight;
+    }
+
+    private boolean isFull() {
+        return this.maxInFlight > 0 && this.inFlight.get() >= this.maxInFlight;
+    }
+
+    private void completed() {
+        this.inFlight.decrementAndGet();
+        this.runParked();
+    }
+
+    private void runParked() {
+        for (;;) {
+            final Runnable read;
+            synchronized (this.parked) {
+                if (this.isFull()) {
+                    return;
+                }
+                read = this.parked.poll();
+            }
+            if (read == null) {
+                return;
+            }
+            read.run();
+        }
+    }
+}
@@ -33,12 +33,15 @@ import org.jboss.marshalling.Unmarshaller;
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.EOFException;
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.ObjectStreamClass;
 import java.io.OutputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * TODO: Use the one from the ejb-client API project once the contract is settled
@@ -49,6 +52,12 @@ class MarshallerFactory {
 
     private static final Logger logger = Logger.getLogger(MarshallerFactory.class);
 
+    /**
+     * The JBoss Marshalling factories looked up so far, keyed by marshaller type. Looking a provided factory up goes
+     * through a service loader, so we do it only once per type.
+     */
+    private static final ConcurrentMap<String, org.jboss.marshalling.MarshallerFactory> marshallerFactories = new ConcurrentHashMap<String, org.jboss.marshalling.MarshallerFactory>();
+
     public static Marshaller createMarshaller(final String marshallerType) throws IOException {
         if ("river".equals(marshallerType)) {
             return new JBossMarshaller(marshallerType);
@@ -69,29 +78,43 @@ class MarshallerFactory {
         throw new IllegalArgumentException("Unknown marshaller type " + marshallerType);
     }
 
+    private static org.jboss.marshalling.MarshallerFactory getMarshallerFactory(final String marshallerType) {
+        org.jboss.marshalling.MarshallerFactory factory = marshallerFactories.get(marshallerType);
+        if (factory == null) {
+            factory = Marshalling.getProvidedMarshallerFactory(marshallerType);
+            if (factory == null) {
+                throw new IllegalArgumentException("No marshaller factory available for marshaller type " + marshallerType);
+            }
+            final org.jboss.marshalling.MarshallerFactory existing = marshallerFactories.putIfAbsent(marshallerType, factory);
+            if (existing != null) {
+                factory = existing;
+            }
+        }
+        return factory;
+    }
+
+    /**
+     * A {@link Marshaller} backed by a JBoss Marshalling marshaller. The delegate, its configuration and the
+     * {@link ByteOutput} it writes to are created once, so an instance can be {@link #start(java.io.DataOutput) started}
+     * again after it has been {@link #finish() finished}.
+     */
     private static class JBossMarshaller implements Marshaller {
 
         private final org.jboss.marshalling.Marshaller delegate;
 
+        private final DataOutputByteOutput byteOutput = new DataOutputByteOutput();
+
         JBossMarshaller(final String marshallerType) throws IOException {
             final MarshallingConfiguration marshallingConfiguration = new MarshallingConfiguration();
-            marshallingConfiguration.setClassTable(new ProtocolV1ClassTable());
+            marshallingConfiguration.setClassTable(ProtocolV1ClassTable.INSTANCE);
             marshallingConfiguration.setVersion(2);
-            org.jboss.marshalling.MarshallerFactory factory = Marshalling.getProvidedMarshallerFactory(marshallerType);
-            this.delegate = factory.createMarshaller(marshallingConfiguration);
+            this.delegate = getMarshallerFactory(marshallerType).createMarshaller(marshallingConfiguration);
         }
 
         @Override
         public void start(final DataOutput output) throws IOException {
-            final OutputStream outputStream = new OutputStream() {
-                @Override
-                public void write(int b) throws IOException {
-                    final int byteToWrite = b & 0xff;
-                    output.write(byteToWrite);
-                }
-            };
-            final ByteOutput byteOutput = Marshalling.createByteOutput(outputStream);
-            this.delegate.start(byteOutput);
+            this.byteOutput.output = output;
+            this.delegate.start(this.byteOutput);
         }
 
         @Override
@@ -101,48 +124,49 @@ class MarshallerFactory {
 
         @Override
         public void finish() throws IOException {
-            this.delegate.finish();
+            try {
+                this.delegate.finish();
+            } finally {
+                this.byteOutput.output = null;
+            }
         }
     }
 
 
+    /**
+     * A {@link UnMarshaller} backed by a JBoss Marshalling unmarshaller. Like {@link JBossMarshaller}, the delegate
+     * is created once and reused for every message; the class resolver it's configured with resolves against the
+     * {@link ClassLoaderProvider} passed to the current {@link #start(java.io.DataInput, ClassLoaderProvider) start}.
+     */
     private static class JBossUnMarshaller implements UnMarshaller {
 
-        private final String marshallerType;
+        private final Unmarshaller delegate;
+
+        private final DataInputByteInput byteInput = new DataInputByteInput();
 
-        private Unmarshaller delegate;
+        private final LazyClassLoaderClassResolver classResolver = new LazyClassLoaderClassResolver();
+
+        private boolean started;
 
         JBossUnMarshaller(final String marshallerType) throws IOException {
-            this.marshallerType = marshallerType;
+            final MarshallingConfiguration marshallingConfiguration = new MarshallingConfiguration();
+            marshallingConfiguration.setVersion(2);
+            marshallingConfiguration.setClassTable(ProtocolV1ClassTable.INSTANCE);
+            marshallingConfiguration.setClassResolver(this.classResolver);
+            this.delegate = getMarshallerFactory(marshallerType).createUnmarshaller(marshallingConfiguration);
         }
 
         @Override
         public void start(final DataInput input, final ClassLoaderProvider classLoaderProvider) throws IOException {
-            final MarshallingConfiguration marshallingConfiguration = new MarshallingConfiguration();
-            marshallingConfiguration.setVersion(2);
-            marshallingConfiguration.setClassTable(new ProtocolV1ClassTable());
-            marshallingConfiguration.setClassResolver(new LazyClassLoaderClassResolver(classLoaderProvider));
-            org.jboss.marshalling.MarshallerFactory factory = Marshalling.getProvidedMarshallerFactory(marshallerType);
-            this.delegate = factory.createUnmarshaller(marshallingConfiguration);
-            final InputStream is = new InputStream() {
-                @Override
-                public int read() throws IOException {
-                    try {
-
-                        final int b = input.readByte();
-                        return b & 0xff;
-                    } catch (EOFException eof) {
-                        return -1;
-                    }
-                }
-            };
-            final ByteInput byteInput = Marshalling.createByteInput(is);
-            this.delegate.start(byteInput);
+            this.classResolver.classLoaderProvider = classLoaderProvider;
+            this.byteInput.input = input;
+            this.delegate.start(this.byteInput);
+            this.started = true;
         }
 
         @Override
         public Object readObject() throws IOException, ClassNotFoundException {
-            if (this.delegate == null) {
+            if (!this.started) {
                 throw new IllegalStateException("Unmarshalling hasn't yet been marked for start");
             }
             return this.delegate.readObject();
@@ -150,19 +174,21 @@ class MarshallerFactory {
 
         @Override
         public void finish() throws IOException {
-            if (this.delegate == null) {
+            if (!this.started) {
                 throw new IllegalStateException("Unmarshalling hasn't yet been marked for start");
             }
-            this.delegate.finish();
+            this.started = false;
+            try {
+                this.delegate.finish();
+            } finally {
+                this.byteInput.input = null;
+                this.classResolver.classLoaderProvider = null;
+            }
         }
 
-        private class LazyClassLoaderClassResolver extends AbstractClassResolver {
-
-            private final ClassLoaderProvider classLoaderProvider;
+        private static class LazyClassLoaderClassResolver extends AbstractClassResolver {
 
-            LazyClassLoaderClassResolver(final ClassLoaderProvider classLoaderProvider) {
-                this.classLoaderProvider = classLoaderProvider;
-            }
+            private ClassLoaderProvider classLoaderProvider;
 
             @Override
             protected ClassLoader getClassLoader() {
@@ -171,10 +197,121 @@ class MarshallerFactory {
         }
     }
 
+    /**
+     * A reusable {@link ByteOutput} over a {@link DataOutput}, which passes bulk writes straight through instead of
+     * going byte by byte
+     */
+    private static class DataOutputByteOutput implements ByteOutput {
+
+        private DataOutput output;
+
+        @Override
+        public void write(final int b) throws IOException {
+            this.output.write(b);
+        }
+
+        @Override
+        public void write(final byte[] b) throws IOException {
+            this.output.write(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            this.output.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (this.output instanceof Flushable) {
+                ((Flushable) this.output).flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            // the underlying output is owned by the caller of Marshaller.start
+        }
+    }
+
+    /**
+     * A reusable {@link ByteInput} over a {@link DataInput}. Bulk reads go straight to the underlying stream when
+     * the {@link DataInput} is an {@link InputStream} (which is the case for messages read off a channel).
+     */
+    private static class DataInputByteInput implements ByteInput {
+
+        private DataInput input;
+
+        @Override
+        public int read() throws IOException {
+            if (this.input instanceof InputStream) {
+                return ((InputStream) this.input).read();
+            }
+            try {
+                return this.input.readByte() & 0xff;
+            } catch (EOFException eof) {
+                return -1;
+            }
+        }
+
+        @Override
+        public int read(final byte[] b) throws IOException {
+            return this.read(b, 0, b.length);
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (this.input instanceof InputStream) {
+                return ((InputStream) this.input).read(b, off, len);
+            }
+            for (int i = 0; i < len; i++) {
+                final int read = this.read();
+                if (read == -1) {
+                    return i == 0 ? -1 : i;
+                }
+                b[off + i] = (byte) read;
+            }
+            return len;
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (this.input instanceof InputStream) {
+                return ((InputStream) this.input).available();
+            }
+            return 0;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            if (this.input instanceof InputStream) {
+                return ((InputStream) this.input).skip(n);
+            }
+            return this.input.skipBytes((int) Math.min(n, Integer.MAX_VALUE));
+        }
+
+        @Override
+        public void close() throws IOException {
+            // the underlying input is owned by the caller of UnMarshaller.start
+        }
+    }
+
     private static class JavaSerialMarshaller implements Marshaller {
 
         private DataOutput dataOutput;
 
+        private final OutputStream outputStream = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                final int byteToWrite = b & 0xff;
+                JavaSerialMarshaller.this.dataOutput.write(byteToWrite);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                JavaSerialMarshaller.this.dataOutput.write(b, off, len);
+            }
+        };
+
         @Override
         public void start(final DataOutput output) throws IOException {
             this.dataOutput = output;
@@ -182,14 +319,7 @@ class MarshallerFactory {
 
         @Override
         public void writeObject(Object object) throws IOException {
-            final OutputStream os = new OutputStream() {
-                @Override
-                public void write(int b) throws IOException {
-                    final int byteToWrite = b & 0xff;
-                    JavaSerialMarshaller.this.dataOutput.write(byteToWrite);
-                }
-            };
-            final ObjectOutputStream objectOutputStream = new ObjectOutputStream(os);
+            final ObjectOutputStream objectOutputStream = new ObjectOutputStream(this.outputStream);
             objectOutputStream.writeObject(object);
             objectOutputStream.flush();
         }
@@ -212,20 +342,21 @@ class MarshallerFactory {
             this.dataInput = input;
         }
 
+        private final InputStream inputStream = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                try {
+                    final int b = JavaSerialUnMarshaller.this.dataInput.readByte();
+                    return b & 0xff;
+                } catch (EOFException eof) {
+                    return -1;
+                }
+            }
+        };
+
         @Override
         public Object readObject() throws ClassNotFoundException, IOException {
-            final InputStream is = new InputStream() {
-                @Override
-                public int read() throws IOException {
-                    try {
-                        final int b = JavaSerialUnMarshaller.this.dataInput.readByte();
-                        return b & 0xff;
-                    } catch (EOFException eof) {
-                        return -1;
-                    }
-                }
-            };
-            final ObjectInputStream objectInputStream = new ObjectInputStream(is) {
+            final ObjectInputStream objectInputStream = new ObjectInputStream(this.inputStream) {
                 @Override
                 protected Class resolveClass(final ObjectStreamClass desc) throws IOException, ClassNotFoundException {
                     String name = desc.getName();
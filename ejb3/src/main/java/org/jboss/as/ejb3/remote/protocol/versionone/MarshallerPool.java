@@ -0,0 +1,121 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.remote.protocol.versionone;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the {@link Marshaller}s and {@link UnMarshaller}s of one channel around between messages, so that a remote
+ * invocation doesn't have to set up a new marshaller (and its configuration, class table and stream adapters) for
+ * every request and response.
+ * <p/>
+ * The pool is a fixed number of slots which are claimed and filled with a compare-and-set, so acquiring and releasing
+ * neither locks nor allocates. If all slots are taken a new instance is created, and an instance released into a full
+ * pool is simply dropped.
+ */
+final class MarshallerPool {
+
+    /**
+     * The default number of marshallers (and unmarshallers) kept per channel
+     */
+    static final int DEFAULT_SIZE = 8;
+
+    private final String marshallingStrategy;
+
+    private final AtomicReferenceArray<Marshaller> marshallers;
+
+    private final AtomicReferenceArray<UnMarshaller> unMarshallers;
+
+    MarshallerPool(final String marshallingStrategy) {
+        this(marshallingStrategy, DEFAULT_SIZE);
+    }
+
+    MarshallerPool(final String marshallingStrategy, final int size) {
+        this.marshallingStrategy = marshallingStrategy;
+        this.marshallers = new AtomicReferenceArray<Marshaller>(size);
+        this.unMarshallers = new AtomicReferenceArray<UnMarshaller>(size);
+    }
+
+    /**
+     * Returns a {@link Marshaller} which is exclusively owned by the caller until it's handed back through
+     * {@link #release(Marshaller)}
+     *
+     * @return a marshaller for this pool's marshalling strategy
+     * @throws IOException if a new marshaller has to be created and that fails
+     */
+    Marshaller acquireMarshaller() throws IOException {
+        final Marshaller marshaller = claim(this.marshallers);
+        return marshaller != null ? marshaller : MarshallerFactory.createMarshaller(this.marshallingStrategy);
+    }
+
+    /**
+     * Hands a {@link Marshaller} back to the pool. The marshaller must have been {@link Marshaller#finish() finished}.
+     *
+     * @param marshaller the marshaller
+     */
+    void release(final Marshaller marshaller) {
+        offer(this.marshallers, marshaller);
+    }
+
+    /**
+     * Returns an {@link UnMarshaller} which is exclusively owned by the caller until it's handed back through
+     * {@link #release(UnMarshaller)}
+     *
+     * @return an unmarshaller for this pool's marshalling strategy
+     * @throws IOException if a new unmarshaller has to be created and that fails
+     */
+    UnMarshaller acquireUnMarshaller() throws IOException {
+        final UnMarshaller unMarshaller = claim(this.unMarshallers);
+        return unMarshaller != null ? unMarshaller : MarshallerFactory.createUnMarshaller(this.marshallingStrategy);
+    }
+
+    /**
+     * Hands an {@link UnMarshaller} back to the pool. The unmarshaller must have been {@link UnMarshaller#finish() finished}.
+     *
+     * @param unMarshaller the unmarshaller
+     */
+    void release(final UnMarshaller unMarshaller) {
+        offer(this.unMarshallers, unMarshaller);
+    }
+
+    private static <T> T claim(final AtomicReferenceArray<T> slots) {
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) {
+                final T instance = slots.getAndSet(i, null);
+                if (instance != null) {
+                    return instance;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static <T> void offer(final AtomicReferenceArray<T> slots, final T instance) {
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) == null && slots.compareAndSet(i, null, instance)) {
+                return;
+            }
+        }
+    }
+}
@@ -23,15 +23,15 @@
 package org.jboss.as.ejb3.remote.protocol.versionone;
 
 import org.jboss.remoting3.Channel;
-import org.jboss.remoting3.MessageInputStream;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * User: jpai
  */
 interface MessageHandler {
 
-    void processMessage(final Channel channel, final MessageInputStream messageInputStream) throws IOException;
+    void processMessage(final Channel channel, final InputStream messageInputStream) throws IOException;
 
 }
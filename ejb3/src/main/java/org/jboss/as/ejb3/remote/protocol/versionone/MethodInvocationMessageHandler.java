@@ -25,28 +25,17 @@ package org.jboss.as.ejb3.remote.protocol.versionone;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Set;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
 
-import org.jboss.as.ee.component.Component;
 import org.jboss.as.ee.component.ComponentView;
-import org.jboss.as.ejb3.component.entity.EntityBeanComponent;
-import org.jboss.as.ejb3.component.interceptors.AsyncInvocationTask;
-import org.jboss.as.ejb3.component.interceptors.CancellationFlag;
-import org.jboss.as.ejb3.component.session.SessionBeanComponent;
 import org.jboss.as.ejb3.deployment.DeploymentRepository;
 import org.jboss.as.ejb3.deployment.EjbDeploymentInformation;
 import org.jboss.ejb.client.EJBLocator;
-import org.jboss.ejb.client.EntityEJBLocator;
-import org.jboss.ejb.client.SessionID;
-import org.jboss.ejb.client.StatefulEJBLocator;
 import org.jboss.ejb.client.remoting.RemotingAttachments;
-import org.jboss.invocation.InterceptorContext;
 import org.jboss.logging.Logger;
 import org.jboss.remoting3.Channel;
-import org.jboss.remoting3.MessageInputStream;
 import org.xnio.IoUtils;
 
 
@@ -57,20 +46,18 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
 
     private static final Logger logger = Logger.getLogger(MethodInvocationMessageHandler.class);
 
-    private static final char METHOD_PARAM_TYPE_SEPARATOR = ',';
-
     private static final byte HEADER_METHOD_INVOCATION_RESPONSE = 0x05;
     private static final byte HEADER_ASYNC_METHOD_NOTIFICATION = 0x0E;
 
-    private final ExecutorService executorService;
+    private final Executor executor;
 
-    MethodInvocationMessageHandler(final DeploymentRepository deploymentRepository, final String marshallingStrategy, final ExecutorService executorService) {
-        super(deploymentRepository, marshallingStrategy);
-        this.executorService = executorService;
+    MethodInvocationMessageHandler(final DeploymentRepository deploymentRepository, final MarshallerPool marshallerPool, final Executor executor) {
+        super(deploymentRepository, marshallerPool);
+        this.executor = executor;
     }
 
     @Override
-    public void processMessage(final Channel channel, final MessageInputStream messageInputStream) throws IOException {
+    public void processMessage(final Channel channel, final InputStream messageInputStream) throws IOException {
         final DataInputStream input = new DataInputStream(messageInputStream);
         // read the invocation id
         final short invocationId = input.readShort();
@@ -78,78 +65,78 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
         // read the method name
         final String methodName = input.readUTF();
         // method signature
-        String[] methodParamTypes = null;
-        final String signature = input.readUTF();
-        if (signature.isEmpty()) {
-            methodParamTypes = new String[0];
-        } else {
-            methodParamTypes = signature.split(String.valueOf(METHOD_PARAM_TYPE_SEPARATOR));
-        }
+        final String[] methodParamTypes = this.toMethodParamTypes(input.readUTF());
         // read the attachments
         final RemotingAttachments attachments = this.readAttachments(input);
 
         // read the Locator
-        final UnMarshaller unMarshaller = MarshallerFactory.createUnMarshaller(this.marshallingStrategy);
-        // we use a mutable ClassLoaderProvider, so that we can switch to a different (and correct deployment CL)
-        // midway through the unmarshalling of the stream
-        final ClassLoaderSwitchingClassLoaderProvider classLoaderProvider = new ClassLoaderSwitchingClassLoaderProvider(Thread.currentThread().getContextClassLoader());
-        unMarshaller.start(input, classLoaderProvider);
-        // read the EJB info
+        final UnMarshaller unMarshaller = this.marshallerPool.acquireUnMarshaller();
         final String appName;
         final String moduleName;
         final String distinctName;
         final String beanName;
-        try {
-            appName = (String) unMarshaller.readObject();
-            moduleName = (String) unMarshaller.readObject();
-            distinctName = (String) unMarshaller.readObject();
-            beanName = (String) unMarshaller.readObject();
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException(e);
-        }
-        final EjbDeploymentInformation ejbDeploymentInformation = this.findEJB(appName, moduleName, distinctName, beanName);
-        if (ejbDeploymentInformation == null) {
-            this.writeNoSuchEJBFailureMessage(channel, invocationId, appName, moduleName, distinctName, beanName, null);
-            return;
-        }
-        // now switch the CL to the EJB deployment's CL so that the unmarshaller can use the
-        // correct CL for the rest of the unmarshalling of the stream
-        classLoaderProvider.switchClassLoader(ejbDeploymentInformation.getDeploymentClassLoader());
-        // read the Locator
         final EJBLocator locator;
+        final ComponentView componentView;
+        final Method invokedMethod;
+        final Object[] methodParams;
         try {
-            locator = (EJBLocator) unMarshaller.readObject();
-        } catch (ClassNotFoundException e) {
-            throw new RuntimeException(e);
-        }
-        final String viewClassName = locator.getViewType().getName();
-        if (!ejbDeploymentInformation.getViewNames().contains(viewClassName)) {
-            this.writeNoSuchEJBFailureMessage(channel, invocationId, appName, moduleName, distinctName, beanName, viewClassName);
-            return;
-        }
-        // TODO: Add a check for remote view
-        final ComponentView componentView = ejbDeploymentInformation.getView(viewClassName);
-        final Method invokedMethod = this.findMethod(componentView, methodName, methodParamTypes);
-        if (invokedMethod == null) {
-            this.writeNoSuchEJBMethodFailureMessage(channel, invocationId, appName, moduleName, distinctName, beanName, viewClassName, methodName, methodParamTypes);
-            return;
-        }
+            // we use a mutable ClassLoaderProvider, so that we can switch to a different (and correct deployment CL)
+            // midway through the unmarshalling of the stream
+            final ClassLoaderSwitchingClassLoaderProvider classLoaderProvider = new ClassLoaderSwitchingClassLoaderProvider(Thread.currentThread().getContextClassLoader());
+            unMarshaller.start(input, classLoaderProvider);
+            // read the EJB info
+            try {
+                appName = (String) unMarshaller.readObject();
+                moduleName = (String) unMarshaller.readObject();
+                distinctName = (String) unMarshaller.readObject();
+                beanName = (String) unMarshaller.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new RuntimeException(e);
+            }
+            final EjbDeploymentInformation ejbDeploymentInformation = this.findEJB(appName, moduleName, distinctName, beanName);
+            if (ejbDeploymentInformation == null) {
+                this.writeNoSuchEJBFailureMessage(channel, invocationId, appName, moduleName, distinctName, beanName, null);
+                return;
+            }
+            // now switch the CL to the EJB deployment's CL so that the unmarshaller can use the
+            // correct CL for the rest of the unmarshalling of the stream
+            classLoaderProvider.switchClassLoader(ejbDeploymentInformation.getDeploymentClassLoader());
+            // read the Locator
+            try {
+                locator = (EJBLocator) unMarshaller.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new RuntimeException(e);
+            }
+            final String viewClassName = locator.getViewType().getName();
+            if (!ejbDeploymentInformation.getViewNames().contains(viewClassName)) {
+                this.writeNoSuchEJBFailureMessage(channel, invocationId, appName, moduleName, distinctName, beanName, viewClassName);
+                return;
+            }
+            // TODO: Add a check for remote view
+            componentView = ejbDeploymentInformation.getView(viewClassName);
+            invokedMethod = this.findMethod(componentView, methodName, methodParamTypes);
+            if (invokedMethod == null) {
+                this.writeNoSuchEJBMethodFailureMessage(channel, invocationId, appName, moduleName, distinctName, beanName, viewClassName, methodName, methodParamTypes);
+                return;
+            }
 
-        final Object[] methodParams = new Object[methodParamTypes.length];
-        // un-marshall the method arguments
-        if (methodParamTypes.length > 0) {
-            for (int i = 0; i < methodParamTypes.length; i++) {
-                try {
-                    methodParams[i] = unMarshaller.readObject();
-                } catch (ClassNotFoundException cnfe) {
-                    // TODO: Write out invocation failure to channel outstream
-                    throw new RuntimeException(cnfe);
+            methodParams = new Object[methodParamTypes.length];
+            // un-marshall the method arguments
+            if (methodParamTypes.length > 0) {
+                for (int i = 0; i < methodParamTypes.length; i++) {
+                    try {
+                        methodParams[i] = unMarshaller.readObject();
+                    } catch (ClassNotFoundException cnfe) {
+                        // TODO: Write out invocation failure to channel outstream
+                        throw new RuntimeException(cnfe);
+                    }
                 }
             }
+        } finally {
+            this.finishUnMarshalling(unMarshaller);
         }
-        unMarshaller.finish();
         // invoke the method and write out the response on a separate thread
-        executorService.submit(new Runnable() {
+        this.executor.execute(new Runnable() {
 
             @Override
             public void run() {
@@ -202,76 +189,6 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
 
     }
 
-    private Object invokeMethod(final ComponentView componentView, final Method method, final Object[] args, final EJBLocator ejbLocator, final RemotingAttachments attachments) throws Throwable {
-        final InterceptorContext interceptorContext = new InterceptorContext();
-        interceptorContext.setParameters(args);
-        interceptorContext.setMethod(method);
-        interceptorContext.setContextData(new HashMap<String, Object>());
-        interceptorContext.putPrivateData(Component.class, componentView.getComponent());
-        interceptorContext.putPrivateData(ComponentView.class, componentView);
-        if (attachments != null) {
-            // attach the RemotingAttachments
-            interceptorContext.putPrivateData(RemotingAttachments.class, attachments);
-        }
-        // add the session id to the interceptor context, if it's a stateful ejb locator
-        if (ejbLocator instanceof StatefulEJBLocator) {
-            interceptorContext.putPrivateData(SessionID.SESSION_ID_KEY, ((StatefulEJBLocator) ejbLocator).getSessionId());
-        } else if (ejbLocator instanceof EntityEJBLocator) {
-            final Object primaryKey = ((EntityEJBLocator) ejbLocator).getPrimaryKey();
-            interceptorContext.putPrivateData(EntityBeanComponent.PRIMARY_KEY_CONTEXT_KEY, primaryKey);
-        }
-        if (componentView.isAsynchronous(method)) {
-            final Component component = componentView.getComponent();
-            if (!(component instanceof SessionBeanComponent)) {
-                logger.warn("Asynchronous invocations are only supported on session beans. Bean class " + component.getComponentClass()
-                        + " is not a session bean, invocation on method " + method + " will have no asynchronous semantics");
-                // just invoke normally
-                return componentView.invoke(interceptorContext);
-            }
-            // it's really a async method invocation on a session bean. So treat it accordingly
-            final SessionBeanComponent sessionBeanComponent = (SessionBeanComponent) componentView.getComponent();
-            final CancellationFlag cancellationFlag = new CancellationFlag();
-            // add the cancellation flag to the interceptor context
-            interceptorContext.putPrivateData(CancellationFlag.class, cancellationFlag);
-
-            final AsyncInvocationTask asyncInvocationTask = new AsyncInvocationTask(cancellationFlag) {
-                @Override
-                protected Object runInvocation() throws Exception {
-                    return componentView.invoke(interceptorContext);
-                }
-            };
-            // invoke
-            sessionBeanComponent.getAsynchronousExecutor().submit(asyncInvocationTask);
-            // wait/block for the bean invocation to complete and get the real result to be returned to the client
-            return asyncInvocationTask.get();
-        } else {
-            return componentView.invoke(interceptorContext);
-        }
-    }
-
-    private Method findMethod(final ComponentView componentView, final String methodName, final String[] paramTypes) {
-        final Set<Method> viewMethods = componentView.getViewMethods();
-        for (final Method method : viewMethods) {
-            if (method.getName().equals(methodName)) {
-                final Class<?>[] methodParamTypes = method.getParameterTypes();
-                if (methodParamTypes.length != paramTypes.length) {
-                    continue;
-                }
-                boolean found = true;
-                for (int i = 0; i < methodParamTypes.length; i++) {
-                    if (!methodParamTypes[i].getName().equals(paramTypes[i])) {
-                        found = false;
-                        break;
-                    }
-                }
-                if (found) {
-                    return method;
-                }
-            }
-        }
-        return null;
-    }
-
     private void writeMethodInvocationResponse(final Channel channel, final short invocationId, final Object result, final RemotingAttachments attachments) throws IOException {
         final DataOutputStream outputStream = new DataOutputStream(channel.writeMessage());
         try {
@@ -283,16 +200,16 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
             this.writeAttachments(outputStream, attachments);
 
             // write out the result
-            final Marshaller marshaller = MarshallerFactory.createMarshaller(this.marshallingStrategy);
+            final Marshaller marshaller = this.marshallerPool.acquireMarshaller();
             marshaller.start(outputStream);
             marshaller.writeObject(result);
             marshaller.finish();
+            this.marshallerPool.release(marshaller);
         } finally {
             outputStream.close();
         }
     }
 
-
     private void writeAsyncMethodNotification(final Channel channel, final short invocationId) throws IOException {
         final DataOutputStream outputStream = new DataOutputStream(channel.writeMessage());
         try {
@@ -304,31 +221,4 @@ class MethodInvocationMessageHandler extends EJBIdentifierBasedMessageHandler {
             outputStream.close();
         }
     }
-
-    /**
-     * A mutable {@link org.jboss.as.ejb3.remote.protocol.versionone.UnMarshaller.ClassLoaderProvider}
-     */
-    private class ClassLoaderSwitchingClassLoaderProvider implements UnMarshaller.ClassLoaderProvider {
-
-        private ClassLoader currentClassLoader;
-
-        ClassLoaderSwitchingClassLoaderProvider(final ClassLoader classLoader) {
-            this.currentClassLoader = classLoader;
-        }
-
-        @Override
-        public ClassLoader provideClassLoader() {
-            return this.currentClassLoader;
-        }
-
-        /**
-         * Sets the passed <code>newCL</code> as the classloader which will be returned on
-         * subsequent calls to {@link #provideClassLoader()}
-         *
-         * @param newCL
-         */
-        void switchClassLoader(final ClassLoader newCL) {
-            this.currentClassLoader = newCL;
-        }
-    }
 }
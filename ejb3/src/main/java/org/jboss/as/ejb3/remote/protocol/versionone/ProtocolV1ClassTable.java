@@ -70,8 +70,13 @@ import org.jboss.marshalling.Unmarshaller;
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
  */
 final class ProtocolV1ClassTable implements ClassTable {
+    /**
+     * The class table holds no state of its own, so every marshaller and unmarshaller of the protocol shares this one
+     */
+    static final ProtocolV1ClassTable INSTANCE = new ProtocolV1ClassTable();
+
     private static final Map<Class<?>, ByteWriter> writers;
-    private static Class<?>[] classes = {
+    private static final Class<?>[] classes = {
         EJBLocator.class,
         EJBHomeLocator.class,
         StatelessEJBLocator.class,
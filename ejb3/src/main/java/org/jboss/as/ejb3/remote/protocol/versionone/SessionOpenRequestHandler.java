@@ -31,14 +31,14 @@ import org.jboss.ejb.client.remoting.PackedInteger;
 import org.jboss.ejb.client.remoting.RemotingAttachments;
 import org.jboss.logging.Logger;
 import org.jboss.remoting3.Channel;
-import org.jboss.remoting3.MessageInputStream;
 import org.xnio.IoUtils;
 import sun.management.ThreadInfoCompositeData;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.concurrent.ExecutorService;
+import java.io.InputStream;
+import java.util.concurrent.Executor;
 
 /**
  * User: jpai
@@ -50,15 +50,15 @@ class SessionOpenRequestHandler extends EJBIdentifierBasedMessageHandler {
     private static final byte HEADER_SESSION_OPEN_RESPONSE = 0x02;
     private static final byte HEADER_EJB_NOT_STATEFUL = 0x0D;
 
-    private final ExecutorService executorService;
+    private final Executor executor;
 
-    SessionOpenRequestHandler(final DeploymentRepository deploymentRepository, final String marshallingStrategy, final ExecutorService executorService) {
-        super(deploymentRepository, marshallingStrategy);
-        this.executorService = executorService;
+    SessionOpenRequestHandler(final DeploymentRepository deploymentRepository, final MarshallerPool marshallerPool, final Executor executor) {
+        super(deploymentRepository, marshallerPool);
+        this.executor = executor;
     }
 
     @Override
-    public void processMessage(Channel channel, MessageInputStream messageInputStream) throws IOException {
+    public void processMessage(Channel channel, InputStream messageInputStream) throws IOException {
         if (messageInputStream == null) {
             throw new IllegalArgumentException("Cannot read from null message inputstream");
         }
@@ -89,7 +89,7 @@ class SessionOpenRequestHandler extends EJBIdentifierBasedMessageHandler {
 
         final StatefulSessionComponent statefulSessionComponent = (StatefulSessionComponent) component;
         // generate the session id and write out the response on a separate thread
-        executorService.submit(new SessionIDGeneratorTask(statefulSessionComponent, channel, invocationId, attachments));
+        this.executor.execute(new SessionIDGeneratorTask(statefulSessionComponent, channel, invocationId, attachments));
 
     }
 
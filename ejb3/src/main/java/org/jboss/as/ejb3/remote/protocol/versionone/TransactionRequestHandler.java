@@ -29,12 +29,12 @@ import org.jboss.ejb.client.XidTransactionID;
 import org.jboss.ejb.client.remoting.PackedInteger;
 import org.jboss.logging.Logger;
 import org.jboss.remoting3.Channel;
-import org.jboss.remoting3.MessageInputStream;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.util.concurrent.ExecutorService;
+import java.io.InputStream;
+import java.util.concurrent.Executor;
 
 /**
  * Handles a transaction message which complies with the EJB remote protocol specification
@@ -47,7 +47,7 @@ class TransactionRequestHandler extends AbstractMessageHandler {
 
     private static final byte HEADER_TX_INVOCATION_RESPONSE = 0x14;
 
-    private final ExecutorService executorService;
+    private final Executor executor;
     private final EJBRemoteTransactionsRepository transactionsRepository;
     private TransactionRequestType txRequestType;
 
@@ -60,15 +60,15 @@ class TransactionRequestHandler extends AbstractMessageHandler {
         BEFORE_COMPLETION
     }
 
-    TransactionRequestHandler(final EJBRemoteTransactionsRepository transactionsRepository, final ExecutorService executorService, final TransactionRequestType txRequestType, final String marshallingStrategy) {
-        super(marshallingStrategy);
-        this.executorService = executorService;
+    TransactionRequestHandler(final EJBRemoteTransactionsRepository transactionsRepository, final Executor executor, final TransactionRequestType txRequestType, final MarshallerPool marshallerPool) {
+        super(marshallerPool);
+        this.executor = executor;
         this.transactionsRepository = transactionsRepository;
         this.txRequestType = txRequestType;
     }
 
     @Override
-    public void processMessage(final Channel channel, final MessageInputStream messageInputStream) throws IOException {
+    public void processMessage(final Channel channel, final InputStream messageInputStream) throws IOException {
         final DataInputStream input = new DataInputStream(messageInputStream);
         // read the invocation id
         final short invocationId = input.readShort();
@@ -100,7 +100,7 @@ class TransactionRequestHandler extends AbstractMessageHandler {
                     throw new IllegalArgumentException("Unknown transaction request type " + this.txRequestType);
             }
             // submit to a seperate thread for processing the request
-            this.executorService.submit(userTransactionManagementTask);
+            this.executor.execute(userTransactionManagementTask);
 
         } else if (transactionID instanceof XidTransactionID) {
             // handle XidTransactionID
@@ -126,7 +126,7 @@ class TransactionRequestHandler extends AbstractMessageHandler {
                     throw new IllegalArgumentException("Unknown transaction request type " + this.txRequestType);
             }
             // submit to a separate thread for processing the request
-            this.executorService.submit(xidTransactionManagementTask);
+            this.executor.execute(xidTransactionManagementTask);
         }
     }
 
@@ -34,8 +34,11 @@ import org.jboss.remoting3.CloseHandler;
 import org.jboss.remoting3.MessageInputStream;
 import org.xnio.IoUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
@@ -56,6 +59,7 @@ public class VersionOneProtocolChannelReceiver implements Channel.Receiver, Depl
     private static final byte HEADER_TX_PREPARE_REQUEST = 0x11;
     private static final byte HEADER_TX_FORGET_REQUEST = 0x12;
     private static final byte HEADER_TX_BEFORE_COMPLETION_REQUEST = 0x13;
+    private static final byte HEADER_BATCH_INVOCATION_REQUEST = 0x20;
 
     private final Channel channel;
 
@@ -65,15 +69,49 @@ public class VersionOneProtocolChannelReceiver implements Channel.Receiver, Depl
 
     private final String marshallingStrategy;
 
-    private final ExecutorService executorService;
+    /**
+     * The invocation requests of this channel which have been handed to the executor and haven't completed yet.
+     * Transaction control requests bypass it, as the invocations in flight may be waiting for them.
+     */
+    private final InFlightInvocationWindow invocationWindow;
+
+    /**
+     * The marshallers and unmarshallers reused by all the messages on this channel
+     */
+    private final MarshallerPool marshallerPool;
+
+    private final MessageHandler methodInvocationMessageHandler;
+    private final MessageHandler batchInvocationMessageHandler;
+    private final MessageHandler sessionOpenRequestHandler;
+    private final MessageHandler txCommitRequestHandler;
+    private final MessageHandler txRollbackRequestHandler;
+    private final MessageHandler txForgetRequestHandler;
+    private final MessageHandler txPrepareRequestHandler;
+    private final MessageHandler txBeforeCompletionRequestHandler;
 
+    /**
+     * @param maxInFlightInvocations the maximum number of invocation requests of the channel which are processed at the
+     *                               same time, or 0 for no limit. Once that many are in flight, further invocation
+     *                               requests are buffered and wait until one of them completes.
+     */
     public VersionOneProtocolChannelReceiver(final Channel channel, final DeploymentRepository deploymentRepository,
-                                             final EJBRemoteTransactionsRepository transactionsRepository, final String marshallingStrategy, final ExecutorService executorService) {
+                                             final EJBRemoteTransactionsRepository transactionsRepository, final String marshallingStrategy, final ExecutorService executorService,
+                                             final int maxInFlightInvocations) {
         this.marshallingStrategy = marshallingStrategy;
         this.channel = channel;
-        this.executorService = executorService;
         this.deploymentRepository = deploymentRepository;
         this.transactionsRepository = transactionsRepository;
+        this.invocationWindow = new InFlightInvocationWindow(executorService, maxInFlightInvocations);
+        this.marshallerPool = new MarshallerPool(marshallingStrategy);
+        // the message handlers don't hold any per message state, so one of each is enough for the channel
+        this.methodInvocationMessageHandler = new MethodInvocationMessageHandler(deploymentRepository, this.marshallerPool, this.invocationWindow);
+        this.batchInvocationMessageHandler = new BatchInvocationMessageHandler(deploymentRepository, this.marshallerPool, this.invocationWindow);
+        this.sessionOpenRequestHandler = new SessionOpenRequestHandler(deploymentRepository, this.marshallerPool, this.invocationWindow);
+        this.txCommitRequestHandler = new TransactionRequestHandler(transactionsRepository, executorService, TransactionRequestHandler.TransactionRequestType.COMMIT, this.marshallerPool);
+        this.txRollbackRequestHandler = new TransactionRequestHandler(transactionsRepository, executorService, TransactionRequestHandler.TransactionRequestType.ROLLBACK, this.marshallerPool);
+        this.txForgetRequestHandler = new TransactionRequestHandler(transactionsRepository, executorService, TransactionRequestHandler.TransactionRequestType.FORGET, this.marshallerPool);
+        this.txPrepareRequestHandler = new TransactionRequestHandler(transactionsRepository, executorService, TransactionRequestHandler.TransactionRequestType.PREPARE, this.marshallerPool);
+        this.txBeforeCompletionRequestHandler = new TransactionRequestHandler(transactionsRepository, executorService, TransactionRequestHandler.TransactionRequestType.BEFORE_COMPLETION, this.marshallerPool);
     }
 
     public void startReceiving() {
@@ -118,33 +156,42 @@ public class VersionOneProtocolChannelReceiver implements Channel.Receiver, Depl
             MessageHandler messageHandler = null;
             switch (header) {
                 case HEADER_INVOCATION_REQUEST:
-                    messageHandler = new MethodInvocationMessageHandler(this.deploymentRepository, this.marshallingStrategy, this.executorService);
+                    this.dispatch(this.methodInvocationMessageHandler, messageInputStream);
+                    messageInputStream = null;
+                    break;
+                case HEADER_BATCH_INVOCATION_REQUEST:
+                    this.dispatch(this.batchInvocationMessageHandler, messageInputStream);
+                    messageInputStream = null;
                     break;
                 case HEADER_SESSION_OPEN_REQUEST:
-                    messageHandler = new SessionOpenRequestHandler(this.deploymentRepository, this.marshallingStrategy, this.executorService);
+                    this.dispatch(this.sessionOpenRequestHandler, messageInputStream);
+                    messageInputStream = null;
                     break;
                 case HEADER_TX_COMMIT_REQUEST:
-                    messageHandler = new TransactionRequestHandler(this.transactionsRepository, this.executorService, TransactionRequestHandler.TransactionRequestType.COMMIT, this.marshallingStrategy);
+                    messageHandler = this.txCommitRequestHandler;
                     break;
                 case HEADER_TX_ROLLBACK_REQUEST:
-                    messageHandler = new TransactionRequestHandler(this.transactionsRepository, this.executorService, TransactionRequestHandler.TransactionRequestType.ROLLBACK, this.marshallingStrategy);
+                    messageHandler = this.txRollbackRequestHandler;
                     break;
                 case HEADER_TX_FORGET_REQUEST:
-                    messageHandler = new TransactionRequestHandler(this.transactionsRepository, this.executorService, TransactionRequestHandler.TransactionRequestType.FORGET, this.marshallingStrategy);
+                    messageHandler = this.txForgetRequestHandler;
                     break;
                 case HEADER_TX_PREPARE_REQUEST:
-                    messageHandler = new TransactionRequestHandler(this.transactionsRepository, this.executorService, TransactionRequestHandler.TransactionRequestType.PREPARE, this.marshallingStrategy);
+                    messageHandler = this.txPrepareRequestHandler;
                     break;
                 case HEADER_TX_BEFORE_COMPLETION_REQUEST:
-                    messageHandler = new TransactionRequestHandler(this.transactionsRepository, this.executorService, TransactionRequestHandler.TransactionRequestType.BEFORE_COMPLETION, this.marshallingStrategy);
+                    messageHandler = this.txBeforeCompletionRequestHandler;
                     break;
                 default:
                     logger.warn("Received unsupported message header 0x" + Integer.toHexString(header) + " on channel " + channel);
                     return;
             }
-            // process the message
-            messageHandler.processMessage(channel, messageInputStream);
-            // enroll for next message (whenever it's available)
+            if (messageHandler != null) {
+                // transaction control requests are processed right away
+                messageHandler.processMessage(channel, messageInputStream);
+            }
+            // enroll for next message (whenever it's available). Invocation requests which arrive while the channel
+            // has as many of them in flight as it's allowed to have been read and parked by now.
             channel.receiveMessage(this);
 
         } catch (IOException e) {
@@ -152,9 +199,55 @@ public class VersionOneProtocolChannelReceiver implements Channel.Receiver, Depl
             logger.errorf(e, "Exception on channel %s from message %s", channel, messageInputStream);
             // no more messages can be sent or received on this channel
             IoUtils.safeClose(channel);
+        } finally {
+            // a dispatched request is closed once it has been read, a parked one has been closed already
+            IoUtils.safeClose(messageInputStream);
+        }
+    }
+
+    /**
+     * Hands an invocation request to its handler through the in-flight window. If the window is full, the request is
+     * read off the channel into a buffer before it's parked, so that parked requests don't fill up the inbound message
+     * window of the channel and hold up the transaction control requests which the invocations in flight wait for.
+     */
+    private void dispatch(final MessageHandler messageHandler, final MessageInputStream messageInputStream) throws IOException {
+        if (this.invocationWindow.tryDispatch(new ReadMessageTask(messageHandler, messageInputStream))) {
+            return;
+        }
+        final ByteArrayOutputStream request = new ByteArrayOutputStream();
+        try {
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = messageInputStream.read(buffer)) != -1) {
+                request.write(buffer, 0, read);
+            }
         } finally {
             IoUtils.safeClose(messageInputStream);
         }
+        this.invocationWindow.park(new ReadMessageTask(messageHandler, new ByteArrayInputStream(request.toByteArray())));
+    }
+
+    public Channel getChannel() {
+        return this.channel;
+    }
+
+    /**
+     * Returns the number of requests received on this channel, which are either being processed or waiting for a thread
+     * to process them
+     *
+     * @return the number of requests in flight
+     */
+    public int getInFlightInvocationCount() {
+        return this.invocationWindow.getInFlightCount();
+    }
+
+    /**
+     * Returns the number of requests received on this channel, which are still waiting for a thread to process them
+     *
+     * @return the number of queued requests
+     */
+    public int getQueuedInvocationCount() {
+        return this.invocationWindow.getQueuedCount();
     }
 
     @Override
@@ -210,6 +303,36 @@ public class VersionOneProtocolChannelReceiver implements Channel.Receiver, Depl
         }
     }
 
+    /**
+     * Reads an invocation request, either off the channel or from its buffered copy, once the in-flight window has room
+     * for it
+     */
+    private class ReadMessageTask implements Runnable {
+
+        private final MessageHandler messageHandler;
+
+        private final InputStream messageInputStream;
+
+        ReadMessageTask(final MessageHandler messageHandler, final InputStream messageInputStream) {
+            this.messageHandler = messageHandler;
+            this.messageInputStream = messageInputStream;
+        }
+
+        @Override
+        public void run() {
+            final Channel channel = VersionOneProtocolChannelReceiver.this.channel;
+            try {
+                this.messageHandler.processMessage(channel, this.messageInputStream);
+            } catch (IOException e) {
+                logger.errorf(e, "Exception on channel %s from message %s", channel, this.messageInputStream);
+                // no more messages can be sent or received on this channel
+                IoUtils.safeClose(channel);
+            } finally {
+                IoUtils.safeClose(this.messageInputStream);
+            }
+        }
+    }
+
     private class ChannelCloseHandler implements CloseHandler<Channel> {
 
         @Override
@@ -0,0 +1,80 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.subsystem;
+
+import org.jboss.as.controller.AbstractRuntimeOnlyHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.ejb3.remote.EJBRemoteConnectorService;
+import org.jboss.as.ejb3.remote.protocol.versionone.VersionOneProtocolChannelReceiver;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Reads the in-flight and queued requests of the channels of the EJB remote service
+ */
+class EJB3RemoteMetricsHandler extends AbstractRuntimeOnlyHandler {
+
+    static final EJB3RemoteMetricsHandler INSTANCE = new EJB3RemoteMetricsHandler();
+
+    private EJB3RemoteMetricsHandler() {
+    }
+
+    @Override
+    protected void executeRuntimeStep(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final String attributeName = operation.require(ModelDescriptionConstants.NAME).asString();
+        final ServiceController<?> controller = context.getServiceRegistry(false).getService(EJBRemoteConnectorService.SERVICE_NAME);
+        final ModelNode result = context.getResult();
+        if (controller == null || controller.getState() != ServiceController.State.UP) {
+            // nothing in flight while the service isn't running
+            if (EJB3RemoteResourceDefinition.CHANNEL_QUEUE_DEPTHS.getName().equals(attributeName)) {
+                result.setEmptyObject();
+            } else {
+                result.set(0);
+            }
+            context.completeStep();
+            return;
+        }
+        final EJBRemoteConnectorService service = (EJBRemoteConnectorService) controller.getValue();
+        if (EJB3RemoteResourceDefinition.IN_FLIGHT_INVOCATIONS.getName().equals(attributeName)) {
+            int inFlight = 0;
+            for (VersionOneProtocolChannelReceiver receiver : service.getChannelReceivers()) {
+                inFlight += receiver.getInFlightInvocationCount();
+            }
+            result.set(inFlight);
+        } else if (EJB3RemoteResourceDefinition.QUEUED_INVOCATIONS.getName().equals(attributeName)) {
+            int queued = 0;
+            for (VersionOneProtocolChannelReceiver receiver : service.getChannelReceivers()) {
+                queued += receiver.getQueuedInvocationCount();
+            }
+            result.set(queued);
+        } else if (EJB3RemoteResourceDefinition.CHANNEL_QUEUE_DEPTHS.getName().equals(attributeName)) {
+            result.setEmptyObject();
+            for (VersionOneProtocolChannelReceiver receiver : service.getChannelReceivers()) {
+                result.get(receiver.getChannel().toString()).set(receiver.getInFlightInvocationCount());
+            }
+        }
+        context.completeStep();
+    }
+}
@@ -30,8 +30,10 @@ import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinition;
 import org.jboss.as.controller.SimpleAttributeDefinitionBuilder;
 import org.jboss.as.controller.SimpleResourceDefinition;
+import org.jboss.as.controller.operations.validation.IntRangeValidator;
 import org.jboss.as.controller.registry.AttributeAccess;
 import org.jboss.as.controller.registry.ManagementResourceRegistration;
+import org.jboss.dmr.ModelNode;
 import org.jboss.dmr.ModelType;
 
 /**
@@ -55,12 +57,41 @@ public class EJB3RemoteResourceDefinition extends SimpleResourceDefinition {
                     .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
                     .build();
 
+    /**
+     * The default maximum number of requests per channel which are processed at the same time
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT_INVOCATIONS = 64;
+
+    static final SimpleAttributeDefinition MAX_IN_FLIGHT_INVOCATIONS =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.MAX_IN_FLIGHT_INVOCATIONS, ModelType.INT, true)
+                    .setDefaultValue(new ModelNode().set(DEFAULT_MAX_IN_FLIGHT_INVOCATIONS))
+                    .setAllowExpression(true)
+                    .setValidator(new IntRangeValidator(0, Integer.MAX_VALUE, true, true))
+                    .setFlags(AttributeAccess.Flag.RESTART_RESOURCE_SERVICES)
+                    .build();
+
+    static final SimpleAttributeDefinition IN_FLIGHT_INVOCATIONS =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.IN_FLIGHT_INVOCATIONS, ModelType.INT, true)
+                    .setStorageRuntime()
+                    .build();
+
+    static final SimpleAttributeDefinition QUEUED_INVOCATIONS =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.QUEUED_INVOCATIONS, ModelType.INT, true)
+                    .setStorageRuntime()
+                    .build();
+
+    static final SimpleAttributeDefinition CHANNEL_QUEUE_DEPTHS =
+            new SimpleAttributeDefinitionBuilder(EJB3SubsystemModel.CHANNEL_QUEUE_DEPTHS, ModelType.OBJECT, true)
+                    .setStorageRuntime()
+                    .build();
+
     private static final Map<String, AttributeDefinition> ATTRIBUTES;
 
     static {
         Map<String, AttributeDefinition> map = new LinkedHashMap<String, AttributeDefinition>();
         map.put(CONNECTOR_REF.getName(), CONNECTOR_REF);
         map.put(THREAD_POOL_NAME.getName(), THREAD_POOL_NAME);
+        map.put(MAX_IN_FLIGHT_INVOCATIONS.getName(), MAX_IN_FLIGHT_INVOCATIONS);
 
         ATTRIBUTES = Collections.unmodifiableMap(map);
     }
@@ -78,5 +109,8 @@ public class EJB3RemoteResourceDefinition extends SimpleResourceDefinition {
             // TODO: Make this read-write attribute
             resourceRegistration.registerReadOnlyAttribute(attr, null);
         }
+        resourceRegistration.registerMetric(IN_FLIGHT_INVOCATIONS, EJB3RemoteMetricsHandler.INSTANCE);
+        resourceRegistration.registerMetric(QUEUED_INVOCATIONS, EJB3RemoteMetricsHandler.INSTANCE);
+        resourceRegistration.registerMetric(CHANNEL_QUEUE_DEPTHS, EJB3RemoteMetricsHandler.INSTANCE);
     }
 }
@@ -26,6 +26,7 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUBSYSTEM;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.CONNECTOR_REF;
+import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.MAX_IN_FLIGHT_INVOCATIONS;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.REMOTE;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.SERVICE;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.THREAD_POOL_NAME;
@@ -64,7 +65,7 @@ public class EJB3RemoteServiceAdd extends AbstractBoottimeAddStepHandler {
     private EJB3RemoteServiceAdd() {
     }
 
-    static ModelNode create(final String connectorName, final String threadPoolName) {
+    static ModelNode create(final String connectorName, final String threadPoolName, final ModelNode maxInFlightInvocations) {
         // set the address for this operation
         final ModelNode address = new ModelNode();
         address.add(SUBSYSTEM, EJB3Extension.SUBSYSTEM_NAME);
@@ -76,6 +77,9 @@ public class EJB3RemoteServiceAdd extends AbstractBoottimeAddStepHandler {
 
         operation.get(CONNECTOR_REF).set(connectorName);
         operation.get(THREAD_POOL_NAME).set(threadPoolName);
+        if (maxInFlightInvocations != null && maxInFlightInvocations.isDefined()) {
+            operation.get(MAX_IN_FLIGHT_INVOCATIONS).set(maxInFlightInvocations);
+        }
 
         return operation;
     }
@@ -94,12 +98,13 @@ public class EJB3RemoteServiceAdd extends AbstractBoottimeAddStepHandler {
         newControllers.add(transactionRepositoryServiceController);
     }
 
-    ServiceController<EJBRemoteConnectorService> installRuntimeService(final OperationContext context, final ModelNode model, final ServiceVerificationHandler verificationHandler) {
+    ServiceController<EJBRemoteConnectorService> installRuntimeService(final OperationContext context, final ModelNode model, final ServiceVerificationHandler verificationHandler) throws OperationFailedException {
         final String connectorName = model.require(CONNECTOR_REF).asString();
         final String threadPoolName = model.require(THREAD_POOL_NAME).asString();
+        final int maxInFlightInvocations = EJB3RemoteResourceDefinition.MAX_IN_FLIGHT_INVOCATIONS.validateResolvedOperation(model).asInt();
         final ServiceTarget serviceTarget = context.getServiceTarget();
         // TODO: Externalize (expose via management API if needed) the version and the marshalling strategy
-        final EJBRemoteConnectorService service = new EJBRemoteConnectorService((byte) 0x01, new String[]{"river", "java-serial"});
+        final EJBRemoteConnectorService service = new EJBRemoteConnectorService((byte) 0x01, new String[]{"river", "java-serial"}, maxInFlightInvocations);
         final ServiceBuilder<EJBRemoteConnectorService> ejbRemoteConnectorServiceBuilder = serviceTarget.addService(EJBRemoteConnectorService.SERVICE_NAME, service);
         // add dependency on the Remoting subsytem endpoint
         ejbRemoteConnectorServiceBuilder.addDependency(RemotingServices.SUBSYSTEM_ENDPOINT, Endpoint.class, service.getEndpointInjector());
@@ -118,5 +123,6 @@ public class EJB3RemoteServiceAdd extends AbstractBoottimeAddStepHandler {
     protected void populateModel(ModelNode operation, ModelNode model) throws OperationFailedException {
         model.get(CONNECTOR_REF).set(operation.require(CONNECTOR_REF).asString());
         model.get(THREAD_POOL_NAME).set(operation.require(THREAD_POOL_NAME).asString());
+        EJB3RemoteResourceDefinition.MAX_IN_FLIGHT_INVOCATIONS.validateAndSet(operation, model);
     }
 }
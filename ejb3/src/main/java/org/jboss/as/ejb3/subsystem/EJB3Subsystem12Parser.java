@@ -57,6 +57,7 @@ import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.DEFAULT_STATEFUL_BE
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.INSTANCE_ACQUISITION_TIMEOUT;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.INSTANCE_ACQUISITION_TIMEOUT_UNIT;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.KEEPALIVE_TIME;
+import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.LOCK_FREE;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.MAX_POOL_SIZE;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.MAX_THREADS;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.PATH;
@@ -113,7 +114,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
 
         // write the session-bean element
         if (model.hasDefined(EJB3SubsystemModel.DEFAULT_SLSB_INSTANCE_POOL) || model.hasDefined(EJB3SubsystemModel.DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT)
-                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT)) {
+                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT) || model.hasDefined(EJB3SubsystemModel.DEFAULT_SFSB_PASSIVATION_STORE)) {
             // <session-bean>
             writer.writeStartElement(EJB3SubsystemXMLElement.SESSION_BEAN.getLocalName());
         }
@@ -136,7 +137,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
             writer.writeEndElement();
         }
         // <stateful> element
-        if (model.hasDefined(EJB3SubsystemModel.DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT)) {
+        if (model.hasDefined(EJB3SubsystemModel.DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT) || model.hasDefined(EJB3SubsystemModel.DEFAULT_SFSB_PASSIVATION_STORE)) {
             // <stateful>
             writer.writeStartElement(EJB3SubsystemXMLElement.STATEFUL.getLocalName());
             // write out the <stateful> element contents
@@ -146,7 +147,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         }
         // write out the </session-bean> end element
         if (model.hasDefined(EJB3SubsystemModel.DEFAULT_SLSB_INSTANCE_POOL) || model.hasDefined(EJB3SubsystemModel.DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT)
-                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT)) {
+                || model.hasDefined(EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT) || model.hasDefined(EJB3SubsystemModel.DEFAULT_SFSB_PASSIVATION_STORE)) {
             // </session-bean>
             writer.writeEndElement();
         }
@@ -163,6 +164,14 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
             // </pools>
             writer.writeEndElement();
         }
+        // write the passivation-stores element
+        if (model.hasDefined(EJB3SubsystemModel.FILE_PASSIVATION_STORE)) {
+            // <passivation-stores>
+            writer.writeStartElement(EJB3SubsystemXMLElement.PASSIVATION_STORES.getLocalName());
+            this.writeFilePassivationStores(writer, model);
+            // </passivation-stores>
+            writer.writeEndElement();
+        }
         // timer-service
         if (model.hasDefined(SERVICE) && model.get(SERVICE).hasDefined(TIMER_SERVICE)) {
             // <timer-service>
@@ -236,6 +245,11 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                             this.parsePools(reader, operations);
                             break;
                         }
+                        case PASSIVATION_STORES: {
+                            // read <passivation-stores>
+                            this.parsePassivationStores(reader, operations);
+                            break;
+                        }
                         case REMOTE: {
                             // read <remote>
                             parseRemote(reader, operations);
@@ -287,6 +301,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
     private void writeRemote(final XMLExtendedStreamWriter writer, final ModelNode model) throws XMLStreamException {
         writer.writeAttribute(EJB3SubsystemXMLAttribute.CONNECTOR_REF.getLocalName(), model.require(EJB3SubsystemModel.CONNECTOR_REF).asString());
         writer.writeAttribute(EJB3SubsystemXMLAttribute.THREAD_POOL_NAME.getLocalName(), model.require(EJB3SubsystemModel.THREAD_POOL_NAME).asString());
+        EJB3RemoteResourceDefinition.MAX_IN_FLIGHT_INVOCATIONS.marshallAsAttribute(model, writer);
     }
 
     private void writeAsync(final XMLExtendedStreamWriter writer, final ModelNode model) throws XMLStreamException {
@@ -348,8 +363,13 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
     }
 
     private void writeStatefulBean(final XMLExtendedStreamWriter writer, final ModelNode statefulBeanModel) throws XMLStreamException {
-        final String defaultAccessTimeout = statefulBeanModel.get(DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT).asString();
-        writer.writeAttribute(EJB3SubsystemXMLAttribute.DEFAULT_ACCESS_TIMEOUT.getLocalName(), defaultAccessTimeout);
+        // the default-access-timeout attribute is required in the xml, so fall back to its default value
+        final ModelNode defaultAccessTimeout = statefulBeanModel.hasDefined(DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT)
+                ? statefulBeanModel.get(DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT) : EJB3SubsystemRootResourceDefinition.DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT.getDefaultValue();
+        writer.writeAttribute(EJB3SubsystemXMLAttribute.DEFAULT_ACCESS_TIMEOUT.getLocalName(), defaultAccessTimeout.asString());
+        if (statefulBeanModel.hasDefined(EJB3SubsystemModel.DEFAULT_SFSB_PASSIVATION_STORE)) {
+            writer.writeAttribute(EJB3SubsystemXMLAttribute.PASSIVATION_STORE_REF.getLocalName(), statefulBeanModel.get(EJB3SubsystemModel.DEFAULT_SFSB_PASSIVATION_STORE).asString());
+        }
     }
 
 
@@ -403,6 +423,21 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         StrictMaxPoolResourceDefinition.MAX_POOL_SIZE.marshallAsAttribute(strictMaxPoolModelNode, writer);
         StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT.marshallAsAttribute(strictMaxPoolModelNode, writer);
         StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT_UNIT.marshallAsAttribute(strictMaxPoolModelNode, writer);
+        StrictMaxPoolResourceDefinition.LOCK_FREE.marshallAsAttribute(strictMaxPoolModelNode, writer);
+    }
+
+    private void writeFilePassivationStores(final XMLExtendedStreamWriter writer, final ModelNode model) throws XMLStreamException {
+        for (Property property : model.get(EJB3SubsystemModel.FILE_PASSIVATION_STORE).asPropertyList()) {
+            // <file-passivation-store>
+            writer.writeStartElement(EJB3SubsystemXMLElement.FILE_PASSIVATION_STORE.getLocalName());
+            final ModelNode storeModel = property.getValue();
+            writer.writeAttribute(EJB3SubsystemXMLAttribute.NAME.getLocalName(), property.getName());
+            FilePassivationStoreResourceDefinition.MAX_SIZE.marshallAsAttribute(storeModel, writer);
+            FilePassivationStoreResourceDefinition.PATH.marshallAsAttribute(storeModel, writer);
+            FilePassivationStoreResourceDefinition.RELATIVE_TO.marshallAsAttribute(storeModel, writer);
+            // </file-passivation-store>
+            writer.writeEndElement();
+        }
     }
 
     private void writeTimerService(final XMLExtendedStreamWriter writer, final ModelNode timerServiceModel) throws XMLStreamException {
@@ -416,6 +451,8 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
             writer.writeEmptyElement(EJB3SubsystemXMLElement.DATA_STORE.getLocalName());
             TimerServiceResourceDefinition.PATH.marshallAsAttribute(timerServiceModel, writer);
             TimerServiceResourceDefinition.RELATIVE_TO.marshallAsAttribute(timerServiceModel, writer);
+            TimerServiceResourceDefinition.JOURNAL.marshallAsAttribute(timerServiceModel, writer);
+            TimerServiceResourceDefinition.DATASOURCE.marshallAsAttribute(timerServiceModel, writer);
         }
 
     }
@@ -425,6 +462,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         final int count = reader.getAttributeCount();
         String connectorName = null;
         String threadPoolName = null;
+        ModelNode maxInFlightInvocations = null;
         final EnumSet<EJB3SubsystemXMLAttribute> required = EnumSet.of(EJB3SubsystemXMLAttribute.CONNECTOR_REF, EJB3SubsystemXMLAttribute.THREAD_POOL_NAME);
         for (int i = 0; i < count; i++) {
             requireNoNamespaceAttribute(reader, i);
@@ -438,6 +476,9 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                 case THREAD_POOL_NAME:
                     threadPoolName = value;
                     break;
+                case MAX_IN_FLIGHT_INVOCATIONS:
+                    maxInFlightInvocations = EJB3RemoteResourceDefinition.MAX_IN_FLIGHT_INVOCATIONS.parse(value, reader.getLocation());
+                    break;
                 default:
                     throw unexpectedAttribute(reader, i);
             }
@@ -446,7 +487,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
             throw missingRequired(reader, required);
         }
         requireNoContent(reader);
-        operations.add(EJB3RemoteServiceAdd.create(connectorName, threadPoolName));
+        operations.add(EJB3RemoteServiceAdd.create(connectorName, threadPoolName, maxInFlightInvocations));
     }
 
     private void parseAsync(final XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
@@ -546,6 +587,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         final int count = reader.getAttributeCount();
         final EnumSet<EJB3SubsystemXMLAttribute> missingRequiredAttributes = EnumSet.of(EJB3SubsystemXMLAttribute.DEFAULT_ACCESS_TIMEOUT);
         String defaultAccessTimeout = null;
+        String passivationStoreRef = null;
         for (int i = 0; i < count; i++) {
             requireNoNamespaceAttribute(reader, i);
             final String value = reader.getAttributeValue(i);
@@ -556,6 +598,9 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                     // found the mandatory attribute
                     missingRequiredAttributes.remove(EJB3SubsystemXMLAttribute.DEFAULT_ACCESS_TIMEOUT);
                     break;
+                case PASSIVATION_STORE_REF:
+                    passivationStoreRef = value;
+                    break;
                 default:
                     throw unexpectedAttribute(reader, i);
             }
@@ -565,6 +610,9 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
             throw missingRequired(reader, missingRequiredAttributes);
         }
         EJB3SubsystemRootResourceDefinition.DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT.parseAndSetParameter(defaultAccessTimeout, ejb3SubsystemAddOperation, reader.getLocation());
+        if (passivationStoreRef != null) {
+            EJB3SubsystemRootResourceDefinition.DEFAULT_SFSB_PASSIVATION_STORE.parseAndSetParameter(passivationStoreRef, ejb3SubsystemAddOperation, reader.getLocation());
+        }
     }
 
     private void parseSingletonBean(final XMLExtendedStreamReader reader, final List<ModelNode> operations, final ModelNode ejb3SubsystemAddOperation) throws XMLStreamException {
@@ -631,6 +679,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         Integer maxPoolSize = null;
         Long timeout = null;
         String unit = null;
+        Boolean lockFree = null;
         for (int i = 0; i < count; i++) {
             requireNoNamespaceAttribute(reader, i);
             final String value = reader.getAttributeValue(i);
@@ -648,6 +697,9 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                 case INSTANCE_AQUISITION_TIMEOUT_UNIT:
                     unit = StrictMaxPoolResourceDefinition.INSTANCE_ACQUISITION_TIMEOUT_UNIT.parse(value, reader.getLocation()).asString();
                     break;
+                case LOCK_FREE:
+                    lockFree = StrictMaxPoolResourceDefinition.LOCK_FREE.parse(value, reader.getLocation()).asBoolean();
+                    break;
 
                 default:
                     throw unexpectedAttribute(reader, i);
@@ -658,7 +710,59 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
             throw missingRequired(reader, Collections.singleton(EJB3SubsystemXMLAttribute.NAME.getLocalName()));
         }
         // create and add the operation
-        operations.add(this.createAddStrictMaxBeanInstancePoolOperation(poolName, maxPoolSize, timeout, unit));
+        operations.add(this.createAddStrictMaxBeanInstancePoolOperation(poolName, maxPoolSize, timeout, unit, lockFree));
+    }
+
+    private void parsePassivationStores(final XMLExtendedStreamReader reader, final List<ModelNode> operations) throws XMLStreamException {
+        // no attributes expected
+        requireNoAttributes(reader);
+        while (reader.hasNext() && reader.nextTag() != XMLStreamConstants.END_ELEMENT) {
+            switch (EJB3SubsystemXMLElement.forName(reader.getLocalName())) {
+                case FILE_PASSIVATION_STORE: {
+                    this.parseFilePassivationStore(reader, operations);
+                    break;
+                }
+                default: {
+                    throw unexpectedElement(reader);
+                }
+            }
+        }
+    }
+
+    private void parseFilePassivationStore(final XMLExtendedStreamReader reader, final List<ModelNode> operations) throws XMLStreamException {
+        String name = null;
+        final ModelNode operation = new ModelNode();
+        operation.get(OP).set(ADD);
+        final int count = reader.getAttributeCount();
+        for (int i = 0; i < count; i++) {
+            requireNoNamespaceAttribute(reader, i);
+            final String value = reader.getAttributeValue(i);
+            final EJB3SubsystemXMLAttribute attribute = EJB3SubsystemXMLAttribute.forName(reader.getAttributeLocalName(i));
+            switch (attribute) {
+                case NAME:
+                    name = value;
+                    break;
+                case MAX_SIZE:
+                    FilePassivationStoreResourceDefinition.MAX_SIZE.parseAndSetParameter(value, operation, reader.getLocation());
+                    break;
+                case PATH:
+                    FilePassivationStoreResourceDefinition.PATH.parseAndSetParameter(value, operation, reader.getLocation());
+                    break;
+                case RELATIVE_TO:
+                    FilePassivationStoreResourceDefinition.RELATIVE_TO.parseAndSetParameter(value, operation, reader.getLocation());
+                    break;
+                default:
+                    throw unexpectedAttribute(reader, i);
+            }
+        }
+        requireNoContent(reader);
+        if (name == null) {
+            throw missingRequired(reader, Collections.singleton(EJB3SubsystemXMLAttribute.NAME.getLocalName()));
+        }
+        // create /subsystem=ejb3/file-passivation-store=name:add(...)
+        final PathAddress address = this.getEJB3SubsystemAddress().append(PathElement.pathElement(EJB3SubsystemModel.FILE_PASSIVATION_STORE, name));
+        operation.get(OP_ADDR).set(address.toModelNode());
+        operations.add(operation);
     }
 
     private void parseTimerService(final XMLExtendedStreamReader reader, List<ModelNode> operations) throws XMLStreamException {
@@ -672,6 +776,8 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
 
         String dataStorePath = null;
         String dataStorePathRelativeTo = null;
+        String journal = null;
+        String datasource = null;
 
         final int attCount = reader.getAttributeCount();
         String threadPoolName = null;
@@ -716,6 +822,18 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                                 }
                                 dataStorePathRelativeTo = TimerServiceResourceDefinition.RELATIVE_TO.parse(value, location).asString();
                                 break;
+                            case JOURNAL:
+                                if (journal != null) {
+                                    throw unexpectedAttribute(reader, i);
+                                }
+                                journal = value;
+                                break;
+                            case DATASOURCE:
+                                if (datasource != null) {
+                                    throw unexpectedAttribute(reader, i);
+                                }
+                                datasource = value;
+                                break;
                             default:
                                 throw unexpectedAttribute(reader, i);
                         }
@@ -727,6 +845,12 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
                     if (dataStorePathRelativeTo != null) {
                         timerServiceAdd.get(RELATIVE_TO).set(dataStorePathRelativeTo);
                     }
+                    if (journal != null) {
+                        TimerServiceResourceDefinition.JOURNAL.parseAndSetParameter(journal, timerServiceAdd, reader.getLocation());
+                    }
+                    if (datasource != null) {
+                        TimerServiceResourceDefinition.DATASOURCE.parseAndSetParameter(datasource, timerServiceAdd, reader.getLocation());
+                    }
                     requireNoContent(reader);
                     break;
                 }
@@ -845,7 +969,7 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         }
     }
 
-    private ModelNode createAddStrictMaxBeanInstancePoolOperation(final String name, final Integer maxPoolSize, final Long timeout, final String timeoutUnit) {
+    private ModelNode createAddStrictMaxBeanInstancePoolOperation(final String name, final Integer maxPoolSize, final Long timeout, final String timeoutUnit, final Boolean lockFree) {
         // create /subsystem=ejb3/strict-max-bean-instance-pool=name:add(...)
         final ModelNode addStrictMaxPoolOperation = new ModelNode();
         addStrictMaxPoolOperation.get(OP).set(ADD);
@@ -862,6 +986,9 @@ public class EJB3Subsystem12Parser implements XMLElementReader<List<ModelNode>>,
         if (timeoutUnit != null) {
             addStrictMaxPoolOperation.get(INSTANCE_ACQUISITION_TIMEOUT_UNIT).set(timeoutUnit);
         }
+        if (lockFree != null) {
+            addStrictMaxPoolOperation.get(LOCK_FREE).set(lockFree);
+        }
 
         return addStrictMaxPoolOperation;
     }
@@ -23,6 +23,8 @@
 package org.jboss.as.ejb3.subsystem;
 
 import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import javax.transaction.TransactionManager;
 import javax.transaction.TransactionSynchronizationRegistry;
@@ -33,6 +35,7 @@ import org.jboss.as.controller.AbstractBoottimeAddStepHandler;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.ServiceVerificationHandler;
+import org.jboss.as.ejb3.cache.TimingWheelService;
 import org.jboss.as.ejb3.component.EJBUtilities;
 import org.jboss.as.ejb3.deployment.DeploymentRepository;
 import org.jboss.as.ejb3.deployment.processors.ApplicationExceptionAnnotationProcessor;
@@ -79,6 +82,7 @@ import org.jboss.as.ejb3.deployment.processors.merging.SecurityDomainMergingProc
 import org.jboss.as.ejb3.deployment.processors.merging.SessionSynchronizationMergingProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.StartupMergingProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.StatefulTimeoutMergingProcessor;
+import org.jboss.as.ejb3.deployment.processors.merging.StripedReadLockMergingProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.TransactionAttributeMergingProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.TransactionManagementMergingProcessor;
 import org.jboss.as.ejb3.iiop.POARegistry;
@@ -92,6 +96,9 @@ import org.jboss.as.server.AbstractDeploymentChainStep;
 import org.jboss.as.server.DeploymentProcessorTarget;
 import org.jboss.as.server.ServerEnvironment;
 import org.jboss.as.server.deployment.Phase;
+import org.jboss.as.threads.ThreadFactoryService;
+import org.jboss.as.threads.TimeSpec;
+import org.jboss.as.threads.UnboundedQueueThreadPoolService;
 import org.jboss.as.txn.service.TxnServices;
 import org.jboss.dmr.ModelNode;
 import org.jboss.ejb.client.EJBClientContext;
@@ -102,12 +109,14 @@ import org.jboss.jca.core.spi.rar.ResourceAdapterRepository;
 import org.jboss.logging.Logger;
 import org.jboss.msc.service.ServiceBuilder;
 import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceName;
 import org.jboss.msc.service.ServiceTarget;
 import org.omg.PortableServer.POA;
 
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.APPCLIENT;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.DEFAULT_MDB_INSTANCE_POOL;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.DEFAULT_RESOURCE_ADAPTER_NAME;
+import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.DEFAULT_SFSB_PASSIVATION_STORE;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.DEFAULT_SLSB_INSTANCE_POOL;
 import static org.jboss.as.ejb3.subsystem.EJB3SubsystemModel.DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT;
@@ -123,6 +132,9 @@ class EJB3SubsystemAdd extends AbstractBoottimeAddStepHandler {
 
     private static final Logger logger = Logger.getLogger(EJB3SubsystemAdd.class);
 
+    private static final long SFSB_EXPIRATION_TICK_MILLIS = 100;
+    private static final int SFSB_EXPIRATION_WHEEL_SIZE = 512;
+
     private EJB3SubsystemAdd() {
         //
     }
@@ -133,6 +145,7 @@ class EJB3SubsystemAdd extends AbstractBoottimeAddStepHandler {
         }
         model.get(DEFAULT_MDB_INSTANCE_POOL).set(operation.get(DEFAULT_MDB_INSTANCE_POOL));
         model.get(DEFAULT_SLSB_INSTANCE_POOL).set(operation.get(DEFAULT_SLSB_INSTANCE_POOL));
+        model.get(DEFAULT_SFSB_PASSIVATION_STORE).set(operation.get(DEFAULT_SFSB_PASSIVATION_STORE));
         model.get(DEFAULT_RESOURCE_ADAPTER_NAME).set(operation.get(DEFAULT_RESOURCE_ADAPTER_NAME));
         model.get(DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT).set(operation.get(DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT));
         model.get(DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT).set(operation.get(DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT));
@@ -200,6 +213,7 @@ class EJB3SubsystemAdd extends AbstractBoottimeAddStepHandler {
                     processorTarget.addDeploymentProcessor(Phase.POST_MODULE, Phase.POST_MODULE_EJB_STATEFUL_TIMEOUT, new StatefulTimeoutMergingProcessor());
                     processorTarget.addDeploymentProcessor(Phase.POST_MODULE, Phase.POST_MODULE_EJB_SESSION_SYNCHRONIZATION, new SessionSynchronizationMergingProcessor());
                     processorTarget.addDeploymentProcessor(Phase.POST_MODULE, Phase.POST_MODULE_EJB_INIT_METHOD, new InitMethodMergingProcessor());
+                    processorTarget.addDeploymentProcessor(Phase.POST_MODULE, Phase.POST_MODULE_EJB_STRIPED_READ_LOCK_MERGE, new StripedReadLockMergingProcessor());
                     processorTarget.addDeploymentProcessor(Phase.POST_MODULE, Phase.POST_MODULE_LOCAL_HOME, new SessionBeanHomeProcessor());
                     processorTarget.addDeploymentProcessor(Phase.POST_MODULE, Phase.POST_MODULE_EJB_IIOP, new EjbIIOPDeploymentUnitProcessor());
 
@@ -220,6 +234,10 @@ class EJB3SubsystemAdd extends AbstractBoottimeAddStepHandler {
             EJB3SubsystemDefaultPoolWriteHandler.SLSB_POOL.updatePoolService(context, model, newControllers);
         }
 
+        if (model.hasDefined(DEFAULT_SFSB_PASSIVATION_STORE)) {
+            EJB3SubsystemDefaultPassivationStoreWriteHandler.INSTANCE.updatePassivationStoreService(context, model, newControllers);
+        }
+
         if (model.hasDefined(DEFAULT_RESOURCE_ADAPTER_NAME)) {
             DefaultResourceAdapterWriteHandler.INSTANCE.updateDefaultAdapterService(context, model, newControllers);
         }
@@ -238,6 +256,8 @@ class EJB3SubsystemAdd extends AbstractBoottimeAddStepHandler {
 
         addRemoteInvocationServices(context, newControllers, appclient);
 
+        addStatefulExpirationServices(serviceTarget, newControllers);
+
         if (!appclient) {
             final EJBUtilities utilities = new EJBUtilities();
             newControllers.add(serviceTarget.addService(EJBUtilities.SERVICE_NAME, utilities)
@@ -261,6 +281,30 @@ class EJB3SubsystemAdd extends AbstractBoottimeAddStepHandler {
         }
     }
 
+    /**
+     * Installs the timing wheel on which the stateful session bean caches schedule the expiration of their inactive
+     * instances, and the executor the caches remove expired instances on. The wheel thread only hands expired
+     * instances over, so a slow <code>@PreDestroy</code> method does not hold up the expiration of other beans.
+     */
+    private void addStatefulExpirationServices(final ServiceTarget serviceTarget, final List<ServiceController<?>> newControllers) {
+        newControllers.add(serviceTarget.addService(TimingWheelService.SFSB_EXPIRATION_SERVICE_NAME,
+                new TimingWheelService("EJB stateful session bean expiration", SFSB_EXPIRATION_TICK_MILLIS, TimeUnit.MILLISECONDS, SFSB_EXPIRATION_WHEEL_SIZE))
+                .setInitialMode(ServiceController.Mode.ON_DEMAND)
+                .install());
+
+        final ServiceName threadFactoryServiceName = TimingWheelService.SFSB_EXPIRATION_EXECUTOR_SERVICE_NAME.append("threadFactory");
+        final ThreadFactoryService threadFactory = new ThreadFactoryService();
+        threadFactory.setThreadGroupName("EJB stateful session bean expiration");
+        newControllers.add(serviceTarget.addService(threadFactoryServiceName, threadFactory)
+                .setInitialMode(ServiceController.Mode.ON_DEMAND)
+                .install());
+        final UnboundedQueueThreadPoolService executor = new UnboundedQueueThreadPoolService(Runtime.getRuntime().availableProcessors(), new TimeSpec(TimeUnit.SECONDS, 60));
+        newControllers.add(serviceTarget.addService(TimingWheelService.SFSB_EXPIRATION_EXECUTOR_SERVICE_NAME, executor)
+                .addDependency(threadFactoryServiceName, ThreadFactory.class, executor.getThreadFactoryInjector())
+                .setInitialMode(ServiceController.Mode.ON_DEMAND)
+                .install());
+    }
+
     private void addRemoteInvocationServices(final OperationContext context, final List<ServiceController<?>> newControllers, final boolean appclient) {
 
         //add the default EjbClientContext
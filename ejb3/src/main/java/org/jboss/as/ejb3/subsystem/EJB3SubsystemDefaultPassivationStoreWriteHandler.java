@@ -0,0 +1,95 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.subsystem;
+
+import java.util.List;
+
+import org.jboss.as.controller.AbstractWriteAttributeHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.ejb3.cache.PassivationStoreConfig;
+import org.jboss.as.ejb3.cache.PassivationStoreConfigService;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceRegistry;
+import org.jboss.msc.service.ValueInjectionService;
+
+/**
+ * Handles the default-sfsb-passivation-store attribute of the EJB3 subsystem. Like the default pools,
+ * the default store is an alias service which points to the named passivation store config service.
+ */
+public class EJB3SubsystemDefaultPassivationStoreWriteHandler extends AbstractWriteAttributeHandler<Void> {
+
+    public static final EJB3SubsystemDefaultPassivationStoreWriteHandler INSTANCE = new EJB3SubsystemDefaultPassivationStoreWriteHandler();
+
+    private EJB3SubsystemDefaultPassivationStoreWriteHandler() {
+        super(EJB3SubsystemRootResourceDefinition.DEFAULT_SFSB_PASSIVATION_STORE);
+    }
+
+    @Override
+    protected void validateResolvedValue(String attributeName, ModelNode value) throws OperationFailedException {
+        // we're going to validate using the AttributeDefinition in applyModelToRuntime, so don't bother here
+    }
+
+    @Override
+    protected boolean applyUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName,
+                                           ModelNode resolvedValue, ModelNode currentValue, HandbackHolder<Void> handbackHolder) throws OperationFailedException {
+        final ModelNode model = context.readResource(PathAddress.EMPTY_ADDRESS).getModel();
+        updatePassivationStoreService(context, model, null);
+
+        return false;
+    }
+
+    @Override
+    protected void revertUpdateToRuntime(OperationContext context, ModelNode operation, String attributeName,
+                                         ModelNode valueToRestore, ModelNode valueToRevert, Void handback) throws OperationFailedException {
+        final ModelNode restored = context.readResource(PathAddress.EMPTY_ADDRESS).getModel().clone();
+        restored.get(attributeName).set(valueToRestore);
+        updatePassivationStoreService(context, restored, null);
+    }
+
+    void updatePassivationStoreService(final OperationContext context, final ModelNode model, List<ServiceController<?>> newControllers) throws OperationFailedException {
+
+        final ModelNode storeName = EJB3SubsystemRootResourceDefinition.DEFAULT_SFSB_PASSIVATION_STORE.validateResolvedOperation(model);
+
+        final ServiceRegistry serviceRegistry = context.getServiceRegistry(true);
+        ServiceController existingDefaultService = serviceRegistry.getService(PassivationStoreConfigService.DEFAULT_SFSB_PASSIVATION_STORE_CONFIG_SERVICE_NAME);
+        // if a default passivation store is already installed, then remove it first
+        if (existingDefaultService != null) {
+            context.removeService(existingDefaultService);
+        }
+
+        if (storeName.isDefined()) {
+            // now install default passivation store config service which points to an existing store config service
+            final ValueInjectionService<PassivationStoreConfig> newDefaultService = new ValueInjectionService<PassivationStoreConfig>();
+            ServiceController<?> newController =
+                context.getServiceTarget().addService(PassivationStoreConfigService.DEFAULT_SFSB_PASSIVATION_STORE_CONFIG_SERVICE_NAME, newDefaultService)
+                    .addDependency(PassivationStoreConfigService.BASE_SERVICE_NAME.append(storeName.asString()),
+                            PassivationStoreConfig.class, newDefaultService.getInjector())
+                    .install();
+            if (newControllers != null) {
+                newControllers.add(newController);
+            }
+        }
+    }
+}
@@ -44,18 +44,29 @@ public interface EJB3SubsystemModel {
     String INSTANCE_ACQUISITION_TIMEOUT = "timeout";
     String INSTANCE_ACQUISITION_TIMEOUT_UNIT = "timeout-unit";
 
+    String LOCK_FREE = "lock-free";
     String MAX_POOL_SIZE = "max-pool-size";
     String STRICT_MAX_BEAN_INSTANCE_POOL = "strict-max-bean-instance-pool";
 
     String MAX_THREADS = "max-threads";
     String KEEPALIVE_TIME = "keepalive-time";
 
+    String DEFAULT_SFSB_PASSIVATION_STORE = "default-sfsb-passivation-store";
+    String FILE_PASSIVATION_STORE = "file-passivation-store";
+    String MAX_SIZE = "max-size";
+
+    String DATASOURCE = "datasource";
+    String JOURNAL = "journal";
     String RELATIVE_TO = "relative-to";
     String PATH = "path";
 
     String DEFAULT_SINGLETON_BEAN_ACCESS_TIMEOUT = "default-singleton-bean-access-timeout";
     String DEFAULT_STATEFUL_BEAN_ACCESS_TIMEOUT = "default-stateful-bean-access-timeout";
 
+    String CHANNEL_QUEUE_DEPTHS = "channel-queue-depths";
+    String IN_FLIGHT_INVOCATIONS = "in-flight-invocations";
+    String MAX_IN_FLIGHT_INVOCATIONS = "max-in-flight-invocations";
+    String QUEUED_INVOCATIONS = "queued-invocations";
     String REMOTE = "remote";
     String SERVICE = "service";
     String TIMER_SERVICE = "timer-service";
@@ -33,18 +33,26 @@ public enum EJB3SubsystemXMLAttribute {
     CONNECTOR_REF("connector-ref"),
     CORE_THREADS("core-threads"),
 
+    DATASOURCE("datasource"),
     DEFAULT_ACCESS_TIMEOUT("default-access-timeout"),
 
     INSTANCE_AQUISITION_TIMEOUT("instance-acquisition-timeout"),
     INSTANCE_AQUISITION_TIMEOUT_UNIT("instance-acquisition-timeout-unit"),
 
+    JOURNAL("journal"),
+
     KEEPALIVE_TIME("keepalive-time"),
 
+    LOCK_FREE("lock-free"),
+
+    MAX_IN_FLIGHT_INVOCATIONS("max-in-flight-invocations"),
     MAX_POOL_SIZE("max-pool-size"),
+    MAX_SIZE("max-size"),
     MAX_THREADS("max-threads"),
 
     NAME("name"),
 
+    PASSIVATION_STORE_REF("passivation-store-ref"),
     PATH("path"),
     POOL_NAME("pool-name"),
 
@@ -40,8 +40,12 @@ public enum EJB3SubsystemXMLElement {
     BEAN_INSTANCE_POOL_REF("bean-instance-pool-ref"),
 
     DATA_STORE("data-store"),
+
+    FILE_PASSIVATION_STORE("file-passivation-store"),
+
     MDB("mdb"),
 
+    PASSIVATION_STORES("passivation-stores"),
     POOLS("pools"),
 
     REMOTE("remote"),
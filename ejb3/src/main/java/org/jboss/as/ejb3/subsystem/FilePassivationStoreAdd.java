@@ -0,0 +1,100 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.subsystem;
+
+import java.util.List;
+
+import org.jboss.as.controller.AbstractAddStepHandler;
+import org.jboss.as.controller.AttributeDefinition;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.ServiceVerificationHandler;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.ejb3.cache.PassivationStoreConfig;
+import org.jboss.as.ejb3.cache.PassivationStoreConfigService;
+import org.jboss.as.ejb3.cache.file.FilePassivationStoreConfig;
+import org.jboss.as.server.services.path.RelativePathService;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceBuilder;
+import org.jboss.msc.service.ServiceController;
+import org.jboss.msc.service.ServiceName;
+
+/**
+ * Adds a file-passivation-store to the EJB3 subsystem. The {#performRuntime runtime action}
+ * will create and install a {@link PassivationStoreConfigService} and the path service of its directory.
+ */
+public class FilePassivationStoreAdd extends AbstractAddStepHandler {
+
+    public static final FilePassivationStoreAdd INSTANCE = new FilePassivationStoreAdd();
+
+    @Override
+    protected void populateModel(ModelNode operation, ModelNode model) throws OperationFailedException {
+
+        final String storeName = PathAddress.pathAddress(operation.get(ModelDescriptionConstants.ADDRESS)).getLastElement().getValue();
+        model.get(EJB3SubsystemModel.NAME).set(storeName);
+
+        for (AttributeDefinition attr : FilePassivationStoreResourceDefinition.ATTRIBUTES.values()) {
+            attr.validateAndSet(operation, model);
+        }
+    }
+
+    @Override
+    protected void performRuntime(OperationContext context, ModelNode operation, ModelNode model,
+                                  ServiceVerificationHandler verificationHandler,
+                                  List<ServiceController<?>> serviceControllers) throws OperationFailedException {
+
+        installRuntimeServices(context, model, verificationHandler, serviceControllers);
+    }
+
+    void installRuntimeServices(OperationContext context, ModelNode model, ServiceVerificationHandler verificationHandler,
+                                List<ServiceController<?>> serviceControllers) throws OperationFailedException {
+
+        final String storeName = model.require(EJB3SubsystemModel.NAME).asString();
+        final int maxSize = FilePassivationStoreResourceDefinition.MAX_SIZE.validateResolvedOperation(model).asInt();
+        final String path = FilePassivationStoreResourceDefinition.PATH.validateResolvedOperation(model).asString();
+        final String relativeTo = FilePassivationStoreResourceDefinition.RELATIVE_TO.validateResolvedOperation(model).asString();
+
+        final ServiceName serviceName = PassivationStoreConfigService.BASE_SERVICE_NAME.append(storeName);
+        final ServiceName pathServiceName = getPathServiceName(storeName);
+
+        // an absolute path ignores relative-to
+        final ServiceController<String> pathController = verificationHandler != null
+                ? RelativePathService.addService(pathServiceName, path, true, relativeTo, context.getServiceTarget(), serviceControllers, verificationHandler)
+                : RelativePathService.addService(pathServiceName, path, true, relativeTo, context.getServiceTarget(), serviceControllers);
+
+        final FilePassivationStoreConfig config = new FilePassivationStoreConfig(storeName, maxSize);
+        final ServiceBuilder<PassivationStoreConfig> svcBuilder = context.getServiceTarget().addService(serviceName, new PassivationStoreConfigService(config))
+                .addDependency(pathController.getName(), String.class, config.getDirectoryInjector());
+        if (verificationHandler != null) {
+            svcBuilder.addListener(verificationHandler);
+        }
+        final ServiceController<PassivationStoreConfig> controller = svcBuilder.install();
+        if (serviceControllers != null) {
+            serviceControllers.add(controller);
+        }
+    }
+
+    static ServiceName getPathServiceName(final String storeName) {
+        return PassivationStoreConfigService.BASE_SERVICE_NAME.append(storeName, "path");
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.subsystem;
+
+import org.jboss.as.controller.AbstractRemoveStepHandler;
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.as.ejb3.cache.PassivationStoreConfigService;
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Handles removing a file-passivation-store resource
+ */
+public class FilePassivationStoreRemove extends AbstractRemoveStepHandler {
+
+    public static final FilePassivationStoreRemove INSTANCE = new FilePassivationStoreRemove();
+
+    @Override
+    protected void performRuntime(OperationContext context, ModelNode operation, ModelNode model) throws OperationFailedException {
+        if (context.isResourceServiceRestartAllowed()) {
+            final String storeName = PathAddress.pathAddress(operation.get(ModelDescriptionConstants.ADDRESS)).getLastElement().getValue();
+            context.removeService(PassivationStoreConfigService.BASE_SERVICE_NAME.append(storeName));
+            context.removeService(FilePassivationStoreAdd.getPathServiceName(storeName));
+        } else {
+            context.reloadRequired();
+        }
+    }
+
+    @Override
+    protected void recoverServices(OperationContext context, ModelNode operation, ModelNode model) throws OperationFailedException {
+        if (context.isResourceServiceRestartAllowed()) {
+            FilePassivationStoreAdd.INSTANCE.installRuntimeServices(context, model, null, null);
+        } else {
+            context.revertReloadRequired();
+        }
+    }
+}
@@ -23,23 +23,29 @@
 package org.jboss.as.ejb3.subsystem;
 
 import java.util.List;
-import java.util.Timer;
+import java.util.concurrent.TimeUnit;
 
+import javax.sql.DataSource;
 import javax.transaction.TransactionManager;
 import javax.transaction.TransactionSynchronizationRegistry;
 
+import org.jboss.as.connector.subsystems.datasources.AbstractDataSourceService;
 import org.jboss.as.controller.AbstractBoottimeAddStepHandler;
 import org.jboss.as.controller.AttributeDefinition;
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.OperationFailedException;
 import org.jboss.as.controller.ServiceVerificationHandler;
+import org.jboss.as.ejb3.cache.TimingWheelService;
 import org.jboss.as.ejb3.deployment.processors.AroundTimeoutAnnotationParsingProcessor;
 import org.jboss.as.ejb3.deployment.processors.TimerServiceDeploymentProcessor;
 import org.jboss.as.ejb3.deployment.processors.annotation.TimerServiceAnnotationProcessor;
 import org.jboss.as.ejb3.deployment.processors.merging.TimerMethodMergingProcessor;
+import org.jboss.as.ejb3.timerservice.persistence.database.DatabaseTimerPersistence;
 import org.jboss.as.ejb3.timerservice.persistence.filestore.FileTimerPersistence;
+import org.jboss.as.ejb3.timerservice.persistence.filestore.JournalFileTimerPersistence;
 import org.jboss.as.server.AbstractDeploymentChainStep;
 import org.jboss.as.server.DeploymentProcessorTarget;
+import org.jboss.as.server.ServerEnvironment;
 import org.jboss.as.server.Services;
 import org.jboss.as.server.deployment.Phase;
 import org.jboss.as.server.services.path.AbsolutePathService;
@@ -49,12 +55,8 @@ import org.jboss.as.txn.service.TransactionSynchronizationRegistryService;
 import org.jboss.dmr.ModelNode;
 import org.jboss.logging.Logger;
 import org.jboss.modules.ModuleLoader;
-import org.jboss.msc.service.Service;
 import org.jboss.msc.service.ServiceController;
 import org.jboss.msc.service.ServiceName;
-import org.jboss.msc.service.StartContext;
-import org.jboss.msc.service.StartException;
-import org.jboss.msc.service.StopContext;
 
 /**
  * Adds the timer service
@@ -67,6 +69,10 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
 
     public static final TimerServiceAdd INSTANCE = new TimerServiceAdd();
 
+    // the timing wheel which schedules the timeouts of all EJB timers of the server on a single thread
+    private static final long TIMER_TICK_MILLIS = 10;
+    private static final int TIMER_WHEEL_SIZE = 8192;
+
 
     /**
      * Populate the <code>timerService</code> from the <code>operation</code>
@@ -91,6 +97,9 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
         final String path = pathNode.isDefined() ? pathNode.asString() : null;
         final ModelNode relativeToNode = TimerServiceResourceDefinition.RELATIVE_TO.validateResolvedOperation(model);
         final String relativeTo = relativeToNode.isDefined() ? relativeToNode.asString() : null;
+        final boolean journal = TimerServiceResourceDefinition.JOURNAL.validateResolvedOperation(model).asBoolean();
+        final ModelNode datasourceNode = TimerServiceResourceDefinition.DATASOURCE.validateResolvedOperation(model);
+        final String datasource = datasourceNode.isDefined() ? datasourceNode.asString() : null;
 
         final String threadPoolName = TimerServiceResourceDefinition.THREAD_POOL_NAME.validateResolvedOperation(model).asString();
         final ServiceName threadPoolServiceName = EJB3ThreadPoolAdd.BASE_SERVICE_NAME.append(threadPoolName);
@@ -118,36 +127,36 @@ public class TimerServiceAdd extends AbstractBoottimeAddStepHandler {
             }
         }, OperationContext.Stage.RUNTIME);
 
-        newControllers.add(context.getServiceTarget().addService(TimerServiceDeploymentProcessor.TIMER_SERVICE_NAME, new TimerValueService())
-                .install());
-        final FileTimerPersistence fileTimerPersistence = new FileTimerPersistence(true);
-        newControllers.add(context.getServiceTarget().addService(FileTimerPersistence.SERVICE_NAME, fileTimerPersistence)
-                .addDependency(Services.JBOSS_SERVICE_MODULE_LOADER, ModuleLoader.class, fileTimerPersistence.getModuleLoader())
-                .addDependency(TimerServiceDeploymentProcessor.PATH_SERVICE_NAME, String.class, fileTimerPersistence.getBaseDir())
-                .addDependency(TransactionManagerService.SERVICE_NAME, TransactionManager.class, fileTimerPersistence.getTransactionManager())
-                .addDependency(TransactionSynchronizationRegistryService.SERVICE_NAME, TransactionSynchronizationRegistry.class, fileTimerPersistence.getTransactionSynchronizationRegistry())
+        newControllers.add(context.getServiceTarget().addService(TimerServiceDeploymentProcessor.TIMER_SERVICE_NAME,
+                new TimingWheelService("EJB timer service", TIMER_TICK_MILLIS, TimeUnit.MILLISECONDS, TIMER_WHEEL_SIZE))
                 .install());
-
-    }
-
-    private static final class TimerValueService implements Service<Timer> {
-
-        private Timer timer;
-
-        @Override
-        public synchronized void start(final StartContext context) throws StartException {
-            timer = new Timer();
+        if (datasource != null) {
+            // the node name identifies the node which owns a timer in the shared table
+            final String nodeName = SecurityActions.getSystemProperty(ServerEnvironment.NODE_NAME);
+            final DatabaseTimerPersistence databaseTimerPersistence = new DatabaseTimerPersistence(nodeName);
+            newControllers.add(context.getServiceTarget().addService(FileTimerPersistence.SERVICE_NAME, databaseTimerPersistence)
+                    .addDependency(Services.JBOSS_SERVICE_MODULE_LOADER, ModuleLoader.class, databaseTimerPersistence.getModuleLoader())
+                    .addDependency(AbstractDataSourceService.SERVICE_NAME_BASE.append(datasource), DataSource.class, databaseTimerPersistence.getDataSource())
+                    .addDependency(TransactionManagerService.SERVICE_NAME, TransactionManager.class, databaseTimerPersistence.getTransactionManager())
+                    .addDependency(TransactionSynchronizationRegistryService.SERVICE_NAME, TransactionSynchronizationRegistry.class, databaseTimerPersistence.getTransactionSynchronizationRegistry())
+                    .install());
+        } else if (journal) {
+            final JournalFileTimerPersistence journalTimerPersistence = new JournalFileTimerPersistence(true);
+            newControllers.add(context.getServiceTarget().addService(FileTimerPersistence.SERVICE_NAME, journalTimerPersistence)
+                    .addDependency(Services.JBOSS_SERVICE_MODULE_LOADER, ModuleLoader.class, journalTimerPersistence.getModuleLoader())
+                    .addDependency(TimerServiceDeploymentProcessor.PATH_SERVICE_NAME, String.class, journalTimerPersistence.getBaseDir())
+                    .addDependency(TransactionManagerService.SERVICE_NAME, TransactionManager.class, journalTimerPersistence.getTransactionManager())
+                    .addDependency(TransactionSynchronizationRegistryService.SERVICE_NAME, TransactionSynchronizationRegistry.class, journalTimerPersistence.getTransactionSynchronizationRegistry())
+                    .install());
+        } else {
+            final FileTimerPersistence fileTimerPersistence = new FileTimerPersistence(true);
+            newControllers.add(context.getServiceTarget().addService(FileTimerPersistence.SERVICE_NAME, fileTimerPersistence)
+                    .addDependency(Services.JBOSS_SERVICE_MODULE_LOADER, ModuleLoader.class, fileTimerPersistence.getModuleLoader())
+                    .addDependency(TimerServiceDeploymentProcessor.PATH_SERVICE_NAME, String.class, fileTimerPersistence.getBaseDir())
+                    .addDependency(TransactionManagerService.SERVICE_NAME, TransactionManager.class, fileTimerPersistence.getTransactionManager())
+                    .addDependency(TransactionSynchronizationRegistryService.SERVICE_NAME, TransactionSynchronizationRegistry.class, fileTimerPersistence.getTransactionSynchronizationRegistry())
+                    .install());
         }
 
-        @Override
-        public synchronized void stop(final StopContext context) {
-            timer.cancel();
-            timer = null;
-        }
-
-        @Override
-        public synchronized Timer getValue() throws IllegalStateException, IllegalArgumentException {
-            return timer;
-        }
     }
 }
@@ -22,6 +22,10 @@
 
 package org.jboss.as.ejb3.subsystem.deployment;
 
+import static org.jboss.as.ejb3.subsystem.deployment.StatefulSessionBeanDeploymentResourceDefinition.CACHE_SIZE;
+import static org.jboss.as.ejb3.subsystem.deployment.StatefulSessionBeanDeploymentResourceDefinition.EXPIRED_COUNT;
+import static org.jboss.as.ejb3.subsystem.deployment.StatefulSessionBeanDeploymentResourceDefinition.PASSIVATED_COUNT;
+
 import org.jboss.as.controller.OperationContext;
 import org.jboss.as.controller.PathAddress;
 import org.jboss.as.ee.component.ComponentConfiguration;
@@ -42,7 +46,14 @@ public class StatefulSessionBeanRuntimeHandler extends AbstractEJBComponentRunti
 
     @Override
     protected void executeReadAttribute(String attributeName, OperationContext context, StatefulSessionComponent component, ComponentConfiguration config, PathAddress address) {
-        super.executeReadAttribute(attributeName, context, component, config, address);
-        //TODO expose the cache
+        if (CACHE_SIZE.getName().equals(attributeName)) {
+            context.getResult().set(component.getCache().getCacheSize());
+        } else if (EXPIRED_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(component.getCache().getExpiredCount());
+        } else if (PASSIVATED_COUNT.getName().equals(attributeName)) {
+            context.getResult().set(component.getCache().getPassivatedCount());
+        } else {
+            super.executeReadAttribute(attributeName, context, component, config, address);
+        }
     }
 }
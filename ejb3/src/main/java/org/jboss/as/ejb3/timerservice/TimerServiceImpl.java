@@ -39,7 +39,9 @@ import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import javax.ejb.EJBException;
 import javax.ejb.ScheduleExpression;
@@ -54,6 +56,7 @@ import javax.transaction.SystemException;
 import javax.transaction.Transaction;
 import javax.transaction.TransactionManager;
 
+import org.jboss.as.ejb3.cache.TimingWheel;
 import org.jboss.as.ejb3.component.EJBComponent;
 import org.jboss.as.ejb3.component.singleton.SingletonComponent;
 import org.jboss.as.ejb3.context.CurrentInvocationContext;
@@ -104,7 +107,7 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
 
     private final InjectedValue<ExecutorService> executorServiceInjectedValue = new InjectedValue<ExecutorService>();
 
-    private final InjectedValue<java.util.Timer> timerInjectedValue = new InjectedValue<java.util.Timer>();
+    private final InjectedValue<TimingWheel> timerInjectedValue = new InjectedValue<TimingWheel>();
 
     /**
      * Auto timers that should be added on startup
@@ -124,9 +127,9 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
     private final Map<TimerHandle, TimerImpl> persistentWaitingOnTxCompletionTimers = new ConcurrentHashMap<TimerHandle, TimerImpl>();
 
     /**
-     * Holds the {@link java.util.concurrent.Future} of each of the timer tasks that have been scheduled
+     * Holds the task of each of the timers that have been scheduled
      */
-    private final Map<TimerHandle, java.util.TimerTask> scheduledTimerFutures = new ConcurrentHashMap<TimerHandle, java.util.TimerTask>();
+    private final ConcurrentMap<TimerHandle, Task> scheduledTimerFutures = new ConcurrentHashMap<TimerHandle, Task>();
 
     private TransactionManager transactionManager;
 
@@ -171,14 +174,29 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         }
         // restore the timers
         restoreTimers(timers);
+        final TimerPersistence persistence = timerPersistence.getOptionalValue();
+        if (persistence != null) {
+            persistence.addClaimedTimersListener(invoker.getTimedObjectId(), new TimerPersistence.ClaimedTimersListener() {
+                @Override
+                public void timersClaimed(final List<TimerEntity> timers) {
+                    restoreClaimedTimers(timers);
+                }
+            });
+        }
         started = true;
     }
 
     @Override
     public synchronized void stop(final StopContext context) {
+        final TimerPersistence persistence = timerPersistence.getOptionalValue();
+        if (persistence != null) {
+            persistence.removeClaimedTimersListener(getInvoker().getTimedObjectId());
+        }
         suspendTimers();
         started = false;
         this.transactionManager = null;
+        // the schedules of an undeployed bean must not stay cached
+        CalendarBasedTimeout.clearSharedTimeouts();
     }
 
     @Override
@@ -786,19 +804,17 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         if (intervalDuration > 0) {
             logger.debug("Scheduling timer " + timer + " at fixed rate, starting at " + delay
                     + " milli seconds from now with repeated interval=" + intervalDuration);
-            // schedule the task
-            final Task task = new Task(timerTask);
-            this.timerInjectedValue.getValue().scheduleAtFixedRate(task, delay, intervalDuration);
-            // maintain it in timerservice for future use (like cancellation)
-            this.scheduledTimerFutures.put(timer.getTimerHandle(), task);
         } else {
             logger.debug("Scheduling a single action timer " + timer + " starting at " + delay + " milli seconds from now");
-            // schedule the task
-            this.timerInjectedValue.getValue().schedule(new Task(timerTask), delay);
-            // maintain it in timerservice for future use (like cancellation)
-            final Task task = new Task(timerTask);
-            this.scheduledTimerFutures.put(timer.getTimerHandle(), task);
         }
+        final TimerHandle handle = timer.getTimerHandle();
+        final Task task = new Task(handle, timerTask, System.currentTimeMillis() + delay, intervalDuration);
+        // maintain it in timerservice for future use (like cancellation)
+        final Task previous = this.scheduledTimerFutures.put(handle, task);
+        if (previous != null) {
+            previous.cancel();
+        }
+        task.schedule();
     }
 
     /**
@@ -808,7 +824,7 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
      */
     protected void cancelTimeout(TimerImpl timer) {
         TimerHandle handle = timer.getTimerHandle();
-        java.util.TimerTask timerTask = this.scheduledTimerFutures.get(handle);
+        Task timerTask = this.scheduledTimerFutures.remove(handle);
         if (timerTask != null) {
             timerTask.cancel();
         }
@@ -848,7 +864,28 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         }
 
 
-        final List<TimerEntity> persistedTimers = timerPersistence.getValue().loadActiveTimers(timedObjectId);
+        return toActiveTimers(timerPersistence.getValue().loadActiveTimers(timedObjectId));
+    }
+
+    /**
+     * Starts the timers which the timer persistence took over from another node. The auto timers are dropped, as
+     * this timer service has created its own ones on start.
+     *
+     * @param persistedTimers the claimed timers
+     */
+    private void restoreClaimedTimers(final List<TimerEntity> persistedTimers) {
+        for (final TimerImpl activeTimer : toActiveTimers(persistedTimers)) {
+            if (activeTimer.isAutoTimer()) {
+                this.removeTimer(activeTimer);
+            } else {
+                this.startTimer(activeTimer);
+                logger.debug("Started claimed timer: " + activeTimer);
+                this.persistTimer(activeTimer);
+            }
+        }
+    }
+
+    private List<TimerImpl> toActiveTimers(final List<TimerEntity> persistedTimers) {
         final List<TimerImpl> activeTimers = new ArrayList<TimerImpl>();
         for (final TimerEntity persistedTimer : persistedTimers) {
             if (ineligibleTimerStates.contains(persistedTimer.getTimerState())) {
@@ -1025,7 +1062,7 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
         return executorServiceInjectedValue;
     }
 
-    public InjectedValue<java.util.Timer> getTimerInjectedValue() {
+    public InjectedValue<TimingWheel> getTimerInjectedValue() {
         return timerInjectedValue;
     }
 
@@ -1099,16 +1136,54 @@ public class TimerServiceImpl implements TimerService, Service<TimerService> {
 
     }
 
-    private class Task extends java.util.TimerTask {
+    /**
+     * Submits the timeout of a timer to the executor once it is due. All timers of the server share a single
+     * {@link TimingWheel}, so scheduling and cancelling a timeout is O(1) and does not need a thread per timer.
+     * A timer with an interval reschedules itself at a fixed rate.
+     */
+    private class Task implements Runnable {
 
+        private final TimerHandle handle;
         private final Runnable delegate;
+        private final long interval;
+        private long nextExpiration;
+        private TimingWheel.Timeout timeout;
+        private boolean cancelled;
 
-        public Task(final Runnable delegate) {
+        public Task(final TimerHandle handle, final Runnable delegate, final long nextExpiration, final long interval) {
+            this.handle = handle;
             this.delegate = delegate;
+            this.nextExpiration = nextExpiration;
+            this.interval = interval;
+        }
+
+        synchronized void schedule() {
+            if (!cancelled) {
+                timeout = timerInjectedValue.getValue().schedule(this, nextExpiration - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (timeout != null) {
+                timeout.cancel();
+            }
         }
 
         @Override
         public void run() {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                if (interval > 0) {
+                    nextExpiration += interval;
+                    schedule();
+                }
+            }
+            if (interval <= 0) {
+                scheduledTimerFutures.remove(handle, this);
+            }
             final ExecutorService executor = executorServiceInjectedValue.getOptionalValue();
             if(executor != null) {
                 executor.submit(delegate);
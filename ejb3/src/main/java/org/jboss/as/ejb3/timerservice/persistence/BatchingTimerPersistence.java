@@ -0,0 +1,482 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.SystemException;
+import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.jboss.logging.Logger;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.MarshallerFactory;
+import org.jboss.marshalling.MarshallingConfiguration;
+import org.jboss.marshalling.ModularClassResolver;
+import org.jboss.marshalling.Unmarshaller;
+import org.jboss.marshalling.river.RiverMarshallerFactory;
+import org.jboss.modules.ModuleLoader;
+import org.jboss.msc.value.InjectedValue;
+
+/**
+ * Base class of the timer stores which keep the timers in memory and write every change through a single
+ * writer thread.
+ * <p/>
+ * Callers enqueue their change and wait until it is durable; the writer thread drains everything which has been
+ * queued in the meantime and hands it to {@link #writeBatch(List)} as a single batch, so that one sync or commit
+ * covers the changes of many concurrent callers. Changes of the same timed object are enqueued under the lock of
+ * that timed object, so that they are written in order. The in-memory timers are changed before the change is written,
+ * and changed back if it could not be written.
+ */
+public abstract class BatchingTimerPersistence implements TimerPersistence {
+
+    protected static final byte PERSIST = 1;
+    protected static final byte REMOVE = 2;
+    protected static final byte FLUSH = 3;
+
+    private static final Logger logger = Logger.getLogger(BatchingTimerPersistence.class);
+
+    private final int maxBatchSize;
+    private MarshallerFactory factory;
+    private MarshallingConfiguration configuration;
+    private final InjectedValue<TransactionManager> transactionManager = new InjectedValue<TransactionManager>();
+    private final InjectedValue<TransactionSynchronizationRegistry> transactionSynchronizationRegistry = new InjectedValue<TransactionSynchronizationRegistry>();
+    private final InjectedValue<ModuleLoader> moduleLoader = new InjectedValue<ModuleLoader>();
+
+    /**
+     * map of timed object id : timer id : timer
+     */
+    private final ConcurrentMap<String, Map<String, TimerEntity>> timers = new ConcurrentHashMap<String, Map<String, TimerEntity>>();
+    private final ConcurrentMap<String, Lock> locks = new ConcurrentHashMap<String, Lock>();
+
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<Request>();
+    private final Request stopRequest = new Request(FLUSH, null);
+
+    // guards the writer thread, so that nothing is queued once the stop request has been
+    private final Object writerLock = new Object();
+    private Thread writerThread;
+
+    protected BatchingTimerPersistence(final int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Write a batch of changes. {@link #FLUSH} requests only wait for the changes queued before them and are
+     * not written.
+     *
+     * @param batch the changes, in the order they have been queued
+     * @throws Exception if the batch could not be made durable, which fails all of its changes. A single change
+     *                   which cannot be written is failed with {@link Request#fail(Exception)} instead.
+     */
+    protected abstract void writeBatch(List<Request> batch) throws Exception;
+
+    /**
+     * Called by the writer thread after every batch, once its callers have been released.
+     */
+    protected void afterBatch() {
+    }
+
+    /**
+     * @return the name of the store in messages
+     */
+    protected abstract String getStoreName();
+
+    /**
+     * Set up the marshalling of timers. Must be called before timers are read or written.
+     */
+    protected void startMarshalling() {
+        final MarshallingConfiguration configuration = new MarshallingConfiguration();
+        configuration.setClassResolver(ModularClassResolver.getInstance(moduleLoader.getValue()));
+        this.configuration = configuration;
+        this.factory = new RiverMarshallerFactory();
+    }
+
+    protected Marshaller createMarshaller() throws IOException {
+        return factory.createMarshaller(configuration);
+    }
+
+    protected Unmarshaller createUnmarshaller() throws IOException {
+        return factory.createUnmarshaller(configuration);
+    }
+
+    /**
+     * Start the writer thread, which accepts changes from then on.
+     */
+    protected void startWriter(final String threadName) {
+        final Thread thread = new Thread(new Writer(), threadName);
+        thread.setDaemon(true);
+        synchronized (writerLock) {
+            writerThread = thread;
+        }
+        thread.start();
+    }
+
+    /**
+     * Write the changes queued so far, stop the writer thread and forget about all timers.
+     */
+    protected void stopWriter() {
+        final Thread thread;
+        synchronized (writerLock) {
+            thread = writerThread;
+            writerThread = null;
+            if (thread != null) {
+                queue.add(stopRequest);
+            }
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Forget about all timers and the marshalling set up, once the store is stopped.
+     */
+    protected void clear() {
+        timers.clear();
+        locks.clear();
+        factory = null;
+        configuration = null;
+    }
+
+    @Override
+    public void persistTimer(final TimerEntity timerEntity) {
+        final Lock lock = getLock(timerEntity.getTimedObjectId());
+        try {
+            final int status = transactionManager.getValue().getStatus();
+            if (status == Status.STATUS_NO_TRANSACTION ||
+                    status == Status.STATUS_UNKNOWN) {
+                doPersist(timerEntity, lock);
+            } else {
+                transactionSynchronizationRegistry.getValue().registerInterposedSynchronization(new PersistTransactionSynchronization(timerEntity, lock));
+            }
+        } catch (SystemException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public void removeTimer(final TimerEntity timerEntity) {
+        final Lock lock = getLock(timerEntity.getTimedObjectId());
+        final Map<String, TimerEntity> timers = getTimers(timerEntity.getTimedObjectId());
+        final TimerEntity previous;
+        final Request request;
+        try {
+            lock.lock();
+            //remove is not a transactional operation, as it only happens once the timer has expired
+            previous = timers.remove(timerEntity.getId());
+            try {
+                request = submit(new Request(REMOVE, timerEntity));
+            } catch (RuntimeException e) {
+                restore(timers, timerEntity.getId(), null, previous);
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+        final Exception failure = request.await();
+        if (failure != null) {
+            if (request.isDone()) {
+                restore(timers, timerEntity.getId(), null, previous, lock);
+            }
+            logger.error("Could not remove persistent timer " + timerEntity.getId(), failure);
+        }
+    }
+
+    private void doPersist(final TimerEntity timerEntity, final Lock lock) {
+        final Map<String, TimerEntity> timers = getTimers(timerEntity.getTimedObjectId());
+        final TimerEntity previous;
+        final Request request;
+        try {
+            lock.lock();
+            previous = timers.put(timerEntity.getId(), timerEntity);
+            try {
+                // enqueued under the lock, so that changes of the same timed object are written in order
+                request = submit(new Request(PERSIST, timerEntity));
+            } catch (RuntimeException e) {
+                restore(timers, timerEntity.getId(), timerEntity, previous);
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+        // wait outside the lock, so that other timers can join the same batch
+        final Exception failure = request.await();
+        if (failure != null) {
+            // if the wait has been interrupted the change may still be written, so the timer is kept
+            if (request.isDone()) {
+                restore(timers, timerEntity.getId(), timerEntity, previous, lock);
+            }
+            throw new RuntimeException(failure);
+        }
+    }
+
+    /**
+     * Undo the in-memory change of a timer whose change could not be written, unless it has been changed again since.
+     *
+     * @param expected the timer the change left in memory, or <code>null</code> if it removed the timer
+     * @param previous the timer before the change, or <code>null</code> if there was none
+     */
+    private static void restore(final Map<String, TimerEntity> timers, final String id, final TimerEntity expected, final TimerEntity previous, final Lock lock) {
+        try {
+            lock.lock();
+            restore(timers, id, expected, previous);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void restore(final Map<String, TimerEntity> timers, final String id, final TimerEntity expected, final TimerEntity previous) {
+        if (timers.get(id) != expected) {
+            return;
+        }
+        if (previous == null) {
+            timers.remove(id);
+        } else {
+            timers.put(id, previous);
+        }
+    }
+
+    /**
+     * Wait until everything which has been queued so far has been written.
+     */
+    protected void awaitQueuedChanges() {
+        submit(new Request(FLUSH, null)).await();
+    }
+
+    private Request submit(final Request request) {
+        synchronized (writerLock) {
+            if (writerThread == null) {
+                throw new IllegalStateException("Timer store " + getStoreName() + " is not started");
+            }
+            queue.add(request);
+        }
+        return request;
+    }
+
+    protected Lock getLock(final String timedObjectId) {
+        Lock lock = locks.get(timedObjectId);
+        if (lock == null) {
+            final Lock addedLock = new ReentrantLock();
+            lock = locks.putIfAbsent(timedObjectId, addedLock);
+            if (lock == null) {
+                lock = addedLock;
+            }
+        }
+        return lock;
+    }
+
+    /**
+     * @return the timers of a timed object, which can be iterated concurrently with changes
+     */
+    protected Map<String, TimerEntity> getTimers(final String timedObjectId) {
+        Map<String, TimerEntity> map = timers.get(timedObjectId);
+        if (map == null) {
+            final Map<String, TimerEntity> added = new ConcurrentHashMap<String, TimerEntity>();
+            map = timers.putIfAbsent(timedObjectId, added);
+            if (map == null) {
+                map = added;
+            }
+        }
+        return map;
+    }
+
+    /**
+     * @return the timers of a timed object, or <code>null</code> if there are none
+     */
+    protected Map<String, TimerEntity> getTimersIfPresent(final String timedObjectId) {
+        return timers.get(timedObjectId);
+    }
+
+    /**
+     * @return the timers of all timed objects, by timed object id
+     */
+    protected Map<String, Map<String, TimerEntity>> getAllTimers() {
+        return timers;
+    }
+
+    protected int getActiveTimerCount() {
+        int count = 0;
+        for (Map<String, TimerEntity> map : timers.values()) {
+            count += map.size();
+        }
+        return count;
+    }
+
+    public InjectedValue<TransactionManager> getTransactionManager() {
+        return transactionManager;
+    }
+
+    public InjectedValue<TransactionSynchronizationRegistry> getTransactionSynchronizationRegistry() {
+        return transactionSynchronizationRegistry;
+    }
+
+    public InjectedValue<ModuleLoader> getModuleLoader() {
+        return moduleLoader;
+    }
+
+    /**
+     * Hands the queued changes to {@link #writeBatch(List)} in batches.
+     */
+    private final class Writer implements Runnable {
+
+        @Override
+        public void run() {
+            final List<Request> batch = new ArrayList<Request>();
+            boolean running = true;
+            while (running) {
+                batch.clear();
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    // only the stop request ends the writer
+                    continue;
+                }
+                queue.drainTo(batch, maxBatchSize);
+                Exception failure = null;
+                try {
+                    writeBatch(batch);
+                } catch (Exception e) {
+                    logger.error("Could not write timers to " + getStoreName(), e);
+                    failure = e;
+                }
+                for (Request request : batch) {
+                    if (request == stopRequest) {
+                        running = false;
+                    }
+                    request.complete(failure);
+                }
+                if (running) {
+                    afterBatch();
+                }
+            }
+            // nothing is queued after the stop request, but a caller must never be left waiting
+            final IOException stopped = new IOException("Timer store " + getStoreName() + " has been stopped");
+            Request request;
+            while ((request = queue.poll()) != null) {
+                request.complete(stopped);
+            }
+        }
+    }
+
+    /**
+     * A change which is waiting to be written.
+     */
+    protected static final class Request {
+        private final byte type;
+        private final TimerEntity entity;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Exception failure;
+
+        Request(final byte type, final TimerEntity entity) {
+            this.type = type;
+            this.entity = entity;
+        }
+
+        /**
+         * @return {@link #PERSIST}, {@link #REMOVE} or {@link #FLUSH}
+         */
+        public byte getType() {
+            return type;
+        }
+
+        /**
+         * @return the timer, or <code>null</code> for a {@link #FLUSH} request
+         */
+        public TimerEntity getEntity() {
+            return entity;
+        }
+
+        /**
+         * Fail this change only, while the rest of its batch is written.
+         */
+        public void fail(final Exception failure) {
+            this.failure = failure;
+        }
+
+        void complete(final Exception failure) {
+            if (failure != null) {
+                this.failure = failure;
+            }
+            done.countDown();
+        }
+
+        boolean isDone() {
+            return done.getCount() == 0;
+        }
+
+        /**
+         * Wait until the change is durable, or until the calling thread is interrupted, in which case the change may
+         * still be written.
+         *
+         * @return the failure, or <code>null</code> if the change has been written successfully
+         */
+        Exception await() {
+            try {
+                done.await();
+                return failure;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new InterruptedIOException("Interrupted while waiting for the timer change to be written");
+            }
+        }
+    }
+
+    private final class PersistTransactionSynchronization implements Synchronization {
+
+        private final TimerEntity timer;
+        private final Lock lock;
+
+        public PersistTransactionSynchronization(final TimerEntity timer, final Lock lock) {
+            this.timer = timer;
+            this.lock = lock;
+        }
+
+        @Override
+        public void beforeCompletion() {
+
+        }
+
+        @Override
+        public void afterCompletion(final int status) {
+            if (status == Status.STATUS_COMMITTED) {
+                doPersist(timer, lock);
+            }
+        }
+    }
+}
@@ -35,4 +35,27 @@ public interface TimerPersistence {
     void removeTimer(TimerEntity timerEntity);
 
     List<TimerEntity> loadActiveTimers(String timedObjectId);
+
+    /**
+     * Register the listener which is told about timers of a timed object that this node took over from a node which
+     * has failed, after {@link #loadActiveTimers(String)} has been called. Stores which are not shared by several
+     * nodes never call it.
+     *
+     * @param timedObjectId the timed object
+     * @param listener      the listener, which replaces any listener registered before for the timed object
+     */
+    void addClaimedTimersListener(String timedObjectId, ClaimedTimersListener listener);
+
+    void removeClaimedTimersListener(String timedObjectId);
+
+    /**
+     * Is told about timers this node has taken over.
+     */
+    interface ClaimedTimersListener {
+
+        /**
+         * @param timers the timers which are now owned by this node; they are already part of the active timers
+         */
+        void timersClaimed(List<TimerEntity> timers);
+    }
 }
@@ -0,0 +1,679 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.database;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import javax.sql.DataSource;
+
+import org.jboss.as.ejb3.timerservice.persistence.BatchingTimerPersistence;
+import org.jboss.as.ejb3.timerservice.persistence.TimerEntity;
+import org.jboss.logging.Logger;
+import org.jboss.marshalling.InputStreamByteInput;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.OutputStreamByteOutput;
+import org.jboss.marshalling.Unmarshaller;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StartException;
+import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
+
+/**
+ * Persistent timer store which keeps the timers in a database table, so that several nodes can share a single store.
+ * <p/>
+ * Every row carries the name of the node which owns the timer, and a node only loads, and therefore only fires, the
+ * timers it owns. New timers are owned by the node which creates them. A node gives up its timers when the store is
+ * stopped.
+ * <p/>
+ * Every node holds a lease, which it renews by writing a heartbeat into a second table every heartbeat interval. The
+ * timers of a node whose lease has expired, e.g. because it crashed, are claimed together with the timers without an
+ * owner: when a timed object loads its timers, and periodically for every timed object which is deployed on a live
+ * node. Every timer is claimed with a single conditional update, so exactly one node picks it up, and the timers a
+ * node claims periodically are handed to the {@link ClaimedTimersListener} of the timed object. The heartbeats use
+ * the clocks of the nodes, so these have to be synchronized to well within the lease timeout, and a node which stops
+ * renewing its lease for longer than the lease timeout, e.g. because of a long pause, may find its timers fired by
+ * another node as well. Changes are only written to the rows this node owns; a change of a timer which has been taken
+ * over by another node in the meantime fails.
+ * <p/>
+ * Changes are written with one JDBC batch per statement and a single commit for every batch the writer thread drains.
+ * <p/>
+ * The tables are created if they do not exist. The generated DDL uses a <code>BLOB</code> column for the serialized
+ * timer, for databases without that type the table has to be created up front.
+ */
+public class DatabaseTimerPersistence extends BatchingTimerPersistence implements Service<DatabaseTimerPersistence> {
+
+    public static final String DEFAULT_TABLE_NAME = "JBOSS_EJB_TIMER";
+    public static final long DEFAULT_HEARTBEAT_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+    public static final long DEFAULT_LEASE_TIMEOUT = TimeUnit.SECONDS.toMillis(60);
+
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private static final Logger logger = Logger.getLogger(DatabaseTimerPersistence.class);
+
+    private final String nodeName;
+    private final String tableName;
+    private final String nodeTableName;
+    private final long heartbeatInterval;
+    private final long leaseTimeout;
+    private final String createTableSql;
+    private final String createIndexSql;
+    private final String createNodeTableSql;
+    private final String insertSql;
+    private final String updateSql;
+    private final String deleteSql;
+    private final String claimSql;
+    private final String selectOwnedSql;
+    private final String selectSql;
+    private final String releaseSql;
+    private final String heartbeatSql;
+    private final String insertNodeSql;
+    private final String deleteNodeSql;
+
+    private final InjectedValue<DataSource> dataSource = new InjectedValue<DataSource>();
+
+    /**
+     * The keys of the timers which are known to have a row, which decides between an insert and an update
+     */
+    private final Set<String> stored = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    private final ConcurrentMap<String, ClaimedTimersListener> listeners = new ConcurrentHashMap<String, ClaimedTimersListener>();
+
+    // only accessed by the writer thread
+    private Marshaller marshaller;
+    private final ByteArrayOutputStream marshallerBuffer = new ByteArrayOutputStream(512);
+
+    private ScheduledExecutorService leaseExecutor;
+    // only accessed by the lease thread, or by the service lifecycle while it is not running
+    private long lastHeartbeat;
+
+    public DatabaseTimerPersistence(final String nodeName) {
+        this(nodeName, DEFAULT_TABLE_NAME);
+    }
+
+    public DatabaseTimerPersistence(final String nodeName, final String tableName) {
+        this(nodeName, tableName, DEFAULT_HEARTBEAT_INTERVAL, DEFAULT_LEASE_TIMEOUT);
+    }
+
+    /**
+     * Construct a new instance.
+     *
+     * @param nodeName          the name of this node, which has to be unique among the nodes sharing the table
+     * @param tableName         the name of the timer table
+     * @param heartbeatInterval the interval in milliseconds in which the lease is renewed and timers are claimed
+     * @param leaseTimeout      the time in milliseconds after which the timers of a node which has not renewed its
+     *                          lease are taken over
+     */
+    public DatabaseTimerPersistence(final String nodeName, final String tableName, final long heartbeatInterval, final long leaseTimeout) {
+        super(MAX_BATCH_SIZE);
+        if (heartbeatInterval <= 0 || leaseTimeout <= heartbeatInterval) {
+            throw new IllegalArgumentException("The lease timeout " + leaseTimeout + " must be longer than the heartbeat interval " + heartbeatInterval);
+        }
+        this.nodeName = nodeName;
+        this.tableName = tableName;
+        this.nodeTableName = tableName + "_NODE";
+        this.heartbeatInterval = heartbeatInterval;
+        this.leaseTimeout = leaseTimeout;
+        createTableSql = "CREATE TABLE " + tableName + " (ID VARCHAR(255) NOT NULL, TIMED_OBJECT_ID VARCHAR(255) NOT NULL, "
+                + "NODE_NAME VARCHAR(255), NEXT_DATE BIGINT, TIMER_DATA BLOB NOT NULL, PRIMARY KEY (ID, TIMED_OBJECT_ID))";
+        createIndexSql = "CREATE INDEX " + tableName + "_OWNER ON " + tableName + " (TIMED_OBJECT_ID, NODE_NAME)";
+        createNodeTableSql = "CREATE TABLE " + nodeTableName + " (NODE_NAME VARCHAR(255) NOT NULL, HEARTBEAT BIGINT NOT NULL, PRIMARY KEY (NODE_NAME))";
+        insertSql = "INSERT INTO " + tableName + " (ID, TIMED_OBJECT_ID, NODE_NAME, NEXT_DATE, TIMER_DATA) VALUES (?, ?, ?, ?, ?)";
+        updateSql = "UPDATE " + tableName + " SET NEXT_DATE = ?, TIMER_DATA = ? WHERE ID = ? AND TIMED_OBJECT_ID = ? AND NODE_NAME = ?";
+        deleteSql = "DELETE FROM " + tableName + " WHERE ID = ? AND TIMED_OBJECT_ID = ? AND NODE_NAME = ?";
+        // timers without an owner, or owned by a node whose lease has expired or which has never held one
+        claimSql = "UPDATE " + tableName + " SET NODE_NAME = ? WHERE TIMED_OBJECT_ID = ? AND (NODE_NAME IS NULL"
+                + " OR NODE_NAME IN (SELECT NODE_NAME FROM " + nodeTableName + " WHERE HEARTBEAT < ?)"
+                + " OR NODE_NAME NOT IN (SELECT NODE_NAME FROM " + nodeTableName + "))";
+        selectOwnedSql = "SELECT TIMER_DATA FROM " + tableName + " WHERE TIMED_OBJECT_ID = ? AND NODE_NAME = ?";
+        selectSql = "SELECT TIMER_DATA FROM " + tableName + " WHERE ID = ? AND TIMED_OBJECT_ID = ?";
+        releaseSql = "UPDATE " + tableName + " SET NODE_NAME = NULL WHERE NODE_NAME = ?";
+        heartbeatSql = "UPDATE " + nodeTableName + " SET HEARTBEAT = ? WHERE NODE_NAME = ?";
+        insertNodeSql = "INSERT INTO " + nodeTableName + " (NODE_NAME, HEARTBEAT) VALUES (?, ?)";
+        deleteNodeSql = "DELETE FROM " + nodeTableName + " WHERE NODE_NAME = ?";
+    }
+
+    @Override
+    public synchronized void start(final StartContext context) throws StartException {
+        startMarshalling();
+        try {
+            marshaller = createMarshaller();
+            final Connection connection = dataSource.getValue().getConnection();
+            try {
+                createTableIfNotExists(connection, tableName, createTableSql, createIndexSql);
+                createTableIfNotExists(connection, nodeTableName, createNodeTableSql);
+                // hold a lease before the first timers are loaded
+                renewLease(connection, System.currentTimeMillis());
+            } finally {
+                safeClose(connection);
+            }
+        } catch (IOException e) {
+            throw new StartException(e);
+        } catch (SQLException e) {
+            throw new StartException("Could not create timer tables " + tableName + " and " + nodeTableName, e);
+        }
+
+        startWriter("EJB timer database writer");
+
+        leaseExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "EJB timer database lease");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        leaseExecutor.scheduleWithFixedDelay(new LeaseTask(), heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop(final StopContext context) {
+        final ScheduledExecutorService leaseExecutor = this.leaseExecutor;
+        this.leaseExecutor = null;
+        if (leaseExecutor != null) {
+            leaseExecutor.shutdown();
+            try {
+                if (!leaseExecutor.awaitTermination(leaseTimeout, TimeUnit.MILLISECONDS)) {
+                    logger.warn("Timed out waiting for the lease of node " + nodeName + " to be renewed");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        stopWriter();
+        // hand our timers over to the other nodes, and give up the lease
+        try {
+            final Connection connection = dataSource.getValue().getConnection();
+            try {
+                connection.setAutoCommit(false);
+                final PreparedStatement release = connection.prepareStatement(releaseSql);
+                try {
+                    release.setString(1, nodeName);
+                    release.executeUpdate();
+                } finally {
+                    safeClose(release);
+                }
+                final PreparedStatement deleteNode = connection.prepareStatement(deleteNodeSql);
+                try {
+                    deleteNode.setString(1, nodeName);
+                    deleteNode.executeUpdate();
+                } finally {
+                    safeClose(deleteNode);
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                rollback(connection);
+                throw e;
+            } finally {
+                safeClose(connection);
+            }
+        } catch (SQLException e) {
+            logger.error("Could not release the timers of node " + nodeName + " in " + tableName, e);
+        }
+        clear();
+        stored.clear();
+        listeners.clear();
+        marshaller = null;
+    }
+
+    @Override
+    public DatabaseTimerPersistence getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+
+    @Override
+    public TimerEntity loadTimer(final String id, final String timedObjectId) {
+        final Map<String, TimerEntity> timers = getTimersIfPresent(timedObjectId);
+        final TimerEntity timer = timers == null ? null : timers.get(id);
+        if (timer != null) {
+            return timer;
+        }
+        // the timer may be owned by another node
+        awaitQueuedChanges();
+        try {
+            final Connection connection = dataSource.getValue().getConnection();
+            try {
+                final PreparedStatement statement = connection.prepareStatement(selectSql);
+                try {
+                    statement.setString(1, id);
+                    statement.setString(2, timedObjectId);
+                    final List<TimerEntity> result = readTimers(statement);
+                    if (result.isEmpty()) {
+                        return null;
+                    }
+                    stored.add(key(timedObjectId, id));
+                    return result.get(0);
+                } finally {
+                    safeClose(statement);
+                }
+            } finally {
+                safeClose(connection);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not load timer " + id + " from " + tableName, e);
+        }
+    }
+
+    @Override
+    public List<TimerEntity> loadActiveTimers(final String timedObjectId) {
+        final Lock lock = getLock(timedObjectId);
+        try {
+            lock.lock();
+            claimTimers(timedObjectId);
+            return new ArrayList<TimerEntity>(getTimers(timedObjectId).values());
+        } catch (SQLException e) {
+            throw new RuntimeException("Could not load timers of " + timedObjectId + " from " + tableName, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addClaimedTimersListener(final String timedObjectId, final ClaimedTimersListener listener) {
+        listeners.put(timedObjectId, listener);
+    }
+
+    @Override
+    public void removeClaimedTimersListener(final String timedObjectId) {
+        listeners.remove(timedObjectId);
+    }
+
+    @Override
+    protected String getStoreName() {
+        return tableName;
+    }
+
+    /**
+     * Claim the timers of a timed object which have no owner or whose owner has lost its lease, and load all timers
+     * this node owns. Must be called under the lock of the timed object.
+     *
+     * @return the timers which were not known to this node before
+     */
+    private List<TimerEntity> claimTimers(final String timedObjectId) throws SQLException {
+        // a removed timer whose row is still queued for deletion would otherwise look like a claimed one
+        awaitQueuedChanges();
+        final Connection connection = dataSource.getValue().getConnection();
+        try {
+            connection.setAutoCommit(false);
+            final PreparedStatement claim = connection.prepareStatement(claimSql);
+            try {
+                claim.setString(1, nodeName);
+                claim.setString(2, timedObjectId);
+                claim.setLong(3, System.currentTimeMillis() - leaseTimeout);
+                final int claimed = claim.executeUpdate();
+                if (claimed > 0) {
+                    logger.debugf("Node %s claimed %d timers of %s", nodeName, claimed, timedObjectId);
+                }
+            } finally {
+                safeClose(claim);
+            }
+            final List<TimerEntity> result;
+            final PreparedStatement select = connection.prepareStatement(selectOwnedSql);
+            try {
+                select.setString(1, timedObjectId);
+                select.setString(2, nodeName);
+                result = readTimers(select);
+            } finally {
+                safeClose(select);
+            }
+            connection.commit();
+            final Map<String, TimerEntity> map = getTimers(timedObjectId);
+            final List<TimerEntity> added = new ArrayList<TimerEntity>();
+            for (TimerEntity entity : result) {
+                if (!map.containsKey(entity.getId())) {
+                    map.put(entity.getId(), entity);
+                    added.add(entity);
+                }
+                stored.add(key(timedObjectId, entity.getId()));
+            }
+            return added;
+        } catch (SQLException e) {
+            rollback(connection);
+            throw e;
+        } finally {
+            safeClose(connection);
+        }
+    }
+
+    private void renewLease(final Connection connection, final long now) throws SQLException {
+        final PreparedStatement heartbeat = connection.prepareStatement(heartbeatSql);
+        try {
+            heartbeat.setLong(1, now);
+            heartbeat.setString(2, nodeName);
+            if (heartbeat.executeUpdate() == 0) {
+                final PreparedStatement insert = connection.prepareStatement(insertNodeSql);
+                try {
+                    insert.setString(1, nodeName);
+                    insert.setLong(2, now);
+                    insert.executeUpdate();
+                } finally {
+                    safeClose(insert);
+                }
+            }
+        } finally {
+            safeClose(heartbeat);
+        }
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+        }
+        lastHeartbeat = now;
+    }
+
+    private static String key(final String timedObjectId, final String id) {
+        return timedObjectId + '\u0000' + id;
+    }
+
+    private static void createTableIfNotExists(final Connection connection, final String tableName, final String... ddl) throws SQLException {
+        final DatabaseMetaData metaData = connection.getMetaData();
+        final String name;
+        if (metaData.storesUpperCaseIdentifiers()) {
+            name = tableName.toUpperCase(Locale.ENGLISH);
+        } else if (metaData.storesLowerCaseIdentifiers()) {
+            name = tableName.toLowerCase(Locale.ENGLISH);
+        } else {
+            name = tableName;
+        }
+        final ResultSet tables = metaData.getTables(null, null, name, null);
+        try {
+            if (tables.next()) {
+                return;
+            }
+        } finally {
+            safeClose(tables);
+        }
+        logger.infof("Creating timer table %s", tableName);
+        final Statement statement = connection.createStatement();
+        try {
+            for (String sql : ddl) {
+                statement.executeUpdate(sql);
+            }
+        } finally {
+            safeClose(statement);
+        }
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+        }
+    }
+
+    private List<TimerEntity> readTimers(final PreparedStatement statement) throws SQLException {
+        final List<TimerEntity> result = new ArrayList<TimerEntity>();
+        final ResultSet resultSet = statement.executeQuery();
+        try {
+            final Unmarshaller unmarshaller = createUnmarshaller();
+            while (resultSet.next()) {
+                final byte[] data = resultSet.getBytes(1);
+                try {
+                    unmarshaller.start(new InputStreamByteInput(new ByteArrayInputStream(data)));
+                    result.add(unmarshaller.readObject(TimerEntity.class));
+                    unmarshaller.finish();
+                } catch (Exception e) {
+                    logger.error("Could not restore timer from " + tableName, e);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            safeClose(resultSet);
+        }
+        return result;
+    }
+
+    private byte[] marshall(final TimerEntity entity) throws IOException {
+        marshallerBuffer.reset();
+        marshaller.start(new OutputStreamByteOutput(marshallerBuffer));
+        marshaller.writeObject(entity);
+        marshaller.finish();
+        return marshallerBuffer.toByteArray();
+    }
+
+    private static void rollback(final Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            logger.error("Could not roll back timer changes", e);
+        }
+    }
+
+    private static void safeClose(final Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.error("error closing connection ", e);
+        }
+    }
+
+    private static void safeClose(final Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            logger.error("error closing statement ", e);
+        }
+    }
+
+    private static void safeClose(final ResultSet resultSet) {
+        try {
+            resultSet.close();
+        } catch (SQLException e) {
+            logger.error("error closing result set ", e);
+        }
+    }
+
+    @Override
+    protected void writeBatch(final List<Request> batch) throws SQLException {
+        // whether a timer has a row once this batch is committed
+        final Map<String, Boolean> changes = new HashMap<String, Boolean>();
+        final Connection connection = dataSource.getValue().getConnection();
+        try {
+            connection.setAutoCommit(false);
+            final PreparedStatement insert = connection.prepareStatement(insertSql);
+            final PreparedStatement update = connection.prepareStatement(updateSql);
+            final PreparedStatement delete = connection.prepareStatement(deleteSql);
+            try {
+                // keys in the statement batches which have not been executed yet
+                final Map<String, Boolean> pending = new HashMap<String, Boolean>();
+                final List<Request> updates = new ArrayList<Request>();
+                final List<Request> deletes = new ArrayList<Request>();
+                for (Request request : batch) {
+                    if (request.getType() == FLUSH) {
+                        continue;
+                    }
+                    final TimerEntity entity = request.getEntity();
+                    final String key = key(entity.getTimedObjectId(), entity.getId());
+                    if (pending.containsKey(key)) {
+                        // a second change of the same timer has to wait for the first one
+                        executeBatches(insert, update, updates, delete, deletes);
+                        pending.clear();
+                    }
+                    final Boolean change = changes.get(key);
+                    final boolean exists = change != null ? change : stored.contains(key);
+                    if (request.getType() == PERSIST) {
+                        final byte[] data;
+                        try {
+                            data = marshall(entity);
+                        } catch (IOException e) {
+                            request.fail(e);
+                            continue;
+                        } catch (RuntimeException e) {
+                            request.fail(e);
+                            continue;
+                        }
+                        if (exists) {
+                            setNextDate(update, 1, entity);
+                            update.setBytes(2, data);
+                            update.setString(3, entity.getId());
+                            update.setString(4, entity.getTimedObjectId());
+                            update.setString(5, nodeName);
+                            update.addBatch();
+                            updates.add(request);
+                        } else {
+                            insert.setString(1, entity.getId());
+                            insert.setString(2, entity.getTimedObjectId());
+                            insert.setString(3, nodeName);
+                            setNextDate(insert, 4, entity);
+                            insert.setBytes(5, data);
+                            insert.addBatch();
+                        }
+                        changes.put(key, Boolean.TRUE);
+                    } else {
+                        if (exists) {
+                            delete.setString(1, entity.getId());
+                            delete.setString(2, entity.getTimedObjectId());
+                            delete.setString(3, nodeName);
+                            delete.addBatch();
+                            deletes.add(request);
+                        }
+                        changes.put(key, Boolean.FALSE);
+                    }
+                    pending.put(key, Boolean.TRUE);
+                }
+                executeBatches(insert, update, updates, delete, deletes);
+                connection.commit();
+            } catch (SQLException e) {
+                rollback(connection);
+                throw e;
+            } finally {
+                safeClose(insert);
+                safeClose(update);
+                safeClose(delete);
+            }
+        } finally {
+            safeClose(connection);
+        }
+        for (Map.Entry<String, Boolean> change : changes.entrySet()) {
+            if (change.getValue()) {
+                stored.add(change.getKey());
+            } else {
+                stored.remove(change.getKey());
+            }
+        }
+    }
+
+    private void executeBatches(final PreparedStatement insert, final PreparedStatement update, final List<Request> updates,
+                                final PreparedStatement delete, final List<Request> deletes) throws SQLException {
+        insert.executeBatch();
+        failNotOwned(update.executeBatch(), updates);
+        failNotOwned(delete.executeBatch(), deletes);
+        updates.clear();
+        deletes.clear();
+    }
+
+    /**
+     * Fail the changes which did not find a row owned by this node, because another node has taken over the timer.
+     */
+    private void failNotOwned(final int[] counts, final List<Request> requests) {
+        for (int i = 0; i < counts.length && i < requests.size(); i++) {
+            if (counts[i] == 0) {
+                final TimerEntity entity = requests.get(i).getEntity();
+                requests.get(i).fail(new IllegalStateException("Timer " + entity.getId() + " of " + entity.getTimedObjectId()
+                        + " is no longer owned by node " + nodeName + " in " + tableName));
+            }
+        }
+    }
+
+    private static void setNextDate(final PreparedStatement statement, final int index, final TimerEntity entity) throws SQLException {
+        if (entity.getNextDate() == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, entity.getNextDate().getTime());
+        }
+    }
+
+    /**
+     * Renews the lease of this node, and claims the timers of the deployed timed objects which have been released or
+     * whose owner has lost its lease.
+     */
+    private final class LeaseTask implements Runnable {
+
+        @Override
+        public void run() {
+            final long now = System.currentTimeMillis();
+            try {
+                final Connection connection = dataSource.getValue().getConnection();
+                try {
+                    if (now - lastHeartbeat > leaseTimeout) {
+                        logger.warn("The lease of node " + nodeName + " on " + tableName + " has not been renewed for "
+                                + (now - lastHeartbeat) + "ms, its timers may have been taken over by other nodes");
+                    }
+                    renewLease(connection, now);
+                } finally {
+                    safeClose(connection);
+                }
+            } catch (SQLException e) {
+                logger.error("Could not renew the lease of node " + nodeName + " on " + tableName, e);
+                // claiming timers without a lease would only hand them back and forth
+                return;
+            }
+            for (Map.Entry<String, ClaimedTimersListener> entry : listeners.entrySet()) {
+                final String timedObjectId = entry.getKey();
+                final List<TimerEntity> claimed;
+                final Lock lock = getLock(timedObjectId);
+                try {
+                    lock.lock();
+                    claimed = claimTimers(timedObjectId);
+                } catch (SQLException e) {
+                    logger.error("Could not claim timers of " + timedObjectId + " from " + tableName, e);
+                    continue;
+                } catch (RuntimeException e) {
+                    logger.error("Could not claim timers of " + timedObjectId + " from " + tableName, e);
+                    continue;
+                } finally {
+                    lock.unlock();
+                }
+                if (!claimed.isEmpty()) {
+                    logger.infof("Node %s took over %d timers of %s", nodeName, claimed.size(), timedObjectId);
+                    try {
+                        entry.getValue().timersClaimed(claimed);
+                    } catch (RuntimeException e) {
+                        logger.error("Could not start the timers of " + timedObjectId + " taken over by node " + nodeName, e);
+                    }
+                }
+            }
+        }
+    }
+
+    public InjectedValue<DataSource> getDataSource() {
+        return dataSource;
+    }
+}
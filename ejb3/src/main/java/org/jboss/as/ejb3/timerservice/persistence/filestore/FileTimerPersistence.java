@@ -201,6 +201,15 @@ public class FileTimerPersistence implements TimerPersistence, Service<FileTimer
         }
     }
 
+    @Override
+    public void addClaimedTimersListener(final String timedObjectId, final ClaimedTimersListener listener) {
+        // the files are never shared, so there are no timers to take over
+    }
+
+    @Override
+    public void removeClaimedTimersListener(final String timedObjectId) {
+    }
+
     private Lock getLock(final String timedObjectId) {
         Lock lock = locks.get(timedObjectId);
         if (lock == null) {
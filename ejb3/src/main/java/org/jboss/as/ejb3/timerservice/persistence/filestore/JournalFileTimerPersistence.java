@@ -0,0 +1,458 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.jboss.as.ejb3.timerservice.persistence.BatchingTimerPersistence;
+import org.jboss.as.ejb3.timerservice.persistence.TimerEntity;
+import org.jboss.logging.Logger;
+import org.jboss.marshalling.InputStreamByteInput;
+import org.jboss.marshalling.Marshaller;
+import org.jboss.marshalling.OutputStreamByteOutput;
+import org.jboss.marshalling.Unmarshaller;
+import org.jboss.msc.service.Service;
+import org.jboss.msc.service.StartContext;
+import org.jboss.msc.service.StopContext;
+import org.jboss.msc.value.InjectedValue;
+
+/**
+ * Persistent timer store which appends every change to a single journal file, instead of writing
+ * one file per timer like {@link FileTimerPersistence}.
+ * <p/>
+ * Every batch of changes the writer thread drains is synced with a single fsync (group commit). Once the journal contains much more records than there are active
+ * timers, it is compacted by writing the active timers to a new journal which replaces the old one once it
+ * is on disk. A compaction interrupted by a crash is completed or rolled back at the next start.
+ * <p/>
+ * At startup the journal is read sequentially with a single unmarshaller. If there is no journal yet, the
+ * timers of a {@link FileTimerPersistence} store in the same directory are imported and their files deleted.
+ * <p/>
+ * Every record consists of its type, the length and CRC32 of its payload, and the payload. A record which
+ * has not been completely written, e.g. because of a crash, ends the journal.
+ */
+public class JournalFileTimerPersistence extends BatchingTimerPersistence implements Service<JournalFileTimerPersistence> {
+
+    static final String JOURNAL_FILE_NAME = "timers.journal";
+
+    /**
+     * The journal is only compacted once it contains at least this many records
+     */
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 10000;
+    private static final int MAX_BATCH_SIZE = 4096;
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+    private static final Logger logger = Logger.getLogger(JournalFileTimerPersistence.class);
+
+    private final boolean createIfNotExists;
+    private final int compactionThreshold;
+    private final InjectedValue<String> baseDir = new InjectedValue<String>();
+
+    // only accessed by the writer thread, or by the service lifecycle while the writer thread is not running
+    private File journalFile;
+    private FileOutputStream journalOutputStream;
+    private DataOutputStream journalOutput;
+    private Marshaller marshaller;
+    private int journalRecords;
+    private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream(512);
+    private final CRC32 crc = new CRC32();
+
+    public JournalFileTimerPersistence(final boolean createIfNotExists) {
+        this(createIfNotExists, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    public JournalFileTimerPersistence(final boolean createIfNotExists, final int compactionThreshold) {
+        super(MAX_BATCH_SIZE);
+        this.createIfNotExists = createIfNotExists;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    @Override
+    public synchronized void start(final StartContext context) {
+        startMarshalling();
+        final File baseDir = new File(this.baseDir.getValue());
+        if (!baseDir.exists()) {
+            if (createIfNotExists) {
+                if (!baseDir.mkdirs()) {
+                    throw new RuntimeException("Could not create timer file store directory " + baseDir);
+                }
+            } else {
+                throw new RuntimeException("Timer file store directory " + baseDir + " does not exist");
+            }
+        }
+        if (!baseDir.isDirectory()) {
+            throw new RuntimeException("Timer file store directory " + baseDir + " is not a directory");
+        }
+        journalFile = new File(baseDir, JOURNAL_FILE_NAME);
+        final List<File> imported = new ArrayList<File>();
+        try {
+            marshaller = createMarshaller();
+            recoverRenamedJournal();
+            if (journalFile.exists()) {
+                readJournal();
+            } else {
+                importFileStore(baseDir, imported);
+            }
+            // start with a compacted journal, which also drops an incomplete record at its end
+            compact();
+        } catch (IOException e) {
+            closeJournal();
+            throw new RuntimeException("Could not open timer journal " + journalFile, e);
+        }
+        for (File file : imported) {
+            if (!file.delete()) {
+                logger.warn("Could not delete imported timer file " + file);
+            }
+        }
+
+        startWriter("EJB timer journal writer");
+    }
+
+    @Override
+    public synchronized void stop(final StopContext context) {
+        stopWriter();
+        closeJournal();
+        clear();
+        marshaller = null;
+    }
+
+    @Override
+    public JournalFileTimerPersistence getValue() throws IllegalStateException, IllegalArgumentException {
+        return this;
+    }
+
+    @Override
+    public TimerEntity loadTimer(final String id, final String timedObjectId) {
+        final Map<String, TimerEntity> timers = getTimersIfPresent(timedObjectId);
+        return timers == null ? null : timers.get(id);
+    }
+
+    @Override
+    public List<TimerEntity> loadActiveTimers(final String timedObjectId) {
+        final Map<String, TimerEntity> timers = getTimersIfPresent(timedObjectId);
+        return timers == null ? new ArrayList<TimerEntity>() : new ArrayList<TimerEntity>(timers.values());
+    }
+
+    @Override
+    public void addClaimedTimersListener(final String timedObjectId, final ClaimedTimersListener listener) {
+        // the journal is never shared, so there are no timers to take over
+    }
+
+    @Override
+    public void removeClaimedTimersListener(final String timedObjectId) {
+    }
+
+    @Override
+    protected String getStoreName() {
+        return String.valueOf(journalFile);
+    }
+
+    @Override
+    protected void writeBatch(final List<Request> batch) throws IOException {
+        for (Request request : batch) {
+            if (request.getType() == FLUSH) {
+                continue;
+            }
+            try {
+                writeRecord(journalOutput, request.getType(), request.getEntity());
+                journalRecords++;
+            } catch (IOException e) {
+                request.fail(e);
+            } catch (RuntimeException e) {
+                request.fail(e);
+            }
+        }
+        journalOutput.flush();
+        journalOutputStream.getFD().sync();
+    }
+
+    @Override
+    protected void afterBatch() {
+        if (journalRecords > compactionThreshold && journalRecords > 2 * getActiveTimerCount()) {
+            try {
+                compact();
+            } catch (IOException e) {
+                logger.error("Could not compact timer journal " + journalFile, e);
+            }
+        }
+    }
+
+    private void readJournal() throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journalFile), 64 * 1024));
+        int records = 0;
+        try {
+            final Unmarshaller unmarshaller = createUnmarshaller();
+            for (;;) {
+                final int type = in.read();
+                if (type == -1) {
+                    break;
+                }
+                final byte[] payload;
+                try {
+                    final int length = in.readInt();
+                    final int checksum = in.readInt();
+                    if (length < 0 || length > MAX_RECORD_SIZE) {
+                        logger.warn("Invalid record length " + length + " in timer journal " + journalFile + ", ignoring the rest of the journal");
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                    if (checksum != checksum((byte) type, payload)) {
+                        logger.warn("Checksum mismatch in timer journal " + journalFile + ", ignoring the rest of the journal");
+                        break;
+                    }
+                } catch (EOFException e) {
+                    logger.warn("Incomplete record at the end of timer journal " + journalFile + " is ignored");
+                    break;
+                }
+                records++;
+                try {
+                    if (type == PERSIST) {
+                        unmarshaller.start(new InputStreamByteInput(new ByteArrayInputStream(payload)));
+                        final TimerEntity entity = unmarshaller.readObject(TimerEntity.class);
+                        unmarshaller.finish();
+                        getTimers(entity.getTimedObjectId()).put(entity.getId(), entity);
+                    } else if (type == REMOVE) {
+                        final DataInputStream data = new DataInputStream(new ByteArrayInputStream(payload));
+                        final String timedObjectId = data.readUTF();
+                        final String id = data.readUTF();
+                        getTimers(timedObjectId).remove(id);
+                    } else {
+                        logger.warn("Unknown record type " + type + " in timer journal " + journalFile + " is ignored");
+                    }
+                } catch (Exception e) {
+                    logger.error("Could not restore timer from journal " + journalFile, e);
+                }
+            }
+        } finally {
+            safeClose(in);
+        }
+        logger.debugf("Read %d records with %d active timers from %s", records, getActiveTimerCount(), journalFile);
+    }
+
+    /**
+     * Import the timers of a {@link FileTimerPersistence} store, which has one directory per timed object.
+     */
+    private void importFileStore(final File baseDir, final List<File> imported) throws IOException {
+        final File[] directories = baseDir.listFiles();
+        if (directories == null) {
+            return;
+        }
+        final Unmarshaller unmarshaller = createUnmarshaller();
+        for (File directory : directories) {
+            final File[] files = directory.listFiles();
+            if (!directory.isDirectory() || files == null) {
+                continue;
+            }
+            for (File timerFile : files) {
+                final FileInputStream in = new FileInputStream(timerFile);
+                try {
+                    unmarshaller.start(new InputStreamByteInput(in));
+                    final TimerEntity entity = unmarshaller.readObject(TimerEntity.class);
+                    unmarshaller.finish();
+                    getTimers(entity.getTimedObjectId()).put(entity.getId(), entity);
+                    imported.add(timerFile);
+                } catch (Exception e) {
+                    logger.error("Could not import timer from " + timerFile, e);
+                } finally {
+                    safeClose(in);
+                }
+            }
+        }
+        if (!imported.isEmpty()) {
+            logger.infof("Importing %d persistent timers from %s into timer journal", imported.size(), baseDir);
+        }
+    }
+
+    /**
+     * Replace the journal with one that only contains the active timers.
+     * <p/>
+     * The compacted journal is written and synced to a separate file first, and only then renamed over the
+     * journal. If the journal cannot be replaced, the compacted file is dropped and the old journal, which is
+     * still complete, stays in use.
+     */
+    private void compact() throws IOException {
+        final File compacted = getCompactedFile();
+        final FileOutputStream fileOut = new FileOutputStream(compacted, false);
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 64 * 1024));
+        int records = 0;
+        boolean written = false;
+        try {
+            for (Map<String, TimerEntity> map : getAllTimers().values()) {
+                for (TimerEntity entity : map.values()) {
+                    writeRecord(out, PERSIST, entity);
+                    records++;
+                }
+            }
+            out.flush();
+            fileOut.getFD().sync();
+            written = true;
+        } finally {
+            safeClose(out);
+            if (!written) {
+                deleteFile(compacted);
+            }
+        }
+        closeJournal();
+        try {
+            replaceJournal(compacted);
+            journalRecords = records;
+        } catch (IOException e) {
+            deleteFile(compacted);
+            throw e;
+        } finally {
+            // either the compacted journal, or the old one if it could not be replaced
+            openJournal();
+        }
+    }
+
+    /**
+     * Rename the synced compacted journal to the journal. File.renameTo does not replace an existing file on
+     * every platform, in which case the old journal is moved aside first and moved back if the compacted
+     * journal cannot take its place.
+     */
+    private void replaceJournal(final File compacted) throws IOException {
+        if (compacted.renameTo(journalFile)) {
+            return;
+        }
+        final File old = getOldFile();
+        if (!journalFile.renameTo(old)) {
+            throw new IOException("Could not rename " + journalFile + " to " + old);
+        }
+        if (!compacted.renameTo(journalFile)) {
+            if (!old.renameTo(journalFile)) {
+                // recoverRenamedJournal moves it back on the next start
+                throw new IOException("Could not rename " + compacted + " or " + old + " to " + journalFile);
+            }
+            throw new IOException("Could not rename " + compacted + " to " + journalFile);
+        }
+        deleteFile(old);
+    }
+
+    /**
+     * Clean up after a compaction which has been interrupted by a crash. A compacted journal is complete as soon as
+     * the journal has been moved aside, so it is used if there is no journal; otherwise it may be incomplete and the
+     * journal is used.
+     */
+    private void recoverRenamedJournal() throws IOException {
+        final File compacted = getCompactedFile();
+        final File old = getOldFile();
+        if (!journalFile.exists()) {
+            if (compacted.exists() && old.exists()) {
+                logger.infof("Recovering compacted timer journal %s", compacted);
+                if (!compacted.renameTo(journalFile)) {
+                    throw new IOException("Could not rename " + compacted + " to " + journalFile);
+                }
+            } else if (old.exists()) {
+                logger.infof("Recovering timer journal %s", old);
+                if (!old.renameTo(journalFile)) {
+                    throw new IOException("Could not rename " + old + " to " + journalFile);
+                }
+            }
+        }
+        if (compacted.exists()) {
+            deleteFile(compacted);
+        }
+        if (old.exists()) {
+            deleteFile(old);
+        }
+    }
+
+    private File getCompactedFile() {
+        return new File(journalFile.getPath() + ".compact");
+    }
+
+    private File getOldFile() {
+        return new File(journalFile.getPath() + ".old");
+    }
+
+    private void openJournal() throws IOException {
+        journalOutputStream = new FileOutputStream(journalFile, true);
+        journalOutput = new DataOutputStream(new BufferedOutputStream(journalOutputStream, 64 * 1024));
+    }
+
+    private static void deleteFile(final File file) {
+        if (!file.delete()) {
+            logger.warn("Could not delete " + file);
+        }
+    }
+
+    private void writeRecord(final DataOutputStream out, final byte type, final TimerEntity entity) throws IOException {
+        recordBuffer.reset();
+        if (type == PERSIST) {
+            marshaller.start(new OutputStreamByteOutput(recordBuffer));
+            marshaller.writeObject(entity);
+            marshaller.finish();
+        } else {
+            final DataOutputStream data = new DataOutputStream(recordBuffer);
+            data.writeUTF(entity.getTimedObjectId());
+            data.writeUTF(entity.getId());
+            data.flush();
+        }
+        final byte[] payload = recordBuffer.toByteArray();
+        out.writeByte(type);
+        out.writeInt(payload.length);
+        out.writeInt(checksum(type, payload));
+        out.write(payload);
+    }
+
+    private int checksum(final byte type, final byte[] payload) {
+        crc.reset();
+        crc.update(type);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private void closeJournal() {
+        if (journalOutput != null) {
+            safeClose(journalOutput);
+            journalOutput = null;
+            journalOutputStream = null;
+        }
+    }
+
+    private static void safeClose(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            logger.error("error closing file ", e);
+        }
+    }
+
+    public InjectedValue<String> getBaseDir() {
+        return baseDir;
+    }
+}
@@ -36,6 +36,9 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * CalendarBasedTimeout
@@ -50,6 +53,19 @@ public class CalendarBasedTimeout {
      */
     private static final Logger logger = Logger.getLogger(CalendarBasedTimeout.class);
 
+    /**
+     * Upper bound for the number of distinct schedules whose last computed timeout is shared
+     */
+    private static final int MAX_SHARED_SCHEDULES = 10000;
+
+    /**
+     * The last computed timeout of every schedule, shared by all {@link CalendarBasedTimeout}s with the same schedule.
+     * Timers with the same schedule mostly fire at the same time, so only the first of them has to compute the
+     * next timeout. Cleared by {@link #clearSharedTimeouts()} whenever a timer service stops, so that it does not
+     * outlive the deployments whose schedules it holds.
+     */
+    private static final ConcurrentMap<String, AtomicReference<ComputedTimeout>> computedTimeouts = new ConcurrentHashMap<String, AtomicReference<ComputedTimeout>>();
+
     /**
      * The {@link javax.ejb.ScheduleExpression} from which this {@link CalendarBasedTimeout}
      * was created
@@ -102,6 +118,11 @@ public class CalendarBasedTimeout {
      */
     private TimeZone timezone;
 
+    /**
+     * The last computed timeout of this schedule
+     */
+    private AtomicReference<ComputedTimeout> lastComputedTimeout;
+
     /**
      * Creates a {@link CalendarBasedTimeout} from the passed <code>schedule</code>.
      * <p>
@@ -156,6 +177,8 @@ public class CalendarBasedTimeout {
             this.timezone = TimeZone.getDefault();
         }
 
+        this.lastComputedTimeout = getComputedTimeoutReference(this.scheduleExpression, this.timezone);
+
         // Now that we have parsed the values from the ScheduleExpression,
         // determine and set the first timeout (relative to the current time)
         // of this CalendarBasedTimeout
@@ -234,7 +257,34 @@ public class CalendarBasedTimeout {
         return this.scheduleExpression;
     }
 
+    /**
+     * Returns the first timeout after <code>currentCal</code>, or null if there are no more timeouts.
+     * <p/>
+     * The last computed timeout of a schedule is cached: it is also the next timeout for every time between the time
+     * it was computed for and the timeout itself, which is what all timers with the same schedule ask for when they
+     * fire at the same time.
+     *
+     * @param currentCal The time after which the next timeout is searched
+     * @return The next timeout
+     */
     public Calendar getNextTimeout(Calendar currentCal) {
+        final long current = currentCal.getTimeInMillis();
+        final TimeZone zone = currentCal.getTimeZone();
+        final ComputedTimeout computed = this.lastComputedTimeout.get();
+        if (computed != null && computed.isNextTimeout(current, zone)) {
+            final Calendar nextCal = new GregorianCalendar(zone);
+            nextCal.setTimeInMillis(computed.timeout);
+            nextCal.setFirstDayOfWeek(Calendar.SUNDAY);
+            return nextCal;
+        }
+        final Calendar nextCal = this.computeNextTimeout(currentCal);
+        if (nextCal != null) {
+            this.lastComputedTimeout.set(new ComputedTimeout(current, nextCal.getTimeInMillis(), zone));
+        }
+        return nextCal;
+    }
+
+    private Calendar computeNextTimeout(Calendar currentCal) {
         if (this.noMoreTimeouts(currentCal)) {
             return null;
         }
@@ -786,6 +836,68 @@ public class CalendarBasedTimeout {
         }
     }
 
+    /**
+     * Stop sharing the computed timeouts of the existing {@link CalendarBasedTimeout}s. Each of them keeps its own last
+     * computed timeout, only new ones no longer share it with them.
+     */
+    public static void clearSharedTimeouts() {
+        computedTimeouts.clear();
+    }
+
+    private static AtomicReference<ComputedTimeout> getComputedTimeoutReference(ScheduleExpression schedule, TimeZone timezone) {
+        final StringBuilder key = new StringBuilder();
+        key.append(schedule.getSecond()).append(' ')
+                .append(schedule.getMinute()).append(' ')
+                .append(schedule.getHour()).append(' ')
+                .append(schedule.getDayOfMonth()).append(' ')
+                .append(schedule.getMonth()).append(' ')
+                .append(schedule.getDayOfWeek()).append(' ')
+                .append(schedule.getYear()).append(' ')
+                .append(timezone.getID()).append(' ')
+                .append(schedule.getStart() == null ? "" : String.valueOf(schedule.getStart().getTime())).append(' ')
+                .append(schedule.getEnd() == null ? "" : String.valueOf(schedule.getEnd().getTime()));
+        final String id = key.toString();
+        AtomicReference<ComputedTimeout> reference = computedTimeouts.get(id);
+        if (reference == null) {
+            reference = new AtomicReference<ComputedTimeout>();
+            if (computedTimeouts.size() < MAX_SHARED_SCHEDULES) {
+                final AtomicReference<ComputedTimeout> existing = computedTimeouts.putIfAbsent(id, reference);
+                if (existing != null) {
+                    reference = existing;
+                }
+            }
+        }
+        return reference;
+    }
+
+    /**
+     * A timeout which has been computed for a given time.
+     */
+    private static final class ComputedTimeout {
+        private final long computedFor;
+        private final long timeout;
+        private final TimeZone zone;
+
+        ComputedTimeout(final long computedFor, final long timeout, final TimeZone zone) {
+            this.computedFor = computedFor;
+            this.timeout = timeout;
+            this.zone = zone;
+        }
+
+        /**
+         * Whether the timeout is also the next timeout after <code>current</code>. The search for the next timeout
+         * starts at the second after the current time, so that has to be within the range which has already been
+         * searched.
+         */
+        boolean isNextTimeout(final long current, final TimeZone currentZone) {
+            if (current < computedFor || !zone.getID().equals(currentZone.getID())) {
+                return false;
+            }
+            final long nextSecond = current - ((current % 1000) + 1000) % 1000 + 1000;
+            return nextSecond <= timeout;
+        }
+    }
+
     private ScheduleExpression clone(ScheduleExpression schedule) {
         // clone the schedule
         ScheduleExpression clonedSchedule = new ScheduleExpression();
@@ -126,15 +126,6 @@ public class Hour extends IntegerBasedExpression {
         if (this.absoluteValues.isEmpty()) {
             return null;
         }
-        int currentHour = currentCal.get(Calendar.HOUR_OF_DAY);
-        for (Integer hour : this.absoluteValues) {
-            if (currentHour == hour) {
-                return currentHour;
-            }
-            if (hour > currentHour) {
-                return hour;
-            }
-        }
-        return this.absoluteValues.first();
+        return this.getNextAbsoluteValue(currentCal.get(Calendar.HOUR_OF_DAY));
     }
 }
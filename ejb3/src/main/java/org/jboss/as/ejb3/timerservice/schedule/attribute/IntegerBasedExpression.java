@@ -61,6 +61,11 @@ public abstract class IntegerBasedExpression {
 
     protected final String origValue;
 
+    /**
+     * The next absolute value for every possible value, see {@link #getNextAbsoluteValue(int)}
+     */
+    private volatile int[] nextAbsoluteValues;
+
     public IntegerBasedExpression(String value) {
         this.origValue = value;
         // check the type of value
@@ -214,4 +219,28 @@ public abstract class IntegerBasedExpression {
 
     public abstract boolean isRelativeValue(String value);
 
+    /**
+     * Returns the smallest absolute value which is equal to or larger than <code>current</code>, or the smallest
+     * absolute value if there is none. The result for every possible value is computed once, so that computing the
+     * next timeout does not have to walk the absolute values on every timeout.
+     * <p/>
+     * Must only be called if there are absolute values.
+     *
+     * @param current A value between the minimum and maximum value of this attribute
+     */
+    protected Integer getNextAbsoluteValue(int current) {
+        int[] next = this.nextAbsoluteValues;
+        final int min = this.getMinValue();
+        if (next == null) {
+            final int max = this.getMaxValue();
+            next = new int[max - min + 1];
+            for (int value = min; value <= max; value++) {
+                final SortedSet<Integer> tail = this.absoluteValues.tailSet(value);
+                next[value - min] = tail.isEmpty() ? this.absoluteValues.first() : tail.first();
+            }
+            this.nextAbsoluteValues = next;
+        }
+        return next[current - min];
+    }
+
 }
@@ -137,15 +137,6 @@ public class Minute extends IntegerBasedExpression {
         if (this.absoluteValues.isEmpty()) {
             return null;
         }
-        int currentMinute = currentCal.get(Calendar.MINUTE);
-        for (Integer minute : this.absoluteValues) {
-            if (currentMinute == minute) {
-                return currentMinute;
-            }
-            if (minute > currentMinute) {
-                return minute;
-            }
-        }
-        return this.absoluteValues.first();
+        return this.getNextAbsoluteValue(currentCal.get(Calendar.MINUTE));
     }
 }
@@ -81,16 +81,7 @@ public class Second extends IntegerBasedExpression {
         if (this.absoluteValues.isEmpty()) {
             return null;
         }
-        int currentSecond = currentCal.get(Calendar.SECOND);
-        for (Integer second : this.absoluteValues) {
-            if (currentSecond == second) {
-                return currentSecond;
-            }
-            if (second > currentSecond) {
-                return second;
-            }
-        }
-        return this.absoluteValues.first();
+        return this.getNextAbsoluteValue(currentCal.get(Calendar.SECOND));
     }
 
     public int getFirst() {
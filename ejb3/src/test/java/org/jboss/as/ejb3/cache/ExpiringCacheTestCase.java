@@ -0,0 +1,388 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ejb.NoSuchEJBException;
+
+import org.jboss.ejb.client.SessionID;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link ExpiringCache} and the {@link TimingWheel} it uses to expire its entries.
+ */
+public class ExpiringCacheTestCase {
+
+    private TimingWheel timingWheel;
+    private ExecutorService executor;
+    private final AtomicInteger destroyed = new AtomicInteger();
+
+    private static class MockBean implements Identifiable {
+        private final SessionID id;
+
+        MockBean() {
+            final UUID uuid = UUID.randomUUID();
+            ByteBuffer bb = ByteBuffer.wrap(new byte[16]);
+            bb.putLong(uuid.getMostSignificantBits());
+            bb.putLong(uuid.getLeastSignificantBits());
+            this.id = SessionID.createSessionID(bb.array());
+        }
+
+        @Override
+        public SessionID getId() {
+            return id;
+        }
+    }
+
+    /**
+     * Keeps the passivated state in a map, instead of marshalling it.
+     */
+    private static class MapPassivationStore implements PassivationStore {
+        final Map<SessionID, Object> passivated = new ConcurrentHashMap<SessionID, Object>();
+        volatile boolean fail;
+
+        @Override
+        public void passivate(final SessionID id, final Object state) throws IOException {
+            if (fail) {
+                throw new IOException("passivation failure");
+            }
+            passivated.put(id, state);
+        }
+
+        @Override
+        public Object activate(final SessionID id) throws IOException {
+            return passivated.remove(id);
+        }
+
+        @Override
+        public void remove(final SessionID id) {
+            passivated.remove(id);
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+            passivated.clear();
+        }
+    }
+
+    /**
+     * Uses the instance itself as its state and counts the callbacks.
+     */
+    private static class MockPassivator implements StatefulObjectPassivator<MockBean> {
+        final AtomicInteger prePassivated = new AtomicInteger();
+        final AtomicInteger postActivated = new AtomicInteger();
+
+        @Override
+        public Object prePassivate(final MockBean instance) {
+            prePassivated.incrementAndGet();
+            return instance;
+        }
+
+        @Override
+        public MockBean activate(final SessionID id, final Object state) {
+            final MockBean instance = (MockBean) state;
+            assertEquals(id, instance.getId());
+            postActivated.incrementAndGet();
+            return instance;
+        }
+
+        @Override
+        public void postActivate(final MockBean instance) {
+            postActivated.incrementAndGet();
+        }
+    }
+
+    private final MockPassivator passivator = new MockPassivator();
+
+    @Before
+    public void setUp() {
+        timingWheel = new TimingWheel("test expiration", 10, TimeUnit.MILLISECONDS, 8);
+        timingWheel.start();
+        executor = Executors.newCachedThreadPool();
+        destroyed.set(0);
+    }
+
+    @After
+    public void tearDown() {
+        timingWheel.stop();
+        executor.shutdownNow();
+    }
+
+    private ExpiringCache<MockBean> createCache(final long timeout) {
+        return createCache(timeout, -1, null);
+    }
+
+    private ExpiringCache<MockBean> createCache(final long timeout, final int maxSize, final PassivationStore store) {
+        return createCache(timeout, maxSize, store, new StatefulObjectFactory<MockBean>() {
+            @Override
+            public MockBean createInstance() {
+                return new MockBean();
+            }
+
+            @Override
+            public void destroyInstance(final MockBean instance) {
+                destroyed.incrementAndGet();
+            }
+        });
+    }
+
+    private ExpiringCache<MockBean> createCache(final long timeout, final int maxSize, final PassivationStore store, final StatefulObjectFactory<MockBean> factory) {
+        final ExpiringCache<MockBean> cache = new ExpiringCache<MockBean>(timeout, TimeUnit.MILLISECONDS, "MockBean", timingWheel, executor, maxSize, store, store != null ? passivator : null);
+        cache.setStatefulObjectFactory(factory);
+        cache.start();
+        return cache;
+    }
+
+    @Test
+    public void testInactiveInstanceExpires() throws Exception {
+        final ExpiringCache<MockBean> cache = createCache(50);
+        final MockBean bean = cache.create();
+        cache.release(bean);
+        assertEquals(1, cache.getCacheSize());
+
+        waitForExpiration(cache, 1);
+
+        assertEquals(0, cache.getCacheSize());
+        assertEquals(1, destroyed.get());
+        try {
+            cache.get(bean.getId());
+            fail("expected NoSuchEJBException");
+        } catch (NoSuchEJBException expected) {
+        }
+        cache.stop();
+    }
+
+    @Test
+    public void testInstanceInUseDoesNotExpire() throws Exception {
+        final ExpiringCache<MockBean> cache = createCache(20);
+        final MockBean bean = cache.create();
+        cache.release(bean);
+        assertSame(bean, cache.get(bean.getId()));
+
+        // the wheel has 8 slots of 10ms, so this covers more than one revolution
+        Thread.sleep(200);
+
+        assertEquals(1, cache.getCacheSize());
+        assertEquals(0, cache.getExpiredCount());
+        assertEquals(0, timingWheel.getPendingCount());
+
+        cache.release(bean);
+        waitForExpiration(cache, 1);
+        assertEquals(1, destroyed.get());
+        cache.stop();
+    }
+
+    @Test
+    public void testRemoveCancelsExpiration() throws Exception {
+        final ExpiringCache<MockBean> cache = createCache(1000);
+        final MockBean bean = cache.create();
+        cache.release(bean);
+        assertEquals(1, timingWheel.getPendingCount());
+
+        cache.remove(bean.getId());
+
+        assertEquals(0, timingWheel.getPendingCount());
+        assertEquals(0, cache.getCacheSize());
+        assertEquals(1, destroyed.get());
+        cache.stop();
+    }
+
+    @Test
+    public void testNoTimeout() throws Exception {
+        final ExpiringCache<MockBean> cache = createCache(-1);
+        final MockBean bean = cache.create();
+        cache.release(bean);
+
+        assertEquals(0, timingWheel.getPendingCount());
+        assertSame(bean, cache.get(bean.getId()));
+        cache.stop();
+    }
+
+    @Test
+    public void testManyInstances() throws Exception {
+        final ExpiringCache<MockBean> cache = createCache(30);
+        for (int i = 0; i < 10000; i++) {
+            cache.release(cache.create());
+        }
+        waitForExpiration(cache, 10000);
+        assertEquals(0, cache.getCacheSize());
+        assertEquals(10000, destroyed.get());
+        cache.stop();
+    }
+
+    @Test
+    public void testSlowDestroyDoesNotDelayOtherCaches() throws Exception {
+        final CountDownLatch destroying = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExpiringCache<MockBean> slow = createCache(20, -1, null, new StatefulObjectFactory<MockBean>() {
+            @Override
+            public MockBean createInstance() {
+                return new MockBean();
+            }
+
+            @Override
+            public void destroyInstance(final MockBean instance) {
+                destroying.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        final ExpiringCache<MockBean> cache = createCache(20);
+        try {
+            slow.release(slow.create());
+            slow.release(slow.create());
+            assertTrue(destroying.await(5, TimeUnit.SECONDS));
+
+            // the wheel thread and the other cache are not held up by the blocked pre-destroy
+            cache.release(cache.create());
+            waitForExpiration(cache, 1);
+            assertEquals(1, destroyed.get());
+
+            // the expiration of the slow cache runs one instance at a time
+            assertEquals(0, slow.getExpiredCount());
+        } finally {
+            release.countDown();
+        }
+        waitForExpiration(slow, 2);
+        slow.stop();
+        cache.stop();
+    }
+
+    @Test
+    public void testLeastRecentlyUsedInstancesArePassivated() throws Exception {
+        final MapPassivationStore store = new MapPassivationStore();
+        final ExpiringCache<MockBean> cache = createCache(-1, 2, store);
+        final MockBean[] beans = new MockBean[5];
+        for (int i = 0; i < beans.length; i++) {
+            beans[i] = cache.create();
+            cache.release(beans[i]);
+        }
+        assertEquals(5, cache.getCacheSize());
+        assertEquals(3, cache.getPassivatedCount());
+        assertTrue(store.passivated.containsKey(beans[0].getId()));
+        assertTrue(store.passivated.containsKey(beans[1].getId()));
+        assertTrue(store.passivated.containsKey(beans[2].getId()));
+        assertEquals(3, passivator.prePassivated.get());
+
+        // activating the oldest instance passivates the least recently used in-memory one once it is released
+        assertSame(beans[0], cache.get(beans[0].getId()));
+        assertEquals(2, cache.getPassivatedCount());
+        assertFalse(store.passivated.containsKey(beans[0].getId()));
+        assertEquals(1, passivator.postActivated.get());
+        cache.release(beans[0]);
+        assertEquals(3, cache.getPassivatedCount());
+        assertTrue(store.passivated.containsKey(beans[3].getId()));
+        assertEquals(0, destroyed.get());
+
+        cache.stop();
+        assertTrue(store.passivated.isEmpty());
+    }
+
+    @Test
+    public void testPassivatedInstanceExpires() throws Exception {
+        final MapPassivationStore store = new MapPassivationStore();
+        final ExpiringCache<MockBean> cache = createCache(50, 0, store);
+        final MockBean bean = cache.create();
+        cache.release(bean);
+        assertEquals(1, cache.getPassivatedCount());
+
+        waitForExpiration(cache, 1);
+
+        assertEquals(0, cache.getCacheSize());
+        assertEquals(0, cache.getPassivatedCount());
+        assertTrue(store.passivated.isEmpty());
+        // passivated instances are discarded without being activated
+        assertEquals(0, destroyed.get());
+        try {
+            cache.get(bean.getId());
+            fail("expected NoSuchEJBException");
+        } catch (NoSuchEJBException expected) {
+        }
+        cache.stop();
+    }
+
+    @Test
+    public void testFailedPassivationKeepsInstance() throws Exception {
+        final MapPassivationStore store = new MapPassivationStore();
+        store.fail = true;
+        final ExpiringCache<MockBean> cache = createCache(-1, 0, store);
+        final MockBean bean = cache.create();
+        cache.release(bean);
+
+        assertEquals(0, cache.getPassivatedCount());
+        // the instance stays in memory, so it is told that it is active again
+        assertEquals(1, passivator.prePassivated.get());
+        assertEquals(1, passivator.postActivated.get());
+        assertSame(bean, cache.get(bean.getId()));
+        cache.stop();
+    }
+
+    @Test
+    public void testDiscardRemovesPassivatedInstance() throws Exception {
+        final MapPassivationStore store = new MapPassivationStore();
+        final ExpiringCache<MockBean> cache = createCache(1000, 0, store);
+        final MockBean bean = cache.create();
+        cache.release(bean);
+        assertEquals(1, cache.getPassivatedCount());
+
+        cache.discard(bean.getId());
+
+        assertEquals(0, cache.getCacheSize());
+        assertEquals(0, cache.getPassivatedCount());
+        assertEquals(0, timingWheel.getPendingCount());
+        assertTrue(store.passivated.isEmpty());
+        cache.stop();
+    }
+
+    private static void waitForExpiration(final ExpiringCache<?> cache, final int expected) throws InterruptedException {
+        final long end = System.currentTimeMillis() + 5000;
+        while (cache.getExpiredCount() < expected && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, cache.getExpiredCount());
+    }
+}
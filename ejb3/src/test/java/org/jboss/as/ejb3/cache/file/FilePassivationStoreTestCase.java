@@ -0,0 +1,117 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.cache.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.jboss.ejb.client.SessionID;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests {@link FilePassivationStore}.
+ */
+public class FilePassivationStoreTestCase {
+
+    private File directory;
+    private FilePassivationStore store;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("passivation", "");
+        assertTrue(directory.delete());
+        store = new FilePassivationStore(directory, FilePassivationStoreTestCase.class.getClassLoader());
+        store.start();
+    }
+
+    @After
+    public void tearDown() {
+        store.stop();
+        directory.delete();
+    }
+
+    private static SessionID createSessionID() {
+        final UUID uuid = UUID.randomUUID();
+        final ByteBuffer bb = ByteBuffer.wrap(new byte[16]);
+        bb.putLong(uuid.getMostSignificantBits());
+        bb.putLong(uuid.getLeastSignificantBits());
+        return SessionID.createSessionID(bb.array());
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        final SessionID id = createSessionID();
+        final List<String> state = new ArrayList<String>();
+        state.add("a");
+        state.add("b");
+
+        store.passivate(id, state);
+        assertEquals(1, directory.listFiles().length);
+
+        assertEquals(state, store.activate(id));
+        // the state is removed from the store once it has been activated
+        assertEquals(0, directory.listFiles().length);
+        assertNull(store.activate(id));
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        final SessionID id = createSessionID();
+        store.passivate(id, "state");
+
+        store.remove(id);
+
+        assertEquals(0, directory.listFiles().length);
+        assertNull(store.activate(id));
+    }
+
+    @Test
+    public void testFailedPassivationLeavesNoFile() throws Exception {
+        final SessionID id = createSessionID();
+        try {
+            store.passivate(id, new Object());
+            fail("expected IOException");
+        } catch (IOException expected) {
+        }
+        assertEquals(0, directory.listFiles().length);
+        assertNull(store.activate(id));
+    }
+
+    @Test
+    public void testStartDiscardsPreviousState() throws Exception {
+        final SessionID id = createSessionID();
+        store.passivate(id, "state");
+        store.start();
+        assertEquals(0, directory.listFiles().length);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.component.stateful;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.File;
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.ejb.PostActivate;
+import javax.ejb.PrePassivate;
+import javax.interceptor.InvocationContext;
+
+import org.jboss.as.ejb3.cache.file.FilePassivationStore;
+import org.jboss.as.naming.ManagedReference;
+import org.jboss.as.naming.ValueManagedReference;
+import org.jboss.ejb.client.SessionID;
+import org.jboss.invocation.Interceptor;
+import org.jboss.msc.value.ImmediateValue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Passivates stateful session bean instances into a {@link FilePassivationStore} and activates them again.
+ */
+public class StatefulSessionPassivationTestCase {
+
+    private static final List<String> events = new CopyOnWriteArrayList<String>();
+
+    public static class BaseBean {
+        @PrePassivate
+        protected void basePrePassivate() {
+            events.add("BaseBean.prePassivate");
+        }
+
+        @PostActivate
+        protected void basePostActivate() {
+            events.add("BaseBean.postActivate");
+        }
+    }
+
+    public static class TestBean extends BaseBean implements Serializable {
+        int counter;
+
+        @PrePassivate
+        public void prePassivate() {
+            events.add("TestBean.prePassivate");
+        }
+
+        @PostActivate
+        public void postActivate() {
+            events.add("TestBean.postActivate");
+        }
+    }
+
+    public static class TestInterceptor implements Serializable {
+        int calls;
+
+        @PrePassivate
+        public void prePassivate(final InvocationContext context) throws Exception {
+            events.add("TestInterceptor.prePassivate");
+            context.proceed();
+        }
+
+        @PostActivate
+        public void postActivate(final InvocationContext context) throws Exception {
+            events.add("TestInterceptor.postActivate");
+            context.proceed();
+        }
+    }
+
+    private File directory;
+    private FilePassivationStore store;
+    private StatefulSessionComponent component;
+    private final List<Class<?>> interceptorClasses = Collections.<Class<?>>singletonList(TestInterceptor.class);
+
+    @Before
+    public void setUp() throws Exception {
+        events.clear();
+        directory = File.createTempFile("passivation", "");
+        assertTrue(directory.delete());
+        store = new FilePassivationStore(directory, StatefulSessionPassivationTestCase.class.getClassLoader());
+        store.start();
+        component = mock(StatefulSessionComponent.class);
+    }
+
+    @After
+    public void tearDown() {
+        store.stop();
+        directory.delete();
+    }
+
+    private StatefulSessionComponentInstance createInstance(final SessionID id, final Object bean, final Map<Class<?>, Object> interceptors) {
+        final Map<Class<?>, AtomicReference<ManagedReference>> interceptorInstances = new HashMap<Class<?>, AtomicReference<ManagedReference>>();
+        for (Map.Entry<Class<?>, Object> interceptor : interceptors.entrySet()) {
+            interceptorInstances.put(interceptor.getKey(), new AtomicReference<ManagedReference>(reference(interceptor.getValue())));
+        }
+        return new StatefulSessionComponentInstance(component, id, new AtomicReference<ManagedReference>(reference(bean)), null, Collections.<Method, Interceptor>emptyMap(), interceptorInstances);
+    }
+
+    private static ManagedReference reference(final Object instance) {
+        return new ValueManagedReference(new ImmediateValue<Object>(instance));
+    }
+
+    @Test
+    public void testPassivationRoundTrip() throws Exception {
+        final StatefulSessionPassivationCallbacks prePassivate = new StatefulSessionPassivationCallbacks(PrePassivate.class, TestBean.class, interceptorClasses);
+        final StatefulSessionPassivationCallbacks postActivate = new StatefulSessionPassivationCallbacks(PostActivate.class, TestBean.class, interceptorClasses);
+
+        final TestBean bean = new TestBean();
+        bean.counter = 42;
+        final TestInterceptor interceptor = new TestInterceptor();
+        interceptor.calls = 7;
+        final StatefulSessionComponentInstance instance = createInstance(null, bean, Collections.<Class<?>, Object>singletonMap(TestInterceptor.class, interceptor));
+        final SessionID id = instance.getId();
+
+        // the component instance references the (non serializable) component, only the bean state is stored
+        prePassivate.invoke(instance);
+        store.passivate(id, new StatefulSessionPassivatedState(instance.getInstance(), instance.getInterceptorInstances()));
+        assertEquals(Arrays.asList("TestInterceptor.prePassivate", "BaseBean.prePassivate", "TestBean.prePassivate"), events);
+        events.clear();
+
+        final StatefulSessionPassivatedState state = (StatefulSessionPassivatedState) store.activate(id);
+        final StatefulSessionComponentInstance activated = createInstance(id, state.getInstance(), state.getInterceptorInstances());
+        postActivate.invoke(activated);
+        assertEquals(Arrays.asList("TestInterceptor.postActivate", "BaseBean.postActivate", "TestBean.postActivate"), events);
+
+        assertEquals(id, activated.getId());
+        final TestBean activatedBean = (TestBean) activated.getInstance();
+        assertNotSame(bean, activatedBean);
+        assertEquals(42, activatedBean.counter);
+        final TestInterceptor activatedInterceptor = (TestInterceptor) activated.getInterceptorInstance(TestInterceptor.class);
+        assertNotSame(interceptor, activatedInterceptor);
+        assertEquals(7, activatedInterceptor.calls);
+    }
+
+    @Test
+    public void testInterceptorWithoutInstanceIsSkipped() throws Exception {
+        final StatefulSessionPassivationCallbacks prePassivate = new StatefulSessionPassivationCallbacks(PrePassivate.class, TestBean.class, interceptorClasses);
+        final StatefulSessionComponentInstance instance = createInstance(null, new TestBean(), Collections.<Class<?>, Object>emptyMap());
+
+        prePassivate.invoke(instance);
+
+        assertEquals(Arrays.asList("BaseBean.prePassivate", "TestBean.prePassivate"), events);
+    }
+}
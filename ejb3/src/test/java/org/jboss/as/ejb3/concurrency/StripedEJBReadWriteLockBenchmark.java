@@ -0,0 +1,84 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.concurrency;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Compares the read throughput of the {@link StripedEJBReadWriteLock} with the {@link EJBReadWriteLock}, with one write
+ * for every 1000 reads. The numbers are only reported, as they depend on the machine. Run with
+ * {@code mvn test -Pbenchmarks}.
+ */
+public class StripedEJBReadWriteLockBenchmark {
+
+    @Test
+    public void testReadThroughput() throws Exception {
+        final int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        final int operations = 200000;
+        // warm up
+        measure(new EJBReadWriteLock(), threads, operations);
+        measure(new StripedEJBReadWriteLock(), threads, operations);
+
+        final long plain = measure(new EJBReadWriteLock(), threads, operations);
+        final long striped = measure(new StripedEJBReadWriteLock(), threads, operations);
+        System.out.println(StripedEJBReadWriteLockBenchmark.class.getSimpleName() + ": " + threads + " threads x " + operations
+                + " invocations, EJBReadWriteLock " + TimeUnit.NANOSECONDS.toMillis(plain) + "ms, StripedEJBReadWriteLock "
+                + TimeUnit.NANOSECONDS.toMillis(striped) + "ms");
+    }
+
+    private static long measure(final ReadWriteLock lock, final int threads, final int operations) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 1; i <= operations; i++) {
+                            final Lock l = i % 1000 == 0 ? lock.writeLock() : lock.readLock();
+                            if (!l.tryLock(5, TimeUnit.SECONDS)) {
+                                throw new IllegalStateException("Lock not acquired");
+                            }
+                            l.unlock();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        final long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - begin;
+    }
+}
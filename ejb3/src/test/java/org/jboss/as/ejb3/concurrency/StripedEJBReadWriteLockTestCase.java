@@ -0,0 +1,187 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.concurrency;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.ejb.IllegalLoopbackException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Tests the {@link StripedEJBReadWriteLock}
+ */
+public class StripedEJBReadWriteLockTestCase {
+
+    @Test
+    public void testIllegalLoopBack() throws Exception {
+        final StripedEJBReadWriteLock lock = new StripedEJBReadWriteLock();
+        lock.readLock().lock();
+        try {
+            lock.writeLock().tryLock(1, TimeUnit.SECONDS);
+            Assert.fail("Unexpected acquired write lock");
+        } catch (IllegalLoopbackException expected) {
+            // expected
+        } finally {
+            lock.readLock().unlock();
+        }
+        Assert.assertTrue(lock.writeLock().tryLock());
+        lock.writeLock().unlock();
+    }
+
+    @Test
+    public void testReentrancy() throws Exception {
+        final StripedEJBReadWriteLock lock = new StripedEJBReadWriteLock();
+        lock.writeLock().lock();
+        lock.writeLock().lock();
+        // the writer may read
+        Assert.assertTrue(lock.readLock().tryLock());
+        lock.readLock().unlock();
+        lock.writeLock().unlock();
+        Assert.assertTrue(lock.isWriteLocked());
+        lock.writeLock().unlock();
+        Assert.assertFalse(lock.isWriteLocked());
+
+        lock.readLock().lock();
+        lock.readLock().lock();
+        Assert.assertEquals(2, lock.getReadLockCount());
+        lock.readLock().unlock();
+        lock.readLock().unlock();
+        Assert.assertEquals(0, lock.getReadLockCount());
+    }
+
+    @Test
+    public void testReadTimeout() throws Exception {
+        final StripedEJBReadWriteLock lock = new StripedEJBReadWriteLock();
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread writer = new Thread(new HoldLock(lock.writeLock(), locked, release));
+        writer.start();
+        locked.await();
+        try {
+            Assert.assertFalse("Unexpected obtained a read lock", lock.readLock().tryLock(200, TimeUnit.MILLISECONDS));
+            Assert.assertEquals(0, lock.getReadLockCount());
+        } finally {
+            release.countDown();
+            writer.join();
+        }
+        Assert.assertTrue(lock.readLock().tryLock(1, TimeUnit.SECONDS));
+        lock.readLock().unlock();
+    }
+
+    @Test
+    public void testWriteTimeout() throws Exception {
+        final StripedEJBReadWriteLock lock = new StripedEJBReadWriteLock();
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread reader = new Thread(new HoldLock(lock.readLock(), locked, release));
+        reader.start();
+        locked.await();
+        try {
+            Assert.assertFalse("Unexpected obtained a write lock", lock.writeLock().tryLock(200, TimeUnit.MILLISECONDS));
+            // an abandoned write attempt must not keep readers out
+            Assert.assertFalse(lock.isWriteLocked());
+            Assert.assertTrue(lock.readLock().tryLock());
+            lock.readLock().unlock();
+        } finally {
+            release.countDown();
+            reader.join();
+        }
+        Assert.assertTrue(lock.writeLock().tryLock(1, TimeUnit.SECONDS));
+        lock.writeLock().unlock();
+    }
+
+    @Test
+    public void testMutualExclusion() throws Exception {
+        final StripedEJBReadWriteLock lock = new StripedEJBReadWriteLock();
+        final AtomicInteger readers = new AtomicInteger();
+        final AtomicInteger writers = new AtomicInteger();
+        final AtomicBoolean violated = new AtomicBoolean();
+        final Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            final boolean write = t % 4 == 0;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 20000; i++) {
+                        final Lock l = write ? lock.writeLock() : lock.readLock();
+                        l.lock();
+                        try {
+                            if (write) {
+                                if (writers.incrementAndGet() != 1 || readers.get() != 0) {
+                                    violated.set(true);
+                                }
+                                writers.decrementAndGet();
+                            } else {
+                                readers.incrementAndGet();
+                                if (writers.get() != 0) {
+                                    violated.set(true);
+                                }
+                                readers.decrementAndGet();
+                            }
+                        } finally {
+                            l.unlock();
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertFalse("Readers and writers overlapped", violated.get());
+        Assert.assertEquals(0, lock.getReadLockCount());
+        Assert.assertFalse(lock.isWriteLocked());
+    }
+
+    private static class HoldLock implements Runnable {
+
+        private final Lock lock;
+        private final CountDownLatch locked;
+        private final CountDownLatch release;
+
+        HoldLock(final Lock lock, final CountDownLatch locked, final CountDownLatch release) {
+            this.lock = lock;
+            this.locked = locked;
+            this.release = release;
+        }
+
+        @Override
+        public void run() {
+            lock.lock();
+            try {
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.pool.strictmax;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.ejb3.pool.Pool;
+import org.jboss.as.ejb3.pool.StatelessObjectFactory;
+import org.jboss.as.ejb3.pool.common.MockBean;
+import org.jboss.as.ejb3.pool.common.MockFactory;
+import org.junit.Test;
+
+/**
+ * Compares the throughput of the {@link StrictMaxPool} and the {@link LockFreeStrictMaxPool} with 1 to 64
+ * concurrent invokers. The numbers are only reported, as they depend on the machine. Run with
+ * {@code mvn test -Pbenchmarks}.
+ */
+public class LockFreeStrictMaxPoolBenchmark {
+
+    private static final int ITERATIONS = 20000;
+
+    @Test
+    public void testThroughputComparedToStrictMaxPool() throws Exception {
+        final StatelessObjectFactory<MockBean> factory = new MockFactory();
+        for (int invokers = 1; invokers <= 64; invokers *= 2) {
+            final long strictMax = measure(new StrictMaxPool<MockBean>(factory, 20, 1, TimeUnit.MINUTES), invokers);
+            final long lockFree = measure(new LockFreeStrictMaxPool<MockBean>(factory, 20, 1, TimeUnit.MINUTES), invokers);
+            System.out.println(invokers + " invokers: StrictMaxPool " + strictMax + " ms, LockFreeStrictMaxPool " + lockFree + " ms");
+        }
+    }
+
+    private long measure(final Pool<MockBean> pool, final int invokers) throws Exception {
+        pool.start();
+        Callable<Void> task = new Callable<Void>() {
+            public Void call() throws Exception {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    pool.release(pool.get());
+                }
+                return null;
+            }
+        };
+        ExecutorService service = Executors.newFixedThreadPool(invokers);
+        try {
+            final long start = System.nanoTime();
+            Future<?> results[] = new Future<?>[invokers];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = service.submit(task);
+            }
+            for (Future<?> result : results) {
+                result.get(1, TimeUnit.MINUTES);
+            }
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        } finally {
+            service.shutdown();
+            pool.stop();
+            assertEquals(0, pool.getCurrentSize());
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.remote.protocol.versionone;
+
+import static org.jboss.as.ejb3.remote.protocol.versionone.MarshallerPoolTestCase.DIRECT_EXECUTOR;
+import static org.jboss.as.ejb3.remote.protocol.versionone.MarshallerPoolTestCase.emptyRepository;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.as.ee.component.ComponentView;
+import org.jboss.as.ejb3.component.EJBComponent;
+import org.jboss.as.ejb3.deployment.DeploymentModuleIdentifier;
+import org.jboss.as.ejb3.deployment.DeploymentRepository;
+import org.jboss.as.ejb3.deployment.EjbDeploymentInformation;
+import org.jboss.as.ejb3.deployment.ModuleDeployment;
+import org.jboss.as.ejb3.iiop.EjbIIOPService;
+import org.jboss.ejb.client.StatelessEJBLocator;
+import org.jboss.ejb.client.remoting.PackedInteger;
+import org.jboss.invocation.InterceptorContext;
+import org.jboss.msc.value.InjectedValue;
+import org.jboss.remoting3.Channel;
+import org.jboss.remoting3.MessageOutputStream;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Runs batch invocation requests through {@link BatchInvocationMessageHandler}, against a bean whose
+ * <code>echo</code> method returns its argument, or fails if the argument starts with "fail"
+ */
+public class BatchInvocationMessageHandlerTestCase {
+
+    public interface Echo {
+        String echo(String message);
+    }
+
+    private static final short BATCH_ID = 7;
+
+    private static final UnMarshaller.ClassLoaderProvider CLASS_LOADER_PROVIDER = new UnMarshaller.ClassLoaderProvider() {
+        @Override
+        public ClassLoader provideClassLoader() {
+            return BatchInvocationMessageHandlerTestCase.class.getClassLoader();
+        }
+    };
+
+    private final List<String> invoked = new CopyOnWriteArrayList<String>();
+
+    private final BlockingQueue<byte[]> responses = new LinkedBlockingQueue<byte[]>();
+
+    /**
+     * Holds up the invocations until it's counted down
+     */
+    private volatile CountDownLatch release = new CountDownLatch(0);
+
+    @Test
+    public void testSerialBatch() throws Exception {
+        final BatchInvocationMessageHandler handler = this.handler(new InFlightInvocationWindow(DIRECT_EXECUTOR, 1));
+        handler.processMessage(this.channel(), batchRequest(0, "a", "b", "c"));
+        assertArrayEquals(new Object[]{"a", "b", "c"}, this.readResponse());
+        assertEquals(Arrays.asList("a", "b", "c"), this.invoked);
+    }
+
+    @Test
+    public void testParallelBatch() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final BatchInvocationMessageHandler handler = this.handler(new InFlightInvocationWindow(executor, 0));
+            handler.processMessage(this.channel(), batchRequest(BatchInvocationMessageHandler.FLAG_PARALLEL, "a", "b", "c", "d", "e"));
+            // the outcomes are in the order of the request, whichever order the invocations completed in
+            assertArrayEquals(new Object[]{"a", "b", "c", "d", "e"}, this.readResponse());
+            assertEquals(5, this.invoked.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailingInvocationDoesNotStopTheOthers() throws Exception {
+        final BatchInvocationMessageHandler handler = this.handler(new InFlightInvocationWindow(DIRECT_EXECUTOR, 1));
+        handler.processMessage(this.channel(), batchRequest(0, "a", "fail", "c"));
+        final Object[] outcomes = this.readResponse();
+        assertEquals("a", outcomes[0]);
+        assertTrue(outcomes[1] instanceof IllegalArgumentException);
+        assertEquals("c", outcomes[2]);
+    }
+
+    @Test
+    public void testParallelBatchStaysWithinTheWindow() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        this.release = new CountDownLatch(1);
+        try {
+            final InFlightInvocationWindow window = new InFlightInvocationWindow(executor, 2);
+            final BatchInvocationMessageHandler handler = this.handler(window);
+            handler.processMessage(this.channel(), batchRequest(BatchInvocationMessageHandler.FLAG_PARALLEL, "a", "b", "c", "d", "e", "f"));
+            // the invocations beyond the limit of the window wait for room instead of going to the executor
+            assertEquals(2, window.getInFlightCount());
+            assertEquals(4, window.getParkedCount());
+            this.release.countDown();
+            assertArrayEquals(new Object[]{"a", "b", "c", "d", "e", "f"}, this.readResponse());
+            assertEquals(0, window.getParkedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private BatchInvocationMessageHandler handler(final InFlightInvocationWindow window) throws Exception {
+        return new BatchInvocationMessageHandler(this.echoBeanRepository(), new MarshallerPool("river", 1), window);
+    }
+
+    private DeploymentRepository echoBeanRepository() throws Exception {
+        final ComponentView view = mock(ComponentView.class);
+        when(view.getViewMethods()).thenReturn(Collections.singleton(Echo.class.getMethod("echo", String.class)));
+        when(view.invoke(any(InterceptorContext.class))).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(final InvocationOnMock invocation) throws Throwable {
+                final String message = (String) ((InterceptorContext) invocation.getArguments()[0]).getParameters()[0];
+                invoked.add(message);
+                release.await();
+                if (message.startsWith("fail")) {
+                    throw new IllegalArgumentException(message);
+                }
+                return message;
+            }
+        });
+        final InjectedValue<ComponentView> injectedView = new InjectedValue<ComponentView>();
+        injectedView.inject(view);
+        final EjbDeploymentInformation ejb = new EjbDeploymentInformation("EchoBean", new InjectedValue<EJBComponent>(),
+                Collections.singletonMap(Echo.class.getName(), injectedView), BatchInvocationMessageHandlerTestCase.class.getClassLoader(),
+                new InjectedValue<EjbIIOPService>());
+        final DeploymentModuleIdentifier identifier = new DeploymentModuleIdentifier("app", "module", "");
+        final DeploymentRepository repository = emptyRepository();
+        repository.add(identifier, new ModuleDeployment(identifier, Collections.singletonMap("EchoBean", ejb)));
+        return repository;
+    }
+
+    /**
+     * @return a channel which queues the messages written to it in {@link #responses}
+     */
+    private Channel channel() throws IOException {
+        final Channel channel = mock(Channel.class);
+        when(channel.writeMessage()).thenAnswer(new Answer<MessageOutputStream>() {
+            @Override
+            public MessageOutputStream answer(final InvocationOnMock invocation) {
+                final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                return mock(MessageOutputStream.class, new Answer<Object>() {
+                    @Override
+                    public Object answer(final InvocationOnMock invocation) throws Throwable {
+                        final Method method = invocation.getMethod();
+                        if (method.getName().equals("close")) {
+                            responses.add(bytes.toByteArray());
+                            return null;
+                        }
+                        try {
+                            return OutputStream.class.getMethod(method.getName(), method.getParameterTypes()).invoke(bytes, invocation.getArguments());
+                        } catch (NoSuchMethodException e) {
+                            return null;
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+            }
+        });
+        return channel;
+    }
+
+    /**
+     * @return a batch invocation request of <code>echo</code> calls, without its header byte
+     */
+    private static ByteArrayInputStream batchRequest(final int flags, final String... messages) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeShort(BATCH_ID);
+        output.writeByte(flags);
+        // no attachments
+        output.writeByte(0);
+        PackedInteger.writePackedInteger(output, messages.length);
+        final Marshaller marshaller = MarshallerFactory.createMarshaller("river");
+        marshaller.start(output);
+        for (final String message : messages) {
+            marshaller.writeObject("echo");
+            marshaller.writeObject(String.class.getName());
+            marshaller.writeObject("app");
+            marshaller.writeObject("module");
+            marshaller.writeObject("");
+            marshaller.writeObject("EchoBean");
+            marshaller.writeObject(new StatelessEJBLocator<Echo>(Echo.class, "app", "module", "EchoBean", ""));
+            marshaller.writeObject(message);
+        }
+        marshaller.finish();
+        output.flush();
+        return new ByteArrayInputStream(bytes.toByteArray());
+    }
+
+    /**
+     * @return the outcome of each invocation of the batch response, either its result or the Throwable it failed with
+     */
+    private Object[] readResponse() throws Exception {
+        final byte[] response = this.responses.poll(5, TimeUnit.SECONDS);
+        assertNotNull("no response was written", response);
+        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(response));
+        assertEquals(0x21, input.readByte());
+        assertEquals(BATCH_ID, input.readShort());
+        // no attachments
+        assertEquals(0, input.readByte());
+        final Object[] outcomes = new Object[PackedInteger.readPackedInteger(input)];
+        final UnMarshaller unMarshaller = MarshallerFactory.createUnMarshaller("river");
+        unMarshaller.start(input, CLASS_LOADER_PROVIDER);
+        for (int i = 0; i < outcomes.length; i++) {
+            final boolean succeeded = (Boolean) unMarshaller.readObject();
+            outcomes[i] = unMarshaller.readObject();
+            assertEquals(succeeded, !(outcomes[i] instanceof Throwable));
+        }
+        unMarshaller.finish();
+        return outcomes;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.remote.protocol.versionone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests the bounded in-flight window of {@link InFlightInvocationWindow}
+ */
+public class InFlightInvocationWindowTestCase {
+
+    @Test
+    public void testParksReadsWhenFullAndRunsThemOnCompletion() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final InFlightInvocationWindow window = new InFlightInvocationWindow(executor, 3);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(5);
+        final List<Integer> read = new CopyOnWriteArrayList<Integer>();
+        try {
+            for (int i = 0; i < 5; i++) {
+                final int request = i;
+                dispatch(window, new Runnable() {
+                    @Override
+                    public void run() {
+                        read.add(request);
+                        window.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                try {
+                                    release.await();
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                } finally {
+                                    done.countDown();
+                                }
+                            }
+                        });
+                    }
+                });
+            }
+            assertEquals(3, window.getInFlightCount());
+            assertEquals(2, window.getParkedCount());
+            assertEquals(3, read.size());
+
+            // a request which bypasses the window, like a transaction commit, still runs while it is full
+            final CountDownLatch bypassed = new CountDownLatch(1);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    bypassed.countDown();
+                    release.countDown();
+                }
+            });
+            assertTrue(bypassed.await(5, TimeUnit.SECONDS));
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            // the parked reads ran once the tasks in flight completed
+            assertEquals(5, read.size());
+            assertTrue(read.containsAll(Arrays.asList(3, 4)));
+            assertEquals(0, window.getParkedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testResponsesCompleteOutOfOrder() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        final InFlightInvocationWindow window = new InFlightInvocationWindow(executor, 0);
+        final List<Integer> completed = new CopyOnWriteArrayList<Integer>();
+        final CountDownLatch slowCanFinish = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(2);
+        try {
+            window.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        slowCanFinish.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    completed.add(1);
+                    done.countDown();
+                }
+            });
+            window.execute(new Runnable() {
+                @Override
+                public void run() {
+                    completed.add(2);
+                    slowCanFinish.countDown();
+                    done.countDown();
+                }
+            });
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals(2, completed.get(0).intValue());
+            assertEquals(1, completed.get(1).intValue());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentCompletionsRunEveryParkedReadOnce() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final InFlightInvocationWindow window = new InFlightInvocationWindow(executor, 8);
+        final AtomicInteger reads = new AtomicInteger();
+        final int requests = 10000;
+        final CountDownLatch done = new CountDownLatch(requests);
+        try {
+            for (int i = 0; i < requests; i++) {
+                dispatch(window, new Runnable() {
+                    @Override
+                    public void run() {
+                        reads.incrementAndGet();
+                        window.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                done.countDown();
+                            }
+                        });
+                    }
+                });
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+        assertEquals(requests, reads.get());
+        assertEquals(0, window.getInFlightCount());
+        assertEquals(0, window.getQueuedCount());
+        assertEquals(0, window.getParkedCount());
+    }
+
+    /**
+     * Dispatches a read the way {@link VersionOneProtocolChannelReceiver} does, minus the buffering of a parked request
+     */
+    static void dispatch(final InFlightInvocationWindow window, final Runnable read) {
+        if (!window.tryDispatch(read)) {
+            window.park(read);
+        }
+    }
+}
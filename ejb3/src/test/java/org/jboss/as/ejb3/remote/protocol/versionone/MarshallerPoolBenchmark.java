@@ -0,0 +1,111 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.remote.protocol.versionone;
+
+import static org.jboss.as.ejb3.remote.protocol.versionone.MarshallerPoolTestCase.invoke;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+/**
+ * Runs invocation requests of the version one protocol through a loopback (marshal into a buffer, unmarshal from it)
+ * with the pooled marshallers used by {@link VersionOneProtocolChannelReceiver}, and compares calls per second and
+ * bytes allocated per invocation with creating the marshallers for every message. The numbers are only reported, as
+ * they depend on the machine. Run with {@code mvn test -Pbenchmarks}.
+ */
+public class MarshallerPoolBenchmark {
+
+    private static final int WARMUP_INVOCATIONS = 20000;
+
+    private static final int INVOCATIONS = 100000;
+
+    private static final Object[] PARAMS = {"hello", Integer.valueOf(42), new long[]{1L, 2L, 3L}};
+
+    @Test
+    public void testRiverLoopback() throws Exception {
+        compare("river");
+    }
+
+    @Test
+    public void testJavaSerialLoopback() throws Exception {
+        compare("java-serial");
+    }
+
+    private static void compare(final String marshallingStrategy) throws Exception {
+        run(marshallingStrategy, false, WARMUP_INVOCATIONS);
+        run(marshallingStrategy, true, WARMUP_INVOCATIONS);
+        final long[] unpooled = run(marshallingStrategy, false, INVOCATIONS);
+        final long[] pooled = run(marshallingStrategy, true, INVOCATIONS);
+        System.out.println(marshallingStrategy + " loopback of " + INVOCATIONS + " invocations: "
+                + report(unpooled) + " new marshallers per message, " + report(pooled) + " pooled marshallers");
+    }
+
+    private static String report(final long[] result) {
+        final long callsPerSecond = INVOCATIONS * 1000000000L / Math.max(1, result[0]);
+        final String allocated = result[1] < 0 ? "n/a" : String.valueOf(result[1] / INVOCATIONS);
+        return callsPerSecond + " calls/s and " + allocated + " bytes/call with";
+    }
+
+    /**
+     * @return the elapsed nanos and the bytes allocated by this thread (or -1 if the JVM can't tell)
+     */
+    private static long[] run(final String marshallingStrategy, final boolean pooled, final int invocations) throws Exception {
+        final MarshallerPool pool = new MarshallerPool(marshallingStrategy);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final long allocatedBefore = allocatedBytes();
+        final long start = System.nanoTime();
+        for (int i = 0; i < invocations; i++) {
+            bytes.reset();
+            final Object[] read;
+            if (pooled) {
+                final Marshaller marshaller = pool.acquireMarshaller();
+                final UnMarshaller unMarshaller = pool.acquireUnMarshaller();
+                read = invoke(marshaller, unMarshaller, bytes, PARAMS);
+                pool.release(marshaller);
+                pool.release(unMarshaller);
+            } else {
+                read = invoke(MarshallerFactory.createMarshaller(marshallingStrategy), MarshallerFactory.createUnMarshaller(marshallingStrategy), bytes, PARAMS);
+            }
+            assertEquals(PARAMS.length, read.length);
+        }
+        final long elapsed = System.nanoTime() - start;
+        final long allocatedAfter = allocatedBytes();
+        return new long[]{elapsed, allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore};
+    }
+
+    private static long allocatedBytes() {
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        try {
+            // com.sun.management.ThreadMXBean isn't available on every JVM
+            final Method method = Class.forName("com.sun.management.ThreadMXBean").getMethod("getThreadAllocatedBytes", long.class);
+            return (Long) method.invoke(threadMXBean, Thread.currentThread().getId());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.remote.protocol.versionone;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import org.jboss.as.ejb3.deployment.DeploymentRepository;
+import org.jboss.remoting3.Channel;
+import org.jboss.remoting3.MessageInputStream;
+import org.jboss.remoting3.MessageOutputStream;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Runs invocation requests of the version one protocol through a loopback (marshal into a buffer, unmarshal from it)
+ * with the pooled marshallers used by {@link VersionOneProtocolChannelReceiver}.
+ */
+public class MarshallerPoolTestCase {
+
+    static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(final Runnable command) {
+            command.run();
+        }
+    };
+
+    private static final UnMarshaller.ClassLoaderProvider CLASS_LOADER_PROVIDER = new UnMarshaller.ClassLoaderProvider() {
+        @Override
+        public ClassLoader provideClassLoader() {
+            return MarshallerPoolTestCase.class.getClassLoader();
+        }
+    };
+
+    @Test
+    public void testPooledMarshallersAreReused() throws Exception {
+        final MarshallerPool pool = new MarshallerPool("river", 2);
+        final Marshaller marshaller = pool.acquireMarshaller();
+        final UnMarshaller unMarshaller = pool.acquireUnMarshaller();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (int i = 0; i < 3; i++) {
+            bytes.reset();
+            final Object[] params = {"call " + i, Integer.valueOf(i)};
+            final Object[] read = invoke(marshaller, unMarshaller, bytes, params);
+            assertArrayEquals(params, read);
+        }
+        pool.release(marshaller);
+        pool.release(unMarshaller);
+        assertSame(marshaller, pool.acquireMarshaller());
+        assertSame(unMarshaller, pool.acquireUnMarshaller());
+    }
+
+    @Test
+    public void testUnMarshallerIsReleasedWhenTheEJBIsNotFound() throws Exception {
+        final MarshallerPool pool = new MarshallerPool("river", 1);
+        final UnMarshaller unMarshaller = pool.acquireUnMarshaller();
+        pool.release(unMarshaller);
+        final MethodInvocationMessageHandler handler = new MethodInvocationMessageHandler(emptyRepository(), pool, DIRECT_EXECUTOR);
+        handler.processMessage(channel(), message(invocationRequest()));
+        assertSame(unMarshaller, pool.acquireUnMarshaller());
+    }
+
+    @Test
+    public void testUnMarshallerIsReleasedWhenTheRequestCannotBeRead() throws Exception {
+        final MarshallerPool pool = new MarshallerPool("river", 1);
+        final UnMarshaller unMarshaller = pool.acquireUnMarshaller();
+        pool.release(unMarshaller);
+        final MethodInvocationMessageHandler handler = new MethodInvocationMessageHandler(emptyRepository(), pool, DIRECT_EXECUTOR);
+        final byte[] request = invocationRequest();
+        try {
+            handler.processMessage(channel(), message(Arrays.copyOf(request, request.length - 3)));
+            fail("read a truncated request");
+        } catch (IOException expected) {
+        }
+        assertSame(unMarshaller, pool.acquireUnMarshaller());
+    }
+
+    @Test
+    public void testRiverLoopback() throws Exception {
+        loopback("river");
+    }
+
+    @Test
+    public void testJavaSerialLoopback() throws Exception {
+        loopback("java-serial");
+    }
+
+    private static void loopback(final String marshallingStrategy) throws Exception {
+        final MarshallerPool pool = new MarshallerPool(marshallingStrategy, 1);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        // a marshaller which goes back to the pool must not leak state into the next message
+        for (int i = 0; i < 10; i++) {
+            bytes.reset();
+            final Object[] params = {"hello " + i, Integer.valueOf(i), new long[]{i, i + 1}};
+            final Marshaller marshaller = pool.acquireMarshaller();
+            final UnMarshaller unMarshaller = pool.acquireUnMarshaller();
+            final Object[] read = invoke(marshaller, unMarshaller, bytes, params);
+            pool.release(marshaller);
+            pool.release(unMarshaller);
+            assertEquals(params[0], read[0]);
+            assertEquals(params[1], read[1]);
+            assertNotSame(params[2], read[2]);
+            assertArrayEquals((long[]) params[2], (long[]) read[2]);
+        }
+    }
+
+    /**
+     * Writes an invocation request the way the client does, and reads it back the way
+     * {@link MethodInvocationMessageHandler} does
+     */
+    static Object[] invoke(final Marshaller marshaller, final UnMarshaller unMarshaller, final ByteArrayOutputStream bytes, final Object[] params) throws IOException, ClassNotFoundException {
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeShort(1);
+        output.writeUTF("echo");
+        marshaller.start(output);
+        marshaller.writeObject("app");
+        marshaller.writeObject("module");
+        marshaller.writeObject("");
+        marshaller.writeObject("EchoBean");
+        for (final Object param : params) {
+            marshaller.writeObject(param);
+        }
+        marshaller.finish();
+        output.flush();
+
+        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(1, input.readShort());
+        assertEquals("echo", input.readUTF());
+        unMarshaller.start(input, CLASS_LOADER_PROVIDER);
+        assertEquals("app", unMarshaller.readObject());
+        assertEquals("module", unMarshaller.readObject());
+        assertEquals("", unMarshaller.readObject());
+        assertEquals("EchoBean", unMarshaller.readObject());
+        final Object[] read = new Object[params.length];
+        for (int i = 0; i < read.length; i++) {
+            read[i] = unMarshaller.readObject();
+        }
+        unMarshaller.finish();
+        return read;
+    }
+
+    static DeploymentRepository emptyRepository() throws Exception {
+        final DeploymentRepository repository = new DeploymentRepository();
+        repository.start(null);
+        return repository;
+    }
+
+    /**
+     * @return a channel which discards the messages written to it
+     */
+    static Channel channel() throws IOException {
+        final Channel channel = mock(Channel.class);
+        when(channel.writeMessage()).thenAnswer(new Answer<MessageOutputStream>() {
+            @Override
+            public MessageOutputStream answer(final InvocationOnMock invocation) {
+                return mock(MessageOutputStream.class);
+            }
+        });
+        return channel;
+    }
+
+    /**
+     * @return a message which reads <code>bytes</code>
+     */
+    static MessageInputStream message(final byte[] bytes) {
+        final InputStream input = new ByteArrayInputStream(bytes);
+        return mock(MessageInputStream.class, new Answer<Object>() {
+            @Override
+            public Object answer(final InvocationOnMock invocation) throws Throwable {
+                final Method method = invocation.getMethod();
+                try {
+                    return InputStream.class.getMethod(method.getName(), method.getParameterTypes()).invoke(input, invocation.getArguments());
+                } catch (NoSuchMethodException e) {
+                    return null;
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        });
+    }
+
+    /**
+     * @return an invocation request for a bean which is not deployed, without its header byte
+     */
+    private static byte[] invocationRequest() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeShort(1);
+        output.writeUTF("echo");
+        output.writeUTF("");
+        // no attachments
+        output.writeByte(0);
+        final Marshaller marshaller = MarshallerFactory.createMarshaller("river");
+        marshaller.start(output);
+        marshaller.writeObject("app");
+        marshaller.writeObject("module");
+        marshaller.writeObject("");
+        marshaller.writeObject("EchoBean");
+        marshaller.finish();
+        output.flush();
+        return bytes.toByteArray();
+    }
+}
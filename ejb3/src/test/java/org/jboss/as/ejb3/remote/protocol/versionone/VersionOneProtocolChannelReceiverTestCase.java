@@ -0,0 +1,142 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.ejb3.remote.protocol.versionone;
+
+import static org.jboss.as.ejb3.remote.protocol.versionone.MarshallerPoolTestCase.channel;
+import static org.jboss.as.ejb3.remote.protocol.versionone.MarshallerPoolTestCase.emptyRepository;
+import static org.jboss.as.ejb3.remote.protocol.versionone.MarshallerPoolTestCase.message;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+
+import org.jboss.as.ee.component.ComponentView;
+import org.jboss.as.ejb3.component.EJBComponent;
+import org.jboss.as.ejb3.component.stateful.StatefulSessionComponent;
+import org.jboss.as.ejb3.deployment.DeploymentModuleIdentifier;
+import org.jboss.as.ejb3.deployment.DeploymentRepository;
+import org.jboss.as.ejb3.deployment.EjbDeploymentInformation;
+import org.jboss.as.ejb3.deployment.ModuleDeployment;
+import org.jboss.as.ejb3.iiop.EjbIIOPService;
+import org.jboss.as.ejb3.remote.EJBRemoteTransactionsRepository;
+import org.jboss.ejb.client.SessionID;
+import org.jboss.ejb.client.UserTransactionID;
+import org.jboss.ejb.client.remoting.PackedInteger;
+import org.jboss.msc.value.InjectedValue;
+import org.jboss.remoting3.Channel;
+import org.jboss.remoting3.MessageInputStream;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Tests how {@link VersionOneProtocolChannelReceiver} receives requests while its in-flight window is full
+ */
+public class VersionOneProtocolChannelReceiverTestCase {
+
+    @Test
+    public void testTransactionRequestsGetThroughWhileTheWindowIsFull() throws Exception {
+        // the executor never runs anything, so the session open requests it gets stay in flight
+        final ExecutorService executor = mock(ExecutorService.class);
+        final Channel channel = channel();
+        final VersionOneProtocolChannelReceiver receiver = new VersionOneProtocolChannelReceiver(channel, statefulBeanRepository(),
+                mock(EJBRemoteTransactionsRepository.class), "river", executor, 1);
+
+        receiver.handleMessage(channel, message(sessionOpenRequest(1)));
+        assertEquals(1, receiver.getInFlightInvocationCount());
+
+        // the window is full, so further requests are read off the channel before they're parked
+        final MessageInputStream parked = message(sessionOpenRequest(2));
+        receiver.handleMessage(channel, parked);
+        assertEquals(0, parked.available());
+        verify(parked).close();
+        assertEquals(1, receiver.getInFlightInvocationCount());
+
+        final MessageInputStream commit = message(commitRequest(3));
+        receiver.handleMessage(channel, commit);
+        final ArgumentCaptor<Runnable> tasks = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor, times(2)).execute(tasks.capture());
+        assertTrue(tasks.getAllValues().get(1) instanceof UserTransactionCommitTask);
+        verify(commit).close();
+        verify(channel, times(3)).receiveMessage(receiver);
+
+        // once the session open request in flight completes, the parked one is read from its buffer
+        tasks.getAllValues().get(0).run();
+        verify(executor, times(3)).execute(any(Runnable.class));
+        assertEquals(1, receiver.getInFlightInvocationCount());
+    }
+
+    /**
+     * @return a repository with a stateful bean <code>app/module/StatefulBean</code>
+     */
+    private static DeploymentRepository statefulBeanRepository() throws Exception {
+        final StatefulSessionComponent component = mock(StatefulSessionComponent.class);
+        when(component.createSession()).thenReturn(SessionID.createSessionID(new byte[]{1, 2, 3, 4}));
+        final InjectedValue<EJBComponent> ejbComponent = new InjectedValue<EJBComponent>();
+        ejbComponent.inject(component);
+        final EjbDeploymentInformation ejb = new EjbDeploymentInformation("StatefulBean", ejbComponent,
+                Collections.<String, InjectedValue<ComponentView>>emptyMap(), VersionOneProtocolChannelReceiverTestCase.class.getClassLoader(),
+                new InjectedValue<EjbIIOPService>());
+        final DeploymentModuleIdentifier identifier = new DeploymentModuleIdentifier("app", "module", "");
+        final DeploymentRepository repository = emptyRepository();
+        repository.add(identifier, new ModuleDeployment(identifier, Collections.singletonMap("StatefulBean", ejb)));
+        return repository;
+    }
+
+    private static byte[] sessionOpenRequest(final int invocationId) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeByte(0x01);
+        output.writeShort(invocationId);
+        output.writeUTF("app");
+        output.writeUTF("module");
+        output.writeUTF("");
+        output.writeUTF("StatefulBean");
+        // no attachments
+        output.writeByte(0);
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] commitRequest(final int invocationId) throws IOException {
+        final byte[] transactionID = new UserTransactionID("node", 1).getEncodedForm();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeByte(0x0F);
+        output.writeShort(invocationId);
+        PackedInteger.writePackedInteger(output, transactionID.length);
+        output.write(transactionID);
+        // not a one phase commit
+        output.writeBoolean(false);
+        output.flush();
+        return bytes.toByteArray();
+    }
+}
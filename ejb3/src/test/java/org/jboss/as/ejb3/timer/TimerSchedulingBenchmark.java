@@ -0,0 +1,150 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timer;
+
+import static org.jboss.as.ejb3.timer.TimerSchedulingTestCase.calendar;
+import static org.jboss.as.ejb3.timer.TimerSchedulingTestCase.everyFifteenSeconds;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.as.ejb3.cache.TimingWheel;
+import org.jboss.as.ejb3.timerservice.schedule.CalendarBasedTimeout;
+import org.junit.Test;
+
+/**
+ * Compares computing the next timeouts of timers with a shared schedule to computing them for every timer, and
+ * scheduling a large number of timeouts on the {@link TimingWheel} used by the timer service with a
+ * {@link java.util.Timer}. The numbers are only reported, as they depend on the machine. Run with
+ * {@code mvn test -Pbenchmarks}.
+ */
+public class TimerSchedulingBenchmark {
+
+    private static final int TIMEOUTS = 1000000;
+
+    @Test
+    public void testNextTimeoutOfTimersWithTheSameSchedule() {
+        final int timers = 1000;
+        final int firings = 200;
+        final List<CalendarBasedTimeout> timeouts = new ArrayList<CalendarBasedTimeout>();
+        for (int i = 0; i < timers; i++) {
+            timeouts.add(new CalendarBasedTimeout(everyFifteenSeconds()));
+        }
+        // a multiple of 15 seconds
+        final long base = 1300000005000L;
+
+        // every timer fires at the same time, like timers created from the same @Schedule
+        long start = System.nanoTime();
+        for (int f = 0; f < firings; f++) {
+            final long time = base + f * 15000L;
+            for (CalendarBasedTimeout timeout : timeouts) {
+                assertEquals(time + 15000, timeout.getNextTimeout(calendar(time)).getTimeInMillis());
+            }
+        }
+        final long shared = System.nanoTime() - start;
+
+        // every timer fires at a different time, so every next timeout is computed
+        start = System.nanoTime();
+        for (int f = 0; f < firings; f++) {
+            int t = 0;
+            for (CalendarBasedTimeout timeout : timeouts) {
+                final long time = base + (f * timers + t++) * 15000L;
+                assertEquals(time + 15000, timeout.getNextTimeout(calendar(time)).getTimeInMillis());
+            }
+        }
+        final long computed = System.nanoTime() - start;
+        System.out.println("Next timeouts of " + timers * firings + " firings: " + TimeUnit.NANOSECONDS.toMillis(shared)
+                + "ms with a shared schedule, " + TimeUnit.NANOSECONDS.toMillis(computed) + "ms computed");
+    }
+
+    @Test
+    public void testScheduleAndCancelManyTimeouts() throws Exception {
+        final Random random = new Random(42);
+        final long[] delays = new long[TIMEOUTS];
+        for (int i = 0; i < TIMEOUTS; i++) {
+            delays[i] = 500 + random.nextInt(1500);
+        }
+
+        final TimingWheel wheel = new TimingWheel("timer benchmark", 10, TimeUnit.MILLISECONDS, 8192);
+        wheel.start();
+        try {
+            final CountDownLatch fired = new CountDownLatch(TIMEOUTS / 2);
+            final AtomicInteger cancelledFired = new AtomicInteger();
+            final long start = System.nanoTime();
+            for (int i = 0; i < TIMEOUTS; i++) {
+                final boolean cancel = i % 2 == 1;
+                final TimingWheel.Timeout timeout = wheel.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (cancel) {
+                            cancelledFired.incrementAndGet();
+                        } else {
+                            fired.countDown();
+                        }
+                    }
+                }, delays[i], TimeUnit.MILLISECONDS);
+                // every other timer is cancelled right away, like a single action timer which is cancelled by the bean
+                if (cancel) {
+                    timeout.cancel();
+                }
+            }
+            final long scheduled = System.nanoTime() - start;
+            assertTrue(fired.await(30, TimeUnit.SECONDS));
+            assertEquals(0, cancelledFired.get());
+            assertEquals(0, wheel.getPendingCount());
+            System.out.println("Timing wheel: scheduled and cancelled " + TIMEOUTS + " timeouts in " + TimeUnit.NANOSECONDS.toMillis(scheduled)
+                    + "ms, all fired after " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        } finally {
+            wheel.stop();
+        }
+
+        final java.util.Timer timer = new java.util.Timer(true);
+        try {
+            final CountDownLatch fired = new CountDownLatch(TIMEOUTS / 2);
+            final long start = System.nanoTime();
+            for (int i = 0; i < TIMEOUTS; i++) {
+                final java.util.TimerTask task = new java.util.TimerTask() {
+                    @Override
+                    public void run() {
+                        fired.countDown();
+                    }
+                };
+                timer.schedule(task, delays[i]);
+                if (i % 2 == 1) {
+                    task.cancel();
+                }
+            }
+            final long scheduled = System.nanoTime() - start;
+            assertTrue(fired.await(30, TimeUnit.SECONDS));
+            System.out.println("java.util.Timer: scheduled and cancelled " + TIMEOUTS + " timeouts in " + TimeUnit.NANOSECONDS.toMillis(scheduled)
+                    + "ms, all fired after " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        } finally {
+            timer.cancel();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ejb.ScheduleExpression;
+
+import org.jboss.as.ejb3.cache.TimingWheel;
+import org.jboss.as.ejb3.timerservice.schedule.CalendarBasedTimeout;
+import org.junit.Test;
+
+/**
+ * Checks the cached next timeouts of {@link CalendarBasedTimeout} against a brute force search, and that the
+ * {@link TimingWheel} used by the timer service fires every scheduled timeout which is not cancelled, and neither
+ * drops new nor interrupts running timeouts when it is stopped.
+ */
+public class TimerSchedulingTestCase {
+
+    static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    static ScheduleExpression everyFifteenSeconds() {
+        return new ScheduleExpression().second("*/15").minute("*").hour("*").timezone("UTC");
+    }
+
+    /**
+     * The next time after <code>time</code> which matches {@link #everyFifteenSeconds()}
+     */
+    static long nextFifteenSeconds(final long time) {
+        long next = time - time % 1000 + 1000;
+        while ((next / 1000) % 15 != 0) {
+            next += 1000;
+        }
+        return next;
+    }
+
+    static Calendar calendar(final long time) {
+        final Calendar calendar = new GregorianCalendar(UTC);
+        calendar.setTimeInMillis(time);
+        return calendar;
+    }
+
+    @Test
+    public void testCachedNextTimeoutIsCorrect() {
+        final CalendarBasedTimeout first = new CalendarBasedTimeout(everyFifteenSeconds());
+        final CalendarBasedTimeout second = new CalendarBasedTimeout(everyFifteenSeconds());
+        final Random random = new Random(42);
+        final long base = 1300000000000L;
+        long time = base;
+        for (int i = 0; i < 10000; i++) {
+            // walk forwards and backwards, so that the cached timeout of the other instance is hit and missed
+            time = random.nextBoolean() ? time + random.nextInt(20000) : base + random.nextInt(3600 * 1000);
+            final CalendarBasedTimeout timeout = random.nextBoolean() ? first : second;
+            assertEquals("next timeout after " + time, nextFifteenSeconds(time), timeout.getNextTimeout(calendar(time)).getTimeInMillis());
+        }
+    }
+
+    @Test
+    public void testNextTimeoutOfTimersWithTheSameSchedule() {
+        final List<CalendarBasedTimeout> timeouts = new ArrayList<CalendarBasedTimeout>();
+        for (int i = 0; i < 100; i++) {
+            timeouts.add(new CalendarBasedTimeout(everyFifteenSeconds()));
+        }
+        // a multiple of 15 seconds
+        final long base = 1300000005000L;
+        for (int f = 0; f < 20; f++) {
+            // every timer fires at the same time, like timers created from the same @Schedule
+            final long time = base + f * 15000L;
+            for (CalendarBasedTimeout timeout : timeouts) {
+                assertEquals(time + 15000, timeout.getNextTimeout(calendar(time)).getTimeInMillis());
+            }
+        }
+    }
+
+    @Test
+    public void testCancelledTimeoutsDoNotFire() throws Exception {
+        final int count = 10000;
+        final Random random = new Random(42);
+        final TimingWheel wheel = new TimingWheel("timer test", 10, TimeUnit.MILLISECONDS, 1024);
+        wheel.start();
+        try {
+            final CountDownLatch fired = new CountDownLatch(count / 2);
+            final AtomicInteger cancelledFired = new AtomicInteger();
+            for (int i = 0; i < count; i++) {
+                final boolean cancel = i % 2 == 1;
+                final TimingWheel.Timeout timeout = wheel.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (cancel) {
+                            cancelledFired.incrementAndGet();
+                        } else {
+                            fired.countDown();
+                        }
+                    }
+                }, 50 + random.nextInt(200), TimeUnit.MILLISECONDS);
+                // every other timer is cancelled right away, like a single action timer which is cancelled by the bean
+                if (cancel) {
+                    timeout.cancel();
+                }
+            }
+            assertTrue(fired.await(30, TimeUnit.SECONDS));
+            assertEquals(0, cancelledFired.get());
+            assertEquals(0, wheel.getPendingCount());
+        } finally {
+            wheel.stop();
+        }
+    }
+
+    @Test
+    public void testScheduleOnStoppedWheelFails() {
+        final TimingWheel wheel = new TimingWheel("timer test", 10, TimeUnit.MILLISECONDS, 16);
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        try {
+            wheel.schedule(task, 0, TimeUnit.MILLISECONDS);
+            fail("scheduled a timeout on a wheel which is not started");
+        } catch (IllegalStateException expected) {
+        }
+        wheel.start();
+        wheel.stop();
+        try {
+            wheel.schedule(task, 0, TimeUnit.MILLISECONDS);
+            fail("scheduled a timeout on a stopped wheel");
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(0, wheel.getPendingCount());
+    }
+
+    @Test
+    public void testStopCompletesRunningTimeout() throws Exception {
+        final TimingWheel wheel = new TimingWheel("timer test", 10, TimeUnit.MILLISECONDS, 16);
+        wheel.start();
+        final CountDownLatch running = new CountDownLatch(1);
+        final AtomicInteger completed = new AtomicInteger();
+        wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                running.countDown();
+                try {
+                    Thread.sleep(200);
+                    completed.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, 0, TimeUnit.MILLISECONDS);
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        wheel.stop();
+        assertEquals(1, completed.get());
+    }
+}
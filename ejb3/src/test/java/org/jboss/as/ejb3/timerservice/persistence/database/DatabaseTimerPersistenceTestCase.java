@@ -0,0 +1,328 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.database;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.jboss.as.ejb3.timerservice.TimerState;
+import org.jboss.as.ejb3.timerservice.persistence.TimerEntity;
+import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
+import org.jboss.as.ejb3.tx2.impl.MockTransactionManager;
+import org.jboss.modules.Module;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link DatabaseTimerPersistence} against an embedded H2 database shared by two nodes.
+ */
+public class DatabaseTimerPersistenceTestCase {
+
+    private static final String TIMED_OBJECT = "app.module.TimerBean";
+
+    private static int databases;
+
+    private JdbcDataSource dataSource;
+    private Connection keepAlive;
+    private final List<DatabaseTimerPersistence> started = new ArrayList<DatabaseTimerPersistence>();
+
+    private static class TestTimerEntity extends TimerEntity {
+        TestTimerEntity(final String timedObjectId, final String id, final long nextDate) {
+            this.id = id;
+            this.timedObjectId = timedObjectId;
+            this.initialDate = new Date(nextDate);
+            this.nextDate = new Date(nextDate);
+            this.repeatInterval = 1000;
+            this.info = "info-" + id;
+            this.timerState = TimerState.ACTIVE;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:timers" + (databases++));
+        dataSource.setUser("sa");
+        // the in-memory database lives as long as a connection is open
+        keepAlive = dataSource.getConnection();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        for (DatabaseTimerPersistence persistence : started) {
+            persistence.stop(null);
+        }
+        keepAlive.close();
+    }
+
+    private DatabaseTimerPersistence start(final String nodeName) throws Exception {
+        return start(nodeName, DatabaseTimerPersistence.DEFAULT_HEARTBEAT_INTERVAL, DatabaseTimerPersistence.DEFAULT_LEASE_TIMEOUT);
+    }
+
+    private DatabaseTimerPersistence start(final String nodeName, final long heartbeatInterval, final long leaseTimeout) throws Exception {
+        final DatabaseTimerPersistence persistence = new DatabaseTimerPersistence(nodeName, DatabaseTimerPersistence.DEFAULT_TABLE_NAME, heartbeatInterval, leaseTimeout);
+        persistence.getDataSource().inject(dataSource);
+        persistence.getModuleLoader().inject(Module.getBootModuleLoader());
+        persistence.getTransactionManager().inject(new MockTransactionManager());
+        persistence.start(null);
+        started.add(persistence);
+        return persistence;
+    }
+
+    private void stop(final DatabaseTimerPersistence persistence) {
+        started.remove(persistence);
+        persistence.stop(null);
+    }
+
+    private int countRows(final String where) throws Exception {
+        return countRows(DatabaseTimerPersistence.DEFAULT_TABLE_NAME, where);
+    }
+
+    private int countRows(final String table, final String where) throws Exception {
+        final Statement statement = keepAlive.createStatement();
+        try {
+            final ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + table + " WHERE " + where);
+            resultSet.next();
+            return resultSet.getInt(1);
+        } finally {
+            statement.close();
+        }
+    }
+
+    private void execute(final String sql) throws Exception {
+        final Statement statement = keepAlive.createStatement();
+        try {
+            statement.executeUpdate(sql);
+        } finally {
+            statement.close();
+        }
+    }
+
+    @Test
+    public void testPersistAndRestart() throws Exception {
+        DatabaseTimerPersistence persistence = start("node1");
+        for (int i = 0; i < 10; i++) {
+            persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer" + i, i));
+        }
+        persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer3", 42));
+        persistence.removeTimer(new TestTimerEntity(TIMED_OBJECT, "timer5", 5));
+        assertEquals(9, countRows("NODE_NAME = 'node1'"));
+        stop(persistence);
+        assertEquals(9, countRows("NODE_NAME IS NULL"));
+
+        persistence = start("node1");
+        assertEquals(9, persistence.loadActiveTimers(TIMED_OBJECT).size());
+        assertNull(persistence.loadTimer("timer5", TIMED_OBJECT));
+        final TimerEntity updated = persistence.loadTimer("timer3", TIMED_OBJECT);
+        assertEquals(42, updated.getNextDate().getTime());
+        assertEquals("info-timer3", updated.getInfo());
+        assertTrue(persistence.loadActiveTimers("some.other.Bean").isEmpty());
+    }
+
+    @Test
+    public void testTimersAreOwnedByOneNode() throws Exception {
+        final DatabaseTimerPersistence node1 = start("node1");
+        final DatabaseTimerPersistence node2 = start("node2");
+        for (int i = 0; i < 10; i++) {
+            node1.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer" + i, i));
+        }
+        // timers created by node1 are only fired by node1, but can be looked up by every node
+        assertTrue(node2.loadActiveTimers(TIMED_OBJECT).isEmpty());
+        assertNotNull(node2.loadTimer("timer1", TIMED_OBJECT));
+        assertEquals(10, node1.loadActiveTimers(TIMED_OBJECT).size());
+
+        // once node1 is gone, the first node which loads the timers takes them over
+        stop(node1);
+        final DatabaseTimerPersistence node3 = start("node3");
+        assertEquals(10, node2.loadActiveTimers(TIMED_OBJECT).size());
+        assertTrue(node3.loadActiveTimers(TIMED_OBJECT).isEmpty());
+        assertEquals(10, countRows("NODE_NAME = 'node2'"));
+    }
+
+    @Test
+    public void testConcurrentChangesAreBatched() throws Exception {
+        final DatabaseTimerPersistence persistence = start("node1");
+        final int threads = 8;
+        final int timersPerThread = 200;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int i = 0; i < timersPerThread; i++) {
+                            final String id = "timer" + thread + "-" + i;
+                            persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, id, i));
+                            persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, id, i + 1));
+                            if (i % 2 == 0) {
+                                persistence.removeTimer(new TestTimerEntity(TIMED_OBJECT, id, i + 1));
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(threads * timersPerThread / 2, countRows("NODE_NAME = 'node1'"));
+        // only the timers with an odd index are left, all of them with the date of their second change
+        assertEquals(threads * timersPerThread / 2, countRows("MOD(NEXT_DATE, 2) = 0"));
+    }
+
+    @Test
+    public void testTimersOfFailedNodeAreTakenOver() throws Exception {
+        // node1 does not renew its lease during the test, node2 renews it and claims timers every few milliseconds
+        final DatabaseTimerPersistence node1 = start("node1", TimeUnit.HOURS.toMillis(1), TimeUnit.HOURS.toMillis(2));
+        final DatabaseTimerPersistence node2 = start("node2", 10, TimeUnit.MINUTES.toMillis(10));
+        final BlockingQueue<List<TimerEntity>> claims = new LinkedBlockingQueue<List<TimerEntity>>();
+        assertTrue(node2.loadActiveTimers(TIMED_OBJECT).isEmpty());
+        node2.addClaimedTimersListener(TIMED_OBJECT, new TimerPersistence.ClaimedTimersListener() {
+            @Override
+            public void timersClaimed(final List<TimerEntity> timers) {
+                claims.add(timers);
+            }
+        });
+        for (int i = 0; i < 10; i++) {
+            node1.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer" + i, i));
+        }
+        node1.removeTimer(new TestTimerEntity(TIMED_OBJECT, "timer5", 5));
+        assertEquals(2, countRows(DatabaseTimerPersistence.DEFAULT_TABLE_NAME + "_NODE", "HEARTBEAT > 0"));
+
+        // node1 holds its lease
+        assertNull(claims.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(9, countRows("NODE_NAME = 'node1'"));
+
+        // node1 crashes, so its lease runs out
+        final Statement statement = keepAlive.createStatement();
+        try {
+            statement.executeUpdate("UPDATE " + DatabaseTimerPersistence.DEFAULT_TABLE_NAME + "_NODE SET HEARTBEAT = 0 WHERE NODE_NAME = 'node1'");
+        } finally {
+            statement.close();
+        }
+        final List<TimerEntity> claimed = claims.poll(10, TimeUnit.SECONDS);
+        assertNotNull(claimed);
+        assertEquals(9, claimed.size());
+        assertEquals(9, countRows("NODE_NAME = 'node2'"));
+        assertEquals(9, node2.loadActiveTimers(TIMED_OBJECT).size());
+        // the timers are only handed over once
+        assertNull(claims.poll(200, TimeUnit.MILLISECONDS));
+
+        // timers released by a stopped node are claimed as well
+        final DatabaseTimerPersistence node3 = start("node3");
+        node3.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer10", 10));
+        stop(node3);
+        final List<TimerEntity> released = claims.poll(10, TimeUnit.SECONDS);
+        assertNotNull(released);
+        assertEquals(1, released.size());
+        assertEquals("timer10", released.get(0).getId());
+        assertEquals(0, countRows(DatabaseTimerPersistence.DEFAULT_TABLE_NAME + "_NODE", "NODE_NAME = 'node3'"));
+    }
+
+    @Test
+    public void testChangesOfTimersOwnedByAnotherNodeFail() throws Exception {
+        final DatabaseTimerPersistence node1 = start("node1");
+        start("node2");
+        node1.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer1", 1));
+        node1.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer2", 2));
+
+        // node2 took timer1 over while node1 did not renew its lease
+        execute("UPDATE " + DatabaseTimerPersistence.DEFAULT_TABLE_NAME + " SET NODE_NAME = 'node2' WHERE ID = 'timer1'");
+        try {
+            node1.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer1", 42));
+            fail("changed a timer owned by another node");
+        } catch (RuntimeException expected) {
+        }
+        assertEquals(1, countRows("ID = 'timer1' AND NEXT_DATE = 1"));
+        // the failed change is undone in memory
+        assertEquals(1, node1.loadTimer("timer1", TIMED_OBJECT).getNextDate().getTime());
+
+        node1.removeTimer(new TestTimerEntity(TIMED_OBJECT, "timer1", 1));
+        assertEquals(1, countRows("ID = 'timer1' AND NODE_NAME = 'node2'"));
+        assertEquals(2, node1.loadActiveTimers(TIMED_OBJECT).size());
+
+        // the timers node1 still owns are written as before
+        node1.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer2", 43));
+        assertEquals(1, countRows("ID = 'timer2' AND NEXT_DATE = 43"));
+    }
+
+    @Test(timeout = 60000)
+    public void testChangesRacingStopAreCompleted() throws Exception {
+        final DatabaseTimerPersistence persistence = start("node1");
+        final int threads = 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int i = 0; ; i++) {
+                            try {
+                                persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer" + thread + "-" + i, i));
+                            } catch (IllegalStateException e) {
+                                // the store has been stopped
+                                return;
+                            }
+                        }
+                    }
+                }));
+            }
+            Thread.sleep(100);
+            stop(persistence);
+            // every change has either been written or rejected, rather than left waiting
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        try {
+            persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, "late", 0));
+            fail("changed a timer of a stopped store");
+        } catch (IllegalStateException expected) {
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import static org.jboss.as.ejb3.timerservice.persistence.filestore.JournalFileTimerPersistenceTestCase.delete;
+import static org.jboss.as.ejb3.timerservice.persistence.filestore.JournalFileTimerPersistenceTestCase.loadAll;
+import static org.jboss.as.ejb3.timerservice.persistence.filestore.JournalFileTimerPersistenceTestCase.persistConcurrently;
+import static org.jboss.as.ejb3.timerservice.persistence.filestore.JournalFileTimerPersistenceTestCase.startFileStore;
+import static org.jboss.as.ejb3.timerservice.persistence.filestore.JournalFileTimerPersistenceTestCase.startJournal;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compares the time it takes to persist and load timers with the {@link FileTimerPersistence} and the
+ * {@link JournalFileTimerPersistence}. The numbers are only reported, as they depend on the machine. Run with
+ * {@code mvn test -Pbenchmarks}.
+ */
+public class JournalFileTimerPersistenceBenchmark {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = File.createTempFile("timer-journal", "");
+        assertTrue(dir.delete());
+        assertTrue(dir.mkdirs());
+    }
+
+    @After
+    public void tearDown() {
+        delete(dir);
+    }
+
+    @Test
+    public void testStartupTimeComparedToFileTimerPersistence() throws Exception {
+        final int timedObjects = 10;
+        final int timersPerObject = 500;
+
+        final File fileDir = new File(dir, "file");
+        final File journalDir = new File(dir, "journal");
+
+        FileTimerPersistence fileStore = startFileStore(fileDir);
+        long start = System.nanoTime();
+        persistConcurrently(fileStore, timedObjects, timersPerObject);
+        final long filePersist = System.nanoTime() - start;
+        fileStore.stop(null);
+
+        JournalFileTimerPersistence journal = startJournal(journalDir, 10000);
+        start = System.nanoTime();
+        persistConcurrently(journal, timedObjects, timersPerObject);
+        final long journalPersist = System.nanoTime() - start;
+        journal.stop(null);
+
+        start = System.nanoTime();
+        fileStore = startFileStore(fileDir);
+        assertEquals(timedObjects * timersPerObject, loadAll(fileStore, timedObjects));
+        final long fileStartup = System.nanoTime() - start;
+        fileStore.stop(null);
+
+        start = System.nanoTime();
+        journal = startJournal(journalDir, 10000);
+        assertEquals(timedObjects * timersPerObject, loadAll(journal, timedObjects));
+        final long journalStartup = System.nanoTime() - start;
+        journal.stop(null);
+
+        System.out.println("Persisting " + timedObjects * timersPerObject + " timers: file store "
+                + TimeUnit.NANOSECONDS.toMillis(filePersist) + "ms, journal " + TimeUnit.NANOSECONDS.toMillis(journalPersist) + "ms");
+        System.out.println("Loading " + timedObjects * timersPerObject + " timers: file store "
+                + TimeUnit.NANOSECONDS.toMillis(fileStartup) + "ms, journal " + TimeUnit.NANOSECONDS.toMillis(journalStartup) + "ms");
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.ejb3.timerservice.persistence.filestore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jboss.as.ejb3.timerservice.TimerState;
+import org.jboss.as.ejb3.timerservice.persistence.TimerEntity;
+import org.jboss.as.ejb3.timerservice.persistence.TimerPersistence;
+import org.jboss.as.ejb3.tx2.impl.MockTransactionManager;
+import org.jboss.modules.Module;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link JournalFileTimerPersistence}.
+ */
+public class JournalFileTimerPersistenceTestCase {
+
+    static final String TIMED_OBJECT = "app.module.TimerBean";
+
+    private File dir;
+
+    static class TestTimerEntity extends TimerEntity {
+        TestTimerEntity(final String timedObjectId, final String id, final long nextDate) {
+            this.id = id;
+            this.timedObjectId = timedObjectId;
+            this.initialDate = new Date(nextDate);
+            this.nextDate = new Date(nextDate);
+            this.repeatInterval = 1000;
+            this.info = "info-" + id;
+            this.timerState = TimerState.ACTIVE;
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        dir = File.createTempFile("timer-journal", "");
+        assertTrue(dir.delete());
+        assertTrue(dir.mkdirs());
+    }
+
+    @After
+    public void tearDown() {
+        delete(dir);
+    }
+
+    static JournalFileTimerPersistence startJournal(final File dir, final int compactionThreshold) {
+        final JournalFileTimerPersistence persistence = new JournalFileTimerPersistence(true, compactionThreshold);
+        persistence.getBaseDir().inject(dir.getAbsolutePath());
+        persistence.getModuleLoader().inject(Module.getBootModuleLoader());
+        persistence.getTransactionManager().inject(new MockTransactionManager());
+        persistence.start(null);
+        return persistence;
+    }
+
+    static FileTimerPersistence startFileStore(final File dir) {
+        final FileTimerPersistence persistence = new FileTimerPersistence(true);
+        persistence.getBaseDir().inject(dir.getAbsolutePath());
+        persistence.getModuleLoader().inject(Module.getBootModuleLoader());
+        persistence.getTransactionManager().inject(new MockTransactionManager());
+        persistence.start(null);
+        return persistence;
+    }
+
+    @Test
+    public void testPersistAndRestart() throws Exception {
+        JournalFileTimerPersistence persistence = startJournal(dir, 10000);
+        for (int i = 0; i < 10; i++) {
+            persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer" + i, i));
+        }
+        persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer3", 42));
+        persistence.removeTimer(new TestTimerEntity(TIMED_OBJECT, "timer5", 5));
+        persistence.stop(null);
+
+        persistence = startJournal(dir, 10000);
+        assertEquals(9, persistence.loadActiveTimers(TIMED_OBJECT).size());
+        assertNull(persistence.loadTimer("timer5", TIMED_OBJECT));
+        final TimerEntity updated = persistence.loadTimer("timer3", TIMED_OBJECT);
+        assertEquals(42, updated.getNextDate().getTime());
+        assertEquals("info-timer3", updated.getInfo());
+        assertTrue(persistence.loadActiveTimers("some.other.Bean").isEmpty());
+        persistence.stop(null);
+    }
+
+    @Test
+    public void testJournalIsCompacted() throws Exception {
+        JournalFileTimerPersistence persistence = startJournal(dir, 10);
+        final File journal = new File(dir, JournalFileTimerPersistence.JOURNAL_FILE_NAME);
+        persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer", 0));
+        final long singleRecord = journal.length();
+        for (int i = 1; i <= 1000; i++) {
+            persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer", i));
+        }
+        assertTrue("journal has not been compacted: " + journal.length(), journal.length() < singleRecord * 30);
+        persistence.stop(null);
+
+        persistence = startJournal(dir, 10);
+        assertEquals(1, persistence.loadActiveTimers(TIMED_OBJECT).size());
+        assertEquals(1000, persistence.loadTimer("timer", TIMED_OBJECT).getNextDate().getTime());
+        persistence.stop(null);
+    }
+
+    @Test
+    public void testIncompleteRecordIsIgnored() throws Exception {
+        JournalFileTimerPersistence persistence = startJournal(dir, 10000);
+        persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer1", 1));
+        persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer2", 2));
+        persistence.stop(null);
+
+        // simulate a crash in the middle of writing a record
+        final FileOutputStream out = new FileOutputStream(new File(dir, JournalFileTimerPersistence.JOURNAL_FILE_NAME), true);
+        try {
+            out.write(new byte[] {1, 0, 0, 1, 0, 0, 0});
+        } finally {
+            out.close();
+        }
+
+        persistence = startJournal(dir, 10000);
+        assertEquals(2, persistence.loadActiveTimers(TIMED_OBJECT).size());
+        persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer3", 3));
+        persistence.stop(null);
+
+        persistence = startJournal(dir, 10000);
+        assertEquals(3, persistence.loadActiveTimers(TIMED_OBJECT).size());
+        persistence.stop(null);
+    }
+
+    @Test
+    public void testImportsFileTimerPersistence() throws Exception {
+        final FileTimerPersistence fileStore = startFileStore(dir);
+        for (int i = 0; i < 10; i++) {
+            fileStore.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer" + i, i));
+        }
+        fileStore.stop(null);
+
+        final JournalFileTimerPersistence persistence = startJournal(dir, 10000);
+        assertEquals(10, persistence.loadActiveTimers(TIMED_OBJECT).size());
+        assertNotNull(persistence.loadTimer("timer7", TIMED_OBJECT));
+        persistence.stop(null);
+        for (File file : dir.listFiles()) {
+            assertFalse("timer file has not been removed: " + file, file.isDirectory() && file.listFiles().length > 0);
+        }
+    }
+
+    @Test
+    public void testConcurrentPersistAndRestart() throws Exception {
+        final int timedObjects = 10;
+        final int timersPerObject = 50;
+        JournalFileTimerPersistence persistence = startJournal(dir, 100);
+        persistConcurrently(persistence, timedObjects, timersPerObject);
+        persistence.stop(null);
+
+        persistence = startJournal(dir, 100);
+        assertEquals(timedObjects * timersPerObject, loadAll(persistence, timedObjects));
+        persistence.stop(null);
+    }
+
+    @Test
+    public void testIncompleteCompactedJournalIsDiscarded() throws Exception {
+        JournalFileTimerPersistence persistence = startJournal(dir, 10000);
+        persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer1", 1));
+        persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer2", 2));
+        persistence.stop(null);
+
+        // simulate a crash while the compacted journal is written
+        final File compacted = new File(dir, JournalFileTimerPersistence.JOURNAL_FILE_NAME + ".compact");
+        final FileOutputStream out = new FileOutputStream(compacted);
+        try {
+            out.write(new byte[] {1, 0, 0, 1, 0, 0, 0});
+        } finally {
+            out.close();
+        }
+
+        persistence = startJournal(dir, 10000);
+        assertEquals(2, persistence.loadActiveTimers(TIMED_OBJECT).size());
+        assertFalse(compacted.exists());
+        persistence.stop(null);
+    }
+
+    @Test
+    public void testCompactedJournalIsRecovered() throws Exception {
+        final File journal = new File(dir, JournalFileTimerPersistence.JOURNAL_FILE_NAME);
+        final File compacted = new File(dir, JournalFileTimerPersistence.JOURNAL_FILE_NAME + ".compact");
+        final File old = new File(dir, JournalFileTimerPersistence.JOURNAL_FILE_NAME + ".old");
+        JournalFileTimerPersistence persistence = startJournal(dir, 10000);
+        persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer1", 1));
+        persistence.stop(null);
+        final File previous = new File(dir, "previous");
+        copy(journal, previous);
+        persistence = startJournal(dir, 10000);
+        persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer2", 2));
+        persistence.stop(null);
+
+        // simulate a crash after the journal has been moved aside, but before the compacted journal replaced it
+        assertTrue(journal.renameTo(compacted));
+        assertTrue(previous.renameTo(old));
+
+        persistence = startJournal(dir, 10000);
+        assertEquals(2, persistence.loadActiveTimers(TIMED_OBJECT).size());
+        assertFalse(compacted.exists());
+        assertFalse(old.exists());
+        persistence.stop(null);
+    }
+
+    @Test
+    public void testMovedJournalIsRecovered() throws Exception {
+        final File journal = new File(dir, JournalFileTimerPersistence.JOURNAL_FILE_NAME);
+        final File old = new File(dir, JournalFileTimerPersistence.JOURNAL_FILE_NAME + ".old");
+        JournalFileTimerPersistence persistence = startJournal(dir, 10000);
+        persistence.persistTimer(new TestTimerEntity(TIMED_OBJECT, "timer1", 1));
+        persistence.stop(null);
+
+        // simulate a crash after the journal has been moved aside, before a compacted journal has been written
+        assertTrue(journal.renameTo(old));
+
+        persistence = startJournal(dir, 10000);
+        assertNotNull(persistence.loadTimer("timer1", TIMED_OBJECT));
+        assertFalse(old.exists());
+        persistence.stop(null);
+    }
+
+    static void persistConcurrently(final TimerPersistence persistence, final int timedObjects, final int timersPerObject) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < timedObjects; i++) {
+                final String timedObjectId = TIMED_OBJECT + i;
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int j = 0; j < timersPerObject; j++) {
+                            persistence.persistTimer(new TestTimerEntity(timedObjectId, "timer" + j, j));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    static int loadAll(final TimerPersistence persistence, final int timedObjects) {
+        int count = 0;
+        for (int i = 0; i < timedObjects; i++) {
+            count += persistence.loadActiveTimers(TIMED_OBJECT + i).size();
+        }
+        return count;
+    }
+
+    private static void copy(final File from, final File to) throws IOException {
+        final FileInputStream in = new FileInputStream(from);
+        try {
+            final FileOutputStream out = new FileOutputStream(to);
+            try {
+                final byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    static void delete(final File file) {
+        final File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -259,7 +259,7 @@ public class DomainModelControllerService extends AbstractControllerService impl
     protected void initModel(Resource rootResource, ManagementResourceRegistration rootRegistration) {
         DomainModelUtil.updateCoreModel(rootResource.getModel());
         HostModelUtil.createHostRegistry(rootRegistration, hostControllerConfigurationPersister, environment, localFileRepository,
-                hostControllerInfo, new DelegatingServerInventory(), remoteFileRepository, this, this);
+                hostControllerInfo, new DelegatingServerInventory(), remoteFileRepository, this, this, getOperationStatistics());
         this.modelNodeRegistration = rootRegistration;
     }
 
@@ -140,6 +140,20 @@ public class HostControllerConfigurationPersister implements ExtensibleConfigura
         };
     }
 
+    @Override
+    public PersistenceResource store(ModelNode model, ModelNode operation, Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
+        // an operation may change both the host and the domain model, so it is not journaled by either of them
+        return store(model, affectedAddresses);
+    }
+
+    @Override
+    public void flush() {
+        hostPersister.flush();
+        if (domainPersister != null) {
+            domainPersister.flush();
+        }
+    }
+
     @Override
     public void marshallAsXml(ModelNode model, OutputStream output) throws ConfigurationPersistenceException {
         throw new UnsupportedOperationException();
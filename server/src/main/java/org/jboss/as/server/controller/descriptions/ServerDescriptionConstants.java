@@ -35,4 +35,8 @@ public final class ServerDescriptionConstants {
     public static final String PROCESS_TYPE = "process-type";
 
     public static final String LAUNCH_TYPE = "launch-type";
+
+    public static final String BOOT_PROFILE = "boot-profile";
+
+    public static final String ANNOTATION_INDEX_CACHE = "annotation-index-cache";
 }
@@ -51,6 +51,8 @@ import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SUB
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.SYSTEM_PROPERTY;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.TAIL_COMMENT_ALLOWED;
 import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.TYPE;
+import static org.jboss.as.server.controller.descriptions.ServerDescriptionConstants.ANNOTATION_INDEX_CACHE;
+import static org.jboss.as.server.controller.descriptions.ServerDescriptionConstants.BOOT_PROFILE;
 import static org.jboss.as.server.controller.descriptions.ServerDescriptionConstants.LAUNCH_TYPE;
 import static org.jboss.as.server.controller.descriptions.ServerDescriptionConstants.PROCESS_TYPE;
 import static org.jboss.as.server.controller.descriptions.ServerDescriptionConstants.PROFILE_NAME;
@@ -119,6 +121,16 @@ public class ServerRootDescription {
         root.get(ATTRIBUTES, LAUNCH_TYPE, ALLOWED).add(ServerEnvironment.LaunchType.STANDALONE.toString());
         root.get(ATTRIBUTES, LAUNCH_TYPE, ALLOWED).add(ServerEnvironment.LaunchType.EMBEDDED.toString());
 
+        root.get(ATTRIBUTES, BOOT_PROFILE, DESCRIPTION).set(bundle.getString("server.boot-profile"));
+        root.get(ATTRIBUTES, BOOT_PROFILE, TYPE).set(ModelType.OBJECT);
+        root.get(ATTRIBUTES, BOOT_PROFILE, REQUIRED).set(false);
+        root.get(ATTRIBUTES, BOOT_PROFILE, NILLABLE).set(true);
+
+        root.get(ATTRIBUTES, ANNOTATION_INDEX_CACHE, DESCRIPTION).set(bundle.getString("server.annotation-index-cache"));
+        root.get(ATTRIBUTES, ANNOTATION_INDEX_CACHE, TYPE).set(ModelType.OBJECT);
+        root.get(ATTRIBUTES, ANNOTATION_INDEX_CACHE, REQUIRED).set(false);
+        root.get(ATTRIBUTES, ANNOTATION_INDEX_CACHE, NILLABLE).set(true);
+
         root.get(OPERATIONS);
 
         root.get(CHILDREN, EXTENSION, DESCRIPTION).set(bundle.getString("server.extension"));
@@ -68,6 +68,7 @@ public abstract class AbstractDeploymentUnitService implements Service<Deploymen
         target.addListener(ServiceListener.Inheritance.ALL, listener);
         deploymentUnit = createAndInitializeDeploymentUnit(context.getController().getServiceContainer());
         deploymentUnit.putAttachment(Attachments.STATUS_LISTENER, listener);
+        deploymentUnit.putAttachment(Attachments.PROCESSING_PROFILE, new DeploymentProcessingProfile());
 
         final ServiceName serviceName = deploymentUnit.getServiceName().append(FIRST_PHASE_NAME);
         final Phase firstPhase = Phase.values()[0];
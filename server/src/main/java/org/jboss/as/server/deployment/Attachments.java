@@ -82,15 +82,20 @@ public final class Attachments {
     public static final AttachmentKey<VirtualFile> DEPLOYMENT_CONTENTS = AttachmentKey.create(VirtualFile.class);
 
     /**
-     * The deployment hash
+     * The hash of the deployment content, if it is managed content from the content repository
      */
-    //public static final AttachmentKey<byte[]> DEPLOYMENT_HASH = AttachmentKey.create(byte[].class);
+    public static final AttachmentKey<byte[]> DEPLOYMENT_HASH = AttachmentKey.create(byte[].class);
 
     /**
      * The special status listener attachment.
      */
     public static final AttachmentKey<AbstractDeploymentUnitService.DeploymentServiceListener> STATUS_LISTENER = AttachmentKey.create(AbstractDeploymentUnitService.DeploymentServiceListener.class);
 
+    /**
+     * The record of the time spent in each deployment phase and processor.
+     */
+    public static final AttachmentKey<DeploymentProcessingProfile> PROCESSING_PROFILE = AttachmentKey.create(DeploymentProcessingProfile.class);
+
     /**
      * This should be added as a listener to all non child services
      */
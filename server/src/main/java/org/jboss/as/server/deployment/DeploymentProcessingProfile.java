@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jboss.dmr.ModelNode;
+
+/**
+ * Record of where the time went while a deployment unit went through the deployment phases: the time each phase
+ * took to run its processors, and how long each processor took. Times are in microseconds.
+ */
+public final class DeploymentProcessingProfile {
+
+    public static final String PROCESSORS = "processors";
+    public static final String TIME = "time";
+
+    private final Map<Phase, PhaseTimes> phases = new EnumMap<Phase, PhaseTimes>(Phase.class);
+
+    /**
+     * Discard what was recorded for a phase, before the phase runs again.
+     *
+     * @param phase the phase
+     */
+    synchronized void startPhase(final Phase phase) {
+        phases.put(phase, new PhaseTimes());
+    }
+
+    /**
+     * Record the time one processor took.
+     *
+     * @param phase the phase the processor ran in
+     * @param processor the processor
+     * @param micros the time, in microseconds
+     */
+    synchronized void recordProcessor(final Phase phase, final DeploymentUnitProcessor processor, final long micros) {
+        final PhaseTimes times = getPhaseTimes(phase);
+        // the same processor class may be registered more than once in a phase
+        final String name = processor.getClass().getName();
+        final Long previous = times.processors.get(name);
+        times.processors.put(name, previous == null ? micros : previous + micros);
+        times.time += micros;
+    }
+
+    /**
+     * Get the profile, phases in the order they ran and processors in the order they ran within each phase.
+     *
+     * @return the profile
+     */
+    public synchronized ModelNode toModelNode() {
+        final ModelNode result = new ModelNode().setEmptyObject();
+        for (Map.Entry<Phase, PhaseTimes> entry : phases.entrySet()) {
+            final ModelNode phase = result.get(entry.getKey().name());
+            phase.get(TIME).set(entry.getValue().time);
+            final ModelNode processors = phase.get(PROCESSORS).setEmptyObject();
+            for (Map.Entry<String, Long> processor : entry.getValue().processors.entrySet()) {
+                processors.get(processor.getKey()).set(processor.getValue());
+            }
+        }
+        return result;
+    }
+
+    private PhaseTimes getPhaseTimes(final Phase phase) {
+        PhaseTimes times = phases.get(phase);
+        if (times == null) {
+            times = new PhaseTimes();
+            phases.put(phase, times);
+        }
+        return times;
+    }
+
+    private static final class PhaseTimes {
+        private final Map<String, Long> processors = new LinkedHashMap<String, Long>();
+        private long time;
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment;
+
+import static org.jboss.as.controller.descriptions.ModelDescriptionConstants.OP_ADDR;
+
+import java.util.List;
+
+import org.jboss.as.controller.OperationContext;
+import org.jboss.as.controller.OperationFailedException;
+import org.jboss.as.controller.OperationStepHandler;
+import org.jboss.as.controller.PathAddress;
+import org.jboss.as.controller.PathElement;
+import org.jboss.as.controller.descriptions.ModelDescriptionConstants;
+import org.jboss.dmr.ModelNode;
+import org.jboss.msc.service.ServiceController;
+
+/**
+ * Reads the {@link DeploymentProcessingProfile} of a deployment and of its subdeployments.
+ */
+public class DeploymentProcessingProfileHandler implements OperationStepHandler {
+    public static final String ATTRIBUTE_NAME = ModelDescriptionConstants.PROCESSING_PROFILE;
+    public static final String SUBDEPLOYMENTS = "subdeployments";
+    public static final OperationStepHandler INSTANCE = new DeploymentProcessingProfileHandler();
+    private static final ModelNode NO_METRICS = new ModelNode().set("no metrics available");
+
+    @Override
+    public void execute(OperationContext context, ModelNode operation) throws OperationFailedException {
+        final PathAddress address = PathAddress.pathAddress(operation.get(OP_ADDR));
+        final PathElement element = address.getLastElement();
+
+        context.addStep(new OperationStepHandler() {
+                    @Override
+                    public void execute(final OperationContext context, final ModelNode operation) throws OperationFailedException {
+                        final ModelNode result = context.getResult();
+                        final ServiceController<?> controller = context.getServiceRegistry(false).getService(Services.deploymentUnitName(element.getValue()));
+                        final DeploymentUnit unit = controller == null ? null : ((AbstractDeploymentUnitService) controller.getService()).getValue();
+                        final DeploymentProcessingProfile profile = unit == null ? null : unit.getAttachment(Attachments.PROCESSING_PROFILE);
+                        if (profile != null) {
+                            result.set(profile.toModelNode());
+                            final List<DeploymentUnit> subDeployments = unit.getAttachmentList(Attachments.SUB_DEPLOYMENTS);
+                            for (DeploymentUnit subDeployment : subDeployments) {
+                                final DeploymentProcessingProfile subProfile = subDeployment.getAttachment(Attachments.PROCESSING_PROFILE);
+                                if (subProfile != null) {
+                                    result.get(SUBDEPLOYMENTS, subDeployment.getName()).set(subProfile.toModelNode());
+                                }
+                            }
+                        } else {
+                            result.set(NO_METRICS);
+                        }
+                        context.completeStep();
+                    }
+                }, OperationContext.Stage.RUNTIME);
+        context.completeStep();
+    }
+}
@@ -109,10 +109,18 @@ final class DeploymentUnitPhaseService<T> implements Service<T> {
             }
         }
 
+        final DeploymentProcessingProfile profile = deploymentUnit.getAttachment(Attachments.PROCESSING_PROFILE);
+        if (profile != null) {
+            profile.startPhase(phase);
+        }
         while (iterator.hasNext()) {
             final DeploymentUnitProcessor processor = iterator.next();
             try {
+                final long start = System.nanoTime();
                 processor.deploy(processorContext);
+                if (profile != null) {
+                    profile.recordProcessor(phase, processor, (System.nanoTime() - start) / 1000L);
+                }
             } catch (Throwable e) {
                 while (iterator.hasPrevious()) {
                     final DeploymentUnitProcessor prev = iterator.previous();
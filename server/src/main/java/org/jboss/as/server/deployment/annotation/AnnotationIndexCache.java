@@ -0,0 +1,199 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.as.controller.HashUtil;
+import org.jboss.as.server.deployment.repository.api.ContentRepository;
+import org.jboss.dmr.ModelNode;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.IndexReader;
+import org.jboss.jandex.IndexWriter;
+import org.jboss.logging.Logger;
+import org.jboss.vfs.VFSUtils;
+
+/**
+ * A persistent cache of the annotation indexes of the resource roots of managed deployments. Deployment content
+ * in the {@link ContentRepository} never changes for a given hash, so an index is stored under the hash of the
+ * deployment it was computed for and the path of the resource root within that deployment, and is reused when the
+ * same content is deployed again, including after a restart.
+ */
+public final class AnnotationIndexCache {
+
+    private static final Logger logger = Logger.getLogger(AnnotationIndexCache.class);
+
+    private static final String INDEX_SUFFIX = ".idx";
+
+    private final File directory;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param directory the directory to store the indexes in; it is created when first needed
+     */
+    public AnnotationIndexCache(final File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Get a stored index.
+     *
+     * @param contentHash the hash of the deployment content
+     * @param path the path of the resource root relative to the root of the deployment content
+     * @return the index, or {@code null} if none is stored or it could not be read
+     */
+    Index get(final byte[] contentHash, final String path) {
+        final File file = getIndexFile(contentHash, path);
+        if (file.exists()) {
+            InputStream in = null;
+            try {
+                in = new BufferedInputStream(new FileInputStream(file));
+                final Index index = new IndexReader(in).read();
+                hits.incrementAndGet();
+                return index;
+            } catch (Exception e) {
+                logger.debugf(e, "Could not read cached index %s", file);
+            } finally {
+                VFSUtils.safeClose(in);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Store an index. Failures are logged and otherwise ignored, the index is then simply computed again next time.
+     *
+     * @param contentHash the hash of the deployment content
+     * @param path the path of the resource root relative to the root of the deployment content
+     * @param index the index
+     */
+    void put(final byte[] contentHash, final String path, final Index index) {
+        final File file = getIndexFile(contentHash, path);
+        final File parent = file.getParentFile();
+        File temp = null;
+        OutputStream out = null;
+        try {
+            if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+                throw new IOException("Could not create directory " + parent);
+            }
+            // write to a temporary file first, so a concurrent or interrupted write never leaves a partial index
+            temp = File.createTempFile("index", ".tmp", parent);
+            out = new BufferedOutputStream(new FileOutputStream(temp));
+            new IndexWriter(out).write(index);
+            out.close();
+            out = null;
+            if (!temp.renameTo(file) && !file.exists()) {
+                throw new IOException("Could not rename " + temp + " to " + file);
+            }
+        } catch (IOException e) {
+            logger.debugf(e, "Could not store index %s", file);
+        } finally {
+            VFSUtils.safeClose(out);
+            if (temp != null && temp.exists()) {
+                temp.delete();
+            }
+        }
+    }
+
+    /**
+     * Delete the stored indexes of deployment content that is no longer in the content repository.
+     *
+     * @param contentRepository the content repository
+     */
+    public void prune(final ContentRepository contentRepository) {
+        final File[] contents = directory.listFiles();
+        if (contents == null) {
+            return;
+        }
+        for (File content : contents) {
+            boolean live;
+            try {
+                live = contentRepository.hasContent(HashUtil.hexStringToByteArray(content.getName()));
+            } catch (RuntimeException e) {
+                live = false;
+            }
+            if (!live) {
+                delete(content);
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Get the cache hit and miss counts since the server started.
+     *
+     * @return the counts
+     */
+    public ModelNode toModelNode() {
+        final ModelNode result = new ModelNode();
+        result.get("hits").set(hits.get());
+        result.get("misses").set(misses.get());
+        return result;
+    }
+
+    private File getIndexFile(final byte[] contentHash, final String path) {
+        final File content = new File(directory, HashUtil.bytesToHexString(contentHash));
+        return new File(content, HashUtil.bytesToHexString(sha1(path)) + INDEX_SUFFIX);
+    }
+
+    private static byte[] sha1(final String path) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(path.getBytes("UTF-8"));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        if (!file.delete()) {
+            logger.debugf("Could not delete %s", file);
+        }
+    }
+}
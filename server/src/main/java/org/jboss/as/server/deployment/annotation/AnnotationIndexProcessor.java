@@ -42,9 +42,15 @@ import org.jboss.vfs.util.SuffixMatchFilter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Deployment unit processor responsible for creating and attaching an annotation index for a resource root
@@ -56,23 +62,49 @@ public class AnnotationIndexProcessor implements DeploymentUnitProcessor {
 
     private static final Logger logger = Logger.getLogger(AnnotationIndexProcessor.class);
 
+    private final AnnotationIndexCache cache;
+    private final ExecutorService executor;
+
+    public AnnotationIndexProcessor() {
+        this(null, null);
+    }
+
+    /**
+     * @param cache the cache to store the computed indexes of managed deployment content in, or {@code null}
+     * @param executor the executor to index resource roots in parallel on, or {@code null} to index them one after
+     *                 the other
+     */
+    public AnnotationIndexProcessor(final AnnotationIndexCache cache, final ExecutorService executor) {
+        this.cache = cache;
+        this.executor = executor;
+    }
+
     /**
      * Process this deployment for annotations.  This will use an annotation indexer to create an index of all annotations
-     * found in this deployment and attach it to the deployment unit context.
+     * found in this deployment and attach it to the deployment unit context.  Resource roots that have to be indexed are
+     * indexed in parallel.
      *
      * @param phaseContext the deployment unit context
      * @throws DeploymentUnitProcessingException
      *
      */
     public void deploy(DeploymentPhaseContext phaseContext) throws DeploymentUnitProcessingException {
+        final DeploymentUnit deploymentUnit = phaseContext.getDeploymentUnit();
         final List<ResourceRoot> allResourceRoots = new ArrayList<ResourceRoot>();
-        final List<ResourceRoot> resourceRoots = phaseContext.getDeploymentUnit().getAttachment(Attachments.RESOURCE_ROOTS);
+        final List<ResourceRoot> resourceRoots = deploymentUnit.getAttachment(Attachments.RESOURCE_ROOTS);
         if (resourceRoots != null) {
             allResourceRoots.addAll(resourceRoots);
         }
-        allResourceRoots.add(phaseContext.getDeploymentUnit().getAttachment(Attachments.DEPLOYMENT_ROOT));
+        allResourceRoots.add(deploymentUnit.getAttachment(Attachments.DEPLOYMENT_ROOT));
+
+        // only managed content is cached, as its hash identifies it
+        final DeploymentUnit topLevel = deploymentUnit.getParent() == null ? deploymentUnit : deploymentUnit.getParent();
+        final byte[] contentHash = cache == null ? null : topLevel.getAttachment(Attachments.DEPLOYMENT_HASH);
+        final VirtualFile contentRoot = contentHash == null ? null : topLevel.getAttachment(Attachments.DEPLOYMENT_ROOT).getRoot();
+        final List<IndexTask> tasks = new ArrayList<IndexTask>();
+        final Set<ResourceRoot> queued = new HashSet<ResourceRoot>();
         for (ResourceRoot resourceRoot : allResourceRoots) {
-            if (resourceRoot.getAttachment(Attachments.ANNOTATION_INDEX) != null) {
+            if (resourceRoot.getAttachment(Attachments.ANNOTATION_INDEX) != null || queued.contains(resourceRoot)) {
                 continue;
             }
 
@@ -103,37 +135,155 @@ public class AnnotationIndexProcessor implements DeploymentUnitProcessor {
             }
 
             final VirtualFile virtualFile = resourceRoot.getRoot();
-            final Indexer indexer = new Indexer();
-            try {
-                final VisitorAttributes visitorAttributes = new VisitorAttributes();
-                visitorAttributes.setLeavesOnly(true);
-                visitorAttributes.setRecurseFilter(new VirtualFileFilter() {
-                    public boolean accepts(VirtualFile file) {
-                        return indexIgnorePaths == null || !indexIgnorePaths.contains(file.getPathNameRelativeTo(virtualFile));
-                    }
-                });
+            final String cachePath = contentRoot == null ? null : getPathRelativeTo(virtualFile, contentRoot);
+            if (cachePath != null) {
+                final Index index = cache.get(contentHash, cachePath);
+                if (index != null) {
+                    resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, index);
+                    logger.tracef("Found cached index for archive %s", virtualFile);
+                    continue;
+                }
+            }
+            tasks.add(new IndexTask(resourceRoot, indexIgnorePaths, contentHash, cachePath));
+            queued.add(resourceRoot);
+        }
 
-                final List<VirtualFile> classChildren = virtualFile.getChildren(new SuffixMatchFilter(".class", visitorAttributes));
-                for (VirtualFile classFile : classChildren) {
-                    InputStream inputStream = null;
+        final List<Index> indexes;
+        try {
+            indexes = index(tasks, executor);
+        } catch (Throwable t) {
+            throw new DeploymentUnitProcessingException("Failed to index deployment root for annotations", t);
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            tasks.get(i).resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, indexes.get(i));
+        }
+    }
+
+    /**
+     * Run the index tasks. With an executor, as many tasks as there are processors run at a time, one of them in the
+     * calling thread. Being interrupted while waiting for the others does not abandon the deployment: the interrupt is
+     * kept for the caller once all indexes are done.
+     *
+     * @param tasks the tasks
+     * @param executor the executor, or {@code null} to run the tasks in the calling thread
+     * @return the indexes, in the order of the tasks
+     */
+    static List<Index> index(final List<? extends Callable<Index>> tasks, final ExecutorService executor) throws Exception {
+        final Index[] indexes = new Index[tasks.size()];
+        final AtomicInteger next = new AtomicInteger();
+        final Callable<Void> worker = new Callable<Void>() {
+            public Void call() throws Exception {
+                int i;
+                while ((i = next.getAndIncrement()) < indexes.length) {
+                    indexes[i] = tasks.get(i).call();
+                }
+                return null;
+            }
+        };
+        final int workers = executor == null ? 1 : Math.min(tasks.size(), Runtime.getRuntime().availableProcessors());
+        final List<Future<Void>> futures = new ArrayList<Future<Void>>(workers);
+        boolean interrupted = false;
+        try {
+            for (int i = 1; i < workers; i++) {
+                futures.add(executor.submit(worker));
+            }
+            worker.call();
+            for (Future<Void> future : futures) {
+                for (;;) {
                     try {
-                        inputStream = classFile.openStream();
-                        indexer.index(inputStream);
-                    } catch (Exception e) {
-                        logger.warn("Could not index class " + classFile.getPathNameRelativeTo(virtualFile) + " in archive '" + virtualFile + "'", e);
-                    } finally {
-                        VFSUtils.safeClose(inputStream);
+                        future.get();
+                        break;
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    } catch (ExecutionException e) {
+                        throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
                     }
                 }
-                final Index index = indexer.complete();
-                resourceRoot.putAttachment(Attachments.ANNOTATION_INDEX, index);
-                logger.tracef("Generated index for archive %s", virtualFile);
-            } catch (Throwable t) {
-                throw new DeploymentUnitProcessingException("Failed to index deployment root for annotations", t);
+            }
+        } finally {
+            // on failure, leave what has not been started
+            next.set(indexes.length);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return Arrays.asList(indexes);
+    }
+
+    /**
+     * Creates the index of one resource root.
+     */
+    private final class IndexTask implements Callable<Index> {
+
+        private final ResourceRoot resourceRoot;
+        private final Set<String> indexIgnorePaths;
+        private final byte[] contentHash;
+        private final String cachePath;
+
+        IndexTask(final ResourceRoot resourceRoot, final Set<String> indexIgnorePaths, final byte[] contentHash, final String cachePath) {
+            this.resourceRoot = resourceRoot;
+            this.indexIgnorePaths = indexIgnorePaths;
+            this.contentHash = contentHash;
+            this.cachePath = cachePath;
+        }
+
+        public Index call() throws Exception {
+            final VirtualFile virtualFile = resourceRoot.getRoot();
+            final Index index = createIndex(virtualFile, indexIgnorePaths);
+            logger.tracef("Generated index for archive %s", virtualFile);
+            if (cachePath != null) {
+                cache.put(contentHash, cachePath, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Index all the class files under a root.
+     *
+     * @param virtualFile the root
+     * @param indexIgnorePaths paths relative to the root that are not to be indexed, or {@code null}
+     * @return the index
+     */
+    static Index createIndex(final VirtualFile virtualFile, final Set<String> indexIgnorePaths) throws IOException {
+        final Indexer indexer = new Indexer();
+        final VisitorAttributes visitorAttributes = new VisitorAttributes();
+        visitorAttributes.setLeavesOnly(true);
+        visitorAttributes.setRecurseFilter(new VirtualFileFilter() {
+            public boolean accepts(VirtualFile file) {
+                return indexIgnorePaths == null || !indexIgnorePaths.contains(file.getPathNameRelativeTo(virtualFile));
+            }
+        });
+
+        final List<VirtualFile> classChildren = virtualFile.getChildren(new SuffixMatchFilter(".class", visitorAttributes));
+        for (VirtualFile classFile : classChildren) {
+            InputStream inputStream = null;
+            try {
+                inputStream = classFile.openStream();
+                indexer.index(inputStream);
+            } catch (Exception e) {
+                logger.warn("Could not index class " + classFile.getPathNameRelativeTo(virtualFile) + " in archive '" + virtualFile + "'", e);
+            } finally {
+                VFSUtils.safeClose(inputStream);
             }
         }
+        return indexer.complete();
     }
 
     public void undeploy(final DeploymentUnit context) {
     }
+
+    /**
+     * Get the path of a resource root within the deployment content, or {@code null} if it is not part of it.
+     */
+    private static String getPathRelativeTo(final VirtualFile file, final VirtualFile contentRoot) {
+        if (file.equals(contentRoot)) {
+            return "";
+        }
+        try {
+            return file.getPathNameRelativeTo(contentRoot);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
@@ -31,19 +31,32 @@ import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Composite annotation index.  Represents an annotation index for an entire deployment.
+ * <p/>
+ * Many processors query the same names, so the answers are computed once: the class hierarchy of all the underlying
+ * indexes is merged when it is first needed, and the results of the annotation and transitive hierarchy queries are
+ * remembered.
  *
  * @author John Bailey
  */
 public class CompositeIndex {
     final Collection<Index> indexes;
 
+    private volatile Hierarchy hierarchy;
+    private final ConcurrentMap<DotName, List<AnnotationInstance>> annotations = new ConcurrentHashMap<DotName, List<AnnotationInstance>>();
+    private final ConcurrentMap<DotName, Set<ClassInfo>> allKnownSubclasses = new ConcurrentHashMap<DotName, Set<ClassInfo>>();
+    private final ConcurrentMap<DotName, Set<ClassInfo>> allKnownImplementors = new ConcurrentHashMap<DotName, Set<ClassInfo>>();
+
     public CompositeIndex(final Collection<Index> indexes) {
         this.indexes = indexes;
     }
@@ -59,28 +72,26 @@ public class CompositeIndex {
      * @see {@link Index#getAnnotations(org.jboss.jandex.DotName)}
      */
     public List<AnnotationInstance> getAnnotations(final DotName annotationName) {
-        final List<AnnotationInstance> allInstances = new ArrayList<AnnotationInstance>();
-        for (Index index : indexes) {
-            final List<AnnotationInstance> list = index.getAnnotations(annotationName);
-            if (list != null) {
-                allInstances.addAll(list);
+        List<AnnotationInstance> result = annotations.get(annotationName);
+        if (result == null) {
+            final List<AnnotationInstance> allInstances = new ArrayList<AnnotationInstance>();
+            for (Index index : indexes) {
+                final List<AnnotationInstance> list = index.getAnnotations(annotationName);
+                if (list != null) {
+                    allInstances.addAll(list);
+                }
             }
+            result = Collections.unmodifiableList(allInstances);
+            annotations.putIfAbsent(annotationName, result);
         }
-        return Collections.unmodifiableList(allInstances);
+        return result;
     }
 
     /**
      * @see {@link Index#getKnownDirectSubclasses(org.jboss.jandex.DotName)}
      */
     public Set<ClassInfo> getKnownDirectSubclasses(final DotName className) {
-        final Set<ClassInfo> allKnown = new HashSet<ClassInfo>();
-        for (Index index : indexes) {
-            final List<ClassInfo> list = index.getKnownDirectSubclasses(className);
-            if (list != null) {
-                allKnown.addAll(list);
-            }
-        }
-        return Collections.unmodifiableSet(allKnown);
+        return getHierarchy().getDirectSubclasses(className);
     }
 
     /**
@@ -91,13 +102,18 @@ public class CompositeIndex {
      * @return All known subclasses
      */
     public Set<ClassInfo> getAllKnownSubclasses(final DotName className) {
-        final Set<ClassInfo> allKnown = new HashSet<ClassInfo>();
-        final Set<DotName> processedClasses = new HashSet<DotName>();
-        getAllKnownSubClasses(className, allKnown, processedClasses);
-        return allKnown;
+        Set<ClassInfo> result = allKnownSubclasses.get(className);
+        if (result == null) {
+            final Set<ClassInfo> allKnown = new HashSet<ClassInfo>();
+            final Set<DotName> processedClasses = new HashSet<DotName>();
+            getAllKnownSubClasses(getHierarchy(), className, allKnown, processedClasses);
+            result = Collections.unmodifiableSet(allKnown);
+            allKnownSubclasses.putIfAbsent(className, result);
+        }
+        return result;
     }
 
-    private void getAllKnownSubClasses(DotName className, Set<ClassInfo> allKnown, Set<DotName> processedClasses) {
+    private static void getAllKnownSubClasses(Hierarchy hierarchy, DotName className, Set<ClassInfo> allKnown, Set<DotName> processedClasses) {
         final Set<DotName> subClassesToProcess = new HashSet<DotName>();
         subClassesToProcess.add(className);
         while (!subClassesToProcess.isEmpty()) {
@@ -105,22 +121,17 @@ public class CompositeIndex {
             DotName name = toProcess.next();
             toProcess.remove();
             processedClasses.add(name);
-            getAllKnownSubClasses(name, allKnown, subClassesToProcess, processedClasses);
+            getAllKnownSubClasses(hierarchy, name, allKnown, subClassesToProcess, processedClasses);
         }
     }
 
-    private void getAllKnownSubClasses(DotName name, Set<ClassInfo> allKnown, Set<DotName> subClassesToProcess,
+    private static void getAllKnownSubClasses(Hierarchy hierarchy, DotName name, Set<ClassInfo> allKnown, Set<DotName> subClassesToProcess,
             Set<DotName> processedClasses) {
-        for (Index index : indexes) {
-            final List<ClassInfo> list = index.getKnownDirectSubclasses(name);
-            if (list != null) {
-                for (final ClassInfo clazz : list) {
-                    final DotName className = clazz.name();
-                    if (!processedClasses.contains(className)) {
-                        allKnown.add(clazz);
-                        subClassesToProcess.add(className);
-                    }
-                }
+        for (final ClassInfo clazz : hierarchy.getDirectSubclasses(name)) {
+            final DotName className = clazz.name();
+            if (!processedClasses.contains(className)) {
+                allKnown.add(clazz);
+                subClassesToProcess.add(className);
             }
         }
     }
@@ -129,14 +140,7 @@ public class CompositeIndex {
      * @see {@link Index#getKnownDirectImplementors(DotName)}
      */
     public Set<ClassInfo> getKnownDirectImplementors(final DotName className) {
-        final Set<ClassInfo> allKnown = new HashSet<ClassInfo>();
-        for (Index index : indexes) {
-            final List<ClassInfo> list = index.getKnownDirectImplementors(className);
-            if (list != null) {
-                allKnown.addAll(list);
-            }
-        }
-        return Collections.unmodifiableSet(allKnown);
+        return getHierarchy().getDirectImplementors(className);
     }
 
     /**
@@ -150,37 +154,38 @@ public class CompositeIndex {
      * @return All known implementors of the interface
      */
     public Set<ClassInfo> getAllKnownImplementors(final DotName interfaceName) {
-        final Set<ClassInfo> allKnown = new HashSet<ClassInfo>();
-        final Set<DotName> subInterfacesToProcess = new HashSet<DotName>();
-        final Set<DotName> processedClasses = new HashSet<DotName>();
-        subInterfacesToProcess.add(interfaceName);
-        while (!subInterfacesToProcess.isEmpty()) {
-            final Iterator<DotName> toProcess = subInterfacesToProcess.iterator();
-            DotName name = toProcess.next();
-            toProcess.remove();
-            processedClasses.add(name);
-            getKnownImplementors(name, allKnown, subInterfacesToProcess, processedClasses);
+        Set<ClassInfo> result = allKnownImplementors.get(interfaceName);
+        if (result == null) {
+            final Hierarchy hierarchy = getHierarchy();
+            final Set<ClassInfo> allKnown = new HashSet<ClassInfo>();
+            final Set<DotName> subInterfacesToProcess = new HashSet<DotName>();
+            final Set<DotName> processedClasses = new HashSet<DotName>();
+            subInterfacesToProcess.add(interfaceName);
+            while (!subInterfacesToProcess.isEmpty()) {
+                final Iterator<DotName> toProcess = subInterfacesToProcess.iterator();
+                DotName name = toProcess.next();
+                toProcess.remove();
+                processedClasses.add(name);
+                getKnownImplementors(hierarchy, name, allKnown, subInterfacesToProcess, processedClasses);
+            }
+            result = Collections.unmodifiableSet(allKnown);
+            allKnownImplementors.putIfAbsent(interfaceName, result);
         }
-        return allKnown;
+        return result;
     }
 
-    private void getKnownImplementors(DotName name, Set<ClassInfo> allKnown, Set<DotName> subInterfacesToProcess,
+    private static void getKnownImplementors(Hierarchy hierarchy, DotName name, Set<ClassInfo> allKnown, Set<DotName> subInterfacesToProcess,
             Set<DotName> processedClasses) {
-        for (Index index : indexes) {
-            final List<ClassInfo> list = index.getKnownDirectImplementors(name);
-            if (list != null) {
-                for (final ClassInfo clazz : list) {
-                    final DotName className = clazz.name();
-                    if (!processedClasses.contains(className)) {
-                        if (Modifier.isInterface(clazz.flags())) {
-                            subInterfacesToProcess.add(className);
-                        } else {
-                            if (!allKnown.contains(clazz)) {
-                                allKnown.add(clazz);
-                                processedClasses.add(className);
-                                getAllKnownSubClasses(className, allKnown, processedClasses);
-                            }
-                        }
+        for (final ClassInfo clazz : hierarchy.getDirectImplementors(name)) {
+            final DotName className = clazz.name();
+            if (!processedClasses.contains(className)) {
+                if (Modifier.isInterface(clazz.flags())) {
+                    subInterfacesToProcess.add(className);
+                } else {
+                    if (!allKnown.contains(clazz)) {
+                        allKnown.add(clazz);
+                        processedClasses.add(className);
+                        getAllKnownSubClasses(hierarchy, className, allKnown, processedClasses);
                     }
                 }
             }
@@ -191,26 +196,91 @@ public class CompositeIndex {
      * @see {@link Index#getClassByName(org.jboss.jandex.DotName)}
      */
     public ClassInfo getClassByName(final DotName className) {
-        for (Index index : indexes) {
-            final ClassInfo info = index.getClassByName(className);
-            if (info != null) {
-                return info;
-            }
-        }
-        return null;
+        return getHierarchy().classes.get(className);
     }
 
     /**
      * @see {@link org.jboss.jandex.Index#getKnownClasses()}
      */
     public Collection<ClassInfo> getKnownClasses() {
-        final List<ClassInfo> allKnown = new ArrayList<ClassInfo>();
-        for (Index index : indexes) {
-            final Collection<ClassInfo> list = index.getKnownClasses();
-            if (list != null) {
-                allKnown.addAll(list);
+        return getHierarchy().knownClasses;
+    }
+
+    private Hierarchy getHierarchy() {
+        Hierarchy hierarchy = this.hierarchy;
+        if (hierarchy == null) {
+            synchronized (this) {
+                hierarchy = this.hierarchy;
+                if (hierarchy == null) {
+                    this.hierarchy = hierarchy = new Hierarchy(indexes);
+                }
+            }
+        }
+        return hierarchy;
+    }
+
+    /**
+     * The classes of all the indexes, and their direct subclasses and implementors, merged into single maps. These are
+     * derived from each class's super class and interfaces, the same way {@link org.jboss.jandex.Indexer} derives them
+     * for a single index.
+     */
+    private static final class Hierarchy {
+        private final Collection<ClassInfo> knownClasses;
+        private final Map<DotName, ClassInfo> classes = new HashMap<DotName, ClassInfo>();
+        private final Map<DotName, Set<ClassInfo>> subclasses = new HashMap<DotName, Set<ClassInfo>>();
+        private final Map<DotName, Set<ClassInfo>> implementors = new HashMap<DotName, Set<ClassInfo>>();
+
+        Hierarchy(final Collection<Index> indexes) {
+            final List<ClassInfo> allKnown = new ArrayList<ClassInfo>();
+            for (Index index : indexes) {
+                final Collection<ClassInfo> list = index.getKnownClasses();
+                if (list != null) {
+                    allKnown.addAll(list);
+                }
+            }
+            knownClasses = Collections.unmodifiableCollection(allKnown);
+            for (ClassInfo clazz : allKnown) {
+                // the first index that knows a class wins
+                if (!classes.containsKey(clazz.name())) {
+                    classes.put(clazz.name(), clazz);
+                }
+                if (clazz.superName() != null) {
+                    add(subclasses, clazz.superName(), clazz);
+                }
+                final DotName[] interfaces = clazz.interfaces();
+                if (interfaces != null) {
+                    for (DotName iface : interfaces) {
+                        add(implementors, iface, clazz);
+                    }
+                }
+            }
+            seal(subclasses);
+            seal(implementors);
+        }
+
+        Set<ClassInfo> getDirectSubclasses(final DotName name) {
+            final Set<ClassInfo> set = subclasses.get(name);
+            return set == null ? Collections.<ClassInfo>emptySet() : set;
+        }
+
+        Set<ClassInfo> getDirectImplementors(final DotName name) {
+            final Set<ClassInfo> set = implementors.get(name);
+            return set == null ? Collections.<ClassInfo>emptySet() : set;
+        }
+
+        private static void add(final Map<DotName, Set<ClassInfo>> map, final DotName name, final ClassInfo clazz) {
+            Set<ClassInfo> set = map.get(name);
+            if (set == null) {
+                set = new HashSet<ClassInfo>();
+                map.put(name, set);
+            }
+            set.add(clazz);
+        }
+
+        private static void seal(final Map<DotName, Set<ClassInfo>> map) {
+            for (Map.Entry<DotName, Set<ClassInfo>> entry : map.entrySet()) {
+                entry.setValue(Collections.unmodifiableSet(entry.getValue()));
             }
         }
-        return Collections.unmodifiableCollection(allKnown);
     }
 }
@@ -23,16 +23,19 @@
 package org.jboss.as.server.deployment.reflect;
 
 import java.security.Permission;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * A reflection index for a deployment.
+ * <p/>
+ * The indexes of the deployment's own classes are kept by this index. The indexes of classes that do not belong to
+ * a deployment, such as {@code java.lang.Object}, are shared by all deployments.
  *
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
  */
 public final class DeploymentReflectionIndex {
-    private final Map<Class<?>, ClassReflectionIndex<?>> classes = new HashMap<Class<?>, ClassReflectionIndex<?>>();
+    private final ConcurrentMap<Class<?>, ClassReflectionIndex<?>> classes = new ConcurrentHashMap<Class<?>, ClassReflectionIndex<?>>();
 
     DeploymentReflectionIndex() {
     }
@@ -59,11 +62,20 @@ public final class DeploymentReflectionIndex {
      * @return the index
      */
     @SuppressWarnings({"unchecked"})
-    public synchronized <T> ClassReflectionIndex<T> getClassIndex(Class<T> clazz) {
+    public <T> ClassReflectionIndex<T> getClassIndex(Class<T> clazz) {
         try {
             ClassReflectionIndex<T> index = (ClassReflectionIndex<T>) classes.get(clazz);
             if (index == null) {
-                classes.put(clazz, index = new ClassReflectionIndex<T>(clazz, this));
+                if (SharedReflectionIndex.isShared(clazz)) {
+                    index = SharedReflectionIndex.INSTANCE.getClassIndex(clazz);
+                } else {
+                    index = new ClassReflectionIndex<T>(clazz, this);
+                }
+                // remember shared indexes too, so the deployment keeps them while it needs them
+                final ClassReflectionIndex<T> existing = (ClassReflectionIndex<T>) classes.putIfAbsent(clazz, index);
+                if (existing != null) {
+                    index = existing;
+                }
             }
             return index;
         } catch (Throwable e) {
@@ -0,0 +1,144 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.reflect;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jboss.as.server.moduleservice.ServiceModuleLoader;
+import org.jboss.modules.ModuleClassLoader;
+
+/**
+ * The server-wide tier of the reflection index, holding the indexes of classes that are not part of any deployment,
+ * such as JDK classes and classes from static modules. These are the same for every deployment, so they are built
+ * once and shared.
+ * <p/>
+ * Classes are held weakly and their indexes softly. An index refers to its class, so while the index is softly
+ * reachable it keeps the class, and its class loader, from being collected; only once the collector clears the
+ * index under memory pressure can the class go, and its entry with it. This is acceptable because the shared classes
+ * come only from the boot class loader and from static modules, which are not unloaded while the server runs;
+ * classes of deployments, whose modules are, never enter this tier.
+ */
+final class SharedReflectionIndex {
+
+    static final SharedReflectionIndex INSTANCE = new SharedReflectionIndex();
+
+    private final ConcurrentMap<Object, Reference<ClassReflectionIndex<?>>> indexes = new ConcurrentHashMap<Object, Reference<ClassReflectionIndex<?>>>();
+    private final ReferenceQueue<Class<?>> queue = new ReferenceQueue<Class<?>>();
+
+    private SharedReflectionIndex() {
+    }
+
+    /**
+     * Determine whether a class belongs in the shared tier, i.e. whether it was not loaded by a deployment. Classes
+     * from class loaders other than module class loaders are not shared, as nothing is known about their lifecycle.
+     *
+     * @param clazz the class
+     * @return {@code true} if the class index may be shared between deployments
+     */
+    static boolean isShared(final Class<?> clazz) {
+        final ClassLoader classLoader = SecurityActions.getClassLoader(clazz);
+        if (classLoader == null) {
+            return true;
+        }
+        if (classLoader instanceof ModuleClassLoader) {
+            final String name = ((ModuleClassLoader) classLoader).getModule().getIdentifier().getName();
+            return !name.startsWith(ServiceModuleLoader.MODULE_PREFIX);
+        }
+        return false;
+    }
+
+    @SuppressWarnings({"unchecked"})
+    <T> ClassReflectionIndex<T> getClassIndex(final Class<T> clazz) {
+        expunge();
+        final Reference<ClassReflectionIndex<?>> reference = indexes.get(new LookupKey(clazz));
+        ClassReflectionIndex<T> index = reference == null ? null : (ClassReflectionIndex<T>) reference.get();
+        if (index == null) {
+            // another thread may build the same index at the same time; either result will do
+            index = new ClassReflectionIndex<T>(clazz, null);
+            indexes.put(new ClassKey(clazz, queue), new SoftReference<ClassReflectionIndex<?>>(index));
+        }
+        return index;
+    }
+
+    private void expunge() {
+        Reference<? extends Class<?>> reference;
+        while ((reference = queue.poll()) != null) {
+            indexes.remove(reference);
+        }
+    }
+
+    /**
+     * A weak reference to a class, equal to any other key for the same class.
+     */
+    private static final class ClassKey extends WeakReference<Class<?>> {
+        private final int hashCode;
+
+        ClassKey(final Class<?> clazz, final ReferenceQueue<Class<?>> queue) {
+            super(clazz, queue);
+            hashCode = System.identityHashCode(clazz);
+        }
+
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+            final Class<?> clazz = get();
+            if (clazz == null) {
+                return false;
+            }
+            if (other instanceof ClassKey) {
+                return clazz == ((ClassKey) other).get();
+            }
+            return other instanceof LookupKey && clazz == ((LookupKey) other).clazz;
+        }
+
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * A key to look up the index of a class, which unlike a {@link ClassKey} does not register a reference with the
+     * collector on every lookup.
+     */
+    private static final class LookupKey {
+        private final Class<?> clazz;
+
+        LookupKey(final Class<?> clazz) {
+            this.clazz = clazz;
+        }
+
+        public boolean equals(final Object other) {
+            return other instanceof ClassKey ? other.equals(this) : other instanceof LookupKey && clazz == ((LookupKey) other).clazz;
+        }
+
+        public int hashCode() {
+            return System.identityHashCode(clazz);
+        }
+    }
+}
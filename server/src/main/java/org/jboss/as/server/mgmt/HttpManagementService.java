@@ -24,8 +24,11 @@ package org.jboss.as.server.mgmt;
 
 import java.net.BindException;
 import java.net.InetSocketAddress;
+import java.security.AccessController;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import org.jboss.as.controller.ControllerLogger;
 import org.jboss.as.controller.ModelController;
 import org.jboss.as.controller.client.ModelControllerClient;
 import org.jboss.as.domain.http.server.ManagementHttpServer;
@@ -39,15 +42,30 @@ import org.jboss.msc.service.StartContext;
 import org.jboss.msc.service.StartException;
 import org.jboss.msc.service.StopContext;
 import org.jboss.msc.value.InjectedValue;
+import org.jboss.threads.JBossThreadFactory;
 
 /**
  * A service which launches the domain HTTP API and serverManagement.
+ * <p>
+ * The HTTP server handles requests on a small pool of its own, sized by {@link #HTTP_THREADS_PROPERTY}, while the
+ * operations the requests submit run on the injected executor. As responses are written once an operation completes,
+ * a long running operation does not keep an HTTP thread from serving other requests.
  *
  * @author Jason T. Greene
  */
 public class HttpManagementService implements Service<HttpManagement> {
     public static final ServiceName SERVICE_NAME = ServiceName.JBOSS.append("serverManagement", "controller", "management", "http");
 
+    /**
+     * Name of the system property to set to the number of threads handling HTTP management requests.
+     */
+    public static final String HTTP_THREADS_PROPERTY = "jboss.management.http.threads";
+
+    /**
+     * The default number of threads handling HTTP management requests.
+     */
+    public static final int DEFAULT_HTTP_THREADS = 5;
+
     private final InjectedValue<ModelController> modelControllerValue = new InjectedValue<ModelController>();
     private final InjectedValue<NetworkInterfaceBinding> interfaceBindingValue = new InjectedValue<NetworkInterfaceBinding>();
     private final InjectedValue<Integer> portValue = new InjectedValue<Integer>();
@@ -57,6 +75,7 @@ public class HttpManagementService implements Service<HttpManagement> {
     private final InjectedValue<SecurityRealmService> securityRealmServiceValue = new InjectedValue<SecurityRealmService>();
     private ManagementHttpServer serverManagement;
     private ModelControllerClient modelControllerClient;
+    private ExecutorService httpExecutor;
 
     private HttpManagement httpManagement = new HttpManagement() {
         public int getPort() {
@@ -98,7 +117,9 @@ public class HttpManagementService implements Service<HttpManagement> {
         final SecurityRealmService securityRealmService = securityRealmServiceValue.getOptionalValue();
 
         try {
-            serverManagement = ManagementHttpServer.create(bindAddress, secureBindAddress, 50, modelControllerClient, executorService, securityRealmService);
+            httpExecutor = Executors.newFixedThreadPool(getHttpThreads(), new JBossThreadFactory(new ThreadGroup("HttpManagementService-request-threads"),
+                    Boolean.FALSE, null, "%G - %t", null, null, AccessController.getContext()));
+            serverManagement = ManagementHttpServer.create(bindAddress, secureBindAddress, 50, modelControllerClient, httpExecutor, securityRealmService);
             serverManagement.start();
         } catch (BindException e) {
             final StringBuilder sb = new StringBuilder().append(e.getMessage());
@@ -121,6 +142,26 @@ public class HttpManagementService implements Service<HttpManagement> {
         if (serverManagement != null) {
             serverManagement.stop();
         }
+        if (httpExecutor != null) {
+            httpExecutor.shutdown();
+            httpExecutor = null;
+        }
+    }
+
+    private static int getHttpThreads() {
+        final String threads = SecurityActions.getSystemProperty(HTTP_THREADS_PROPERTY);
+        if (threads != null && threads.length() > 0) {
+            try {
+                final int value = Integer.decode(threads);
+                if (value > 0) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                // fall through to the default
+            }
+            ControllerLogger.ROOT_LOGGER.invalidSystemPropertyValue(threads, HTTP_THREADS_PROPERTY, DEFAULT_HTTP_THREADS);
+        }
+        return DEFAULT_HTTP_THREADS;
     }
 
     /**
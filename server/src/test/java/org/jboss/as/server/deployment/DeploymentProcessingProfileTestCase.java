@@ -0,0 +1,87 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.List;
+
+import org.jboss.dmr.ModelNode;
+import org.jboss.dmr.Property;
+import org.junit.Test;
+
+public class DeploymentProcessingProfileTestCase {
+
+    @Test
+    public void testProcessorTimesAddUpPerPhase() {
+        final DeploymentProcessingProfile profile = new DeploymentProcessingProfile();
+        profile.startPhase(Phase.PARSE);
+        profile.recordProcessor(Phase.PARSE, new FirstProcessor(), 10);
+        profile.recordProcessor(Phase.PARSE, new SecondProcessor(), 5);
+        profile.recordProcessor(Phase.PARSE, new FirstProcessor(), 7);
+        profile.startPhase(Phase.INSTALL);
+        profile.recordProcessor(Phase.INSTALL, new SecondProcessor(), 3);
+
+        final ModelNode node = profile.toModelNode();
+        final List<Property> phases = node.asPropertyList();
+        assertEquals(2, phases.size());
+        assertEquals(Phase.PARSE.name(), phases.get(0).getName());
+        assertEquals(Phase.INSTALL.name(), phases.get(1).getName());
+
+        final ModelNode parse = node.get(Phase.PARSE.name());
+        assertEquals(22, parse.get(DeploymentProcessingProfile.TIME).asLong());
+        final List<Property> processors = parse.get(DeploymentProcessingProfile.PROCESSORS).asPropertyList();
+        assertEquals(2, processors.size());
+        assertEquals(FirstProcessor.class.getName(), processors.get(0).getName());
+        assertEquals(17, processors.get(0).getValue().asLong());
+        assertEquals(SecondProcessor.class.getName(), processors.get(1).getName());
+        assertEquals(5, processors.get(1).getValue().asLong());
+
+        assertEquals(3, node.get(Phase.INSTALL.name(), DeploymentProcessingProfile.TIME).asLong());
+    }
+
+    @Test
+    public void testRestartedPhaseIsRecordedAfresh() {
+        final DeploymentProcessingProfile profile = new DeploymentProcessingProfile();
+        profile.startPhase(Phase.POST_MODULE);
+        profile.recordProcessor(Phase.POST_MODULE, new FirstProcessor(), 100);
+        profile.startPhase(Phase.POST_MODULE);
+        profile.recordProcessor(Phase.POST_MODULE, new SecondProcessor(), 1);
+
+        final ModelNode phase = profile.toModelNode().get(Phase.POST_MODULE.name());
+        assertEquals(1, phase.get(DeploymentProcessingProfile.TIME).asLong());
+        assertFalse(phase.get(DeploymentProcessingProfile.PROCESSORS).has(FirstProcessor.class.getName()));
+    }
+
+    private static class FirstProcessor implements DeploymentUnitProcessor {
+        public void deploy(final DeploymentPhaseContext phaseContext) {
+        }
+
+        public void undeploy(final DeploymentUnit context) {
+        }
+    }
+
+    private static class SecondProcessor extends FirstProcessor {
+    }
+}
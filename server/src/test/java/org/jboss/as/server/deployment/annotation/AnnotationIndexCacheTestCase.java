@@ -0,0 +1,160 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import org.jboss.as.server.deployment.repository.api.ContentRepository;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.Indexer;
+import org.jboss.vfs.VirtualFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of {@link AnnotationIndexCache}.
+ */
+public class AnnotationIndexCacheTestCase {
+
+    private static final byte[] HASH = {1, 2, 3, 4};
+    private static final byte[] OTHER_HASH = {5, 6, 7, 8};
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("annotation-index", "");
+        directory.delete();
+    }
+
+    @After
+    public void tearDown() {
+        delete(directory);
+    }
+
+    @Test
+    public void testStoreAndLoad() throws Exception {
+        AnnotationIndexCache cache = new AnnotationIndexCache(directory);
+        assertNull(cache.get(HASH, "lib/a.jar"));
+        assertEquals(1, cache.getMisses());
+
+        cache.put(HASH, "lib/a.jar", createIndex());
+
+        // a new instance reads what the previous one stored, as after a restart
+        cache = new AnnotationIndexCache(directory);
+        Index index = cache.get(HASH, "lib/a.jar");
+        assertNotNull(index);
+        assertNotNull(index.getClassByName(DotName.createSimple(AnnotationIndexCacheTestCase.class.getName())));
+        assertEquals(1, cache.getHits());
+
+        assertNull(cache.get(HASH, "lib/b.jar"));
+        assertNull(cache.get(OTHER_HASH, "lib/a.jar"));
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.toModelNode().get("hits").asLong());
+    }
+
+    @Test
+    public void testCorruptIndexIsMiss() throws Exception {
+        AnnotationIndexCache cache = new AnnotationIndexCache(directory);
+        cache.put(HASH, "", createIndex());
+        File[] files = new File(directory, "01020304").listFiles();
+        assertEquals(1, files.length);
+        FileOutputStream out = new FileOutputStream(files[0]);
+        out.write(new byte[] {1, 2, 3});
+        out.close();
+
+        assertNull(cache.get(HASH, ""));
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testPrune() throws Exception {
+        AnnotationIndexCache cache = new AnnotationIndexCache(directory);
+        cache.put(HASH, "", createIndex());
+        cache.put(OTHER_HASH, "", createIndex());
+
+        cache.prune(new TestContentRepository(HASH));
+
+        assertTrue(new File(directory, "01020304").exists());
+        assertFalse(new File(directory, "05060708").exists());
+        assertNotNull(cache.get(HASH, ""));
+    }
+
+    private static Index createIndex() throws IOException {
+        Indexer indexer = new Indexer();
+        InputStream in = AnnotationIndexCacheTestCase.class.getResourceAsStream(AnnotationIndexCacheTestCase.class.getSimpleName() + ".class");
+        try {
+            indexer.index(in);
+        } finally {
+            in.close();
+        }
+        return indexer.complete();
+    }
+
+    private static void delete(final File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static class TestContentRepository implements ContentRepository {
+
+        private final byte[] hash;
+
+        TestContentRepository(final byte[] hash) {
+            this.hash = hash;
+        }
+
+        public byte[] addContent(InputStream stream) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        public VirtualFile getContent(byte[] hash) {
+            throw new UnsupportedOperationException();
+        }
+
+        public boolean hasContent(byte[] hash) {
+            return Arrays.equals(this.hash, hash);
+        }
+
+        public void removeContent(byte[] hash) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.server.deployment.annotation;
+
+import static org.jboss.as.server.deployment.annotation.AnnotationIndexProcessorTestCase.createJars;
+import static org.jboss.as.server.deployment.annotation.AnnotationIndexProcessorTestCase.deleteJars;
+import static org.jboss.as.server.deployment.annotation.AnnotationIndexProcessorTestCase.indexTasks;
+import static org.junit.Assert.assertEquals;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jboss.jandex.Index;
+import org.jboss.vfs.VirtualFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Compares indexing the resource roots of a synthetic EAR with 300 jars one after the other and in parallel. The
+ * numbers are only reported, as they depend on the machine. Run with {@code mvn test -Pbenchmarks}.
+ */
+public class AnnotationIndexProcessorBenchmark {
+
+    private static final int JARS = 300;
+    private static final int COPIES = 20;
+
+    private File directory;
+    private final List<Closeable> mounts = new ArrayList<Closeable>();
+    private final List<VirtualFile> roots = new ArrayList<VirtualFile>();
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = createJars(JARS, COPIES, mounts, roots);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        deleteJars(directory, mounts);
+    }
+
+    @Test
+    public void testParallelIndexing() throws Exception {
+        final List<Callable<Index>> tasks = indexTasks(roots);
+        // warm up
+        for (Callable<Index> task : tasks.subList(0, 20)) {
+            task.call();
+        }
+
+        long start = System.nanoTime();
+        for (Callable<Index> task : tasks) {
+            task.call();
+        }
+        long serial = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        final List<Index> indexes = AnnotationIndexProcessor.index(tasks, executor);
+        long parallel = System.nanoTime() - start;
+
+        assertEquals(JARS, indexes.size());
+        System.out.println(String.format("Indexed %d jars serially in %d ms and in parallel in %d ms", JARS, serial / 1000000,
+                parallel / 1000000));
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.jboss.as.server.deployment.module.TempFileProviderService;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.vfs.VFS;
+import org.jboss.vfs.VFSUtils;
+import org.jboss.vfs.VirtualFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests of indexing the resource roots of a synthetic EAR in parallel.
+ */
+public class AnnotationIndexProcessorTestCase {
+
+    private static final int JARS = 20;
+    private static final int COPIES = 2;
+    private static final Class<?>[] CLASSES = {AnnotationIndexProcessor.class, AnnotationIndexCache.class,
+            AnnotationIndexUtils.class, CompositeIndex.class, CompositeIndexProcessor.class, AnnotationIndexProcessorTestCase.class};
+
+    private File directory;
+    private final List<Closeable> mounts = new ArrayList<Closeable>();
+    private final List<VirtualFile> roots = new ArrayList<VirtualFile>();
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = createJars(JARS, COPIES, mounts, roots);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        deleteJars(directory, mounts);
+    }
+
+    @Test
+    public void testParallelIndexing() throws Exception {
+        final List<Index> indexes = AnnotationIndexProcessor.index(indexTasks(roots), executor);
+        assertIndexes(indexes);
+    }
+
+    @Test
+    public void testSerialIndexing() throws Exception {
+        assertIndexes(AnnotationIndexProcessor.index(indexTasks(roots), null));
+    }
+
+    @Test
+    public void testInterruptKept() throws Exception {
+        final Thread caller = Thread.currentThread();
+        final List<Callable<Index>> tasks = new ArrayList<Callable<Index>>();
+        for (int i = 0; i < 4; i++) {
+            tasks.add(new Callable<Index>() {
+                public Index call() throws Exception {
+                    // keep the caller waiting for the other workers
+                    if (Thread.currentThread() != caller) {
+                        Thread.sleep(50);
+                    }
+                    return null;
+                }
+            });
+        }
+        caller.interrupt();
+        try {
+            assertEquals(4, AnnotationIndexProcessor.index(tasks, executor).size());
+            assertTrue(caller.isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    private static void assertIndexes(final List<Index> indexes) {
+        assertEquals(JARS, indexes.size());
+        for (Index index : indexes) {
+            assertNotNull(index.getClassByName(DotName.createSimple(CompositeIndex.class.getName())));
+        }
+    }
+
+    /**
+     * Write jars of copies of a few classes to a new directory and mount them.
+     *
+     * @return the directory
+     */
+    static File createJars(final int jars, final int copies, final List<Closeable> mounts, final List<VirtualFile> roots) throws IOException {
+        final File directory = File.createTempFile("ear", "");
+        directory.delete();
+        directory.mkdirs();
+
+        final List<byte[]> classes = new ArrayList<byte[]>();
+        for (Class<?> clazz : CLASSES) {
+            classes.add(readClass(clazz));
+        }
+        for (int i = 0; i < jars; i++) {
+            final File jar = new File(directory, "lib-" + i + ".jar");
+            final JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+            try {
+                for (int j = 0; j < copies; j++) {
+                    for (int k = 0; k < CLASSES.length; k++) {
+                        out.putNextEntry(new JarEntry("copy" + j + "/" + CLASSES[k].getName().replace('.', '/') + ".class"));
+                        out.write(classes.get(k));
+                        out.closeEntry();
+                    }
+                }
+            } finally {
+                out.close();
+            }
+            final VirtualFile root = VFS.getChild(jar.getAbsolutePath());
+            mounts.add(VFS.mountZip(root, root, TempFileProviderService.provider()));
+            roots.add(root);
+        }
+        return directory;
+    }
+
+    static void deleteJars(final File directory, final List<Closeable> mounts) {
+        for (Closeable mount : mounts) {
+            VFSUtils.safeClose(mount);
+        }
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    static List<Callable<Index>> indexTasks(final List<VirtualFile> roots) {
+        final List<Callable<Index>> tasks = new ArrayList<Callable<Index>>();
+        for (final VirtualFile root : roots) {
+            tasks.add(new Callable<Index>() {
+                public Index call() throws Exception {
+                    return AnnotationIndexProcessor.createIndex(root, null);
+                }
+            });
+        }
+        return tasks;
+    }
+
+    private static byte[] readClass(final Class<?> clazz) throws IOException {
+        final InputStream in = clazz.getResourceAsStream(clazz.getSimpleName() + ".class");
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.Index;
+import org.jboss.jandex.Indexer;
+import org.junit.Test;
+
+/**
+ * Tests of the hierarchy queries of {@link CompositeIndex} over several indexes.
+ */
+public class CompositeIndexTestCase {
+
+    interface Top {
+    }
+
+    interface Middle extends Top {
+    }
+
+    static class Implementor implements Middle {
+    }
+
+    @Deprecated
+    static class Subclass extends Implementor {
+    }
+
+    @Deprecated
+    static class SubSubclass extends Subclass {
+    }
+
+    static class Unrelated {
+    }
+
+    private static final DotName DEPRECATED = DotName.createSimple(Deprecated.class.getName());
+
+    @Test
+    public void testHierarchyAcrossIndexes() throws Exception {
+        CompositeIndex index = createIndex();
+
+        assertEquals(names(Implementor.class, Subclass.class, SubSubclass.class), names(index.getAllKnownImplementors(name(Top.class))));
+        assertEquals(names(Implementor.class, Subclass.class, SubSubclass.class), names(index.getAllKnownImplementors(name(Middle.class))));
+        assertEquals(names(Subclass.class, SubSubclass.class), names(index.getAllKnownSubclasses(name(Implementor.class))));
+        assertEquals(names(Subclass.class), names(index.getKnownDirectSubclasses(name(Implementor.class))));
+        assertEquals(names(Middle.class), names(index.getKnownDirectImplementors(name(Top.class))));
+        assertEquals(names(), names(index.getAllKnownSubclasses(name(Unrelated.class))));
+
+        assertEquals(name(Subclass.class), index.getClassByName(name(Subclass.class)).name());
+        assertNull(index.getClassByName(DotName.createSimple("does.not.Exist")));
+        assertEquals(6, index.getKnownClasses().size());
+        assertEquals(2, index.getAnnotations(DEPRECATED).size());
+    }
+
+    @Test
+    public void testResultsAreRemembered() throws Exception {
+        CompositeIndex index = createIndex();
+
+        assertSame(index.getAllKnownSubclasses(name(Implementor.class)), index.getAllKnownSubclasses(name(Implementor.class)));
+        assertSame(index.getAllKnownImplementors(name(Top.class)), index.getAllKnownImplementors(name(Top.class)));
+        assertSame(index.getAnnotations(DEPRECATED), index.getAnnotations(DEPRECATED));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testResultsAreUnmodifiable() throws Exception {
+        createIndex().getAllKnownSubclasses(name(Implementor.class)).clear();
+    }
+
+    private static CompositeIndex createIndex() throws IOException {
+        // spread the hierarchy over several indexes, as over the resource roots of a deployment
+        return new CompositeIndex(Arrays.asList(index(Top.class, Unrelated.class), index(Middle.class, SubSubclass.class),
+                index(Implementor.class), index(Subclass.class)));
+    }
+
+    private static Index index(final Class<?>... classes) throws IOException {
+        Indexer indexer = new Indexer();
+        for (Class<?> clazz : classes) {
+            InputStream in = clazz.getResourceAsStream(clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class");
+            try {
+                indexer.index(in);
+            } finally {
+                in.close();
+            }
+        }
+        return indexer.complete();
+    }
+
+    private static DotName name(final Class<?> clazz) {
+        return DotName.createSimple(clazz.getName());
+    }
+
+    private static Set<String> names(final Class<?>... classes) {
+        Set<String> names = new HashSet<String>();
+        for (Class<?> clazz : classes) {
+            names.add(clazz.getName());
+        }
+        return names;
+    }
+
+    private static Set<String> names(final Set<ClassInfo> classes) {
+        Set<String> names = new HashSet<String>();
+        for (ClassInfo clazz : classes) {
+            names.add(clazz.name().toString());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.jboss.as.server.deployment.reflect;
+
+import static org.jboss.as.server.deployment.reflect.DeploymentReflectionIndexTestCase.indexComponents;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Times indexing the class hierarchies of 2,000 components, and the heap their indexes retain. The numbers are only
+ * reported, as they depend on the machine. Run with {@code mvn test -Pbenchmarks}.
+ */
+public class DeploymentReflectionIndexBenchmark {
+
+    private static final int DEPLOYMENTS = 20;
+    private static final int COMPONENTS = 100;
+
+    @Test
+    public void testComponentBenchmark() {
+        // warm up
+        indexComponents(DEPLOYMENTS, COMPONENTS);
+
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long memory = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+        List<DeploymentReflectionIndex> deployments = indexComponents(DEPLOYMENTS, COMPONENTS);
+        long elapsed = System.nanoTime() - start;
+        System.gc();
+        memory = runtime.totalMemory() - runtime.freeMemory() - memory;
+
+        assertEquals(DEPLOYMENTS, deployments.size());
+        System.out.println(String.format("Indexed the class hierarchies of %d components in %d deployments in %d ms, retaining about %d KB",
+                DEPLOYMENTS * COMPONENTS, DEPLOYMENTS, elapsed / 1000000, memory / 1024));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.jboss.as.server.deployment.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Tests of the tiers of {@link DeploymentReflectionIndex}.
+ */
+public class DeploymentReflectionIndexTestCase {
+
+    public static class Component extends ArrayList<String> {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public static class SubComponent extends Component {
+        public void postConstruct() {
+        }
+    }
+
+    @Test
+    public void testSharedTier() {
+        assertTrue(SharedReflectionIndex.isShared(Object.class));
+        assertTrue(SharedReflectionIndex.isShared(int.class));
+        // not loaded by a module class loader, so not shared
+        assertFalse(SharedReflectionIndex.isShared(Component.class));
+
+        DeploymentReflectionIndex first = DeploymentReflectionIndex.create();
+        DeploymentReflectionIndex second = DeploymentReflectionIndex.create();
+        assertSame(first.getClassIndex(Object.class), second.getClassIndex(Object.class));
+        assertSame(first.getClassIndex(ArrayList.class), second.getClassIndex(ArrayList.class));
+        assertNotSame(first.getClassIndex(Component.class), second.getClassIndex(Component.class));
+        assertSame(first.getClassIndex(Component.class), first.getClassIndex(Component.class));
+        assertNotNull(first.getClassIndex(Component.class).getField("name"));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        final DeploymentReflectionIndex index = DeploymentReflectionIndex.create();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ClassReflectionIndex<SubComponent>>> futures = new ArrayList<Future<ClassReflectionIndex<SubComponent>>>();
+            for (int i = 0; i < 64; i++) {
+                futures.add(executor.submit(new Callable<ClassReflectionIndex<SubComponent>>() {
+                    public ClassReflectionIndex<SubComponent> call() {
+                        return index.getClassIndex(SubComponent.class);
+                    }
+                }));
+            }
+            ClassReflectionIndex<SubComponent> expected = index.getClassIndex(SubComponent.class);
+            for (Future<ClassReflectionIndex<SubComponent>> future : futures) {
+                assertSame(expected, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testIndexComponents() {
+        final List<DeploymentReflectionIndex> deployments = indexComponents(2, 10);
+        assertEquals(2, deployments.size());
+        // the shared tier serves every deployment
+        assertSame(deployments.get(0).getClassIndex(ArrayList.class), deployments.get(1).getClassIndex(ArrayList.class));
+    }
+
+    /**
+     * Index the class hierarchies of components the way the component processors do.
+     */
+    static List<DeploymentReflectionIndex> indexComponents(final int deploymentCount, final int components) {
+        List<DeploymentReflectionIndex> deployments = new ArrayList<DeploymentReflectionIndex>();
+        for (int i = 0; i < deploymentCount; i++) {
+            DeploymentReflectionIndex deployment = DeploymentReflectionIndex.create();
+            for (int j = 0; j < components; j++) {
+                // walk the hierarchy the way the component processors do
+                Class<?> clazz = j % 2 == 0 ? Component.class : SubComponent.class;
+                while (clazz != null) {
+                    deployment.getClassIndex(clazz).getMethods();
+                    clazz = clazz.getSuperclass();
+                }
+            }
+            deployments.add(deployment);
+        }
+        return deployments;
+    }
+}
@@ -739,6 +739,11 @@ public abstract class AbstractSubsystemTest {
             return null;
         }
 
+        @Override
+        public ModelNode getModelDescription(PathAddress address, Locale locale, boolean operations, boolean inheritedOperations, boolean recursive) {
+            return null;
+        }
+
         @Override
         public Map<String, OperationEntry> getOperationDescriptions(PathAddress address, boolean inherited) {
             return null;
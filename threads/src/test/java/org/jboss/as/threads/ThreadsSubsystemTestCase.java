@@ -962,6 +962,15 @@ public class ThreadsSubsystemTestCase {
             };
         }
 
+        @Override
+        public PersistenceResource store(final ModelNode model, final ModelNode operation, Set<PathAddress> affectedAddresses) throws ConfigurationPersistenceException {
+            return store(model, affectedAddresses);
+        }
+
+        @Override
+        public void flush() {
+        }
+
         @Override
         public void marshallAsXml(ModelNode model, OutputStream output) throws ConfigurationPersistenceException {
         }